@@ -0,0 +1,24 @@
+package io.odpf.firehose.config;
+
+public interface AdaptiveBatchConfig extends AppConfig {
+
+    @Key("SINK_ADAPTIVE_BATCH_ENABLE")
+    @DefaultValue("false")
+    boolean isSinkAdaptiveBatchEnable();
+
+    @Key("SINK_ADAPTIVE_BATCH_MIN_SIZE")
+    @DefaultValue("1")
+    int getSinkAdaptiveBatchMinSize();
+
+    @Key("SINK_ADAPTIVE_BATCH_MAX_SIZE")
+    @DefaultValue("500")
+    int getSinkAdaptiveBatchMaxSize();
+
+    @Key("SINK_ADAPTIVE_BATCH_TARGET_RESPONSE_TIME_MS")
+    @DefaultValue("1000")
+    long getSinkAdaptiveBatchTargetResponseTimeMs();
+
+    @Key("SINK_ADAPTIVE_BATCH_LAG_THRESHOLD_MS")
+    @DefaultValue("10000")
+    long getSinkAdaptiveBatchLagThresholdMs();
+}
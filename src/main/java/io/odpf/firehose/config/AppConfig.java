@@ -4,7 +4,9 @@ import io.odpf.firehose.config.converter.ProtoIndexToFieldMapConverter;
 import io.odpf.firehose.config.converter.SchemaRegistryHeadersConverter;
 import io.odpf.firehose.config.converter.SchemaRegistryRefreshConverter;
 import io.odpf.firehose.config.converter.SinkTypeConverter;
+import io.odpf.firehose.config.converter.SourceTypeConverter;
 import io.odpf.firehose.config.enums.SinkType;
+import io.odpf.firehose.config.enums.SourceType;
 import io.odpf.stencil.cache.SchemaRefreshStrategy;
 
 import org.aeonbits.owner.Config;
@@ -31,6 +33,11 @@ public interface AppConfig extends Config {
     @ConverterClass(SinkTypeConverter.class)
     SinkType getSinkType();
 
+    @Key("SOURCE_TYPE")
+    @ConverterClass(SourceTypeConverter.class)
+    @DefaultValue("KAFKA")
+    SourceType getSourceType();
+
     @Key("APPLICATION_THREAD_COUNT")
     @DefaultValue("1")
     Integer getApplicationThreadCount();
@@ -39,6 +46,14 @@ public interface AppConfig extends Config {
     @DefaultValue("2000")
     Integer getApplicationThreadCleanupDelay();
 
+    @Key("APPLICATION_THREAD_DRAIN_TIMEOUT_MS")
+    @DefaultValue("20000")
+    Integer getApplicationThreadDrainTimeoutMs();
+
+    @Key("APPLICATION_MEMORY_BUDGET_BYTES")
+    @DefaultValue("0")
+    Long getApplicationMemoryBudgetBytes();
+
     @Key("SCHEMA_REGISTRY_STENCIL_ENABLE")
     @DefaultValue("false")
     Boolean isSchemaRegistryStencilEnable();
@@ -83,6 +98,14 @@ public interface AppConfig extends Config {
     @ConverterClass(ProtoIndexToFieldMapConverter.class)
     Properties getInputSchemaProtoToColumnMapping();
 
+    @Key("INPUT_SCHEMA_PROTO_PROJECTION_ENABLE")
+    @DefaultValue("false")
+    boolean isInputSchemaProtoProjectionEnable();
+
+    @Key("INPUT_SCHEMA_PROTO_GENERATED_CLASS_ENABLE")
+    @DefaultValue("false")
+    boolean isInputSchemaProtoGeneratedClassEnable();
+
     @Key("KAFKA_RECORD_PARSER_MODE")
     @DefaultValue("message")
     String getKafkaRecordParserMode();
@@ -0,0 +1,21 @@
+package io.odpf.firehose.config;
+
+import org.aeonbits.owner.Config;
+
+public interface DedupConfig extends AppConfig {
+    @Config.Key("SINK_DEDUP_ENABLE")
+    @Config.DefaultValue("false")
+    boolean isSinkDedupEnable();
+
+    @Config.Key("SINK_DEDUP_KEY_FIELD")
+    @Config.DefaultValue("")
+    String getSinkDedupKeyField();
+
+    @Config.Key("SINK_DEDUP_MEMORY_BYTES")
+    @Config.DefaultValue("16777216")
+    long getSinkDedupMemoryBytes();
+
+    @Config.Key("SINK_DEDUP_FALSE_POSITIVE_RATE")
+    @Config.DefaultValue("0.0001")
+    double getSinkDedupFalsePositiveRate();
+}
@@ -0,0 +1,35 @@
+package io.odpf.firehose.config;
+
+import io.odpf.firehose.config.converter.FileSourceFormatConverter;
+import io.odpf.firehose.config.enums.FileSourceFormat;
+
+import java.util.List;
+
+public interface FileSourceConfig extends AppConfig {
+
+    @Key("SOURCE_FILE_PATHS")
+    @Separator(",")
+    @DefaultValue("")
+    List<String> getSourceFilePaths();
+
+    @Key("SOURCE_FILE_FORMAT")
+    @ConverterClass(FileSourceFormatConverter.class)
+    @DefaultValue("PROTO_DELIMITED")
+    FileSourceFormat getSourceFileFormat();
+
+    @Key("SOURCE_FILE_SPLITS_PER_FILE")
+    @DefaultValue("1")
+    Integer getSourceFileSplitsPerFile();
+
+    @Key("SOURCE_FILE_TOPIC")
+    @DefaultValue("file")
+    String getSourceFileTopic();
+
+    @Key("SOURCE_FILE_MAX_RECORDS")
+    @DefaultValue("500")
+    Integer getSourceFileMaxRecords();
+
+    @Key("SOURCE_FILE_CHECKPOINT_PATH")
+    @DefaultValue("/tmp/firehose/file-source-offsets.properties")
+    String getSourceFileCheckpointPath();
+}
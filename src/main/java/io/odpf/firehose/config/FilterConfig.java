@@ -32,4 +32,23 @@ public interface FilterConfig extends Config {
     @Key("FILTER_JSON_SCHEMA")
     String getFilterJsonSchema();
 
+    @Key("FILTER_JSON_SCHEMA_COMPILE_ENABLE")
+    @DefaultValue("false")
+    boolean isFilterJsonSchemaCompileEnable();
+
+    @Key("FILTER_PARALLEL_ENABLE")
+    @DefaultValue("false")
+    boolean isFilterParallelEnable();
+
+    @Key("FILTER_PARALLEL_THRESHOLD")
+    @DefaultValue("1000")
+    int getFilterParallelThreshold();
+
+    @Key("FILTER_PARALLEL_CHUNK_SIZE")
+    @DefaultValue("250")
+    int getFilterParallelChunkSize();
+
+    @Key("FILTER_PARALLEL_THREADS")
+    @DefaultValue("0")
+    int getFilterParallelThreads();
 }
@@ -15,6 +15,14 @@ public interface KafkaConsumerConfig extends AppConfig {
     @DefaultValue("true")
     boolean isSourceKafkaCommitOnlyCurrentPartitionsEnable();
 
+    @Key("SOURCE_KAFKA_COMMIT_INTERVAL_MS")
+    @DefaultValue("0")
+    long getSourceKafkaCommitIntervalMs();
+
+    @Key("SOURCE_KAFKA_COMMIT_INTERVAL_RECORDS")
+    @DefaultValue("0")
+    long getSourceKafkaCommitIntervalRecords();
+
     @Key("SOURCE_KAFKA_TOPIC")
     String getSourceKafkaTopic();
 
@@ -44,8 +52,32 @@ public interface KafkaConsumerConfig extends AppConfig {
     @DefaultValue("9223372036854775807")
     Long getSourceKafkaPollTimeoutMs();
 
+    @Key("SOURCE_KAFKA_PAUSED_POLL_TIMEOUT_MS")
+    @DefaultValue("100")
+    long getSourceKafkaPausedPollTimeoutMs();
+
     @Key("SOURCE_KAFKA_CONSUMER_MODE")
     @ConverterClass(ConsumerModeConverter.class)
     @DefaultValue("SYNC")
     KafkaConsumerMode getSourceKafkaConsumerMode();
+
+    @Key("SOURCE_KAFKA_BACKFILL_ENABLE")
+    @DefaultValue("false")
+    boolean isSourceKafkaBackfillEnable();
+
+    @Key("SOURCE_KAFKA_BACKFILL_START_TIMESTAMP_MS")
+    @DefaultValue("0")
+    long getSourceKafkaBackfillStartTimestampMs();
+
+    @Key("SOURCE_KAFKA_BACKFILL_END_TIMESTAMP_MS")
+    @DefaultValue("0")
+    long getSourceKafkaBackfillEndTimestampMs();
+
+    @Key("SOURCE_KAFKA_CONSUMER_COOPERATIVE_REBALANCE_ENABLE")
+    @DefaultValue("false")
+    boolean isSourceKafkaConsumerCooperativeRebalanceEnable();
+
+    @Key("SOURCE_KAFKA_CONSUMER_PREFETCH_ENABLE")
+    @DefaultValue("false")
+    boolean isSourceKafkaConsumerPrefetchEnable();
 }
@@ -0,0 +1,17 @@
+package io.odpf.firehose.config;
+
+import org.aeonbits.owner.Config;
+
+public interface SinkLingerConfig extends AppConfig {
+    @Config.Key("SINK_LINGER_MS")
+    @Config.DefaultValue("0")
+    long getSinkLingerMs();
+
+    @Config.Key("SINK_LINGER_MAX_RECORDS")
+    @Config.DefaultValue("500")
+    int getSinkLingerMaxRecords();
+
+    @Config.Key("SINK_LINGER_MAX_BYTES")
+    @Config.DefaultValue("5242880")
+    long getSinkLingerMaxBytes();
+}
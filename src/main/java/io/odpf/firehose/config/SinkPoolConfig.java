@@ -10,4 +10,20 @@ public interface SinkPoolConfig extends AppConfig {
     @Config.Key("SINK_POOL_QUEUE_POLL_TIMEOUT_MS")
     @Config.DefaultValue("1000")
     int getSinkPoolQueuePollTimeoutMS();
+
+    @Config.Key("SINK_POOL_PARTITION_AFFINITY_ENABLE")
+    @Config.DefaultValue("false")
+    boolean isSinkPoolPartitionAffinityEnable();
+
+    @Config.Key("SINK_POOL_WORKER_QUEUE_SIZE")
+    @Config.DefaultValue("2")
+    int getSinkPoolWorkerQueueSize();
+
+    @Config.Key("SINK_POOL_KEY_AFFINITY_ENABLE")
+    @Config.DefaultValue("false")
+    boolean isSinkPoolKeyAffinityEnable();
+
+    @Config.Key("SINK_POOL_KEY_AFFINITY_FIELD")
+    @Config.DefaultValue("")
+    String getSinkPoolKeyAffinityField();
 }
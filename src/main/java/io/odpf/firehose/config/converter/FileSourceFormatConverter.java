@@ -0,0 +1,13 @@
+package io.odpf.firehose.config.converter;
+
+import io.odpf.firehose.config.enums.FileSourceFormat;
+import org.aeonbits.owner.Converter;
+
+import java.lang.reflect.Method;
+
+public class FileSourceFormatConverter implements Converter<FileSourceFormat> {
+    @Override
+    public FileSourceFormat convert(Method method, String input) {
+        return FileSourceFormat.valueOf(input.toUpperCase());
+    }
+}
@@ -0,0 +1,13 @@
+package io.odpf.firehose.config.converter;
+
+import io.odpf.firehose.config.enums.SourceType;
+import org.aeonbits.owner.Converter;
+
+import java.lang.reflect.Method;
+
+public class SourceTypeConverter implements Converter<SourceType> {
+    @Override
+    public SourceType convert(Method method, String input) {
+        return SourceType.valueOf(input.toUpperCase());
+    }
+}
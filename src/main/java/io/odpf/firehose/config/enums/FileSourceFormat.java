@@ -0,0 +1,7 @@
+package io.odpf.firehose.config.enums;
+
+public enum FileSourceFormat {
+    PROTO_DELIMITED,
+    NDJSON,
+    BLOB_DLQ
+}
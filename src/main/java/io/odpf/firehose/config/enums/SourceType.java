@@ -0,0 +1,6 @@
+package io.odpf.firehose.config.enums;
+
+public enum SourceType {
+    KAFKA,
+    FILE
+}
@@ -1,74 +1,239 @@
 package io.odpf.firehose.consumer;
 
 import io.odpf.firehose.consumer.kafka.ConsumerAndOffsetManager;
+import io.odpf.firehose.consumer.kafka.PartitionDrainer;
 import io.odpf.firehose.exception.FirehoseConsumerFailedException;
 import io.odpf.firehose.message.Message;
+import io.odpf.firehose.message.MessageBatch;
 import io.odpf.firehose.sink.SinkPool;
 import io.odpf.firehose.filter.FilterException;
-import io.odpf.firehose.filter.FilteredMessages;
 import io.odpf.firehose.metrics.Instrumentation;
 import io.odpf.firehose.tracer.SinkTracer;
 import io.opentracing.Span;
 import lombok.AllArgsConstructor;
+import org.apache.kafka.common.TopicPartition;
 
 import java.io.IOException;
 import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
 import java.util.concurrent.Future;
+import java.util.stream.Collectors;
 
+import static io.odpf.firehose.metrics.Metrics.SOURCE_KAFKA_DRAIN_TIME_MILLISECONDS;
 import static io.odpf.firehose.metrics.Metrics.SOURCE_KAFKA_PARTITIONS_PROCESS_TIME_MILLISECONDS;
 
+/**
+ * Firehose consumer reads messages from Generic consumer and pushes them to the sinks of the {@link SinkPool} in parallel.
+ * <p>
+ * Offsets of a batch are tracked as pending from the moment it is read until its sink task finishes,
+ * so filtered messages read later never make the batch committable before it is pushed.
+ * <p>
+ * When all the sinks are busy, the batches which could not be scheduled are kept aside and the assigned partitions are paused.
+ * The consumer keeps polling to stay in the group, and resumes the partitions once all the kept batches are scheduled.
+ * Nothing is committed while batches are kept aside, as a commit of the consumer position would cover them.
+ * On shutdown {@link #drain(long)} waits for the running and kept aside batches before the final commit.
+ * <p>
+ * When partitions are revoked, their kept aside messages are dropped and the running sink tasks are waited for,
+ * so the revoked partitions are committed up to the pushed messages, never past a dropped message. The work of retained partitions carries on.
+ * <p>
+ * The kept aside and running batches hold their bytes in the {@link MemoryBudget}, the partitions are paused while it is exhausted.
+ */
 @AllArgsConstructor
-public class FirehoseAsyncConsumer implements FirehoseConsumer {
+public class FirehoseAsyncConsumer implements FirehoseConsumer, PartitionDrainer {
     private final SinkPool sinkPool;
     private final SinkTracer tracer;
     private final ConsumerAndOffsetManager consumerAndOffsetManager;
     private final FirehoseFilter firehoseFilter;
     private final Instrumentation instrumentation;
+    private final MemoryBudget memoryBudget;
+    private final Queue<SinkBatch> pendingTasks = new ArrayDeque<>();
+    private final Map<Future<List<Message>>, SinkBatch> runningTasks = new HashMap<>();
+
+    public FirehoseAsyncConsumer(SinkPool sinkPool, SinkTracer tracer, ConsumerAndOffsetManager consumerAndOffsetManager, FirehoseFilter firehoseFilter, Instrumentation instrumentation) {
+        this(sinkPool, tracer, consumerAndOffsetManager, firehoseFilter, instrumentation, new MemoryBudget(0));
+    }
 
     @Override
     public void process() {
         Instant beforeCall = Instant.now();
         try {
-            List<Message> messages = consumerAndOffsetManager.readMessages();
-            List<Span> spans = tracer.startTrace(messages);
-            FilteredMessages filteredMessages = firehoseFilter.applyFilter(messages);
-            if (filteredMessages.sizeOfInvalidMessages() > 0) {
-                consumerAndOffsetManager.forceAddOffsetsAndSetCommittable(filteredMessages.getInvalidMessages());
+            MessageBatch messageBatch = consumerAndOffsetManager.readMessageBatch();
+            List<Span> spans = tracer.startTrace(messageBatch.getMessages());
+            firehoseFilter.applyFilter(messageBatch);
+            if (messageBatch.filteredCount() > 0) {
+                consumerAndOffsetManager.forceAddOffsetsAndSetCommittable(messageBatch.getFilteredMessages());
+            }
+            if (messageBatch.filteredCount() < messageBatch.size()) {
+                for (List<Message> taskMessages : sinkPool.split(messageBatch.getValidMessages())) {
+                    SinkBatch sinkBatch = new SinkBatch(taskMessages);
+                    consumerAndOffsetManager.forceAddOffsets(sinkBatch, taskMessages);
+                    pendingTasks.add(sinkBatch);
+                    memoryBudget.acquire(MemoryBudget.Stage.PENDING, sinkBatch.bytes);
+                }
             }
-            if (filteredMessages.sizeOfValidMessages() > 0) {
-                List<Message> validMessages = filteredMessages.getValidMessages();
-                Future<List<Message>> scheduledTask = scheduleTask(validMessages);
-                consumerAndOffsetManager.addOffsets(scheduledTask, validMessages);
+            scheduleTasks();
+            setFinishedTasksCommittable();
+            if (pendingTasks.isEmpty()) {
+                consumerAndOffsetManager.commit();
             }
-            sinkPool.fetchFinishedSinkTasks().forEach(consumerAndOffsetManager::setCommittable);
-            consumerAndOffsetManager.commit();
             tracer.finishTrace(spans);
         } catch (FilterException e) {
             throw new FirehoseConsumerFailedException(e);
         } finally {
+            memoryBudget.captureUsage(instrumentation);
             instrumentation.captureDurationSince(SOURCE_KAFKA_PARTITIONS_PROCESS_TIME_MILLISECONDS, beforeCall);
         }
     }
 
-    private Future<List<Message>> scheduleTask(List<Message> messages) {
-        while (true) {
-            Future<List<Message>> scheduledTask = sinkPool.submitTask(messages);
+    private void scheduleTasks() {
+        while (!pendingTasks.isEmpty()) {
+            SinkBatch sinkBatch = pendingTasks.peek();
+            Future<List<Message>> scheduledTask = sinkPool.submitTask(sinkBatch.messages);
             if (scheduledTask == null) {
-                instrumentation.logInfo("The Queue is full");
-                sinkPool.fetchFinishedSinkTasks().forEach(consumerAndOffsetManager::setCommittable);
+                instrumentation.logInfo("The Queue is full, pausing the consumer");
+                consumerAndOffsetManager.pause();
+                return;
+            }
+            instrumentation.logInfo("Adding sink task");
+            pendingTasks.remove();
+            memoryBudget.move(MemoryBudget.Stage.PENDING, MemoryBudget.Stage.SINK, sinkBatch.bytes);
+            runningTasks.put(scheduledTask, sinkBatch);
+        }
+        if (memoryBudget.isExhausted()) {
+            instrumentation.logInfo("The memory budget is exhausted, pausing the consumer");
+            consumerAndOffsetManager.pause();
+            return;
+        }
+        consumerAndOffsetManager.resume();
+    }
+
+    private void setFinishedTasksCommittable() {
+        sinkPool.fetchFinishedSinkTasks().forEach(finishedTask -> {
+            SinkBatch sinkBatch = runningTasks.remove(finishedTask);
+            if (sinkBatch != null) {
+                consumerAndOffsetManager.forceSetCommittable(sinkBatch);
+                memoryBudget.release(MemoryBudget.Stage.SINK, sinkBatch.bytes);
+            }
+        });
+    }
+
+    /**
+     * Schedules the batches kept aside and waits for all the sink tasks, then commits synchronously.
+     * If some batches are still pending at the deadline, only offsets tracked by the offset manager are committed,
+     * these stop before the first message of the batches still kept aside or running.
+     */
+    @Override
+    public void drain(long timeoutMillis) {
+        Instant drainStart = Instant.now();
+        long deadline = drainStart.toEpochMilli() + timeoutMillis;
+        try {
+            while (!pendingTasks.isEmpty() && System.currentTimeMillis() < deadline) {
+                scheduleTasks();
+            }
+            boolean isDrained = pendingTasks.isEmpty() && sinkPool.awaitRunningTasks(Math.max(0, deadline - System.currentTimeMillis()));
+            setFinishedTasksCommittable();
+            consumerAndOffsetManager.drainSinks(Math.max(0, deadline - System.currentTimeMillis()));
+            if (isDrained || consumerAndOffsetManager.canCommitWithPendingOffsets()) {
+                consumerAndOffsetManager.commitSync();
+            } else {
+                instrumentation.logWarn("Sink tasks did not finish within {} ms, skipping the final commit", timeoutMillis);
+            }
+            consumerAndOffsetManager.captureUncommittedMessages();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            instrumentation.logWarn("Interrupted while draining, skipping the final commit");
+        } finally {
+            instrumentation.captureDurationSince(SOURCE_KAFKA_DRAIN_TIME_MILLISECONDS, drainStart);
+        }
+    }
+
+    @Override
+    public void drainPartitions(Collection<TopicPartition> partitions, long timeoutMillis) {
+        dropPartitions(partitions);
+        try {
+            if (!sinkPool.awaitRunningTasks(timeoutMillis)) {
+                instrumentation.logWarn("Sink tasks did not finish within {} ms, revoked partitions {} are committed up to the finished tasks", timeoutMillis, partitions);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        setFinishedTasksCommittable();
+    }
+
+    /**
+     * Removes the messages of the partitions from the batches kept aside, these messages are consumed again by the new owner.
+     * Their offsets stay pending, so the offsets committed for the partitions stay below the first dropped message.
+     * The partitions are released from the sink pool.
+     */
+    @Override
+    public void dropPartitions(Collection<TopicPartition> partitions) {
+        sinkPool.releasePartitions(partitions);
+        if (pendingTasks.isEmpty()) {
+            return;
+        }
+        Set<TopicPartition> droppedPartitions = new HashSet<>(partitions);
+        List<SinkBatch> retainedTasks = new ArrayList<>(pendingTasks.size());
+        long droppedBytes = 0;
+        for (SinkBatch sinkBatch : pendingTasks) {
+            List<Message> retainedMessages = sinkBatch.messages.stream()
+                    .filter(message -> !droppedPartitions.contains(new TopicPartition(message.getTopic(), message.getPartition())))
+                    .collect(Collectors.toList());
+            long bytes = sinkBatch.bytes;
+            sinkBatch.setMessages(retainedMessages);
+            if (retainedMessages.isEmpty()) {
+                consumerAndOffsetManager.forceRemoveOffsets(sinkBatch);
             } else {
-                instrumentation.logInfo("Adding sink task");
-                return scheduledTask;
+                retainedTasks.add(sinkBatch);
             }
+            droppedBytes += bytes - sinkBatch.bytes;
         }
+        memoryBudget.release(MemoryBudget.Stage.PENDING, droppedBytes);
+        pendingTasks.clear();
+        pendingTasks.addAll(retainedTasks);
+    }
+
+    @Override
+    public void wakeup() {
+        consumerAndOffsetManager.wakeup();
+    }
+
+    @Override
+    public boolean isFinished() {
+        return consumerAndOffsetManager.isFinished();
     }
 
     @Override
     public void close() throws IOException {
+        pendingTasks.forEach(sinkBatch -> memoryBudget.release(MemoryBudget.Stage.PENDING, sinkBatch.bytes));
+        runningTasks.values().forEach(sinkBatch -> memoryBudget.release(MemoryBudget.Stage.SINK, sinkBatch.bytes));
         consumerAndOffsetManager.close();
         tracer.close();
         sinkPool.close();
         instrumentation.close();
     }
+
+    /**
+     * Messages pushed by one sink task, also the key of their offsets in the offset manager.
+     */
+    private static final class SinkBatch {
+        private List<Message> messages;
+        private long bytes;
+
+        SinkBatch(List<Message> messages) {
+            setMessages(messages);
+        }
+
+        void setMessages(List<Message> retainedMessages) {
+            this.messages = retainedMessages;
+            this.bytes = MemoryBudget.sizeOf(retainedMessages);
+        }
+    }
 }
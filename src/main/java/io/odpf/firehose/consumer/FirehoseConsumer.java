@@ -6,4 +6,29 @@ import java.io.IOException;
 public interface FirehoseConsumer extends Closeable {
 
     void process() throws IOException;
+
+    /**
+     * Called instead of {@link #process()} once the consumer is asked to stop.
+     * Stops reading, finishes the messages already read within the timeout and commits their offsets.
+     *
+     * @param timeoutMillis maximum time to wait for the messages already read
+     * @throws IOException if pushing the messages already read fails
+     */
+    void drain(long timeoutMillis) throws IOException;
+
+    /**
+     * Called from another thread once the consumer is asked to stop.
+     * A {@link #process()} blocked reading messages throws {@link org.apache.kafka.common.errors.WakeupException}.
+     */
+    void wakeup();
+
+    /**
+     * A bounded source, like a backfill, is finished once every message up to its end was read.
+     * The consumer is then drained and closed instead of processing further.
+     *
+     * @return true if there is nothing left to read
+     */
+    default boolean isFinished() {
+        return false;
+    }
 }
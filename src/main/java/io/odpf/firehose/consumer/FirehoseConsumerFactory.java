@@ -1,21 +1,36 @@
 package io.odpf.firehose.consumer;
 
+import com.google.common.hash.Funnels;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import io.jaegertracing.Configuration;
+import io.odpf.firehose.consumer.file.FileSource;
+import io.odpf.firehose.consumer.file.FirehoseFileConsumer;
+import io.odpf.firehose.consumer.kafka.BackfillPlan;
 import io.odpf.firehose.consumer.kafka.ConsumerAndOffsetManager;
 import io.odpf.firehose.consumer.kafka.FirehoseKafkaConsumer;
 import io.odpf.firehose.consumer.kafka.OffsetManager;
 import io.odpf.firehose.sink.SinkFactory;
 import io.odpf.firehose.utils.KafkaUtils;
+import io.odpf.firehose.config.AdaptiveBatchConfig;
 import io.odpf.firehose.config.AppConfig;
+import io.odpf.firehose.config.DedupConfig;
 import io.odpf.firehose.config.DlqConfig;
+import io.odpf.firehose.config.FileSourceConfig;
 import io.odpf.firehose.config.FilterConfig;
 import io.odpf.firehose.config.ErrorConfig;
 import io.odpf.firehose.config.KafkaConsumerConfig;
+import io.odpf.firehose.config.SinkLingerConfig;
 import io.odpf.firehose.config.SinkPoolConfig;
+import io.odpf.firehose.config.enums.FilterEngineType;
 import io.odpf.firehose.config.enums.KafkaConsumerMode;
+import io.odpf.firehose.config.enums.SourceType;
+import io.odpf.firehose.sink.KeyAffineSinkPool;
+import io.odpf.firehose.sink.PartitionAffineSinkPool;
+import io.odpf.firehose.sink.RoutingKeyExtractor;
 import io.odpf.firehose.sink.SinkPool;
 import io.odpf.firehose.filter.Filter;
 import io.odpf.firehose.filter.NoOpFilter;
+import io.odpf.firehose.filter.ParallelFilter;
 import io.odpf.firehose.filter.jexl.JexlFilter;
 import io.odpf.firehose.filter.json.JsonFilter;
 import io.odpf.firehose.filter.json.JsonFilterUtil;
@@ -25,15 +40,23 @@ import io.odpf.firehose.sink.Sink;
 import io.odpf.firehose.sink.log.KeyOrMessageParser;
 import io.odpf.firehose.sinkdecorator.BackOff;
 import io.odpf.firehose.sinkdecorator.BackOffProvider;
+import io.odpf.firehose.sinkdecorator.BatchSizeController;
+import io.odpf.firehose.sinkdecorator.DedupKeyExtractor;
 import io.odpf.firehose.error.ErrorHandler;
 import io.odpf.firehose.sinkdecorator.ExponentialBackOffProvider;
 import io.odpf.firehose.sinkdecorator.SinkFinal;
+import io.odpf.firehose.sinkdecorator.RotatingBloomFilter;
+import io.odpf.firehose.sinkdecorator.SinkWithAdaptiveBatch;
+import io.odpf.firehose.sinkdecorator.SinkWithDedup;
 import io.odpf.firehose.sinkdecorator.SinkWithDlq;
 import io.odpf.firehose.sinkdecorator.SinkWithFailHandler;
 import io.odpf.firehose.sinkdecorator.SinkWithRetry;
 import io.odpf.firehose.sink.dlq.DlqWriter;
 import io.odpf.firehose.sink.dlq.DlqWriterFactory;
 import io.odpf.firehose.tracer.SinkTracer;
+import io.odpf.firehose.utils.ParserCachingStencilClient;
+import io.odpf.firehose.utils.SharedResourceRegistry;
+import io.odpf.firehose.utils.SharedStencilClient;
 import io.odpf.firehose.utils.StencilUtils;
 import io.odpf.stencil.StencilClientFactory;
 import io.odpf.stencil.client.StencilClient;
@@ -41,12 +64,16 @@ import io.opentracing.Tracer;
 import io.opentracing.noop.NoopTracerFactory;
 import org.aeonbits.owner.ConfigFactory;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.LinkedBlockingQueue;
 
 /**
@@ -61,16 +88,19 @@ public class FirehoseConsumerFactory {
     private final Instrumentation instrumentation;
     private final KeyOrMessageParser parser;
     private final OffsetManager offsetManager = new OffsetManager();
+    private final SharedResourceRegistry sharedResourceRegistry;
 
     /**
      * Instantiates a new Firehose consumer factory.
      *
-     * @param kafkaConsumerConfig the kafka consumer config
-     * @param statsDReporter      the stats d reporter
+     * @param kafkaConsumerConfig    the kafka consumer config
+     * @param statsDReporter         the stats d reporter
+     * @param sharedResourceRegistry resources shared with the other consumer threads
      */
-    public FirehoseConsumerFactory(KafkaConsumerConfig kafkaConsumerConfig, StatsDReporter statsDReporter) {
+    public FirehoseConsumerFactory(KafkaConsumerConfig kafkaConsumerConfig, StatsDReporter statsDReporter, SharedResourceRegistry sharedResourceRegistry) {
         this.kafkaConsumerConfig = kafkaConsumerConfig;
         this.statsDReporter = statsDReporter;
+        this.sharedResourceRegistry = sharedResourceRegistry;
         instrumentation = new Instrumentation(this.statsDReporter, FirehoseConsumerFactory.class);
 
         String additionalConsumerConfig = String.format(""
@@ -81,9 +111,10 @@ public class FirehoseConsumerFactory {
         instrumentation.logDebug(additionalConsumerConfig);
 
         String stencilUrl = this.kafkaConsumerConfig.getSchemaRegistryStencilUrls();
-        stencilClient = this.kafkaConsumerConfig.isSchemaRegistryStencilEnable()
-                ? StencilClientFactory.getClient(stencilUrl, StencilUtils.getStencilConfig(kafkaConsumerConfig, statsDReporter.getClient()))
-                : StencilClientFactory.getClient();
+        stencilClient = new SharedStencilClient(sharedResourceRegistry.get("stencil-client", () ->
+                new ParserCachingStencilClient(this.kafkaConsumerConfig.isSchemaRegistryStencilEnable()
+                        ? StencilClientFactory.getClient(stencilUrl, StencilUtils.getStencilConfig(kafkaConsumerConfig, statsDReporter.getClient()))
+                        : StencilClientFactory.getClient())));
         parser = new KeyOrMessageParser(stencilClient.getParser(kafkaConsumerConfig.getInputSchemaProtoClass()), kafkaConsumerConfig);
     }
 
@@ -106,7 +137,26 @@ public class FirehoseConsumerFactory {
             default:
                 throw new IllegalArgumentException("Invalid filter engine type");
         }
-        return new FirehoseFilter(filter, new Instrumentation(statsDReporter, FirehoseFilter.class));
+        return new FirehoseFilter(withParallelism(filter, filterConfig), new Instrumentation(statsDReporter, FirehoseFilter.class));
+    }
+
+    /**
+     * to decode and filter large batches in chunks on a fork join pool shared by all consumer threads, based on the config.
+     *
+     * @param filter       filter applied to every chunk
+     * @param filterConfig the filter config
+     * @return filter running large batches in parallel
+     */
+    private Filter withParallelism(Filter filter, FilterConfig filterConfig) {
+        if (!filterConfig.isFilterParallelEnable() || filterConfig.getFilterEngine() == FilterEngineType.NO_OP) {
+            return filter;
+        }
+        ForkJoinPool pool = sharedResourceRegistry.get("filter-pool", () -> new ForkJoinPool(filterConfig.getFilterParallelThreads() > 0
+                ? filterConfig.getFilterParallelThreads()
+                : Runtime.getRuntime().availableProcessors()));
+        instrumentation.logInfo("Filtering batches of at least {} messages in chunks of {} on {} threads",
+                filterConfig.getFilterParallelThreshold(), filterConfig.getFilterParallelChunkSize(), pool.getParallelism());
+        return new ParallelFilter(filter, pool, filterConfig.getFilterParallelThreshold(), filterConfig.getFilterParallelChunkSize());
     }
 
     /**
@@ -121,20 +171,35 @@ public class FirehoseConsumerFactory {
         if (kafkaConsumerConfig.isTraceJaegarEnable()) {
             tracer = Configuration.fromEnv("Firehose" + ": " + kafkaConsumerConfig.getSourceKafkaConsumerGroupId()).getTracer();
         }
-        FirehoseKafkaConsumer firehoseKafkaConsumer = KafkaUtils.createConsumer(kafkaConsumerConfig, config, statsDReporter, tracer);
+        MemoryBudget memoryBudget = sharedResourceRegistry.get("memory-budget", () -> new MemoryBudget(kafkaConsumerConfig.getApplicationMemoryBudgetBytes()));
+        FirehoseKafkaConsumer firehoseKafkaConsumer;
+        if (kafkaConsumerConfig.getSourceType() == SourceType.FILE) {
+            firehoseKafkaConsumer = createFileConsumer();
+        } else if (kafkaConsumerConfig.isSourceKafkaBackfillEnable()) {
+            BackfillPlan backfillPlan = sharedResourceRegistry.get("backfill-plan", () -> KafkaUtils.createBackfillPlan(kafkaConsumerConfig, config));
+            firehoseKafkaConsumer = KafkaUtils.createBackfillConsumer(kafkaConsumerConfig, config, statsDReporter, tracer, backfillPlan);
+        } else {
+            firehoseKafkaConsumer = KafkaUtils.createConsumer(kafkaConsumerConfig, config, statsDReporter, tracer, offsetManager, memoryBudget);
+        }
         SinkTracer firehoseTracer = new SinkTracer(tracer, kafkaConsumerConfig.getSinkType().name() + " SINK",
                 kafkaConsumerConfig.isTraceJaegarEnable());
-        SinkFactory sinkFactory = new SinkFactory(kafkaConsumerConfig, statsDReporter, stencilClient, offsetManager);
+        SinkFactory sinkFactory = new SinkFactory(kafkaConsumerConfig, statsDReporter, stencilClient, offsetManager, sharedResourceRegistry);
         sinkFactory.init();
         if (kafkaConsumerConfig.getSourceKafkaConsumerMode().equals(KafkaConsumerMode.SYNC)) {
             Sink sink = createSink(tracer, sinkFactory);
+            SinkLingerConfig sinkLingerConfig = ConfigFactory.create(SinkLingerConfig.class, config);
             ConsumerAndOffsetManager consumerAndOffsetManager = new ConsumerAndOffsetManager(Collections.singletonList(sink), offsetManager, firehoseKafkaConsumer, kafkaConsumerConfig, new Instrumentation(statsDReporter, ConsumerAndOffsetManager.class));
             return new FirehoseSyncConsumer(
                     sink,
                     firehoseTracer,
                     consumerAndOffsetManager,
                     firehoseFilter,
-                    new Instrumentation(statsDReporter, FirehoseSyncConsumer.class));
+                    new Instrumentation(statsDReporter, FirehoseSyncConsumer.class),
+                    new MessageAccumulator(
+                            sinkLingerConfig.getSinkLingerMaxRecords(),
+                            sinkLingerConfig.getSinkLingerMaxBytes(),
+                            sinkLingerConfig.getSinkLingerMs()),
+                    memoryBudget);
         } else {
             SinkPoolConfig sinkPoolConfig = ConfigFactory.create(SinkPoolConfig.class, config);
             int nThreads = sinkPoolConfig.getSinkPoolNumThreads();
@@ -143,16 +208,58 @@ public class FirehoseConsumerFactory {
                 sinks.add(createSink(tracer, sinkFactory));
             }
             ConsumerAndOffsetManager consumerAndOffsetManager = new ConsumerAndOffsetManager(sinks, offsetManager, firehoseKafkaConsumer, kafkaConsumerConfig, new Instrumentation(statsDReporter, ConsumerAndOffsetManager.class));
-            SinkPool sinkPool = new SinkPool(
-                    new LinkedBlockingQueue<>(sinks),
-                    Executors.newCachedThreadPool(),
-                    sinkPoolConfig.getSinkPoolQueuePollTimeoutMS());
-            return new FirehoseAsyncConsumer(
+            ExecutorService sinkPoolExecutor = Executors.newFixedThreadPool(nThreads,
+                    new ThreadFactoryBuilder().setNameFormat("firehose-sink-pool-%d").build());
+            SinkPool sinkPool;
+            if (sinkPoolConfig.isSinkPoolKeyAffinityEnable()) {
+                sinkPool = new KeyAffineSinkPool(
+                        sinks,
+                        sinkPoolExecutor,
+                        sinkPoolConfig.getSinkPoolQueuePollTimeoutMS(),
+                        sinkPoolConfig.getSinkPoolWorkerQueueSize(),
+                        new RoutingKeyExtractor(parser, sinkPoolConfig.getSinkPoolKeyAffinityField()));
+            } else if (sinkPoolConfig.isSinkPoolPartitionAffinityEnable()) {
+                sinkPool = new PartitionAffineSinkPool(
+                        sinks,
+                        sinkPoolExecutor,
+                        sinkPoolConfig.getSinkPoolQueuePollTimeoutMS(),
+                        sinkPoolConfig.getSinkPoolWorkerQueueSize());
+            } else {
+                sinkPool = new SinkPool(
+                        new LinkedBlockingQueue<>(sinks),
+                        sinkPoolExecutor,
+                        sinkPoolConfig.getSinkPoolQueuePollTimeoutMS());
+            }
+            FirehoseAsyncConsumer firehoseAsyncConsumer = new FirehoseAsyncConsumer(
                     sinkPool,
                     firehoseTracer,
                     consumerAndOffsetManager,
                     firehoseFilter,
-                    new Instrumentation(statsDReporter, FirehoseAsyncConsumer.class));
+                    new Instrumentation(statsDReporter, FirehoseAsyncConsumer.class),
+                    memoryBudget);
+            firehoseKafkaConsumer.setPartitionDrainer(firehoseAsyncConsumer);
+            return firehoseAsyncConsumer;
+        }
+    }
+
+    /**
+     * to read the records of local files instead of kafka, the files are split once and shared by all consumer threads.
+     *
+     * @return consumer of the file splits claimed by this thread
+     */
+    private FirehoseKafkaConsumer createFileConsumer() {
+        FileSourceConfig fileSourceConfig = ConfigFactory.create(FileSourceConfig.class, config);
+        try {
+            FileSource fileSource = sharedResourceRegistry.get("file-source", () -> {
+                try {
+                    return new FileSource(fileSourceConfig);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            return new FirehoseFileConsumer(fileSource, fileSourceConfig, kafkaConsumerConfig, new Instrumentation(statsDReporter, FirehoseFileConsumer.class));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
     }
 
@@ -162,7 +269,48 @@ public class FirehoseConsumerFactory {
         Sink sinkWithFailHandler = new SinkWithFailHandler(baseSink, errorHandler);
         Sink sinkWithRetry = withRetry(sinkWithFailHandler, errorHandler);
         Sink sinWithDLQ = withDlq(sinkWithRetry, tracer, errorHandler);
-        return new SinkFinal(sinWithDLQ, new Instrumentation(statsDReporter, SinkFinal.class));
+        Sink sinkFinal = new SinkFinal(sinWithDLQ, new Instrumentation(statsDReporter, SinkFinal.class));
+        return withAdaptiveBatch(withDedup(sinkFinal));
+    }
+
+    /**
+     * to skip messages already pushed recently, based on the config.
+     * The filter of pushed messages is shared by all consumer threads, so a partition moving between them is still deduplicated.
+     *
+     * @param sink Sink to wrap with dedup decorator
+     * @return Sink with dedup decorator
+     */
+    private Sink withDedup(Sink sink) {
+        DedupConfig dedupConfig = ConfigFactory.create(DedupConfig.class, config);
+        if (!dedupConfig.isSinkDedupEnable()) {
+            return sink;
+        }
+        RotatingBloomFilter<byte[]> pushedMessages = sharedResourceRegistry.get("dedup-filter", () ->
+                RotatingBloomFilter.withMemoryBudget(
+                        Funnels.byteArrayFunnel(),
+                        dedupConfig.getSinkDedupMemoryBytes(),
+                        dedupConfig.getSinkDedupFalsePositiveRate()));
+        DedupKeyExtractor dedupKeyExtractor = new DedupKeyExtractor(parser, dedupConfig.getSinkDedupKeyField());
+        return new SinkWithDedup(sink, pushedMessages, dedupKeyExtractor, new Instrumentation(statsDReporter, SinkWithDedup.class));
+    }
+
+    /**
+     * to push messages in batches sized by the sink response time, based on the config.
+     *
+     * @param sink Sink to wrap with adaptive batch decorator
+     * @return Sink with adaptive batch decorator
+     */
+    private Sink withAdaptiveBatch(Sink sink) {
+        AdaptiveBatchConfig adaptiveBatchConfig = ConfigFactory.create(AdaptiveBatchConfig.class, config);
+        if (!adaptiveBatchConfig.isSinkAdaptiveBatchEnable()) {
+            return sink;
+        }
+        BatchSizeController batchSizeController = new BatchSizeController(
+                adaptiveBatchConfig.getSinkAdaptiveBatchMinSize(),
+                adaptiveBatchConfig.getSinkAdaptiveBatchMaxSize(),
+                adaptiveBatchConfig.getSinkAdaptiveBatchTargetResponseTimeMs(),
+                adaptiveBatchConfig.getSinkAdaptiveBatchLagThresholdMs());
+        return new SinkWithAdaptiveBatch(sink, batchSizeController, new Instrumentation(statsDReporter, SinkWithAdaptiveBatch.class));
     }
 
     public Sink withDlq(Sink sink, Tracer tracer, ErrorHandler errorHandler) {
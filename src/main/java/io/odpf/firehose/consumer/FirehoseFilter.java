@@ -1,6 +1,7 @@
 package io.odpf.firehose.consumer;
 
 import io.odpf.firehose.message.Message;
+import io.odpf.firehose.message.MessageBatch;
 import io.odpf.firehose.filter.Filter;
 import io.odpf.firehose.filter.FilterException;
 import io.odpf.firehose.filter.FilteredMessages;
@@ -24,4 +25,13 @@ public class FirehoseFilter {
         }
         return filteredMessage;
     }
+
+    public void applyFilter(MessageBatch messageBatch) throws FilterException {
+        filter.filter(messageBatch);
+        int filteredMessageCount = messageBatch.filteredCount();
+        if (filteredMessageCount > 0) {
+            instrumentation.captureFilteredMessageCount(filteredMessageCount);
+            instrumentation.captureGlobalMessageMetrics(Metrics.MessageScope.FILTERED, filteredMessageCount);
+        }
+    }
 }
@@ -3,8 +3,8 @@ package io.odpf.firehose.consumer;
 import io.odpf.firehose.consumer.kafka.ConsumerAndOffsetManager;
 import io.odpf.firehose.exception.FirehoseConsumerFailedException;
 import io.odpf.firehose.message.Message;
+import io.odpf.firehose.message.MessageBatch;
 import io.odpf.firehose.filter.FilterException;
-import io.odpf.firehose.filter.FilteredMessages;
 import io.odpf.firehose.metrics.Instrumentation;
 import io.odpf.firehose.sink.Sink;
 import io.odpf.firehose.tracer.SinkTracer;
@@ -15,10 +15,20 @@ import java.io.IOException;
 import java.time.Instant;
 import java.util.List;
 
+import static io.odpf.firehose.metrics.Metrics.SOURCE_KAFKA_DRAIN_TIME_MILLISECONDS;
 import static io.odpf.firehose.metrics.Metrics.SOURCE_KAFKA_PARTITIONS_PROCESS_TIME_MILLISECONDS;
 
 /**
  * Firehose consumer reads messages from Generic consumer and pushes messages to the configured sink.
+ * <p>
+ * Valid messages are accumulated across polls by the {@link MessageAccumulator} and pushed once the batch is ready.
+ * While messages are accumulated the poll waits at most until the batch is ready by its linger time.
+ * Their offsets become committable only after the accumulated batch is pushed.
+ * On shutdown {@link #drain(long)} pushes what is still accumulated before the final commit.
+ * <p>
+ * While the {@link MemoryBudget} is exhausted the accumulated batch is pushed without waiting for it to be ready,
+ * then the partitions are paused. Paused polls return within {@code SOURCE_KAFKA_PAUSED_POLL_TIMEOUT_MS},
+ * so the partitions resume once other consumer threads free the budget.
  */
 @AllArgsConstructor
 public class FirehoseSyncConsumer implements FirehoseConsumer {
@@ -28,33 +38,111 @@ public class FirehoseSyncConsumer implements FirehoseConsumer {
     private final ConsumerAndOffsetManager consumerAndOffsetManager;
     private final FirehoseFilter firehoseFilter;
     private final Instrumentation instrumentation;
+    private final MessageAccumulator messageAccumulator;
+    private final MemoryBudget memoryBudget;
+
+    public FirehoseSyncConsumer(Sink sink, SinkTracer tracer, ConsumerAndOffsetManager consumerAndOffsetManager, FirehoseFilter firehoseFilter, Instrumentation instrumentation) {
+        this(sink, tracer, consumerAndOffsetManager, firehoseFilter, instrumentation, new MessageAccumulator(Integer.MAX_VALUE, Long.MAX_VALUE, 0));
+    }
+
+    public FirehoseSyncConsumer(Sink sink, SinkTracer tracer, ConsumerAndOffsetManager consumerAndOffsetManager, FirehoseFilter firehoseFilter, Instrumentation instrumentation, MessageAccumulator messageAccumulator) {
+        this(sink, tracer, consumerAndOffsetManager, firehoseFilter, instrumentation, messageAccumulator, new MemoryBudget(0));
+    }
 
     @Override
     public void process() throws IOException {
         Instant beforeCall = Instant.now();
         try {
-            List<Message> messages = consumerAndOffsetManager.readMessages();
+            if (memoryBudget.isExhausted() && !messageAccumulator.isEmpty()) {
+                Object batchKey = messageAccumulator.getBatchKey();
+                pushAccumulated();
+                consumerAndOffsetManager.setCommittable(batchKey);
+                consumerAndOffsetManager.commit();
+            }
+            if (memoryBudget.isExhausted()) {
+                consumerAndOffsetManager.pause();
+            } else {
+                consumerAndOffsetManager.resume();
+            }
+            MessageBatch messageBatch = consumerAndOffsetManager.readMessageBatch(messageAccumulator.getRemainingLingerMillis());
+            List<Message> messages = messageBatch.getMessages();
             List<Span> spans = tracer.startTrace(messages);
-            FilteredMessages filteredMessages = firehoseFilter.applyFilter(messages);
-            if (filteredMessages.sizeOfInvalidMessages() > 0) {
-                consumerAndOffsetManager.forceAddOffsetsAndSetCommittable(filteredMessages.getInvalidMessages());
+            firehoseFilter.applyFilter(messageBatch);
+            if (messageBatch.filteredCount() > 0) {
+                consumerAndOffsetManager.forceAddOffsetsAndSetCommittable(messageBatch.getFilteredMessages());
+            }
+            List<Message> validMessages = messageBatch.getValidMessages();
+            if (!validMessages.isEmpty()) {
+                messageAccumulator.add(validMessages);
+                memoryBudget.acquire(MemoryBudget.Stage.ACCUMULATED, MemoryBudget.sizeOf(validMessages));
             }
-            if (filteredMessages.sizeOfValidMessages() > 0) {
-                sink.pushMessage(filteredMessages.getValidMessages());
-                consumerAndOffsetManager.addOffsetsAndSetCommittable(filteredMessages.getValidMessages());
+            if (messageAccumulator.isReady() || (!messageAccumulator.isEmpty() && memoryBudget.isExhausted())) {
+                Object batchKey = messageAccumulator.getBatchKey();
+                pushAccumulated();
+                consumerAndOffsetManager.addOffsetsAndSetCommittable(validMessages);
+                consumerAndOffsetManager.setCommittable(batchKey);
+            } else if (!validMessages.isEmpty()) {
+                consumerAndOffsetManager.addOffsets(messageAccumulator.getBatchKey(), validMessages);
+            }
+            if (messageAccumulator.isEmpty() || consumerAndOffsetManager.canCommitWithPendingOffsets()) {
+                consumerAndOffsetManager.commit();
             }
-            consumerAndOffsetManager.commit();
             instrumentation.logInfo("Processed {} records in consumer", messages.size());
             tracer.finishTrace(spans);
         } catch (FilterException e) {
             throw new FirehoseConsumerFailedException(e);
         } finally {
+            memoryBudget.captureUsage(instrumentation);
             instrumentation.captureDurationSince(SOURCE_KAFKA_PARTITIONS_PROCESS_TIME_MILLISECONDS, beforeCall);
         }
     }
 
+    private void pushAccumulated() throws IOException {
+        long bytes = messageAccumulator.getBytes();
+        memoryBudget.move(MemoryBudget.Stage.ACCUMULATED, MemoryBudget.Stage.SINK, bytes);
+        try {
+            sink.pushMessage(messageAccumulator.drain());
+        } finally {
+            memoryBudget.release(MemoryBudget.Stage.SINK, bytes);
+        }
+    }
+
+    /**
+     * Pushes the messages still accumulated, then commits synchronously.
+     */
+    @Override
+    public void drain(long timeoutMillis) throws IOException {
+        Instant drainStart = Instant.now();
+        try {
+            if (!messageAccumulator.isEmpty()) {
+                Object batchKey = messageAccumulator.getBatchKey();
+                pushAccumulated();
+                consumerAndOffsetManager.setCommittable(batchKey);
+            }
+            consumerAndOffsetManager.drainSinks(Math.max(0, drainStart.toEpochMilli() + timeoutMillis - System.currentTimeMillis()));
+            consumerAndOffsetManager.commitSync();
+            consumerAndOffsetManager.captureUncommittedMessages();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            instrumentation.logWarn("Interrupted while draining, skipping the final commit");
+        } finally {
+            instrumentation.captureDurationSince(SOURCE_KAFKA_DRAIN_TIME_MILLISECONDS, drainStart);
+        }
+    }
+
+    @Override
+    public void wakeup() {
+        consumerAndOffsetManager.wakeup();
+    }
+
+    @Override
+    public boolean isFinished() {
+        return consumerAndOffsetManager.isFinished();
+    }
+
     @Override
     public void close() throws IOException {
+        memoryBudget.release(MemoryBudget.Stage.ACCUMULATED, messageAccumulator.getBytes());
         tracer.close();
         consumerAndOffsetManager.close();
         instrumentation.close();
@@ -0,0 +1,133 @@
+package io.odpf.firehose.consumer;
+
+import io.odpf.firehose.message.Message;
+import io.odpf.firehose.message.MessageBatch;
+import io.odpf.firehose.metrics.Instrumentation;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static io.odpf.firehose.metrics.Metrics.MEMORY_BUDGET_USED_BYTES;
+import static io.odpf.firehose.metrics.Metrics.MEMORY_BUDGET_STAGE_TAG;
+
+/**
+ * Bytes of read messages held in memory by all the consumer threads, counted as the sizes of their key and message.
+ * The decoded forms a message keeps once parsed are not counted, so the budget bounds the raw bytes, not the heap.
+ * <p>
+ * It is a weighted semaphore with bytes as permits, except that acquiring never blocks.
+ * The size of a poll is only known once it returned, so consumers do not poll new records while the budget is exhausted,
+ * and one poll can take the usage over the limit. Held bytes are tracked per {@link Stage} of the pipeline.
+ * <p>
+ * This class is thread safe, one instance is shared by all the consumer threads.
+ */
+public class MemoryBudget {
+    private final long limitBytes;
+    private final AtomicLong usedBytes = new AtomicLong();
+    private final Map<Stage, AtomicLong> stageBytes = new EnumMap<>(Stage.class);
+
+    /**
+     * @param limitBytes bytes at which polling pauses, 0 for no limit
+     */
+    public MemoryBudget(long limitBytes) {
+        this.limitBytes = limitBytes;
+        for (Stage stage : Stage.values()) {
+            stageBytes.put(stage, new AtomicLong());
+        }
+    }
+
+    public void acquire(Stage stage, long bytes) {
+        stageBytes.get(stage).addAndGet(bytes);
+        usedBytes.addAndGet(bytes);
+    }
+
+    public void release(Stage stage, long bytes) {
+        stageBytes.get(stage).addAndGet(-bytes);
+        usedBytes.addAndGet(-bytes);
+    }
+
+    /**
+     * Hands held bytes over to the next stage, the total usage does not change.
+     */
+    public void move(Stage from, Stage to, long bytes) {
+        stageBytes.get(to).addAndGet(bytes);
+        stageBytes.get(from).addAndGet(-bytes);
+    }
+
+    /**
+     * @return true if no more records should be polled until some held bytes are released
+     */
+    public boolean isExhausted() {
+        return limitBytes > 0 && usedBytes.get() >= limitBytes;
+    }
+
+    public long getUsedBytes() {
+        return usedBytes.get();
+    }
+
+    public long getUsedBytes(Stage stage) {
+        return stageBytes.get(stage).get();
+    }
+
+    public void captureUsage(Instrumentation instrumentation) {
+        stageBytes.forEach((stage, bytes) ->
+                instrumentation.captureValue(MEMORY_BUDGET_USED_BYTES, bytes.get(), String.format(MEMORY_BUDGET_STAGE_TAG, stage.getTag())));
+        instrumentation.captureValue(MEMORY_BUDGET_USED_BYTES, usedBytes.get(), String.format(MEMORY_BUDGET_STAGE_TAG, "total"));
+    }
+
+    public static long sizeOf(Message message) {
+        return (message.getLogKey() == null ? 0 : message.getLogKey().length)
+                + (message.getLogMessage() == null ? 0 : message.getLogMessage().length);
+    }
+
+    public static long sizeOf(List<Message> messages) {
+        long bytes = 0;
+        for (Message message : messages) {
+            bytes += sizeOf(message);
+        }
+        return bytes;
+    }
+
+    public static long sizeOf(MessageBatch messageBatch) {
+        long bytes = 0;
+        for (int i = 0; i < messageBatch.size(); i++) {
+            bytes += (messageBatch.getLogKey(i) == null ? 0 : messageBatch.getLogKey(i).length)
+                    + (messageBatch.getLogMessage(i) == null ? 0 : messageBatch.getLogMessage(i).length);
+        }
+        return bytes;
+    }
+
+    /**
+     * Where in the pipeline held bytes are.
+     */
+    public enum Stage {
+        /**
+         * Polled ahead by the prefetching kafka consumer, not handed out to the consumer yet.
+         */
+        PREFETCHED("prefetched"),
+        /**
+         * Accumulated across polls by the {@link MessageAccumulator}.
+         */
+        ACCUMULATED("accumulated"),
+        /**
+         * Kept aside while all the sinks of the sink pool are busy.
+         */
+        PENDING("pending"),
+        /**
+         * Being pushed by a sink, including its retries and dlq writes, released once the push returns.
+         * Data a sink keeps after the push, like the open files of the blob sink, is not counted.
+         */
+        SINK("sink");
+
+        private final String tag;
+
+        Stage(String tag) {
+            this.tag = tag;
+        }
+
+        public String getTag() {
+            return tag;
+        }
+    }
+}
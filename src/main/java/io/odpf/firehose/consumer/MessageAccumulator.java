@@ -0,0 +1,88 @@
+package io.odpf.firehose.consumer;
+
+import io.odpf.firehose.message.Message;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Accumulates valid messages of several polls into one batch for the sink.
+ * <p>
+ * The batch is ready once it holds max records, max bytes,
+ * or once linger time has passed since its first message was added.
+ * With zero linger time every non empty batch is ready, so each poll is pushed on its own.
+ * <p>
+ * Every batch has its own key, so the offsets of its messages can be tracked
+ * in the offset manager until the batch is pushed.
+ */
+public class MessageAccumulator {
+    private final int maxRecords;
+    private final long maxBytes;
+    private final long lingerMillis;
+    private List<Message> messages = new ArrayList<>();
+    private long bytes;
+    private long firstAddedMillis;
+    private Object batchKey = new Object();
+
+    public MessageAccumulator(int maxRecords, long maxBytes, long lingerMillis) {
+        this.maxRecords = maxRecords;
+        this.maxBytes = maxBytes;
+        this.lingerMillis = lingerMillis;
+    }
+
+    public void add(List<Message> newMessages) {
+        if (messages.isEmpty()) {
+            firstAddedMillis = System.currentTimeMillis();
+        }
+        messages.addAll(newMessages);
+        bytes += MemoryBudget.sizeOf(newMessages);
+    }
+
+    public boolean isEmpty() {
+        return messages.isEmpty();
+    }
+
+    public boolean isReady() {
+        return !messages.isEmpty()
+                && (messages.size() >= maxRecords
+                || bytes >= maxBytes
+                || System.currentTimeMillis() - firstAddedMillis >= lingerMillis);
+    }
+
+    /**
+     * @return time left until the batch is ready by its linger time, {@link Long#MAX_VALUE} if the batch is empty
+     */
+    public long getRemainingLingerMillis() {
+        if (messages.isEmpty()) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(0, firstAddedMillis + lingerMillis - System.currentTimeMillis());
+    }
+
+    /**
+     * @return size of the keys and messages accumulated
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * @return key of the batch being accumulated
+     */
+    public Object getBatchKey() {
+        return batchKey;
+    }
+
+    /**
+     * Hands out the accumulated batch and starts a new one with a new key.
+     *
+     * @return accumulated messages
+     */
+    public List<Message> drain() {
+        List<Message> batch = messages;
+        messages = new ArrayList<>();
+        bytes = 0;
+        batchKey = new Object();
+        return batch;
+    }
+}
@@ -0,0 +1,54 @@
+package io.odpf.firehose.consumer.file;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Committed record offsets of the file splits, kept in a local properties file.
+ * <p>
+ * Every save writes a temporary file next to the offset file and moves it in place,
+ * so a crash leaves either the previous or the new offsets.
+ * <p>
+ * This class is thread safe, one instance is shared by all the consumer threads.
+ */
+public class FileCheckpointStore {
+    private final Path path;
+    private final Properties offsets = new Properties();
+
+    public FileCheckpointStore(Path path) throws IOException {
+        this.path = path;
+        if (Files.exists(path)) {
+            try (InputStream inputStream = Files.newInputStream(path)) {
+                offsets.load(inputStream);
+            }
+        }
+    }
+
+    /**
+     * @param split file split
+     * @return offset of the next record to read, 0 if nothing was committed yet
+     */
+    public synchronized long getOffset(FileSplit split) {
+        return Long.parseLong(offsets.getProperty(split.getCheckpointKey(), "0"));
+    }
+
+    public synchronized void save(Map<FileSplit, Long> splitOffsets) throws IOException {
+        if (splitOffsets.isEmpty()) {
+            return;
+        }
+        splitOffsets.forEach((split, offset) -> offsets.setProperty(split.getCheckpointKey(), Long.toString(offset)));
+        Path parent = path.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temporaryPath = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+        try (OutputStream outputStream = Files.newOutputStream(temporaryPath)) {
+            offsets.store(outputStream, "firehose file source offsets");
+        }
+        Files.move(temporaryPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,101 @@
+package io.odpf.firehose.consumer.file;
+
+import io.odpf.firehose.config.FileSourceConfig;
+import io.odpf.firehose.config.enums.FileSourceFormat;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Record files to read, split into ranges read in parallel, and their checkpoints.
+ * <p>
+ * Every file is cut into {@code SOURCE_FILE_SPLITS_PER_FILE} ranges of about the same size, moved forward to the next record boundary.
+ * Splits are spread over the consumer threads, every thread claims every n-th split where n is the thread count,
+ * so more threads than splits leave some threads idle.
+ * <p>
+ * This class is thread safe, one instance is shared by all the consumer threads.
+ */
+public class FileSource {
+    private final List<FileSplit> splits;
+    private final FileCheckpointStore checkpointStore;
+    private final FileSourceFormat format;
+    private final int claimerCount;
+    private int claimCount;
+
+    public FileSource(FileSourceConfig config) throws IOException {
+        this.format = config.getSourceFileFormat();
+        this.claimerCount = config.getApplicationThreadCount();
+        this.checkpointStore = new FileCheckpointStore(Paths.get(config.getSourceFileCheckpointPath()));
+        List<FileSplit> fileSplits = new ArrayList<>();
+        for (String filePath : config.getSourceFilePaths()) {
+            if (!filePath.trim().isEmpty()) {
+                fileSplits.addAll(split(Paths.get(filePath.trim()), config.getSourceFileSplitsPerFile(), fileSplits.size()));
+            }
+        }
+        if (fileSplits.isEmpty()) {
+            throw new IllegalArgumentException("SOURCE_FILE_PATHS must list at least one file");
+        }
+        this.splits = Collections.unmodifiableList(fileSplits);
+    }
+
+    public List<FileSplit> getSplits() {
+        return splits;
+    }
+
+    public FileSourceFormat getFormat() {
+        return format;
+    }
+
+    public FileCheckpointStore getCheckpointStore() {
+        return checkpointStore;
+    }
+
+    /**
+     * @return splits to be read by the calling consumer, no other consumer gets them
+     */
+    public synchronized List<FileSplit> claimSplits() {
+        int claimer = claimCount++ % claimerCount;
+        List<FileSplit> claimed = new ArrayList<>();
+        for (int i = claimer; i < splits.size(); i += claimerCount) {
+            claimed.add(splits.get(i));
+        }
+        return claimed;
+    }
+
+    private List<FileSplit> split(Path path, int splitCount, int firstPartition) throws IOException {
+        List<FileSplit> fileSplits = new ArrayList<>(splitCount);
+        try (FileSplitReader reader = new FileSplitReader(path, format)) {
+            long fileSize = reader.getFileSize();
+            long start = 0;
+            for (int index = 0; index < splitCount; index++) {
+                long end = index == splitCount - 1 ? fileSize : alignToRecord(reader, Math.max(start, fileSize * (index + 1) / splitCount));
+                fileSplits.add(new FileSplit(path, index, splitCount, start, end, firstPartition + index));
+                start = end;
+            }
+        }
+        return fileSplits;
+    }
+
+    /**
+     * @return the first record boundary at or after the position
+     */
+    private long alignToRecord(FileSplitReader reader, long position) throws IOException {
+        if (format != FileSourceFormat.PROTO_DELIMITED) {
+            if (position == 0) {
+                return 0;
+            }
+            reader.skipToNextLine(position - 1);
+            return reader.getPosition();
+        }
+        while (reader.getPosition() < position) {
+            if (!reader.skip()) {
+                break;
+            }
+        }
+        return reader.getPosition();
+    }
+}
@@ -0,0 +1,32 @@
+package io.odpf.firehose.consumer.file;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.nio.file.Path;
+
+/**
+ * Byte range of a record file read by one reader, starting and ending at record boundaries.
+ * Every split of the file source has its own partition, so its records are tracked and committed on their own.
+ */
+@Getter
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+public class FileSplit {
+    private final Path path;
+    private final int index;
+    private final int splitCount;
+    private final long start;
+    private final long end;
+    private final int partition;
+
+    /**
+     * @return key of the split in the checkpoint file, changes if the file is split differently
+     */
+    public String getCheckpointKey() {
+        return path.toAbsolutePath() + "#" + index + "/" + splitCount;
+    }
+}
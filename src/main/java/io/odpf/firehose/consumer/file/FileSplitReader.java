@@ -0,0 +1,229 @@
+package io.odpf.firehose.consumer.file;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.odpf.firehose.config.enums.FileSourceFormat;
+import io.odpf.firehose.message.MessageBatch;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Base64;
+
+/**
+ * Reads the records of a byte range of a file through a memory mapped window.
+ * <p>
+ * The window is mapped again at the next record once a record does not fit in it, so a record must not be larger than the window.
+ * Records are numbered from the start of the range, the number of the next record is the offset committed for the range.
+ * <ul>
+ * <li>{@link FileSourceFormat#PROTO_DELIMITED}: every record is a varint length followed by the serialized proto.</li>
+ * <li>{@link FileSourceFormat#NDJSON}: every non empty line is a message.</li>
+ * <li>{@link FileSourceFormat#BLOB_DLQ}: every non empty line is a json message written by the blob storage DLQ writer,
+ * with the base64 encoded key and value and the original timestamp.</li>
+ * </ul>
+ * This class is not thread safe.
+ */
+public class FileSplitReader implements Closeable {
+    private static final long WINDOW_BYTES = 256L * 1024 * 1024;
+    private static final int MAX_VARINT_BYTES = 5;
+    private static final int VARINT_PAYLOAD_BITS = 7;
+    private static final int VARINT_PAYLOAD_MASK = 0x7F;
+    private static final int VARINT_CONTINUATION_BIT = 0x80;
+    private final FileChannel channel;
+    private final FileSourceFormat format;
+    private final long fileSize;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private long end;
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long windowEnd;
+    private long position;
+    private long recordOffset;
+    private int recordLength;
+    private int payloadStart;
+
+    public FileSplitReader(Path path, FileSourceFormat format) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.format = format;
+        this.fileSize = channel.size();
+        this.end = fileSize;
+    }
+
+    /**
+     * Restricts reading to a range, the reader is positioned at the start of the range.
+     *
+     * @param start position of the first record
+     * @param limit position right after the last record, the end of the file at most
+     */
+    public void setRange(long start, long limit) {
+        this.position = start;
+        this.end = Math.min(limit, fileSize);
+        this.recordOffset = 0;
+    }
+
+    public long getPosition() {
+        return position;
+    }
+
+    public long getRecordOffset() {
+        return recordOffset;
+    }
+
+    public long getFileSize() {
+        return fileSize;
+    }
+
+    public boolean hasNext() throws IOException {
+        return locateRecord();
+    }
+
+    /**
+     * Skips the next record without copying it.
+     *
+     * @return false if there was no record left
+     */
+    public boolean skip() throws IOException {
+        if (!locateRecord()) {
+            return false;
+        }
+        advance();
+        return true;
+    }
+
+    /**
+     * Moves the position right after the next line break, used to align a split start for line based formats.
+     *
+     * @param from position to search from
+     */
+    public void skipToNextLine(long from) throws IOException {
+        position = from;
+        while (position < end) {
+            ensureMapped(position, 1);
+            byte b = window.get((int) (position - windowStart));
+            position++;
+            if (b == '\n') {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Appends the next record to the batch.
+     *
+     * @return false if there was no record left
+     */
+    public boolean read(MessageBatch messageBatch, String topic, int partition) throws IOException {
+        if (!locateRecord()) {
+            return false;
+        }
+        byte[] payload = new byte[recordLength];
+        window.position(payloadStart);
+        window.get(payload);
+        long consumeTimestamp = System.currentTimeMillis();
+        if (format == FileSourceFormat.BLOB_DLQ) {
+            JsonNode dlqMessage = objectMapper.readTree(payload);
+            byte[] key = Base64.getDecoder().decode(dlqMessage.path("key").asText(""));
+            byte[] value = Base64.getDecoder().decode(dlqMessage.path("value").asText(""));
+            messageBatch.add(key.length == 0 ? null : key, value, topic, partition, recordOffset, new RecordHeaders(),
+                    dlqMessage.path("timestamp").asLong(consumeTimestamp), consumeTimestamp);
+        } else {
+            messageBatch.add(null, payload, topic, partition, recordOffset, new RecordHeaders(), consumeTimestamp, consumeTimestamp);
+        }
+        advance();
+        return true;
+    }
+
+    private void advance() {
+        position = windowStart + payloadStart + recordLength;
+        if (format != FileSourceFormat.PROTO_DELIMITED && position < fileSize) {
+            position++;
+        }
+        recordOffset++;
+    }
+
+    /**
+     * Finds the payload of the record at the position, skipping empty lines of line based formats.
+     */
+    private boolean locateRecord() throws IOException {
+        while (position < end) {
+            boolean found = format == FileSourceFormat.PROTO_DELIMITED ? locateDelimitedRecord() : locateLine();
+            if (found) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean locateDelimitedRecord() throws IOException {
+        ensureMapped(position, (int) Math.min(MAX_VARINT_BYTES, fileSize - position));
+        int index = (int) (position - windowStart);
+        int length = 0;
+        int shift = 0;
+        byte b;
+        do {
+            if (shift == MAX_VARINT_BYTES * VARINT_PAYLOAD_BITS || windowStart + index >= fileSize) {
+                throw new IOException("Malformed record length at position " + position);
+            }
+            b = window.get(index++);
+            length |= (b & VARINT_PAYLOAD_MASK) << shift;
+            shift += VARINT_PAYLOAD_BITS;
+        } while ((b & VARINT_CONTINUATION_BIT) != 0);
+        long payloadPosition = windowStart + index;
+        if (length < 0 || payloadPosition + length > fileSize) {
+            throw new IOException("Truncated record at position " + position);
+        }
+        ensureMapped(payloadPosition, length);
+        payloadStart = (int) (payloadPosition - windowStart);
+        recordLength = length;
+        return true;
+    }
+
+    private boolean locateLine() throws IOException {
+        ensureMapped(position, 1);
+        long lineEnd = position;
+        while (lineEnd < fileSize) {
+            if (lineEnd >= windowEnd) {
+                ensureMapped(position, (int) Math.min(WINDOW_BYTES, fileSize - position));
+                if (lineEnd >= windowEnd) {
+                    throw new IOException("Line at position " + position + " is larger than " + WINDOW_BYTES + " bytes");
+                }
+            }
+            if (window.get((int) (lineEnd - windowStart)) == '\n') {
+                break;
+            }
+            lineEnd++;
+        }
+        if (lineEnd == position) {
+            position++;
+            return false;
+        }
+        payloadStart = (int) (position - windowStart);
+        recordLength = (int) (lineEnd - position);
+        return true;
+    }
+
+    /**
+     * Maps a new window starting at the position, unless the bytes are already in the current window.
+     */
+    private void ensureMapped(long from, int length) throws IOException {
+        if (window != null && from >= windowStart && from + length <= windowEnd) {
+            return;
+        }
+        if (length > WINDOW_BYTES) {
+            throw new IOException("Record at position " + from + " is larger than " + WINDOW_BYTES + " bytes");
+        }
+        windowStart = from;
+        windowEnd = Math.min(fileSize, from + WINDOW_BYTES);
+        window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowEnd - windowStart);
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        channel.close();
+    }
+}
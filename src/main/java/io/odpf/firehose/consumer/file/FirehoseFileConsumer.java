@@ -0,0 +1,216 @@
+package io.odpf.firehose.consumer.file;
+
+import io.odpf.firehose.config.FileSourceConfig;
+import io.odpf.firehose.config.KafkaConsumerConfig;
+import io.odpf.firehose.consumer.kafka.FirehoseKafkaConsumer;
+import io.odpf.firehose.message.MessageBatch;
+import io.odpf.firehose.metrics.Instrumentation;
+import io.odpf.firehose.metrics.Metrics;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads records from local files instead of kafka, behind the same contract as the kafka consumer.
+ * <p>
+ * Every claimed {@link FileSplit} is a partition of the {@code SOURCE_FILE_TOPIC} topic, the offset of a message is its record number in the split.
+ * Commits store the record offsets in the {@link FileCheckpointStore}, a restarted consumer skips the committed records of every split.
+ * Once all its splits are read, polls return no records right away. While paused, polls wait at most
+ * {@code SOURCE_KAFKA_PAUSED_POLL_TIMEOUT_MS} and return no records.
+ * There are no kafka partitions to revoke or lose, the rebalance callbacks do nothing.
+ * <p>
+ * This class is not thread safe, like the kafka consumer.
+ */
+public class FirehoseFileConsumer extends FirehoseKafkaConsumer {
+    private final FileSource fileSource;
+    private final String topic;
+    private final int maxRecords;
+    private final long pausedPollTimeoutMillis;
+    private final Instrumentation instrumentation;
+    private final Map<Integer, FileSplit> splits = new LinkedHashMap<>();
+    private final Map<Integer, FileSplitReader> readers = new LinkedHashMap<>();
+    private final Map<Integer, Long> committedOffsets = new HashMap<>();
+    private boolean paused;
+    private boolean finishLogged;
+
+    public FirehoseFileConsumer(FileSource fileSource, FileSourceConfig fileSourceConfig, KafkaConsumerConfig kafkaConsumerConfig, Instrumentation instrumentation) throws IOException {
+        super(null, kafkaConsumerConfig, instrumentation);
+        this.fileSource = fileSource;
+        this.topic = fileSourceConfig.getSourceFileTopic();
+        this.maxRecords = fileSourceConfig.getSourceFileMaxRecords();
+        this.pausedPollTimeoutMillis = Math.min(kafkaConsumerConfig.getSourceKafkaPollTimeoutMs(), kafkaConsumerConfig.getSourceKafkaPausedPollTimeoutMs());
+        this.instrumentation = instrumentation;
+        for (FileSplit split : fileSource.claimSplits()) {
+            FileSplitReader reader = new FileSplitReader(split.getPath(), fileSource.getFormat());
+            reader.setRange(split.getStart(), split.getEnd());
+            long committedOffset = fileSource.getCheckpointStore().getOffset(split);
+            while (reader.getRecordOffset() < committedOffset) {
+                if (!reader.skip()) {
+                    break;
+                }
+            }
+            instrumentation.logInfo("Reading {} from record {}", split, reader.getRecordOffset());
+            splits.put(split.getPartition(), split);
+            readers.put(split.getPartition(), reader);
+            committedOffsets.put(split.getPartition(), reader.getRecordOffset());
+        }
+    }
+
+    /**
+     * Reads up to {@code SOURCE_FILE_MAX_RECORDS} records, spread over the splits which still have records.
+     */
+    @Override
+    public MessageBatch readMessageBatch(long maxWaitMillis) {
+        MessageBatch messageBatch = new MessageBatch(0);
+        try {
+            List<Map.Entry<Integer, FileSplitReader>> remaining = new ArrayList<>();
+            for (Map.Entry<Integer, FileSplitReader> entry : readers.entrySet()) {
+                if (entry.getValue().hasNext()) {
+                    remaining.add(entry);
+                }
+            }
+            if (remaining.isEmpty()) {
+                if (!finishLogged) {
+                    instrumentation.logInfo("All the file splits are read");
+                    finishLogged = true;
+                }
+                return messageBatch;
+            }
+            if (paused) {
+                Thread.sleep(Math.min(pausedPollTimeoutMillis, Math.max(0, maxWaitMillis)));
+                return messageBatch;
+            }
+            int recordsPerSplit = Math.max(1, maxRecords / remaining.size());
+            for (Map.Entry<Integer, FileSplitReader> entry : remaining) {
+                for (int i = 0; i < recordsPerSplit && messageBatch.size() < maxRecords; i++) {
+                    if (!entry.getValue().read(messageBatch, topic, entry.getKey())) {
+                        break;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        instrumentation.logInfo("Pulled {} messages", messageBatch.size());
+        instrumentation.capturePulledMessageHistogram(messageBatch.size());
+        instrumentation.captureGlobalMessageMetrics(Metrics.MessageScope.CONSUMER, messageBatch.size());
+        return messageBatch;
+    }
+
+    @Override
+    public void pause() {
+        paused = true;
+    }
+
+    @Override
+    public void resume() {
+        paused = false;
+    }
+
+    @Override
+    public void wakeup() {
+    }
+
+    @Override
+    public void drainPartitions(Collection<TopicPartition> partitions) {
+    }
+
+    @Override
+    public void onPartitionsLost(Collection<TopicPartition> partitions) {
+    }
+
+    @Override
+    public void onPartitionsRevoked(Collection<TopicPartition> partitions, Map<TopicPartition, OffsetAndMetadata> committableOffsets) {
+    }
+
+    /**
+     * Commits every split up to the records read so far.
+     */
+    @Override
+    public void commit() {
+        Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+        readers.forEach((partition, reader) -> offsets.put(new TopicPartition(topic, partition), new OffsetAndMetadata(reader.getRecordOffset())));
+        commit(offsets);
+    }
+
+    @Override
+    public void commit(Map<TopicPartition, OffsetAndMetadata> offsets) {
+        Map<FileSplit, Long> splitOffsets = new HashMap<>();
+        offsets.forEach((topicPartition, offsetAndMetadata) -> {
+            FileSplit split = splits.get(topicPartition.partition());
+            Long committedOffset = committedOffsets.get(topicPartition.partition());
+            if (split != null && topic.equals(topicPartition.topic()) && offsetAndMetadata.offset() > committedOffset) {
+                splitOffsets.put(split, offsetAndMetadata.offset());
+            }
+        });
+        if (splitOffsets.isEmpty()) {
+            return;
+        }
+        try {
+            fileSource.getCheckpointStore().save(splitOffsets);
+        } catch (IOException e) {
+            instrumentation.incrementCounter(Metrics.SOURCE_KAFKA_MESSAGES_COMMIT_TOTAL, Metrics.FAILURE_TAG);
+            throw new UncheckedIOException(e);
+        }
+        instrumentation.incrementCounter(Metrics.SOURCE_KAFKA_MESSAGES_COMMIT_TOTAL, Metrics.SUCCESS_TAG);
+        splitOffsets.forEach((split, offset) -> committedOffsets.put(split.getPartition(), offset));
+    }
+
+    @Override
+    public void commitSync() {
+        commit();
+    }
+
+    @Override
+    public void commitSync(Map<TopicPartition, OffsetAndMetadata> offsets) {
+        commit(offsets);
+    }
+
+    @Override
+    public long countUncommittedMessages() {
+        long uncommittedMessages = 0;
+        for (Map.Entry<Integer, FileSplitReader> entry : readers.entrySet()) {
+            uncommittedMessages += entry.getValue().getRecordOffset() - committedOffsets.get(entry.getKey());
+        }
+        return uncommittedMessages;
+    }
+
+    /**
+     * @return true once every split claimed by this consumer is read
+     */
+    @Override
+    public boolean isFinished() {
+        try {
+            for (FileSplitReader reader : readers.values()) {
+                if (reader.hasNext()) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        instrumentation.logInfo("File consumer is closing");
+        for (FileSplitReader reader : readers.values()) {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                instrumentation.captureNonFatalError(e, "Exception while closing file reader");
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package io.odpf.firehose.consumer.kafka;
+
+import io.odpf.firehose.config.KafkaConsumerConfig;
+import io.odpf.firehose.message.MessageBatch;
+import io.odpf.firehose.metrics.Instrumentation;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Kafka consumer reading a fixed range of offsets of explicitly assigned partitions, without joining the consumer group.
+ * <p>
+ * Every assigned partition starts at its start offset, or at its committed offset if a previous run already got further.
+ * The kafka consumer is expected to use a consumer group of its own backfill, so only a restart of the same backfill
+ * resumes from committed offsets.
+ * Records at or after the end offset of their partition are dropped, the partition is then paused for good.
+ * The consumer is finished once the position of every assigned partition reached its end offset.
+ */
+public class BackfillFirehoseKafkaConsumer extends FirehoseKafkaConsumer {
+    private final Consumer<byte[], byte[]> kafkaConsumer;
+    private final Map<TopicPartition, Long> endOffsets;
+    private final Instrumentation instrumentation;
+    private final Set<TopicPartition> finishedPartitions = new HashSet<>();
+
+    public BackfillFirehoseKafkaConsumer(Consumer<byte[], byte[]> kafkaConsumer, Map<TopicPartition, Long> startOffsets, Map<TopicPartition, Long> endOffsets,
+                                         KafkaConsumerConfig config, Instrumentation instrumentation) {
+        super(kafkaConsumer, config, instrumentation);
+        this.kafkaConsumer = kafkaConsumer;
+        this.endOffsets = endOffsets;
+        this.instrumentation = instrumentation;
+        kafkaConsumer.assign(startOffsets.keySet());
+        Map<TopicPartition, OffsetAndMetadata> committedOffsets = kafkaConsumer.committed(startOffsets.keySet());
+        startOffsets.forEach((partition, startOffset) -> {
+            OffsetAndMetadata committedOffset = committedOffsets.get(partition);
+            long offset = committedOffset == null ? startOffset : Math.max(startOffset, committedOffset.offset());
+            instrumentation.logInfo("Backfilling {} from offset {} to offset {}", partition, offset, endOffsets.get(partition));
+            kafkaConsumer.seek(partition, offset);
+        });
+        updateFinishedPartitions();
+    }
+
+    @Override
+    public MessageBatch readMessageBatch(long maxWaitMillis) {
+        MessageBatch messageBatch = super.readMessageBatch(maxWaitMillis);
+        boolean isPastEnd = false;
+        for (int i = 0; i < messageBatch.size() && !isPastEnd; i++) {
+            isPastEnd = isPastEnd(messageBatch, i);
+        }
+        updateFinishedPartitions();
+        return isPastEnd ? messageBatch.select(i -> !isPastEnd(messageBatch, i)) : messageBatch;
+    }
+
+    /**
+     * Resumes the paused partitions which did not reach their end offset yet.
+     */
+    @Override
+    public void resume() {
+        super.resume();
+        if (!finishedPartitions.isEmpty()) {
+            kafkaConsumer.pause(finishedPartitions);
+        }
+    }
+
+    @Override
+    public boolean isFinished() {
+        return finishedPartitions.size() == endOffsets.size() || finishedPartitions.containsAll(kafkaConsumer.assignment());
+    }
+
+    private boolean isPastEnd(MessageBatch messageBatch, int index) {
+        Long endOffset = endOffsets.get(new TopicPartition(messageBatch.getTopic(index), messageBatch.getPartition(index)));
+        return endOffset != null && messageBatch.getOffset(index) >= endOffset;
+    }
+
+    private void updateFinishedPartitions() {
+        for (TopicPartition partition : kafkaConsumer.assignment()) {
+            if (!finishedPartitions.contains(partition) && kafkaConsumer.position(partition) >= endOffsets.get(partition)) {
+                instrumentation.logInfo("Backfill of {} reached its end offset {}", partition, endOffsets.get(partition));
+                finishedPartitions.add(partition);
+                kafkaConsumer.pause(Collections.singleton(partition));
+            }
+        }
+    }
+}
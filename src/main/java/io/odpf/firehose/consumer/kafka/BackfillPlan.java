@@ -0,0 +1,97 @@
+package io.odpf.firehose.consumer.kafka;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.OffsetAndTimestamp;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Offset range of every partition to read for a backfill between two timestamps.
+ * <p>
+ * The start offset of a partition is the first record at or after the start timestamp, the end offset is the first record
+ * at or after the end timestamp, it is excluded. Without a record after a timestamp the end offset of the partition at planning time is used,
+ * as it is with an end timestamp of 0.
+ * Partitions are spread over the consumer threads, every thread claims every n-th partition where n is the thread count.
+ * <p>
+ * This class is thread safe, one instance is shared by all the consumer threads.
+ */
+public class BackfillPlan {
+    private final List<TopicPartition> partitions;
+    private final Map<TopicPartition, Long> startOffsets;
+    private final Map<TopicPartition, Long> endOffsets;
+    private final int claimerCount;
+    private int claimCount;
+
+    public BackfillPlan(Map<TopicPartition, Long> startOffsets, Map<TopicPartition, Long> endOffsets, int claimerCount) {
+        this.partitions = new ArrayList<>(startOffsets.keySet());
+        this.partitions.sort(Comparator.comparing(TopicPartition::topic).thenComparingInt(TopicPartition::partition));
+        this.startOffsets = startOffsets;
+        this.endOffsets = endOffsets;
+        this.claimerCount = claimerCount;
+    }
+
+    /**
+     * Looks up the offsets of the timestamps for every partition of the topics matching the pattern.
+     *
+     * @param kafkaConsumer    consumer used for the lookups only
+     * @param topicPattern     pattern of the topics to backfill
+     * @param startTimestampMs timestamp of the first records to read
+     * @param endTimestampMs   timestamp of the first records not to read, 0 to read up to the current end of the partitions
+     * @param claimerCount     number of consumer threads
+     * @return plan of the backfill
+     */
+    public static BackfillPlan resolve(Consumer<byte[], byte[]> kafkaConsumer, Pattern topicPattern, long startTimestampMs, long endTimestampMs, int claimerCount) {
+        List<TopicPartition> partitions = new ArrayList<>();
+        for (Map.Entry<String, List<PartitionInfo>> topic : kafkaConsumer.listTopics().entrySet()) {
+            if (topicPattern.matcher(topic.getKey()).matches()) {
+                topic.getValue().forEach(partitionInfo -> partitions.add(new TopicPartition(partitionInfo.topic(), partitionInfo.partition())));
+            }
+        }
+        Map<TopicPartition, Long> latestOffsets = kafkaConsumer.endOffsets(partitions);
+        Map<TopicPartition, Long> startOffsets = lookupOffsets(kafkaConsumer, partitions, startTimestampMs, latestOffsets);
+        Map<TopicPartition, Long> endOffsets = endTimestampMs > 0
+                ? lookupOffsets(kafkaConsumer, partitions, endTimestampMs, latestOffsets)
+                : latestOffsets;
+        return new BackfillPlan(startOffsets, endOffsets, claimerCount);
+    }
+
+    private static Map<TopicPartition, Long> lookupOffsets(Consumer<byte[], byte[]> kafkaConsumer, List<TopicPartition> partitions, long timestampMs, Map<TopicPartition, Long> latestOffsets) {
+        Map<TopicPartition, Long> timestamps = new HashMap<>();
+        partitions.forEach(partition -> timestamps.put(partition, timestampMs));
+        Map<TopicPartition, OffsetAndTimestamp> offsetsForTimes = kafkaConsumer.offsetsForTimes(timestamps);
+        Map<TopicPartition, Long> offsets = new HashMap<>();
+        for (TopicPartition partition : partitions) {
+            OffsetAndTimestamp offsetAndTimestamp = offsetsForTimes.get(partition);
+            offsets.put(partition, offsetAndTimestamp == null ? latestOffsets.get(partition) : offsetAndTimestamp.offset());
+        }
+        return offsets;
+    }
+
+    public Map<TopicPartition, Long> getStartOffsets() {
+        return startOffsets;
+    }
+
+    public Map<TopicPartition, Long> getEndOffsets() {
+        return endOffsets;
+    }
+
+    /**
+     * @return partitions to be read by the calling consumer, mapped to their start offsets, no other consumer gets them
+     */
+    public synchronized Map<TopicPartition, Long> claimPartitions() {
+        int claimer = claimCount++ % claimerCount;
+        Map<TopicPartition, Long> claimed = new LinkedHashMap<>();
+        for (int i = claimer; i < partitions.size(); i += claimerCount) {
+            claimed.put(partitions.get(i), startOffsets.get(partitions.get(i)));
+        }
+        return claimed;
+    }
+}
@@ -0,0 +1,51 @@
+package io.odpf.firehose.consumer.kafka;
+
+import java.time.Clock;
+
+/**
+ * Decides when the consumer commits, so commits of small and fast batches are coalesced.
+ * <p>
+ * A commit is due once the commit interval passed since the last commit,
+ * or once the given number of records were read since the last commit.
+ * With neither of them set, every commit is due.
+ * Commits of revoked partitions and the final commit on shutdown do not go through the scheduler.
+ */
+public class CommitScheduler {
+    private final long intervalMillis;
+    private final long intervalRecords;
+    private final Clock clock;
+    private long lastCommitMillis;
+    private long recordsSinceLastCommit;
+
+    /**
+     * @param intervalMillis  minimum time between commits, 0 to not commit based on time
+     * @param intervalRecords records to read before a commit, 0 to not commit based on records
+     */
+    public CommitScheduler(long intervalMillis, long intervalRecords) {
+        this(intervalMillis, intervalRecords, Clock.systemUTC());
+    }
+
+    CommitScheduler(long intervalMillis, long intervalRecords, Clock clock) {
+        this.intervalMillis = intervalMillis;
+        this.intervalRecords = intervalRecords;
+        this.clock = clock;
+        this.lastCommitMillis = clock.millis();
+    }
+
+    public void addRecords(int count) {
+        recordsSinceLastCommit += count;
+    }
+
+    public boolean isCommitDue() {
+        if (intervalMillis <= 0 && intervalRecords <= 0) {
+            return true;
+        }
+        return (intervalMillis > 0 && clock.millis() - lastCommitMillis >= intervalMillis)
+                || (intervalRecords > 0 && recordsSinceLastCommit >= intervalRecords);
+    }
+
+    public void onCommit() {
+        lastCommitMillis = clock.millis();
+        recordsSinceLastCommit = 0;
+    }
+}
@@ -2,12 +2,16 @@ package io.odpf.firehose.consumer.kafka;
 
 import io.odpf.firehose.config.KafkaConsumerConfig;
 import io.odpf.firehose.message.Message;
+import io.odpf.firehose.message.MessageBatch;
 import io.odpf.firehose.metrics.Instrumentation;
 import io.odpf.firehose.sink.Sink;
+import org.apache.kafka.common.KafkaException;
 
 import java.io.IOException;
 import java.util.List;
 
+import static io.odpf.firehose.metrics.Metrics.SOURCE_KAFKA_UNCOMMITTED_MESSAGES_TOTAL;
+
 /**
  * This class has APIs to read from kafka and also provide offset management.
  * There are 2 use cases for this class.
@@ -28,6 +32,7 @@ import java.util.List;
  *
  * consumerOffsetManager.commit() calls the sink method to calculate committable offsets.
  * then it fetches the offsets from offsetManager.getCommittableOffsets() and uses kafka api to commit.
+ * Commits are coalesced by the {@link CommitScheduler}, the final commit on shutdown always commits.
  *
  */
 public class ConsumerAndOffsetManager implements AutoCloseable {
@@ -37,6 +42,7 @@ public class ConsumerAndOffsetManager implements AutoCloseable {
     private final KafkaConsumerConfig kafkaConsumerConfig;
     private final Instrumentation instrumentation;
     private final boolean canSinkManageOffsets;
+    private final CommitScheduler commitScheduler;
 
     public ConsumerAndOffsetManager(
             List<Sink> sinks,
@@ -44,12 +50,24 @@ public class ConsumerAndOffsetManager implements AutoCloseable {
             FirehoseKafkaConsumer firehoseKafkaConsumer,
             KafkaConsumerConfig kafkaConsumerConfig,
             Instrumentation instrumentation) {
+        this(sinks, offsetManager, firehoseKafkaConsumer, kafkaConsumerConfig, instrumentation,
+                new CommitScheduler(kafkaConsumerConfig.getSourceKafkaCommitIntervalMs(), kafkaConsumerConfig.getSourceKafkaCommitIntervalRecords()));
+    }
+
+    public ConsumerAndOffsetManager(
+            List<Sink> sinks,
+            OffsetManager offsetManager,
+            FirehoseKafkaConsumer firehoseKafkaConsumer,
+            KafkaConsumerConfig kafkaConsumerConfig,
+            Instrumentation instrumentation,
+            CommitScheduler commitScheduler) {
         this.sinks = sinks;
         this.offsetManager = offsetManager;
         this.firehoseKafkaConsumer = firehoseKafkaConsumer;
         this.kafkaConsumerConfig = kafkaConsumerConfig;
         this.instrumentation = instrumentation;
         this.canSinkManageOffsets = sinks.get(0).canManageOffsets();
+        this.commitScheduler = commitScheduler;
     }
 
     public void addOffsets(Object key, List<Message> messages) {
@@ -78,11 +96,89 @@ public class ConsumerAndOffsetManager implements AutoCloseable {
         offsetManager.addOffsetsAndSetCommittable(messages);
     }
 
+    /**
+     * Force-Adds the offsets of a batch as pending regardless of sink managing the offsets.
+     * @param key      key of the batch, see {@link #forceSetCommittable(Object)}
+     * @param messages messages of the batch
+     */
+    public void forceAddOffsets(Object key, List<Message> messages) {
+        offsetManager.addOffsetToBatch(key, messages);
+    }
+
+    /**
+     * Force-Sets the offsets of a batch committable regardless of sink managing the offsets.
+     * @param key key of the batch, see {@link #forceAddOffsets(Object, List)}
+     */
+    public void forceSetCommittable(Object key) {
+        offsetManager.setCommittable(key);
+    }
+
+    /**
+     * Force-Removes a batch which is not going to be pushed, its offsets are left pending.
+     * @param key key of the batch, see {@link #forceAddOffsets(Object, List)}
+     */
+    public void forceRemoveOffsets(Object key) {
+        offsetManager.removeBatch(key);
+    }
+
     public List<Message> readMessages() {
-        return firehoseKafkaConsumer.readMessages();
+        List<Message> messages = firehoseKafkaConsumer.readMessages();
+        commitScheduler.addRecords(messages.size());
+        return messages;
     }
 
+    public MessageBatch readMessageBatch() {
+        MessageBatch messageBatch = firehoseKafkaConsumer.readMessageBatch();
+        commitScheduler.addRecords(messageBatch.size());
+        return messageBatch;
+    }
+
+    /**
+     * @param maxWaitMillis longest time to wait for records
+     * @return batch of the records read
+     */
+    public MessageBatch readMessageBatch(long maxWaitMillis) {
+        MessageBatch messageBatch = firehoseKafkaConsumer.readMessageBatch(maxWaitMillis);
+        commitScheduler.addRecords(messageBatch.size());
+        return messageBatch;
+    }
+
+    public boolean isFinished() {
+        return firehoseKafkaConsumer.isFinished();
+    }
+
+    public void wakeup() {
+        if (firehoseKafkaConsumer != null) {
+            firehoseKafkaConsumer.wakeup();
+        }
+    }
+
+    public void pause() {
+        firehoseKafkaConsumer.pause();
+    }
+
+    public void resume() {
+        firehoseKafkaConsumer.resume();
+    }
+
+    /**
+     * Offsets can be committed while some read messages are still pending only if the committed offsets come
+     * from the offset manager, as the consumer position also covers the pending messages.
+     *
+     * @return true if commit never covers offsets which are not committable yet
+     */
+    public boolean canCommitWithPendingOffsets() {
+        return kafkaConsumerConfig.isSourceKafkaCommitOnlyCurrentPartitionsEnable();
+    }
+
+    /**
+     * Commits once the {@link CommitScheduler} says a commit is due, otherwise the commit is left to a later call.
+     */
     public void commit() {
+        if (!commitScheduler.isCommitDue()) {
+            return;
+        }
+        commitScheduler.onCommit();
         if (kafkaConsumerConfig.isSourceKafkaCommitOnlyCurrentPartitionsEnable()) {
             sinks.forEach(Sink::calculateCommittableOffsets);
             firehoseKafkaConsumer.commit(offsetManager.getCommittableOffset());
@@ -91,6 +187,45 @@ public class ConsumerAndOffsetManager implements AutoCloseable {
         }
     }
 
+    /**
+     * Lets every sink finish its background work, sharing the timeout between them.
+     *
+     * @param timeoutMillis maximum time to wait for all the sinks
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void drainSinks(long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        for (Sink sink : sinks) {
+            sink.drain(Math.max(0, deadline - System.currentTimeMillis()));
+        }
+    }
+
+    /**
+     * Same as {@link #commit()} but waits for the commit to complete, used for the final commit on shutdown.
+     */
+    public void commitSync() {
+        commitScheduler.onCommit();
+        if (kafkaConsumerConfig.isSourceKafkaCommitOnlyCurrentPartitionsEnable()) {
+            sinks.forEach(Sink::calculateCommittableOffsets);
+            firehoseKafkaConsumer.commitSync(offsetManager.getCommittableOffset());
+        } else {
+            firehoseKafkaConsumer.commitSync();
+        }
+    }
+
+    /**
+     * Reports the records read but not committed, which will be consumed again after a restart.
+     */
+    public void captureUncommittedMessages() {
+        try {
+            long uncommittedMessages = firehoseKafkaConsumer.countUncommittedMessages();
+            instrumentation.logInfo("{} messages left uncommitted", uncommittedMessages);
+            instrumentation.captureCount(SOURCE_KAFKA_UNCOMMITTED_MESSAGES_TOTAL, uncommittedMessages);
+        } catch (KafkaException e) {
+            instrumentation.captureNonFatalError(e, "Exception while counting uncommitted messages");
+        }
+    }
+
     @Override
     public void close() throws IOException {
         if (firehoseKafkaConsumer != null) {
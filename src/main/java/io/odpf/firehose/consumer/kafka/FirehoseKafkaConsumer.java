@@ -4,21 +4,29 @@ import io.odpf.firehose.config.KafkaConsumerConfig;
 import io.odpf.firehose.metrics.Instrumentation;
 import io.odpf.firehose.metrics.Metrics;
 import io.odpf.firehose.message.Message;
+import io.odpf.firehose.message.MessageBatch;
 import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.KafkaException;
 import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
 
 import java.time.Duration;
-import java.util.ArrayList;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import static io.odpf.firehose.metrics.Metrics.FAILURE_TAG;
+import static io.odpf.firehose.metrics.Metrics.SOURCE_KAFKA_COMMIT_TIME_MILLISECONDS;
 import static io.odpf.firehose.metrics.Metrics.SOURCE_KAFKA_MESSAGES_COMMIT_TOTAL;
+import static io.odpf.firehose.metrics.Metrics.SOURCE_KAFKA_PAUSED_TIME_MILLISECONDS;
+import static io.odpf.firehose.metrics.Metrics.SOURCE_KAFKA_PAUSE_TOTAL;
 import static io.odpf.firehose.metrics.Metrics.SUCCESS_TAG;
 
 /**
@@ -30,6 +38,8 @@ public class FirehoseKafkaConsumer implements AutoCloseable {
     private final KafkaConsumerConfig consumerConfig;
     private final Instrumentation instrumentation;
     private final Map<TopicPartition, OffsetAndMetadata> committedOffsets = new ConcurrentHashMap<>();
+    private volatile Instant pausedSince;
+    private PartitionDrainer partitionDrainer;
 
     /**
      * A Constructor.
@@ -50,17 +60,86 @@ public class FirehoseKafkaConsumer implements AutoCloseable {
      * @return list of EsbMessage {@see EsbMessage}
      */
     public List<Message> readMessages() {
-        ConsumerRecords<byte[], byte[]> records = kafkaConsumer.poll(Duration.ofMillis(consumerConfig.getSourceKafkaPollTimeoutMs()));
+        return readMessageBatch().getMessages();
+    }
+
+    /**
+     * method to read next batch of messages from kafka, without creating a message per record.
+     * While the partitions are paused the poll waits at most {@code SOURCE_KAFKA_PAUSED_POLL_TIMEOUT_MS},
+     * so the caller gets back in time to resume them.
+     *
+     * @return batch of the records {@see MessageBatch}
+     */
+    public MessageBatch readMessageBatch() {
+        return readMessageBatch(Long.MAX_VALUE);
+    }
+
+    /**
+     * method to read next batch of messages from kafka, waiting at most the given time for records.
+     *
+     * @param maxWaitMillis longest time the caller can wait, the poll waits at most {@code SOURCE_KAFKA_POLL_TIMEOUT_MS} anyway
+     * @return batch of the records {@see MessageBatch}
+     */
+    public MessageBatch readMessageBatch(long maxWaitMillis) {
+        long pollTimeoutMillis = Math.min(consumerConfig.getSourceKafkaPollTimeoutMs(), Math.max(0, maxWaitMillis));
+        if (pausedSince != null) {
+            pollTimeoutMillis = Math.min(pollTimeoutMillis, consumerConfig.getSourceKafkaPausedPollTimeoutMs());
+        }
+        ConsumerRecords<byte[], byte[]> records = kafkaConsumer.poll(Duration.ofMillis(pollTimeoutMillis));
         instrumentation.logInfo("Pulled {} messages", records.count());
         instrumentation.capturePulledMessageHistogram(records.count());
         instrumentation.captureGlobalMessageMetrics(Metrics.MessageScope.CONSUMER, records.count());
-        List<Message> messages = new ArrayList<>();
+        MessageBatch messageBatch = new MessageBatch(records.count());
 
         for (ConsumerRecord<byte[], byte[]> record : records) {
-            messages.add(new Message(record.key(), record.value(), record.topic(), record.partition(), record.offset(), record.headers(), record.timestamp(), System.currentTimeMillis()));
+            messageBatch.add(record.key(), record.value(), record.topic(), record.partition(), record.offset(), record.headers(), record.timestamp(), System.currentTimeMillis());
             instrumentation.logDebug("Pulled record: {}", record);
         }
-        return messages;
+        return messageBatch;
+    }
+
+    /**
+     * Stops fetching records from all assigned partitions.
+     * The consumer must keep polling to stay in the group, polls return no records of paused partitions
+     * and wait at most {@code SOURCE_KAFKA_PAUSED_POLL_TIMEOUT_MS}.
+     * Partitions assigned by a rebalance are not paused, so it is called again on every poll while paused.
+     */
+    public void pause() {
+        Set<TopicPartition> assignment = kafkaConsumer.assignment();
+        if (pausedSince == null) {
+            pausedSince = Instant.now();
+            instrumentation.logInfo("Pausing partitions {}", assignment);
+            instrumentation.incrementCounter(SOURCE_KAFKA_PAUSE_TOTAL);
+        }
+        kafkaConsumer.pause(assignment);
+    }
+
+    /**
+     * Resumes fetching records from all paused partitions.
+     */
+    public void resume() {
+        if (pausedSince == null) {
+            return;
+        }
+        instrumentation.logInfo("Resuming partitions");
+        kafkaConsumer.resume(kafkaConsumer.paused());
+        instrumentation.captureDurationSince(SOURCE_KAFKA_PAUSED_TIME_MILLISECONDS, pausedSince);
+        pausedSince = null;
+    }
+
+    /**
+     * Wakes up a poll blocked on another thread, the poll throws {@link WakeupException}.
+     * If no poll is blocked, the next poll throws it instead.
+     */
+    public void wakeup() {
+        kafkaConsumer.wakeup();
+    }
+
+    /**
+     * @return true if a bounded consumer read everything up to its end, never for a subscription
+     */
+    public boolean isFinished() {
+        return false;
     }
 
     public void close() {
@@ -74,47 +153,171 @@ public class FirehoseKafkaConsumer implements AutoCloseable {
 
     public void commit() {
         if (consumerConfig.isSourceKafkaAsyncCommitEnable()) {
-            kafkaConsumer.commitAsync((offsets, exception) -> {
-                if (exception != null) {
-                    instrumentation.incrementCounter(SOURCE_KAFKA_MESSAGES_COMMIT_TOTAL, FAILURE_TAG);
-                } else {
-                    instrumentation.incrementCounter(SOURCE_KAFKA_MESSAGES_COMMIT_TOTAL, SUCCESS_TAG);
-                }
-            });
+            Instant commitStart = Instant.now();
+            kafkaConsumer.commitAsync((offsets, exception) -> onCommitComplete(commitStart, exception));
         } else {
-            kafkaConsumer.commitSync();
+            commitSync();
         }
     }
 
     public void commit(Map<TopicPartition, OffsetAndMetadata> offsets) {
-        Map<TopicPartition, OffsetAndMetadata> latestOffsets =
-                offsets.entrySet()
-                        .stream()
-                        .filter(metadataEntry -> !committedOffsets.containsKey(metadataEntry.getKey())
-                                || metadataEntry.getValue().offset() > committedOffsets.get(metadataEntry.getKey()).offset())
-                        .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        commit(offsets, consumerConfig.isSourceKafkaAsyncCommitEnable());
+    }
+
+    /**
+     * Commits the consumer position and waits for the commit to complete, regardless of the async commit config.
+     */
+    public void commitSync() {
+        Instant commitStart = Instant.now();
+        try {
+            retryOnWakeup(kafkaConsumer::commitSync);
+        } catch (KafkaException e) {
+            onCommitComplete(commitStart, e);
+            throw e;
+        }
+        onCommitComplete(commitStart, null);
+    }
+
+    /**
+     * Commits the offsets and waits for the commit to complete, regardless of the async commit config.
+     *
+     * @param offsets offsets to commit
+     */
+    public void commitSync(Map<TopicPartition, OffsetAndMetadata> offsets) {
+        commit(offsets, false);
+    }
+
+    /**
+     * Counts the records read from the assigned partitions after their committed offsets.
+     * It fetches the committed offsets from the broker, so it is meant to be called once on shutdown.
+     *
+     * @return number of records which will be consumed again by the next consumer of these partitions
+     */
+    public long countUncommittedMessages() {
+        Set<TopicPartition> assignment = kafkaConsumer.assignment();
+        Map<TopicPartition, OffsetAndMetadata> committed;
+        try {
+            committed = kafkaConsumer.committed(assignment);
+        } catch (WakeupException e) {
+            committed = kafkaConsumer.committed(assignment);
+        }
+        long uncommittedMessages = 0;
+        for (TopicPartition topicPartition : assignment) {
+            OffsetAndMetadata committedOffset = committed.get(topicPartition);
+            if (committedOffset != null) {
+                uncommittedMessages += Math.max(0, kafkaConsumer.position(topicPartition) - committedOffset.offset());
+            }
+        }
+        return uncommittedMessages;
+    }
+
+    private void commit(Map<TopicPartition, OffsetAndMetadata> offsets, boolean async) {
+        Map<TopicPartition, OffsetAndMetadata> latestOffsets = filterCommittedOffsets(offsets);
         if (latestOffsets.isEmpty()) {
             return;
         }
         latestOffsets.forEach((k, v) ->
-                instrumentation.logInfo("Committing Offsets " + k.topic() + ":" + k.partition() + "=>" + v.offset()));
-        if (consumerConfig.isSourceKafkaAsyncCommitEnable()) {
-            commitAsync(latestOffsets);
+                instrumentation.logDebug("Committing Offsets " + k.topic() + ":" + k.partition() + "=>" + v.offset()));
+        Instant commitStart = Instant.now();
+        if (async) {
+            kafkaConsumer.commitAsync(latestOffsets, (committed, exception) -> onCommitComplete(commitStart, exception));
         } else {
-            kafkaConsumer.commitSync(latestOffsets);
+            try {
+                retryOnWakeup(() -> kafkaConsumer.commitSync(latestOffsets));
+            } catch (KafkaException e) {
+                onCommitComplete(commitStart, e);
+                throw e;
+            }
+            onCommitComplete(commitStart, null);
         }
         committedOffsets.putAll(latestOffsets);
     }
 
-    private void commitAsync(Map<TopicPartition, OffsetAndMetadata> offsets) {
-        kafkaConsumer.commitAsync(offsets, this::onComplete);
+    /**
+     * Sets the consumer work to settle before partitions are revoked, see {@link #drainPartitions(Collection)}.
+     * The drainer is called on the thread polling the kafka consumer, so it must not be used with a prefetching consumer.
+     *
+     * @param partitionDrainer work of the consumer
+     */
+    public void setPartitionDrainer(PartitionDrainer partitionDrainer) {
+        this.partitionDrainer = partitionDrainer;
+    }
+
+    /**
+     * Lets the consumer finish the work in progress of partitions about to be revoked.
+     * It is called from the rebalance listener before the committable offsets of these partitions are computed.
+     *
+     * @param partitions partitions about to be revoked
+     */
+    public void drainPartitions(Collection<TopicPartition> partitions) {
+        if (partitionDrainer != null) {
+            partitionDrainer.drainPartitions(partitions, consumerConfig.getApplicationThreadDrainTimeoutMs());
+        }
+    }
+
+    /**
+     * Forgets partitions already owned by another consumer, without committing their offsets.
+     * It is called from the rebalance listener.
+     *
+     * @param partitions lost partitions
+     */
+    public void onPartitionsLost(Collection<TopicPartition> partitions) {
+        if (partitionDrainer != null) {
+            partitionDrainer.dropPartitions(partitions);
+        }
+        partitions.forEach(committedOffsets::remove);
+    }
+
+    /**
+     * Synchronously commits the offsets of revoked partitions and forgets the offsets committed for them.
+     * It is called from the rebalance listener, so it runs on the thread polling the kafka consumer.
+     *
+     * @param partitions         revoked partitions
+     * @param committableOffsets committable offsets of the revoked partitions
+     */
+    public void onPartitionsRevoked(Collection<TopicPartition> partitions, Map<TopicPartition, OffsetAndMetadata> committableOffsets) {
+        Map<TopicPartition, OffsetAndMetadata> latestOffsets = filterCommittedOffsets(committableOffsets);
+        if (!latestOffsets.isEmpty()) {
+            latestOffsets.forEach((k, v) ->
+                    instrumentation.logInfo("Committing Offsets of revoked partition " + k.topic() + ":" + k.partition() + "=>" + v.offset()));
+            Instant commitStart = Instant.now();
+            try {
+                retryOnWakeup(() -> kafkaConsumer.commitSync(latestOffsets));
+                onCommitComplete(commitStart, null);
+            } catch (KafkaException e) {
+                onCommitComplete(commitStart, e);
+                instrumentation.captureNonFatalError(e, "Exception while committing offsets of revoked partitions");
+            }
+        }
+        partitions.forEach(committedOffsets::remove);
+    }
+
+    private Map<TopicPartition, OffsetAndMetadata> filterCommittedOffsets(Map<TopicPartition, OffsetAndMetadata> offsets) {
+        return offsets.entrySet()
+                .stream()
+                .filter(metadataEntry -> !committedOffsets.containsKey(metadataEntry.getKey())
+                        || metadataEntry.getValue().offset() > committedOffsets.get(metadataEntry.getKey()).offset())
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    }
+
+    /**
+     * A wakeup issued while no poll is blocked is thrown by the next blocking call, which may be a commit.
+     * The wakeup only asks the consumer to stop, so the commit is issued again.
+     */
+    private void retryOnWakeup(Runnable call) {
+        try {
+            call.run();
+        } catch (WakeupException e) {
+            call.run();
+        }
     }
 
-    private void onComplete(Map<TopicPartition, OffsetAndMetadata> offsets, Exception exception) {
+    private void onCommitComplete(Instant commitStart, Exception exception) {
         if (exception != null) {
             instrumentation.incrementCounter(SOURCE_KAFKA_MESSAGES_COMMIT_TOTAL, FAILURE_TAG);
         } else {
             instrumentation.incrementCounter(SOURCE_KAFKA_MESSAGES_COMMIT_TOTAL, SUCCESS_TAG);
         }
+        instrumentation.captureDurationSince(SOURCE_KAFKA_COMMIT_TIME_MILLISECONDS, commitStart);
     }
 }
@@ -4,124 +4,261 @@ import io.odpf.firehose.message.Message;
 import org.apache.kafka.clients.consumer.OffsetAndMetadata;
 import org.apache.kafka.common.TopicPartition;
 
-import java.util.Comparator;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
-import java.util.Set;
-import java.util.TreeSet;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * OffsetManager is a data structure which keeps tracks of all offsets that can be committed to kafka.
  * <p>
+ * Offsets are tracked as one [min, max] range per batch per partition, not per message.
+ * A committable offset of a partition is right after the committable ranges that precede the first pending offset.
+ * Ranges of batches may interleave, as when the messages of a partition are split by key, the committable offset
+ * still stops at the first pending offset, so only the contiguous prefix of pushed messages is committed.
+ * <p>
  * This class is thread safe. Multiple sinks can use the same object.
+ * Every partition is guarded by its own lock, so sinks working on different partitions do not contend.
  */
 public class OffsetManager {
-    private final Map<Object, Set<OffsetNode>> toBeCommittableBatchOffsets = new HashMap<>();
-    private final Map<TopicPartition, TreeSet<OffsetNode>> sortedOffsets = new HashMap<>();
+    private final Map<Object, BatchOffsets> toBeCommittableBatchOffsets = Collections.synchronizedMap(new HashMap<>());
+    private final Map<TopicPartition, PartitionOffsets> partitionOffsetRanges = new ConcurrentHashMap<>();
 
     /**
      * @param offsetKeyToMessagesMap A map of key to list of messages to be added
      */
-    public synchronized void addOffsetToBatch(Map<Object, List<Message>> offsetKeyToMessagesMap) {
+    public void addOffsetToBatch(Map<Object, List<Message>> offsetKeyToMessagesMap) {
         offsetKeyToMessagesMap.forEach(this::addOffsetToBatch);
     }
 
-    public synchronized void addOffsetsAndSetCommittable(List<Message> messageList) {
-        String syncBatchKey = "sync_batch_key";
-        addOffsetToBatch(syncBatchKey, messageList);
-        setCommittable(syncBatchKey);
+    public void addOffsetsAndSetCommittable(List<Message> messageList) {
+        forEachOffsetRange(messageList, (partitionOffsets, minOffset, maxOffset) -> partitionOffsets.add(minOffset, maxOffset, true));
     }
 
-    public synchronized void addOffsetToBatch(Object batch, List<Message> messageList) {
-        messageList.forEach(m -> addOffsetToBatch(batch, m));
+    public void addOffsetToBatch(Object batch, List<Message> messageList) {
+        BatchOffsets batchOffsets = toBeCommittableBatchOffsets.computeIfAbsent(batch, x -> new BatchOffsets());
+        forEachOffsetRange(messageList, batchOffsets::add);
     }
 
     /**
      * @param batch   key for which this offset belongs to.
      * @param message message to extract offset metadata.
      */
-    public synchronized void addOffsetToBatch(Object batch, Message message) {
-        OffsetNode currentNode = new OffsetNode(
-                new TopicPartition(message.getTopic(), message.getPartition()),
-                new OffsetAndMetadata(message.getOffset() + 1));
-        addOffsetToBatch(batch, currentNode);
-    }
-
-    private synchronized void addOffsetToBatch(Object batch, OffsetNode node) {
-        toBeCommittableBatchOffsets.computeIfAbsent(batch, x -> new HashSet<>()).add(node);
-        sortedOffsets.computeIfAbsent(
-                node.getTopicPartition(),
-                topicPartition -> new TreeSet<>(Comparator.comparingLong(offsetNode -> offsetNode.getOffsetAndMetadata().offset()))).add(node);
+    public void addOffsetToBatch(Object batch, Message message) {
+        addOffsetToBatch(batch, Collections.singletonList(message));
     }
 
     /**
      * @param batch key for which all offsets can be committed.
      *              Removes the batch from the global map for the cleanup.
      */
-    public synchronized void setCommittable(Object batch) {
-        toBeCommittableBatchOffsets.getOrDefault(batch, new HashSet<>()).forEach(offsetNode -> offsetNode.setCommittable(true));
+    public void setCommittable(Object batch) {
+        BatchOffsets batchOffsets = toBeCommittableBatchOffsets.remove(batch);
+        if (batchOffsets != null) {
+            batchOffsets.setCommittable();
+        }
+    }
+
+    /**
+     * @param batch key of a batch which is not going to be pushed, as its messages are consumed again by the new owner
+     *              of their partitions. Its offsets stay pending, so the committable offsets never move past them,
+     *              until their partitions are removed.
+     */
+    public void removeBatch(Object batch) {
         toBeCommittableBatchOffsets.remove(batch);
     }
 
     /**
      * @return offsets for all partitions
-     * It also compact internal sorted list per partition by removing redundant offsets.
+     * It also compact internal ranges per partition by removing the ones already covered by the committable offset.
      */
-    public synchronized Map<TopicPartition, OffsetAndMetadata> getCommittableOffset() {
-        return sortedOffsets.entrySet().stream().collect(
-                Collectors.toMap(
-                        Map.Entry::getKey,
-                        kv -> compactAndFetchFirstCommittableNode(kv.getValue())
-                )).entrySet().stream().filter(kv -> kv.getValue().isPresent()).collect(
-                Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().get().getOffsetAndMetadata()));
+    public Map<TopicPartition, OffsetAndMetadata> getCommittableOffset() {
+        Map<TopicPartition, OffsetAndMetadata> committableOffsets = new HashMap<>();
+        partitionOffsetRanges.forEach((topicPartition, partitionOffsets) -> {
+            long committableOffset = partitionOffsets.compactAndFetchCommittableOffset();
+            if (committableOffset >= 0) {
+                committableOffsets.put(topicPartition, new OffsetAndMetadata(committableOffset));
+            }
+        });
+        return committableOffsets;
     }
 
     /**
-     * @param nodes Sorted List of offsets
-     * @return the first offset that is set to be committable just before a non-committable offset in the list.
+     * Removes the offsets of partitions no longer assigned to this consumer.
+     * Batches still in flight for these partitions no longer affect the committable offsets.
+     *
+     * @param partitions partitions to remove
+     * @return committable offsets of the removed partitions
      */
-    protected Optional<OffsetNode> compactAndFetchFirstCommittableNode(TreeSet<OffsetNode> nodes) {
-        if (nodes.size() == 0) {
-            return Optional.empty();
-        }
-        Iterator<OffsetNode> iterator = nodes.iterator();
-        OffsetNode current = null;
-        OffsetNode previous;
-        while (iterator.hasNext()) {
-            previous = current;
-            current = iterator.next();
-            if (!current.isCommittable()) {
-                break;
+    public Map<TopicPartition, OffsetAndMetadata> removePartitions(Collection<TopicPartition> partitions) {
+        Map<TopicPartition, OffsetAndMetadata> committableOffsets = new HashMap<>();
+        partitions.forEach(topicPartition -> {
+            PartitionOffsets partitionOffsets = partitionOffsetRanges.remove(topicPartition);
+            long committableOffset = partitionOffsets == null ? -1 : partitionOffsets.compactAndFetchCommittableOffset();
+            if (committableOffset >= 0) {
+                committableOffsets.put(topicPartition, new OffsetAndMetadata(committableOffset));
             }
-            if (previous != null) {
-                previous.setRemovable(true);
-            }
-        }
+        });
+        return committableOffsets;
+    }
 
-        // Compact
-        iterator = nodes.iterator();
-        while (iterator.hasNext()) {
-            if (iterator.next().isRemovable()) {
-                iterator.remove();
+    protected int getOffsetRangeCount(TopicPartition topicPartition) {
+        PartitionOffsets partitionOffsets = partitionOffsetRanges.get(topicPartition);
+        return partitionOffsets == null ? 0 : partitionOffsets.size();
+    }
+
+    protected boolean hasBatch(Object key) {
+        return toBeCommittableBatchOffsets.containsKey(key);
+    }
+
+    /**
+     * Calls the consumer once for every run of consecutive messages of the same partition,
+     * so the partition lookup is only done when the partition changes.
+     */
+    private void forEachOffsetRange(List<Message> messageList, OffsetRangeConsumer consumer) {
+        PartitionOffsets current = null;
+        String topic = null;
+        int partition = -1;
+        long minOffset = 0;
+        long maxOffset = 0;
+        for (Message message : messageList) {
+            if (current == null || message.getPartition() != partition || !message.getTopic().equals(topic)) {
+                if (current != null) {
+                    consumer.accept(current, minOffset, maxOffset);
+                }
+                topic = message.getTopic();
+                partition = message.getPartition();
+                current = partitionOffsetRanges.computeIfAbsent(new TopicPartition(topic, partition), x -> new PartitionOffsets());
+                minOffset = message.getOffset();
+                maxOffset = message.getOffset();
             } else {
-                break;
+                minOffset = Math.min(minOffset, message.getOffset());
+                maxOffset = Math.max(maxOffset, message.getOffset());
             }
         }
-        return nodes.first().isCommittable() ? Optional.of(nodes.first()) : Optional.empty();
+        if (current != null) {
+            consumer.accept(current, minOffset, maxOffset);
+        }
     }
 
-    protected TreeSet<OffsetNode> getOffsetsForTopicPartition(TopicPartition topicPartition) {
-        return sortedOffsets.get(topicPartition);
+    private interface OffsetRangeConsumer {
+        void accept(PartitionOffsets partitionOffsets, long minOffset, long maxOffset);
     }
 
-    protected Set<OffsetNode> getOffsetsForBatch(Object key) {
-        return toBeCommittableBatchOffsets.get(key);
+    /**
+     * Ranges added for a batch, at most one per partition.
+     */
+    private static class BatchOffsets {
+        private PartitionOffsets[] partitions = new PartitionOffsets[1];
+        private long[] sequences = new long[1];
+        private int size;
+
+        synchronized void add(PartitionOffsets partitionOffsets, long minOffset, long maxOffset) {
+            for (int i = 0; i < size; i++) {
+                if (partitions[i] == partitionOffsets) {
+                    partitionOffsets.extend(sequences[i], minOffset, maxOffset);
+                    return;
+                }
+            }
+            if (size == partitions.length) {
+                partitions = Arrays.copyOf(partitions, size * 2);
+                sequences = Arrays.copyOf(sequences, size * 2);
+            }
+            partitions[size] = partitionOffsets;
+            sequences[size] = partitionOffsets.add(minOffset, maxOffset, false);
+            size++;
+        }
+
+        synchronized void setCommittable() {
+            for (int i = 0; i < size; i++) {
+                partitions[i].setCommittable(sequences[i]);
+            }
+        }
     }
 
+    /**
+     * Ring buffer of the offset ranges of a partition in the order they were added.
+     * A range is addressed by a sequence number, which stays valid until the range is compacted.
+     */
+    private static class PartitionOffsets {
+        private static final int INITIAL_CAPACITY = 8;
+        private long[] minOffsets = new long[INITIAL_CAPACITY];
+        private long[] maxOffsets = new long[INITIAL_CAPACITY];
+        private boolean[] committable = new boolean[INITIAL_CAPACITY];
+        private long head;
+        private long tail;
+        private long committableOffset = -1;
+
+        synchronized long add(long minOffset, long maxOffset, boolean isCommittable) {
+            if (tail - head == minOffsets.length) {
+                grow();
+            }
+            int index = index(tail);
+            minOffsets[index] = minOffset;
+            maxOffsets[index] = maxOffset;
+            committable[index] = isCommittable;
+            return tail++;
+        }
+
+        synchronized void extend(long sequence, long minOffset, long maxOffset) {
+            int index = index(sequence);
+            minOffsets[index] = Math.min(minOffsets[index], minOffset);
+            maxOffsets[index] = Math.max(maxOffsets[index], maxOffset);
+        }
+
+        synchronized void setCommittable(long sequence) {
+            committable[index(sequence)] = true;
+        }
 
+        synchronized int size() {
+            return (int) (tail - head);
+        }
+
+        /**
+         * @return the offset to commit, -1 if nothing is committable yet.
+         */
+        synchronized long compactAndFetchCommittableOffset() {
+            long firstPendingOffset = Long.MAX_VALUE;
+            for (long sequence = head; sequence < tail; sequence++) {
+                int index = index(sequence);
+                if (!committable[index]) {
+                    firstPendingOffset = Math.min(firstPendingOffset, minOffsets[index]);
+                }
+            }
+            for (long sequence = head; sequence < tail; sequence++) {
+                int index = index(sequence);
+                if (committable[index] && minOffsets[index] < firstPendingOffset) {
+                    committableOffset = Math.max(committableOffset, Math.min(maxOffsets[index] + 1, firstPendingOffset));
+                }
+            }
+            while (head < tail && committable[index(head)] && maxOffsets[index(head)] < firstPendingOffset) {
+                head++;
+            }
+            return committableOffset;
+        }
+
+        private int index(long sequence) {
+            return (int) (sequence & (minOffsets.length - 1));
+        }
+
+        private void grow() {
+            int capacity = minOffsets.length * 2;
+            long[] newMinOffsets = new long[capacity];
+            long[] newMaxOffsets = new long[capacity];
+            boolean[] newCommittable = new boolean[capacity];
+            for (long sequence = head; sequence < tail; sequence++) {
+                int oldIndex = index(sequence);
+                int newIndex = (int) (sequence & (capacity - 1));
+                newMinOffsets[newIndex] = minOffsets[oldIndex];
+                newMaxOffsets[newIndex] = maxOffsets[oldIndex];
+                newCommittable[newIndex] = committable[oldIndex];
+            }
+            minOffsets = newMinOffsets;
+            maxOffsets = newMaxOffsets;
+            committable = newCommittable;
+        }
+    }
 }
@@ -0,0 +1,27 @@
+package io.odpf.firehose.consumer.kafka;
+
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.Collection;
+
+/**
+ * Work in progress of a consumer that has to be settled when partitions move to another consumer.
+ * It is called from the rebalance listener, on the thread polling the kafka consumer.
+ */
+public interface PartitionDrainer {
+
+    /**
+     * Finishes the work in progress of partitions about to be revoked, so their offsets are committed before they move.
+     *
+     * @param partitions    partitions about to be revoked
+     * @param timeoutMillis maximum time to wait for the work in progress
+     */
+    void drainPartitions(Collection<TopicPartition> partitions, long timeoutMillis);
+
+    /**
+     * Drops the work not started yet of partitions already owned by another consumer.
+     *
+     * @param partitions lost partitions
+     */
+    void dropPartitions(Collection<TopicPartition> partitions);
+}
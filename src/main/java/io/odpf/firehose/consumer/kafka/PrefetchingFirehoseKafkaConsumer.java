@@ -0,0 +1,260 @@
+package io.odpf.firehose.consumer.kafka;
+
+import io.odpf.firehose.config.KafkaConsumerConfig;
+import io.odpf.firehose.consumer.MemoryBudget;
+import io.odpf.firehose.message.MessageBatch;
+import io.odpf.firehose.metrics.Instrumentation;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Kafka consumer that polls the next batch on a dedicated poller thread
+ * while the caller is still pushing the current batch to the sink.
+ * <p>
+ * Every call on the underlying kafka consumer, poll, pause, resume, commit and close, runs on the poller thread
+ * as the kafka consumer is not thread safe. A commit issued while a poll is blocked wakes the poll up,
+ * the interrupted poll is then simply issued again.
+ * <p>
+ * The consumer position already covers the prefetched batch, so {@link #commit()} commits
+ * the offsets of the batches handed out by {@link #readMessageBatch()} instead of the consumer position.
+ * <p>
+ * The prefetched batch holds its bytes in the {@link MemoryBudget} until it is handed out.
+ */
+public class PrefetchingFirehoseKafkaConsumer extends FirehoseKafkaConsumer {
+
+    private final Consumer<byte[], byte[]> kafkaConsumer;
+    private final Instrumentation instrumentation;
+    private final ExecutorService poller;
+    private final MemoryBudget memoryBudget;
+    private final Map<TopicPartition, OffsetAndMetadata> readOffsets = new ConcurrentHashMap<>();
+    private Future<MessageBatch> nextBatch;
+    private volatile boolean wokenUp;
+
+    public PrefetchingFirehoseKafkaConsumer(Consumer<byte[], byte[]> kafkaConsumer, KafkaConsumerConfig config, Instrumentation instrumentation, MemoryBudget memoryBudget) {
+        this(kafkaConsumer, config, instrumentation, memoryBudget, Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "firehose-kafka-poller")));
+    }
+
+    PrefetchingFirehoseKafkaConsumer(Consumer<byte[], byte[]> kafkaConsumer, KafkaConsumerConfig config, Instrumentation instrumentation, MemoryBudget memoryBudget, ExecutorService poller) {
+        super(kafkaConsumer, config, instrumentation);
+        this.kafkaConsumer = kafkaConsumer;
+        this.instrumentation = instrumentation;
+        this.memoryBudget = memoryBudget;
+        this.poller = poller;
+    }
+
+    /**
+     * Returns the prefetched batch and starts fetching the next one.
+     * If the batch is not fetched within the given time, an empty batch is returned and the fetch goes on.
+     *
+     * @param maxWaitMillis longest time to wait for the prefetched batch
+     * @return batch of messages, empty if the calling thread got interrupted
+     */
+    @Override
+    public MessageBatch readMessageBatch(long maxWaitMillis) {
+        long deadlineMillis = maxWaitMillis == Long.MAX_VALUE ? Long.MAX_VALUE : System.currentTimeMillis() + maxWaitMillis;
+        MessageBatch messageBatch = null;
+        while (messageBatch == null) {
+            if (nextBatch == null) {
+                nextBatch = poller.submit(this::poll);
+            }
+            if (!awaitDone(nextBatch, deadlineMillis)) {
+                return new MessageBatch(0);
+            }
+            messageBatch = await(nextBatch);
+            nextBatch = null;
+            if (messageBatch == null && wokenUp) {
+                wokenUp = false;
+                throw new WakeupException();
+            }
+        }
+        nextBatch = poller.submit(this::poll);
+        memoryBudget.release(MemoryBudget.Stage.PREFETCHED, MemoryBudget.sizeOf(messageBatch));
+        for (int i = 0; i < messageBatch.size(); i++) {
+            readOffsets.put(
+                    new TopicPartition(messageBatch.getTopic(i), messageBatch.getPartition(i)),
+                    new OffsetAndMetadata(messageBatch.getOffset(i) + 1));
+        }
+        return messageBatch;
+    }
+
+    /**
+     * Wakes up the poll of the poller thread, the caller waiting for its batch then throws {@link WakeupException}.
+     */
+    @Override
+    public void wakeup() {
+        wokenUp = true;
+        kafkaConsumer.wakeup();
+    }
+
+    @Override
+    public void pause() {
+        runOnPoller(super::pause);
+    }
+
+    @Override
+    public void resume() {
+        runOnPoller(super::resume);
+    }
+
+    @Override
+    public void commit() {
+        if (!readOffsets.isEmpty()) {
+            commit(new HashMap<>(readOffsets));
+        }
+    }
+
+    @Override
+    public void commit(Map<TopicPartition, OffsetAndMetadata> offsets) {
+        runOnPoller(() -> super.commit(offsets));
+    }
+
+    @Override
+    public void commitSync() {
+        if (!readOffsets.isEmpty()) {
+            commitSync(new HashMap<>(readOffsets));
+        }
+    }
+
+    @Override
+    public void commitSync(Map<TopicPartition, OffsetAndMetadata> offsets) {
+        runOnPoller(() -> super.commitSync(offsets));
+    }
+
+    @Override
+    public long countUncommittedMessages() {
+        wakeupPendingPoll();
+        Long uncommittedMessages = await(poller.submit(() -> {
+            try {
+                return super.countUncommittedMessages();
+            } catch (WakeupException e) {
+                return super.countUncommittedMessages();
+            }
+        }));
+        return uncommittedMessages == null ? 0 : uncommittedMessages;
+    }
+
+    /**
+     * Runs on the poller thread, from within the poll that triggered the rebalance.
+     */
+    @Override
+    public void onPartitionsRevoked(Collection<TopicPartition> partitions, Map<TopicPartition, OffsetAndMetadata> committableOffsets) {
+        super.onPartitionsRevoked(partitions, committableOffsets);
+        partitions.forEach(readOffsets::remove);
+    }
+
+    /**
+     * Runs on the poller thread, from within the poll that found out about the lost partitions.
+     */
+    @Override
+    public void onPartitionsLost(Collection<TopicPartition> partitions) {
+        super.onPartitionsLost(partitions);
+        partitions.forEach(readOffsets::remove);
+    }
+
+    @Override
+    public void close() {
+        kafkaConsumer.wakeup();
+        try {
+            await(poller.submit(super::close));
+            releasePrefetchedBatch();
+        } finally {
+            poller.shutdownNow();
+        }
+    }
+
+    private MessageBatch poll() {
+        try {
+            MessageBatch messageBatch = super.readMessageBatch(Long.MAX_VALUE);
+            memoryBudget.acquire(MemoryBudget.Stage.PREFETCHED, MemoryBudget.sizeOf(messageBatch));
+            return messageBatch;
+        } catch (WakeupException e) {
+            instrumentation.logDebug("Prefetch poll woken up, polling again");
+            return null;
+        }
+    }
+
+    /**
+     * Runs a call on the kafka consumer on the poller thread and waits for it.
+     * A poll blocked on the poller thread is woken up first, the call is issued again if it catches the wakeup instead.
+     */
+    private void runOnPoller(Runnable call) {
+        wakeupPendingPoll();
+        await(poller.submit(() -> {
+            try {
+                call.run();
+            } catch (WakeupException e) {
+                call.run();
+            }
+            return null;
+        }));
+    }
+
+    private void releasePrefetchedBatch() {
+        if (nextBatch != null && nextBatch.isDone()) {
+            MessageBatch messageBatch = await(nextBatch);
+            if (messageBatch != null) {
+                memoryBudget.release(MemoryBudget.Stage.PREFETCHED, MemoryBudget.sizeOf(messageBatch));
+            }
+            nextBatch = null;
+        }
+    }
+
+    private void wakeupPendingPoll() {
+        if (nextBatch != null && !nextBatch.isDone()) {
+            kafkaConsumer.wakeup();
+        }
+    }
+
+    /**
+     * Waits until the task is done or the deadline passed.
+     * Returns false, keeping the interrupt flag, if the calling thread gets interrupted.
+     */
+    private boolean awaitDone(Future<?> future, long deadlineMillis) {
+        try {
+            if (deadlineMillis == Long.MAX_VALUE) {
+                future.get();
+            } else {
+                future.get(Math.max(0, deadlineMillis - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (TimeoutException e) {
+            return false;
+        } catch (ExecutionException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Waits for a task submitted to the poller thread.
+     * Returns null, keeping the interrupt flag, if the calling thread gets interrupted.
+     */
+    private <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+}
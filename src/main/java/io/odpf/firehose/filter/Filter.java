@@ -1,8 +1,12 @@
 package io.odpf.firehose.filter;
 
 import io.odpf.firehose.message.Message;
+import io.odpf.firehose.message.MessageBatch;
 
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Interface for filtering the messages.
@@ -18,4 +22,24 @@ public interface Filter {
      */
     FilteredMessages filter(List<Message> messages) throws FilterException;
 
+    /**
+     * Marks the messages of the batch which are filtered out.
+     * By default it filters the messages of the batch as a list and marks the invalid ones.
+     *
+     * @param messageBatch messages read in one poll
+     * @throws FilterException the filter exception
+     */
+    default void filter(MessageBatch messageBatch) throws FilterException {
+        FilteredMessages filteredMessages = filter(messageBatch.getMessages());
+        if (filteredMessages.sizeOfInvalidMessages() == 0) {
+            return;
+        }
+        Set<Message> invalidMessages = Collections.newSetFromMap(new IdentityHashMap<>());
+        invalidMessages.addAll(filteredMessages.getInvalidMessages());
+        for (int i = 0; i < messageBatch.size(); i++) {
+            if (invalidMessages.contains(messageBatch.getMessage(i))) {
+                messageBatch.markFiltered(i);
+            }
+        }
+    }
 }
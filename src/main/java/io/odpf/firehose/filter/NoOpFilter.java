@@ -1,6 +1,7 @@
 package io.odpf.firehose.filter;
 
 import io.odpf.firehose.message.Message;
+import io.odpf.firehose.message.MessageBatch;
 import io.odpf.firehose.metrics.Instrumentation;
 
 import java.util.List;
@@ -24,4 +25,13 @@ public class NoOpFilter implements Filter {
         messages.forEach(filteredMessages::addToValidMessages);
         return filteredMessages;
     }
+
+    /**
+     * Keeps every message of the batch.
+     *
+     * @param messageBatch messages read in one poll
+     */
+    @Override
+    public void filter(MessageBatch messageBatch) {
+    }
 }
@@ -0,0 +1,110 @@
+package io.odpf.firehose.filter;
+
+import io.odpf.firehose.message.Message;
+import io.odpf.firehose.message.MessageBatch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Filter splitting large batches into chunks which are decoded and filtered in parallel.
+ * <p>
+ * Batches smaller than the threshold are filtered on the calling thread.
+ * Larger batches are cut into chunks of the chunk size, every chunk but the first runs on the fork join pool,
+ * the first one on the calling thread. The results are merged back in the order of the messages.
+ * <p>
+ * The wrapped filter is called from several threads at once, so it must be thread safe.
+ */
+public class ParallelFilter implements Filter {
+    private final Filter filter;
+    private final ForkJoinPool pool;
+    private final int threshold;
+    private final int chunkSize;
+
+    /**
+     * @param filter    filter applied to every chunk
+     * @param pool      pool running the chunks, shared by the consumer threads
+     * @param threshold minimum number of messages for a batch to be filtered in parallel
+     * @param chunkSize number of messages per chunk
+     */
+    public ParallelFilter(Filter filter, ForkJoinPool pool, int threshold, int chunkSize) {
+        this.filter = filter;
+        this.pool = pool;
+        this.threshold = threshold;
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    @Override
+    public FilteredMessages filter(List<Message> messages) throws FilterException {
+        if (messages.size() < threshold || messages.size() <= chunkSize) {
+            return filter.filter(messages);
+        }
+        List<ForkJoinTask<FilteredMessages>> tasks = new ArrayList<>();
+        for (int from = chunkSize; from < messages.size(); from += chunkSize) {
+            List<Message> chunk = messages.subList(from, Math.min(from + chunkSize, messages.size()));
+            tasks.add(pool.submit(() -> filterChunk(chunk)));
+        }
+        FilteredMessages filteredMessages = filter.filter(messages.subList(0, chunkSize));
+        for (ForkJoinTask<FilteredMessages> task : tasks) {
+            FilteredMessages chunkMessages = join(task);
+            chunkMessages.getValidMessages().forEach(filteredMessages::addToValidMessages);
+            chunkMessages.getInvalidMessages().forEach(filteredMessages::addToInvalidMessages);
+        }
+        return filteredMessages;
+    }
+
+    @Override
+    public void filter(MessageBatch messageBatch) throws FilterException {
+        if (messageBatch.size() < threshold || messageBatch.size() <= chunkSize) {
+            filter.filter(messageBatch);
+            return;
+        }
+        List<ForkJoinTask<MessageBatch>> tasks = new ArrayList<>();
+        for (int from = chunkSize; from < messageBatch.size(); from += chunkSize) {
+            MessageBatch chunk = messageBatch.slice(from, Math.min(from + chunkSize, messageBatch.size()));
+            tasks.add(pool.submit(() -> filterChunk(chunk)));
+        }
+        MessageBatch firstChunk = messageBatch.slice(0, chunkSize);
+        filter.filter(firstChunk);
+        messageBatch.mergeSlice(0, firstChunk);
+        for (int i = 0; i < tasks.size(); i++) {
+            messageBatch.mergeSlice((i + 1) * chunkSize, join(tasks.get(i)));
+        }
+    }
+
+    private FilteredMessages filterChunk(List<Message> chunk) {
+        try {
+            return filter.filter(chunk);
+        } catch (FilterException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    private MessageBatch filterChunk(MessageBatch chunk) {
+        try {
+            filter.filter(chunk);
+            return chunk;
+        } catch (FilterException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    /**
+     * Waits for a chunk, a failed chunk fails the whole batch with the exception of its filter.
+     */
+    private <T> T join(ForkJoinTask<T> task) throws FilterException {
+        try {
+            return task.join();
+        } catch (RuntimeException e) {
+            for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+                if (cause instanceof FilterException) {
+                    throw (FilterException) cause;
+                }
+            }
+            throw e;
+        }
+    }
+}
@@ -1,20 +1,21 @@
 package io.odpf.firehose.filter.jexl;
 
+import com.google.protobuf.InvalidProtocolBufferException;
 import io.odpf.firehose.config.FilterConfig;
 import io.odpf.firehose.config.enums.FilterDataSourceType;
+import io.odpf.firehose.exception.ConfigurationException;
 import io.odpf.firehose.message.Message;
+import io.odpf.firehose.message.MessageBatch;
 import io.odpf.firehose.filter.Filter;
 import io.odpf.firehose.filter.FilterException;
 import io.odpf.firehose.filter.FilteredMessages;
 import io.odpf.firehose.metrics.Instrumentation;
+import io.odpf.firehose.proto.GeneratedProtoParser;
 import org.apache.commons.jexl2.Expression;
-import org.apache.commons.jexl2.JexlContext;
 import org.apache.commons.jexl2.JexlEngine;
 import org.apache.commons.jexl2.JexlException;
 import org.apache.commons.jexl2.MapContext;
-import org.apache.commons.lang3.reflect.MethodUtils;
 
-import java.lang.reflect.InvocationTargetException;
 import java.util.List;
 
 /**
@@ -24,12 +25,21 @@ import java.util.List;
  * The filter expression is obtained from the {@link FilterConfig#getFilterJexlExpression()}
  * along with configurations for {@link FilterConfig#getFilterDataSource()} - [key|message]
  * and {@link FilterConfig#getFilterSchemaProtoClass()} - FQCN of the protobuf schema.
+ * <p>
+ * The expression, the parser of the schema and the name the message is bound to are resolved once,
+ * each thread evaluates with its own context so batches can be filtered in parallel.
  */
 public class JexlFilter implements Filter {
 
+    private static final int EXPRESSION_CACHE_SIZE = 64;
+    private static final JexlEngine ENGINE = createEngine();
+
     private final Expression expression;
     private final FilterDataSourceType filterDataSourceType;
     private final String protoSchema;
+    private final GeneratedProtoParser protoParser;
+    private final String objectAccessor;
+    private final ThreadLocal<MapContext> context = ThreadLocal.withInitial(MapContext::new);
 
     /**
      * Instantiates a new Message filter.
@@ -38,13 +48,12 @@ public class JexlFilter implements Filter {
      * @param instrumentation the instrumentation
      */
     public JexlFilter(FilterConfig filterConfig, Instrumentation instrumentation) {
-        JexlEngine engine = new JexlEngine();
-        engine.setSilent(false);
-        engine.setStrict(true);
         this.filterDataSourceType = filterConfig.getFilterDataSource();
         this.protoSchema = filterConfig.getFilterSchemaProtoClass();
         instrumentation.logInfo("\n\tFilter type: {}", this.filterDataSourceType);
-        this.expression = engine.createExpression(filterConfig.getFilterJexlExpression());
+        this.expression = ENGINE.createExpression(filterConfig.getFilterJexlExpression());
+        this.protoParser = createParser(protoSchema);
+        this.objectAccessor = getObjectAccessor();
         instrumentation.logInfo("\n\tFilter schema: {}", this.protoSchema);
         instrumentation.logInfo("\n\tFilter expression: {}", filterConfig.getFilterJexlExpression());
     }
@@ -60,28 +69,69 @@ public class JexlFilter implements Filter {
     public FilteredMessages filter(List<Message> messages) throws FilterException {
         FilteredMessages filteredMessages = new FilteredMessages();
         for (Message message : messages) {
-            try {
-                Object data = (filterDataSourceType.equals(FilterDataSourceType.KEY)) ? message.getLogKey() : message.getLogMessage();
-                Object obj = MethodUtils.invokeStaticMethod(Class.forName(protoSchema), "parseFrom", data);
-                if (evaluate(obj)) {
-                    filteredMessages.addToValidMessages(message);
-                } else {
-                    filteredMessages.addToInvalidMessages(message);
-                }
-            } catch (ClassNotFoundException | NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
-                throw new FilterException("Failed while filtering EsbMessages", e);
+            byte[] data = (filterDataSourceType.equals(FilterDataSourceType.KEY)) ? message.getLogKey() : message.getLogMessage();
+            if (evaluate(parse(data))) {
+                filteredMessages.addToValidMessages(message);
+            } else {
+                filteredMessages.addToInvalidMessages(message);
             }
         }
         return filteredMessages;
 
     }
 
+    /**
+     * Marks the messages of the batch not matching the filter expression,
+     * reading the payloads straight from the batch.
+     *
+     * @param messageBatch messages read in one poll
+     * @throws FilterException the filter exception
+     */
+    @Override
+    public void filter(MessageBatch messageBatch) throws FilterException {
+        boolean isKey = filterDataSourceType.equals(FilterDataSourceType.KEY);
+        for (int i = 0; i < messageBatch.size(); i++) {
+            byte[] data = isKey ? messageBatch.getLogKey(i) : messageBatch.getLogMessage(i);
+            if (!evaluate(parse(data))) {
+                messageBatch.markFiltered(i);
+            }
+        }
+    }
+
+    private static JexlEngine createEngine() {
+        JexlEngine engine = new JexlEngine();
+        engine.setSilent(false);
+        engine.setStrict(true);
+        engine.setCache(EXPRESSION_CACHE_SIZE);
+        return engine;
+    }
+
+    private static GeneratedProtoParser createParser(String protoSchema) {
+        try {
+            return GeneratedProtoParser.of(Class.forName(protoSchema));
+        } catch (ClassNotFoundException | NoSuchMethodException | IllegalAccessException e) {
+            throw new ConfigurationException("Invalid filter schema proto class " + protoSchema, e);
+        }
+    }
+
+    private Object parse(byte[] data) throws FilterException {
+        try {
+            return protoParser.parse(data);
+        } catch (InvalidProtocolBufferException e) {
+            throw new FilterException("Failed while filtering EsbMessages", e);
+        }
+    }
+
     private boolean evaluate(Object data) throws FilterException {
         Object result;
+        MapContext jexlContext = context.get();
+        jexlContext.set(objectAccessor, data);
         try {
-            result = expression.evaluate(convertDataToContext(data));
-        } catch (JexlException | IllegalAccessException e) {
+            result = expression.evaluate(jexlContext);
+        } catch (JexlException e) {
             throw new FilterException("Failed while filtering " + e.getMessage());
+        } finally {
+            jexlContext.set(objectAccessor, null);
         }
         if (result instanceof Boolean) {
             return (Boolean) result;
@@ -90,15 +140,9 @@ public class JexlFilter implements Filter {
         }
     }
 
-    private JexlContext convertDataToContext(Object t) throws IllegalAccessException {
-        JexlContext context = new MapContext();
-        context.set(getObjectAccessor(), t);
-        return context;
-    }
-
     private String getObjectAccessor() {
         String[] schemaNameSplit = protoSchema.split("\\.");
-        String objectAccessor = schemaNameSplit[schemaNameSplit.length - 1];
-        return objectAccessor.substring(0, 1).toLowerCase() + objectAccessor.substring(1);
+        String className = schemaNameSplit[schemaNameSplit.length - 1];
+        return className.substring(0, 1).toLowerCase() + className.substring(1);
     }
 }
@@ -3,6 +3,7 @@ package io.odpf.firehose.filter.json;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.protobuf.Descriptors;
 import com.google.protobuf.DynamicMessage;
 import com.google.protobuf.util.JsonFormat;
 import com.networknt.schema.JsonSchema;
@@ -28,6 +29,10 @@ import static io.odpf.firehose.config.enums.FilterDataSourceType.KEY;
 /**
  * JSON-based filter to filter protobuf/JSON messages based on rules
  * defined in a JSON Schema string.
+ * <p>
+ * When {@link FilterConfig#isFilterJsonSchemaCompileEnable()} is set, protobuf messages are validated
+ * with the schema compiled into a {@link ProtoJsonSchema}, falling back to printing them to JSON
+ * when the schema uses keywords which are not compiled.
  */
 public class JsonFilter implements Filter {
 
@@ -37,6 +42,8 @@ public class JsonFilter implements Filter {
     private final ObjectMapper objectMapper = new ObjectMapper();
     private JsonFormat.Printer jsonPrinter;
     private Parser parser;
+    private JsonNode schemaNode;
+    private volatile ProtoJsonSchema compiledSchema;
 
     /**
      * Instantiates a new Json filter.
@@ -52,7 +59,20 @@ public class JsonFilter implements Filter {
         if (filterConfig.getFilterESBMessageFormat() == FilterMessageFormatType.PROTOBUF) {
             this.parser = stencilClient.getParser(filterConfig.getFilterSchemaProtoClass());
             this.jsonPrinter = JsonFormat.printer().preservingProtoFieldNames();
+            if (filterConfig.isFilterJsonSchemaCompileEnable()) {
+                compileSchema(stencilClient.get(filterConfig.getFilterSchemaProtoClass()));
+            }
+        }
+    }
+
+    private void compileSchema(Descriptors.Descriptor descriptor) {
+        try {
+            schemaNode = objectMapper.readTree(filterConfig.getFilterJsonSchema());
+        } catch (JsonProcessingException e) {
+            schemaNode = null;
         }
+        compiledSchema = ProtoJsonSchema.compile(schemaNode, descriptor);
+        instrumentation.logInfo("\n\tFilter JSON Schema compiled: {}", compiledSchema != null);
     }
 
     /**
@@ -66,9 +86,8 @@ public class JsonFilter implements Filter {
     public FilteredMessages filter(List<Message> messages) throws FilterException {
         FilteredMessages filteredMessages = new FilteredMessages();
         for (Message message : messages) {
-            byte[] data = (filterConfig.getFilterDataSource().equals(KEY)) ? message.getLogKey() : message.getLogMessage();
-            String jsonMessage = deserialize(data);
-            if (evaluate(jsonMessage)) {
+            boolean isValid = compiledSchema != null ? evaluate(parse(message)) : evaluate(deserialize(message));
+            if (isValid) {
                 filteredMessages.addToValidMessages(message);
             } else {
                 filteredMessages.addToInvalidMessages(message);
@@ -93,18 +112,45 @@ public class JsonFilter implements Filter {
         }
     }
 
-    private String deserialize(byte[] data) throws FilterException {
+    private boolean evaluate(DynamicMessage dynamicMessage) throws FilterException {
+        ProtoJsonSchema protoJsonSchema = compiledSchema;
+        if (protoJsonSchema != null && protoJsonSchema.getDescriptor() != dynamicMessage.getDescriptorForType()) {
+            protoJsonSchema = ProtoJsonSchema.compile(schemaNode, dynamicMessage.getDescriptorForType());
+            compiledSchema = protoJsonSchema;
+        }
+        if (protoJsonSchema == null) {
+            return evaluate(print(dynamicMessage));
+        }
+        String error = protoJsonSchema.validate(dynamicMessage);
+        if (error != null) {
+            instrumentation.logDebug("Message filtered out due to: {}", error);
+        }
+        return error == null;
+    }
+
+    private DynamicMessage parse(Message message) throws FilterException {
+        try {
+            return filterConfig.getFilterDataSource().equals(KEY) ? message.getParsedLogKey(parser) : message.getParsedLogMessage(parser);
+        } catch (Exception e) {
+            throw new FilterException("Failed to parse Protobuf message", e);
+        }
+    }
+
+    private String print(DynamicMessage dynamicMessage) throws FilterException {
+        try {
+            return jsonPrinter.print(dynamicMessage);
+        } catch (Exception e) {
+            throw new FilterException("Failed to parse Protobuf message", e);
+        }
+    }
+
+    private String deserialize(Message message) throws FilterException {
+        boolean isKey = filterConfig.getFilterDataSource().equals(KEY);
         switch (filterConfig.getFilterESBMessageFormat()) {
             case PROTOBUF:
-                try {
-                    DynamicMessage message = parser.parse(data);
-                    return jsonPrinter.print(message);
-
-                } catch (Exception e) {
-                    throw new FilterException("Failed to parse Protobuf message", e);
-                }
+                return print(parse(message));
             case JSON:
-                return new String(data, Charset.defaultCharset());
+                return new String(isKey ? message.getLogKey() : message.getLogMessage(), Charset.defaultCharset());
             default:
                 throw new FilterException("Invalid message format type");
         }
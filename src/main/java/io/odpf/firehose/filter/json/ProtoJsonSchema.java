@@ -0,0 +1,309 @@
+package io.odpf.firehose.filter.json;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.Descriptors;
+import com.google.protobuf.Message;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * JSON Schema compiled into checks over the fields of a protobuf message.
+ * <p>
+ * The checks evaluate the schema the way it would evaluate the JSON printed from the message with proto field names,
+ * without printing it. Only the keywords {@code properties}, {@code required}, {@code const}, {@code enum},
+ * {@code minimum}, {@code maximum}, {@code pattern} and {@code type} are compiled, a schema using any other keyword,
+ * or applying these to repeated, map or well known type fields, is not compiled.
+ */
+public final class ProtoJsonSchema {
+    private static final Set<String> ANNOTATIONS = new HashSet<>(Arrays.asList("$schema", "$id", "$comment", "title", "description"));
+    private static final String WELL_KNOWN_TYPES_PACKAGE = "google.protobuf";
+
+    private final Descriptors.Descriptor descriptor;
+    private final List<Check> checks;
+
+    private ProtoJsonSchema(Descriptors.Descriptor descriptor, List<Check> checks) {
+        this.descriptor = descriptor;
+        this.checks = checks;
+    }
+
+    /**
+     * @param schema     the JSON Schema
+     * @param descriptor descriptor of the messages to validate
+     * @return the compiled schema, null if the schema uses keywords which are not compiled
+     */
+    public static ProtoJsonSchema compile(JsonNode schema, Descriptors.Descriptor descriptor) {
+        if (schema == null || descriptor == null || !schema.isObject()) {
+            return null;
+        }
+        try {
+            return new ProtoJsonSchema(descriptor, compileMessage(schema, descriptor));
+        } catch (UnsupportedSchemaException e) {
+            return null;
+        }
+    }
+
+    public Descriptors.Descriptor getDescriptor() {
+        return descriptor;
+    }
+
+    /**
+     * @param message message of the compiled descriptor
+     * @return the first validation error, null if the message is valid
+     */
+    public String validate(Message message) {
+        return validate(checks, message, "$");
+    }
+
+    private static String validate(List<Check> fieldChecks, Object value, String path) {
+        for (Check check : fieldChecks) {
+            String error = check.validate(value, path);
+            if (error != null) {
+                return error;
+            }
+        }
+        return null;
+    }
+
+    private static List<Check> compileMessage(JsonNode schema, Descriptors.Descriptor messageType) throws UnsupportedSchemaException {
+        List<Check> messageChecks = new ArrayList<>();
+        Iterator<Map.Entry<String, JsonNode>> keywords = schema.fields();
+        while (keywords.hasNext()) {
+            Map.Entry<String, JsonNode> keyword = keywords.next();
+            switch (keyword.getKey()) {
+                case "properties":
+                    messageChecks.addAll(compileProperties(keyword.getValue(), messageType));
+                    break;
+                case "required":
+                    messageChecks.add(compileRequired(keyword.getValue(), messageType));
+                    break;
+                case "type":
+                    messageChecks.add(compileType(keyword.getValue(), false));
+                    break;
+                default:
+                    checkAnnotation(keyword.getKey());
+            }
+        }
+        return messageChecks;
+    }
+
+    private static List<Check> compileProperties(JsonNode properties, Descriptors.Descriptor messageType) throws UnsupportedSchemaException {
+        if (!properties.isObject()) {
+            throw new UnsupportedSchemaException();
+        }
+        List<Check> propertyChecks = new ArrayList<>();
+        Iterator<Map.Entry<String, JsonNode>> fields = properties.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> property = fields.next();
+            Descriptors.FieldDescriptor field = messageType.findFieldByName(property.getKey());
+            if (!property.getValue().isObject()) {
+                throw new UnsupportedSchemaException();
+            }
+            if (field == null) {
+                continue;
+            }
+            List<Check> fieldChecks = compileField(property.getValue(), field);
+            if (fieldChecks.isEmpty()) {
+                continue;
+            }
+            propertyChecks.add((value, path) -> {
+                Message message = (Message) value;
+                if (!isPresent(message, field)) {
+                    return null;
+                }
+                return validate(fieldChecks, toJsonValue(field, message.getField(field)), path + "." + field.getName());
+            });
+        }
+        return propertyChecks;
+    }
+
+    private static List<Check> compileField(JsonNode schema, Descriptors.FieldDescriptor field) throws UnsupportedSchemaException {
+        if (field.getJavaType() == Descriptors.FieldDescriptor.JavaType.MESSAGE && !field.isRepeated()
+                && !field.getMessageType().getFile().getPackage().equals(WELL_KNOWN_TYPES_PACKAGE)) {
+            return compileMessage(schema, field.getMessageType());
+        }
+        boolean isSupported = !field.isRepeated()
+                && field.getJavaType() != Descriptors.FieldDescriptor.JavaType.MESSAGE
+                && !(field.getJavaType() == Descriptors.FieldDescriptor.JavaType.ENUM && field.getEnumType().getFullName().equals("google.protobuf.NullValue"));
+        List<Check> fieldChecks = new ArrayList<>();
+        Iterator<Map.Entry<String, JsonNode>> keywords = schema.fields();
+        while (keywords.hasNext()) {
+            Map.Entry<String, JsonNode> keyword = keywords.next();
+            if (ANNOTATIONS.contains(keyword.getKey())) {
+                continue;
+            }
+            if (!isSupported) {
+                throw new UnsupportedSchemaException();
+            }
+            fieldChecks.add(compileLeafKeyword(keyword.getKey(), keyword.getValue(), isIntegral(field)));
+        }
+        return fieldChecks;
+    }
+
+    private static Check compileLeafKeyword(String keyword, JsonNode node, boolean isIntegral) throws UnsupportedSchemaException {
+        switch (keyword) {
+            case "const":
+                return (value, path) -> matches(node, value) ? null : path + ": must be a constant value " + node.asText();
+            case "enum":
+                if (!node.isArray()) {
+                    throw new UnsupportedSchemaException();
+                }
+                return (value, path) -> {
+                    for (JsonNode element : node) {
+                        if (matches(element, value)) {
+                            return null;
+                        }
+                    }
+                    return path + ": does not have a value in the enumeration " + node;
+                };
+            case "minimum":
+                BigDecimal minimum = toDecimal(node);
+                return (value, path) -> !(value instanceof BigDecimal) || ((BigDecimal) value).compareTo(minimum) >= 0
+                        ? null : path + ": must have a minimum value of " + node.asText();
+            case "maximum":
+                BigDecimal maximum = toDecimal(node);
+                return (value, path) -> !(value instanceof BigDecimal) || ((BigDecimal) value).compareTo(maximum) <= 0
+                        ? null : path + ": must have a maximum value of " + node.asText();
+            case "pattern":
+                if (!node.isTextual()) {
+                    throw new UnsupportedSchemaException();
+                }
+                Pattern pattern = Pattern.compile(node.textValue());
+                return (value, path) -> !(value instanceof String) || pattern.matcher((String) value).find()
+                        ? null : path + ": does not match the regex pattern " + node.textValue();
+            case "type":
+                return compileType(node, isIntegral);
+            default:
+                throw new UnsupportedSchemaException();
+        }
+    }
+
+    private static Check compileRequired(JsonNode required, Descriptors.Descriptor messageType) throws UnsupportedSchemaException {
+        if (!required.isArray()) {
+            throw new UnsupportedSchemaException();
+        }
+        List<String> names = new ArrayList<>();
+        required.forEach(name -> names.add(name.asText()));
+        return (value, path) -> {
+            Message message = (Message) value;
+            for (String name : names) {
+                Descriptors.FieldDescriptor field = messageType.findFieldByName(name);
+                if (field == null || !isPresent(message, field)) {
+                    return path + "." + name + ": is missing but it is required";
+                }
+            }
+            return null;
+        };
+    }
+
+    private static Check compileType(JsonNode node, boolean isIntegral) throws UnsupportedSchemaException {
+        Set<String> types = new HashSet<>();
+        if (node.isTextual()) {
+            types.add(node.textValue());
+        } else if (node.isArray()) {
+            node.forEach(type -> types.add(type.asText()));
+        } else {
+            throw new UnsupportedSchemaException();
+        }
+        return (value, path) -> {
+            String type = jsonType(value, isIntegral);
+            boolean isValid = types.contains(type) || (type.equals("integer") && types.contains("number"));
+            return isValid ? null : path + ": " + type + " found, " + node.asText() + " expected";
+        };
+    }
+
+    private static void checkAnnotation(String keyword) throws UnsupportedSchemaException {
+        if (!ANNOTATIONS.contains(keyword)) {
+            throw new UnsupportedSchemaException();
+        }
+    }
+
+    private static BigDecimal toDecimal(JsonNode node) throws UnsupportedSchemaException {
+        if (!node.isNumber()) {
+            throw new UnsupportedSchemaException();
+        }
+        return node.decimalValue();
+    }
+
+    private static boolean matches(JsonNode node, Object value) {
+        if (value instanceof BigDecimal) {
+            return node.isNumber() && node.decimalValue().compareTo((BigDecimal) value) == 0;
+        }
+        if (value instanceof String) {
+            return node.isTextual() && node.textValue().equals(value);
+        }
+        return node.isBoolean() && value.equals(node.booleanValue());
+    }
+
+    private static String jsonType(Object value, boolean isIntegral) {
+        if (value instanceof Message) {
+            return "object";
+        }
+        if (value instanceof String) {
+            return "string";
+        }
+        if (value instanceof Boolean) {
+            return "boolean";
+        }
+        return isIntegral ? "integer" : "number";
+    }
+
+    private static boolean isPresent(Message message, Descriptors.FieldDescriptor field) {
+        return field.isRepeated() ? message.getRepeatedFieldCount(field) > 0 : message.hasField(field);
+    }
+
+    private static boolean isIntegral(Descriptors.FieldDescriptor field) {
+        return field.getJavaType() == Descriptors.FieldDescriptor.JavaType.INT || field.getJavaType() == Descriptors.FieldDescriptor.JavaType.ENUM;
+    }
+
+    /**
+     * Converts a field value the way it is printed to JSON, 64 bit integers and bytes are printed as strings.
+     */
+    private static Object toJsonValue(Descriptors.FieldDescriptor field, Object value) {
+        switch (field.getType()) {
+            case INT32:
+            case SINT32:
+            case SFIXED32:
+                return BigDecimal.valueOf((Integer) value);
+            case UINT32:
+            case FIXED32:
+                return BigDecimal.valueOf(Integer.toUnsignedLong((Integer) value));
+            case INT64:
+            case SINT64:
+            case SFIXED64:
+                return Long.toString((Long) value);
+            case UINT64:
+            case FIXED64:
+                return Long.toUnsignedString((Long) value);
+            case FLOAT:
+                Float floatValue = (Float) value;
+                return floatValue.isNaN() || floatValue.isInfinite() ? floatValue.toString() : new BigDecimal(floatValue.toString());
+            case DOUBLE:
+                Double doubleValue = (Double) value;
+                return doubleValue.isNaN() || doubleValue.isInfinite() ? doubleValue.toString() : new BigDecimal(doubleValue.toString());
+            case BYTES:
+                return Base64.getEncoder().encodeToString(((ByteString) value).toByteArray());
+            case ENUM:
+                Descriptors.EnumValueDescriptor enumValue = (Descriptors.EnumValueDescriptor) value;
+                return enumValue.getIndex() == -1 ? BigDecimal.valueOf(enumValue.getNumber()) : enumValue.getName();
+            default:
+                return value;
+        }
+    }
+
+    private interface Check {
+        String validate(Object value, String path);
+    }
+
+    private static class UnsupportedSchemaException extends Exception {
+    }
+}
@@ -6,9 +6,14 @@ import io.odpf.firehose.consumer.FirehoseConsumerFactory;
 import io.odpf.firehose.metrics.Instrumentation;
 import io.odpf.firehose.metrics.StatsDReporter;
 import io.odpf.firehose.metrics.StatsDReporterFactory;
+import io.odpf.firehose.utils.SharedResourceRegistry;
 import org.aeonbits.owner.ConfigFactory;
+import org.apache.kafka.common.errors.WakeupException;
 
 import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Main class to run firehose.
@@ -33,27 +38,30 @@ public class Main {
         Instrumentation instrumentation = new Instrumentation(statsDReporter, Main.class);
         instrumentation.logInfo("Number of consumer threads: " + kafkaConsumerConfig.getApplicationThreadCount());
         instrumentation.logInfo("Delay to clean up consumer threads in ms: " + kafkaConsumerConfig.getApplicationThreadCleanupDelay());
+        instrumentation.logInfo("Timeout to drain consumer threads in ms: " + kafkaConsumerConfig.getApplicationThreadDrainTimeoutMs());
 
+        SharedResourceRegistry sharedResourceRegistry = new SharedResourceRegistry();
+        AtomicBoolean stopRequested = new AtomicBoolean(false);
+        Set<FirehoseConsumer> runningConsumers = ConcurrentHashMap.newKeySet();
         Task consumerTask = new Task(
                 kafkaConsumerConfig.getApplicationThreadCount(),
                 kafkaConsumerConfig.getApplicationThreadCleanupDelay(),
+                kafkaConsumerConfig.getApplicationThreadDrainTimeoutMs(),
                 new Instrumentation(statsDReporter, Task.class),
                 taskFinished -> {
 
                     FirehoseConsumer firehoseConsumer = null;
                     try {
-                        firehoseConsumer = new FirehoseConsumerFactory(kafkaConsumerConfig, statsDReporter).buildConsumer();
-                        while (true) {
-                            if (Thread.interrupted()) {
-                                instrumentation.logWarn("Consumer Thread interrupted, leaving the loop!");
-                                break;
-                            }
-                            firehoseConsumer.process();
-                        }
+                        firehoseConsumer = new FirehoseConsumerFactory(kafkaConsumerConfig, statsDReporter, sharedResourceRegistry).buildConsumer();
+                        runningConsumers.add(firehoseConsumer);
+                        consume(firehoseConsumer, stopRequested, kafkaConsumerConfig.getApplicationThreadDrainTimeoutMs(), instrumentation);
                     } catch (Exception e) {
                         instrumentation.captureFatalError(e, "Exception on creating the consumer, exiting the application");
                         System.exit(1);
                     } finally {
+                        if (firehoseConsumer != null) {
+                            runningConsumers.remove(firehoseConsumer);
+                        }
                         ensureThreadInterruptStateIsClearedAndClose(firehoseConsumer, instrumentation);
                         taskFinished.run();
                     }
@@ -62,13 +70,57 @@ public class Main {
 
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
             instrumentation.logInfo("Program is going to exit. Have started execution of shutdownHook before this");
+            stopRequested.set(true);
+            runningConsumers.forEach(FirehoseConsumer::wakeup);
             consumerTask.stop();
         }));
 
         consumerTask.run().waitForCompletion();
+        try {
+            sharedResourceRegistry.close();
+        } catch (IOException e) {
+            instrumentation.captureNonFatalError(e, "Exception on closing shared resources");
+        }
         instrumentation.logInfo("Exiting main thread");
     }
 
+    /**
+     * Processes until the consumer is finished or asked to stop, then drains it.
+     * A stop wakes up the consumer blocked in a poll, the woken up consumer is drained like any other stopped one.
+     */
+    static void consume(FirehoseConsumer firehoseConsumer, AtomicBoolean stopRequested, long drainTimeoutMillis, Instrumentation instrumentation) throws IOException {
+        while (true) {
+            if (Thread.interrupted()) {
+                instrumentation.logWarn("Consumer Thread interrupted, leaving the loop!");
+                break;
+            }
+            if (stopRequested.get()) {
+                instrumentation.logInfo("Stop requested");
+                drain(firehoseConsumer, drainTimeoutMillis, instrumentation);
+                break;
+            }
+            if (firehoseConsumer.isFinished()) {
+                instrumentation.logInfo("Consumer finished reading");
+                drain(firehoseConsumer, drainTimeoutMillis, instrumentation);
+                break;
+            }
+            try {
+                firehoseConsumer.process();
+            } catch (WakeupException e) {
+                instrumentation.logInfo("Consumer woken up");
+            }
+        }
+    }
+
+    private static void drain(FirehoseConsumer firehoseConsumer, long timeoutMillis, Instrumentation instrumentation) {
+        instrumentation.logInfo("Draining the consumer");
+        try {
+            firehoseConsumer.drain(timeoutMillis);
+        } catch (Exception e) {
+            instrumentation.captureNonFatalError(e, "Exception while draining the consumer");
+        }
+    }
+
     private static void ensureThreadInterruptStateIsClearedAndClose(FirehoseConsumer firehoseConsumer, Instrumentation instrumentation) {
         Thread.interrupted();
         try {
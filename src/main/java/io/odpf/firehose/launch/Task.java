@@ -6,18 +6,23 @@ import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
 import io.odpf.firehose.metrics.Instrumentation;
 
 /**
  * The Task with parallelism.
+ * <p>
+ * Stopping the task first gives the task threads the drain timeout plus the cleanup delay to finish on their own,
+ * the threads are interrupted only if they are still running after that.
  */
 public class Task {
 
     private final ExecutorService executorService;
     private int parallelism;
     private int threadCleanupDelay;
+    private int drainTimeoutMillis;
     private Consumer<Runnable> task;
     private Runnable taskFinishCallback;
     private final CountDownLatch countDownLatch;
@@ -33,9 +38,23 @@ public class Task {
      * @param task               the task
      */
     public Task(int parallelism, int threadCleanupDelay, Instrumentation instrumentation, Consumer<Runnable> task) {
+        this(parallelism, threadCleanupDelay, 0, instrumentation, task);
+    }
+
+    /**
+     * Instantiates a new Task which lets its threads drain before interrupting them.
+     *
+     * @param parallelism        the parallelism
+     * @param threadCleanupDelay the thread cleanup delay
+     * @param drainTimeoutMillis the time the threads get to drain once stopped
+     * @param instrumentation    the instrumentation
+     * @param task               the task
+     */
+    public Task(int parallelism, int threadCleanupDelay, int drainTimeoutMillis, Instrumentation instrumentation, Consumer<Runnable> task) {
         executorService = Executors.newFixedThreadPool(parallelism);
         this.parallelism = parallelism;
         this.threadCleanupDelay = threadCleanupDelay;
+        this.drainTimeoutMillis = drainTimeoutMillis;
         this.task = task;
         this.countDownLatch = new CountDownLatch(parallelism);
         this.fnFutures = new ArrayList<>(parallelism);
@@ -52,17 +71,27 @@ public class Task {
         return this;
     }
 
+    /**
+     * Waits for all the task threads to finish, then lets the threads of the pool exit, so the process can end on its own.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
     public void waitForCompletion() throws InterruptedException {
         instrumentation.logInfo("waiting for completion");
         countDownLatch.await();
+        executorService.shutdown();
     }
 
     public Task stop() {
         try {
-            instrumentation.logInfo("Stopping task thread");
+            instrumentation.logInfo("Waiting up to {} ms for task threads to drain", drainTimeoutMillis + threadCleanupDelay);
+            if (countDownLatch.await(drainTimeoutMillis + threadCleanupDelay, TimeUnit.MILLISECONDS)) {
+                return this;
+            }
+            instrumentation.logWarn("Task threads did not drain in time, stopping task thread");
             fnFutures.forEach(consumerThread -> consumerThread.cancel(true));
-            instrumentation.logInfo("Sleeping thread during clean up for {} duration", threadCleanupDelay);
-            Thread.sleep(threadCleanupDelay);
+            instrumentation.logInfo("Waiting up to {} ms for task threads to clean up", threadCleanupDelay);
+            countDownLatch.await(threadCleanupDelay, TimeUnit.MILLISECONDS);
         } catch (InterruptedException e) {
             instrumentation.captureNonFatalError(e, "error stopping tasks");
         }
@@ -1,9 +1,14 @@
 package io.odpf.firehose.message;
 
 
+import com.google.protobuf.DynamicMessage;
+import com.google.protobuf.InvalidProtocolBufferException;
 import io.odpf.firehose.error.ErrorInfo;
 import io.odpf.firehose.error.ErrorType;
 import io.odpf.firehose.exception.DefaultException;
+import io.odpf.firehose.proto.GeneratedProtoParser;
+import io.odpf.stencil.Parser;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
@@ -14,6 +19,10 @@ import java.util.Base64;
 
 /**
  * A class to hold a single protobuf message in binary format.
+ * <p>
+ * The decoded forms of the key and the message are memoized per {@link Parser},
+ * so the filter, the sink and the retry decorator decode each record only once per parser.
+ * The form parsed with a generated proto class is memoized per proto descriptor.
  */
 @Getter
 @EqualsAndHashCode
@@ -29,6 +38,12 @@ public class Message {
     private long consumeTimestamp;
     @Setter
     private ErrorInfo errorInfo;
+    @Getter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    private final ParsedPayload parsedLogKey = new ParsedPayload();
+    @Getter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    private final ParsedPayload parsedLogMessage = new ParsedPayload();
 
     public void setDefaultErrorIfNotPresent() {
         if (errorInfo == null) {
@@ -81,6 +96,54 @@ public class Message {
                 errorInfo);
     }
 
+    /**
+     * Gets the log key decoded with the given parser.
+     * The result is reused whenever the same parser is asked for it again.
+     *
+     * @param parser the parser for the key schema
+     * @return the decoded key
+     * @throws InvalidProtocolBufferException when the key can not be parsed
+     */
+    public DynamicMessage getParsedLogKey(Parser parser) throws InvalidProtocolBufferException {
+        return (DynamicMessage) parsedLogKey.get(parser, () -> parser.parse(logKey));
+    }
+
+    /**
+     * Gets the log key parsed with a generated proto class.
+     * The result is reused by every parser of the same proto class.
+     *
+     * @param parser the parser of the generated key class
+     * @return the parsed key
+     * @throws InvalidProtocolBufferException when the key can not be parsed
+     */
+    public com.google.protobuf.Message getParsedLogKey(GeneratedProtoParser parser) throws InvalidProtocolBufferException {
+        return parsedLogKey.get(parser.getDescriptor(), () -> parser.parse(logKey));
+    }
+
+    /**
+     * Gets the log message decoded with the given parser.
+     * The result is reused whenever the same parser is asked for it again.
+     *
+     * @param parser the parser for the message schema
+     * @return the decoded message
+     * @throws InvalidProtocolBufferException when the message can not be parsed
+     */
+    public DynamicMessage getParsedLogMessage(Parser parser) throws InvalidProtocolBufferException {
+        return (DynamicMessage) parsedLogMessage.get(parser, () -> parser.parse(logMessage));
+    }
+
+    /**
+     * Gets the log message parsed with a generated proto class.
+     * The result is reused by every parser of the same proto class.
+     *
+     * @param parser the parser of the generated message class
+     * @return the parsed message
+     * @throws InvalidProtocolBufferException when the message can not be parsed
+     */
+    public com.google.protobuf.Message getParsedLogMessage(GeneratedProtoParser parser) throws InvalidProtocolBufferException {
+        return parsedLogMessage.get(parser.getDescriptor(), () -> parser.parse(logMessage));
+    }
+
     /**
      * Gets serialized key.
      *
@@ -105,4 +168,40 @@ public class Message {
         }
         return new String(Base64.getEncoder().encode(bytes));
     }
+
+    /**
+     * Decoded forms of a payload, one per parser or generated proto descriptor which decoded it.
+     * A filter and a sink decoding with different parsers, then a retry of the sink, reuse their own decoded forms.
+     */
+    private static class ParsedPayload {
+        private static final int MAX_DECODED_FORMS = 4;
+        private Decoded head;
+        private int size;
+
+        com.google.protobuf.Message get(Object currentDecoder, PayloadDecoder decoder) throws InvalidProtocolBufferException {
+            for (Decoded decoded = head; decoded != null; decoded = decoded.next) {
+                if (decoded.decodedWith == currentDecoder) {
+                    return decoded.message;
+                }
+            }
+            if (size == MAX_DECODED_FORMS) {
+                head = null;
+                size = 0;
+            }
+            head = new Decoded(currentDecoder, decoder.decode(), head);
+            size++;
+            return head.message;
+        }
+    }
+
+    @AllArgsConstructor
+    private static class Decoded {
+        private final Object decodedWith;
+        private final com.google.protobuf.Message message;
+        private final Decoded next;
+    }
+
+    private interface PayloadDecoder {
+        com.google.protobuf.Message decode() throws InvalidProtocolBufferException;
+    }
 }
@@ -0,0 +1,276 @@
+package io.odpf.firehose.message;
+
+import org.apache.kafka.common.header.Headers;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.function.IntPredicate;
+
+/**
+ * Messages read in one poll, stored column by column.
+ * <p>
+ * Topics are interned per batch, partitions, offsets and timestamps are kept in primitive arrays
+ * and payloads are referenced as they came from kafka. A {@link Message} is only created for a row
+ * when something asks for it, and then reused.
+ * <p>
+ * Filters mark the rows they drop instead of building new lists.
+ * {@link #getValidMessages()} and {@link #getFilteredMessages()} are list views over the marked rows,
+ * so existing {@code Sink.pushMessage(List)} implementations keep working as is.
+ */
+public class MessageBatch {
+    private static final int DEFAULT_CAPACITY = 16;
+    private final Map<String, Integer> topicIds = new HashMap<>();
+    private final List<String> topics = new ArrayList<>();
+    private int[] topicIndexes;
+    private int[] partitions;
+    private long[] offsets;
+    private long[] timestamps;
+    private long[] consumeTimestamps;
+    private byte[][] logKeys;
+    private byte[][] logMessages;
+    private Headers[] headers;
+    private Message[] messages;
+    private final BitSet filtered = new BitSet();
+    private int size;
+
+    public MessageBatch(int capacity) {
+        topicIndexes = new int[capacity];
+        partitions = new int[capacity];
+        offsets = new long[capacity];
+        timestamps = new long[capacity];
+        consumeTimestamps = new long[capacity];
+        logKeys = new byte[capacity][];
+        logMessages = new byte[capacity][];
+        headers = new Headers[capacity];
+        messages = new Message[capacity];
+    }
+
+    /**
+     * Wraps already created messages, the same instances are handed out again.
+     *
+     * @param messageList messages to wrap
+     * @return batch of the messages
+     */
+    public static MessageBatch of(List<Message> messageList) {
+        MessageBatch messageBatch = new MessageBatch(messageList.size());
+        for (Message message : messageList) {
+            messageBatch.add(message.getLogKey(), message.getLogMessage(), message.getTopic(), message.getPartition(),
+                    message.getOffset(), message.getHeaders(), message.getTimestamp(), message.getConsumeTimestamp());
+            messageBatch.messages[messageBatch.size - 1] = message;
+        }
+        return messageBatch;
+    }
+
+    /**
+     * Appends a row.
+     *
+     * @param logKey           the log key
+     * @param logMessage       the log message
+     * @param topic            the topic
+     * @param partition        the partition
+     * @param offset           the offset
+     * @param header           the headers
+     * @param timestamp        the kafka timestamp
+     * @param consumeTimestamp the consume timestamp
+     */
+    public void add(byte[] logKey, byte[] logMessage, String topic, int partition, long offset, Headers header, long timestamp, long consumeTimestamp) {
+        if (size == offsets.length) {
+            grow();
+        }
+        Integer topicId = topicIds.get(topic);
+        if (topicId == null) {
+            topicId = topics.size();
+            topicIds.put(topic, topicId);
+            topics.add(topic);
+        }
+        topicIndexes[size] = topicId;
+        partitions[size] = partition;
+        offsets[size] = offset;
+        timestamps[size] = timestamp;
+        consumeTimestamps[size] = consumeTimestamp;
+        logKeys[size] = logKey;
+        logMessages[size] = logMessage;
+        headers[size] = header;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Copies the rows accepted by the filter into a new batch, the payloads and created messages are shared.
+     *
+     * @param rowFilter tells if the row at an index is kept
+     * @return batch of the kept rows
+     */
+    public MessageBatch select(IntPredicate rowFilter) {
+        MessageBatch selected = new MessageBatch(size);
+        for (int i = 0; i < size; i++) {
+            if (rowFilter.test(i)) {
+                selected.add(logKeys[i], logMessages[i], topics.get(topicIndexes[i]), partitions[i], offsets[i], headers[i], timestamps[i], consumeTimestamps[i]);
+                selected.messages[selected.size - 1] = messages[i];
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Copies the rows from {@code from} to {@code to}, excluded, into a new batch, so they can be filtered on another thread.
+     * The payloads and created messages are shared, see {@link #mergeSlice(int, MessageBatch)} to bring the filter marks back.
+     *
+     * @param from index of the first row
+     * @param to   index after the last row
+     * @return batch of the rows
+     */
+    public MessageBatch slice(int from, int to) {
+        MessageBatch slice = new MessageBatch(to - from);
+        for (int i = from; i < to; i++) {
+            slice.add(logKeys[i], logMessages[i], topics.get(topicIndexes[i]), partitions[i], offsets[i], headers[i], timestamps[i], consumeTimestamps[i]);
+            slice.messages[i - from] = messages[i];
+        }
+        return slice;
+    }
+
+    /**
+     * Takes over the filter marks and the messages created in a slice of this batch.
+     *
+     * @param from  index of the first row of the slice
+     * @param slice batch returned by {@link #slice(int, int)}
+     */
+    public void mergeSlice(int from, MessageBatch slice) {
+        for (int i = 0; i < slice.size; i++) {
+            if (slice.isFiltered(i)) {
+                markFiltered(from + i);
+            }
+            if (messages[from + i] == null) {
+                messages[from + i] = slice.messages[i];
+            }
+        }
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public String getTopic(int index) {
+        return topics.get(topicIndexes[index]);
+    }
+
+    public int getPartition(int index) {
+        return partitions[index];
+    }
+
+    public long getOffset(int index) {
+        return offsets[index];
+    }
+
+    public byte[] getLogKey(int index) {
+        return logKeys[index];
+    }
+
+    public byte[] getLogMessage(int index) {
+        return logMessages[index];
+    }
+
+    /**
+     * @param index row of the message
+     * @return the message of the row, created on first access
+     */
+    public Message getMessage(int index) {
+        Message message = messages[index];
+        if (message == null) {
+            message = new Message(logKeys[index], logMessages[index], getTopic(index), partitions[index], offsets[index],
+                    headers[index], timestamps[index], consumeTimestamps[index]);
+            messages[index] = message;
+        }
+        return message;
+    }
+
+    public void markFiltered(int index) {
+        filtered.set(index);
+    }
+
+    public boolean isFiltered(int index) {
+        return filtered.get(index);
+    }
+
+    public int filteredCount() {
+        return filtered.cardinality();
+    }
+
+    /**
+     * @return view of all the messages
+     */
+    public List<Message> getMessages() {
+        int[] indexes = new int[size];
+        for (int i = 0; i < size; i++) {
+            indexes[i] = i;
+        }
+        return new MessageView(indexes);
+    }
+
+    /**
+     * @return view of the messages not marked filtered, as of this call
+     */
+    public List<Message> getValidMessages() {
+        int[] indexes = new int[size - filtered.cardinality()];
+        int count = 0;
+        for (int i = filtered.nextClearBit(0); i < size; i = filtered.nextClearBit(i + 1)) {
+            indexes[count++] = i;
+        }
+        return new MessageView(indexes);
+    }
+
+    /**
+     * @return view of the messages marked filtered, as of this call
+     */
+    public List<Message> getFilteredMessages() {
+        int[] indexes = new int[filtered.cardinality()];
+        int count = 0;
+        for (int i = filtered.nextSetBit(0); i >= 0 && i < size; i = filtered.nextSetBit(i + 1)) {
+            indexes[count++] = i;
+        }
+        return new MessageView(indexes);
+    }
+
+    private void grow() {
+        int capacity = Math.max(DEFAULT_CAPACITY, size * 2);
+        topicIndexes = Arrays.copyOf(topicIndexes, capacity);
+        partitions = Arrays.copyOf(partitions, capacity);
+        offsets = Arrays.copyOf(offsets, capacity);
+        timestamps = Arrays.copyOf(timestamps, capacity);
+        consumeTimestamps = Arrays.copyOf(consumeTimestamps, capacity);
+        logKeys = Arrays.copyOf(logKeys, capacity);
+        logMessages = Arrays.copyOf(logMessages, capacity);
+        headers = Arrays.copyOf(headers, capacity);
+        messages = Arrays.copyOf(messages, capacity);
+    }
+
+    /**
+     * Read only list of the messages of some rows.
+     */
+    private class MessageView extends AbstractList<Message> implements RandomAccess {
+        private final int[] indexes;
+
+        MessageView(int[] indexes) {
+            this.indexes = indexes;
+        }
+
+        @Override
+        public Message get(int index) {
+            return getMessage(indexes[index]);
+        }
+
+        @Override
+        public int size() {
+            return indexes.length;
+        }
+    }
+}
@@ -245,6 +245,10 @@ public class Instrumentation {
         statsDReporter.gauge(metric, value, tags);
     }
 
+    public void captureValue(String metric, Long value, String... tags) {
+        statsDReporter.gauge(metric, value, tags);
+    }
+
     // ===================== closing =================
 
     public void close() throws IOException {
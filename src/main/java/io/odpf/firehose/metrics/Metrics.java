@@ -25,6 +25,9 @@ public class Metrics {
     //GLOBAL PREFIX
     public static final String GLOBAL_PREFIX = "global_";
 
+    //MEMORY BUDGET PREFIX
+    public static final String MEMORY_BUDGET_PREFIX = "memory_budget_";
+
     //PIPELINE PREFIX
     public static final String PIPELINE_PREFIX = "pipeline_";
 
@@ -34,8 +37,13 @@ public class Metrics {
     // SOURCE MEASUREMENTS
     public static final String SOURCE_KAFKA_MESSAGES_FILTER_TOTAL = APPLICATION_PREFIX + SOURCE_PREFIX + KAFKA_PREFIX + "messages_filter_total";
     public static final String SOURCE_KAFKA_MESSAGES_COMMIT_TOTAL = APPLICATION_PREFIX + SOURCE_PREFIX + KAFKA_PREFIX + "messages_commit_total";
+    public static final String SOURCE_KAFKA_COMMIT_TIME_MILLISECONDS = APPLICATION_PREFIX + SOURCE_PREFIX + KAFKA_PREFIX + "commit_milliseconds";
     public static final String SOURCE_KAFKA_PARTITIONS_PROCESS_TIME_MILLISECONDS = APPLICATION_PREFIX + SOURCE_PREFIX + KAFKA_PREFIX + "partitions_process_milliseconds";
     public static final String SOURCE_KAFKA_PULL_BATCH_SIZE_TOTAL = APPLICATION_PREFIX + SOURCE_PREFIX + KAFKA_PREFIX + "pull_batch_size_total";
+    public static final String SOURCE_KAFKA_PAUSE_TOTAL = APPLICATION_PREFIX + SOURCE_PREFIX + KAFKA_PREFIX + "pause_total";
+    public static final String SOURCE_KAFKA_PAUSED_TIME_MILLISECONDS = APPLICATION_PREFIX + SOURCE_PREFIX + KAFKA_PREFIX + "paused_milliseconds";
+    public static final String SOURCE_KAFKA_DRAIN_TIME_MILLISECONDS = APPLICATION_PREFIX + SOURCE_PREFIX + KAFKA_PREFIX + "drain_milliseconds";
+    public static final String SOURCE_KAFKA_UNCOMMITTED_MESSAGES_TOTAL = APPLICATION_PREFIX + SOURCE_PREFIX + KAFKA_PREFIX + "uncommitted_messages_total";
 
     // SINK MEASUREMENTS
     public static final String SINK_MESSAGES_TOTAL = APPLICATION_PREFIX + SINK_PREFIX + "messages_total";
@@ -43,6 +51,8 @@ public class Metrics {
     public static final String SINK_MESSAGES_DROP_TOTAL = APPLICATION_PREFIX + SINK_PREFIX + "messages_drop_total";
     public static final String SINK_HTTP_RESPONSE_CODE_TOTAL = APPLICATION_PREFIX + SINK_PREFIX + HTTP_SINK_PREFIX + "response_code_total";
     public static final String SINK_PUSH_BATCH_SIZE_TOTAL = APPLICATION_PREFIX + SINK_PREFIX + "push_batch_size_total";
+    public static final String SINK_ADAPTIVE_BATCH_SIZE = APPLICATION_PREFIX + SINK_PREFIX + "adaptive_batch_size";
+    public static final String SINK_DEDUP_SKIPPED_TOTAL = APPLICATION_PREFIX + SINK_PREFIX + "dedup_skipped_total";
 
     // MONGO SINK MEASUREMENTS
     public static final String SINK_MONGO_INSERTED_TOTAL = APPLICATION_PREFIX + SINK_PREFIX + MONGO_SINK_PREFIX + "inserted_total";
@@ -61,6 +71,9 @@ public class Metrics {
     // GLOBAL MEASUREMENTS
     public static final String GLOBAL_MESSAGES_TOTAL = APPLICATION_PREFIX + GLOBAL_PREFIX + "messages_total";
 
+    // MEMORY BUDGET MEASUREMENTS
+    public static final String MEMORY_BUDGET_USED_BYTES = APPLICATION_PREFIX + MEMORY_BUDGET_PREFIX + "used_bytes";
+
     // PIPELINE DURATION MEASUREMENTS
     public static final String PIPELINE_END_LATENCY_MILLISECONDS = APPLICATION_PREFIX + PIPELINE_PREFIX + "end_latency_milliseconds";
     public static final String PIPELINE_EXECUTION_LIFETIME_MILLISECONDS = APPLICATION_PREFIX + PIPELINE_PREFIX + "execution_lifetime_milliseconds";
@@ -74,6 +87,7 @@ public class Metrics {
     public static final String FAILURE_TAG = "success=false";
     public static final String MESSAGE_TYPE_TAG = "type=%s"; // total, success, failure
     public static final String MESSAGE_SCOPE_TAG = "scope=%s";
+    public static final String MEMORY_BUDGET_STAGE_TAG = "stage=%s";
 
     //ERROR TAGS
     public static final String ERROR_TYPE_TAG = "error_type=%s";
@@ -61,6 +61,10 @@ public class StatsDReporter implements Closeable {
         client.gauge(withTags(metric, tags), value);
     }
 
+    public void gauge(String metric, Long value, String... tags) {
+        client.gauge(withTags(metric, tags), value);
+    }
+
     public void increment(String metric, String... tags) {
         captureCount(metric, 1, tags);
     }
@@ -0,0 +1,68 @@
+package io.odpf.firehose.proto;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Tree of the field numbers of a proto message a component reads.
+ * <p>
+ * A field is either read as a whole, or only the fields of its own projection are read from the nested message.
+ */
+public class FieldProjection {
+    private final Map<Integer, FieldProjection> fields = new HashMap<>();
+
+    /**
+     * Projection of the fields referenced by a proto index to column mapping,
+     * as in {@code INPUT_SCHEMA_PROTO_TO_COLUMN_MAPPING}. A nested mapping projects the nested message.
+     *
+     * @param protoIndexToFieldMapping mapping of field numbers to column names or nested mappings
+     * @return projection of the referenced fields
+     */
+    public static FieldProjection fromMapping(Properties protoIndexToFieldMapping) {
+        FieldProjection projection = new FieldProjection();
+        protoIndexToFieldMapping.forEach((key, value) -> projection.fields.put(
+                Integer.valueOf((String) key),
+                value instanceof Properties ? fromMapping((Properties) value) : null));
+        return projection;
+    }
+
+    /**
+     * Adds a field read as a whole.
+     *
+     * @param fieldNumber number of the field
+     * @return this projection
+     */
+    public FieldProjection addField(int fieldNumber) {
+        fields.put(fieldNumber, null);
+        return this;
+    }
+
+    /**
+     * Adds a message field of which only the fields of the nested projection are read.
+     *
+     * @param fieldNumber number of the field
+     * @param nested      projection of the nested message
+     * @return this projection
+     */
+    public FieldProjection addField(int fieldNumber, FieldProjection nested) {
+        fields.put(fieldNumber, nested);
+        return this;
+    }
+
+    public boolean contains(int fieldNumber) {
+        return fields.containsKey(fieldNumber);
+    }
+
+    /**
+     * @return projection of the nested message, null if the field is read as a whole
+     */
+    public FieldProjection getNested(int fieldNumber) {
+        return fields.get(fieldNumber);
+    }
+
+    public Map<Integer, FieldProjection> getFields() {
+        return Collections.unmodifiableMap(fields);
+    }
+}
@@ -0,0 +1,91 @@
+package io.odpf.firehose.proto;
+
+import com.google.protobuf.Descriptors;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.Message;
+import io.odpf.firehose.metrics.Instrumentation;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Parser of a protobuf generated class found on the classpath.
+ * <p>
+ * The static {@code parseFrom(byte[])} of the class is resolved once into a {@link MethodHandle},
+ * parsing then runs the generated code instead of decoding field by field into a {@link com.google.protobuf.DynamicMessage}.
+ * Fields are read through the {@link Message} interface, as with a dynamic message.
+ */
+public class GeneratedProtoParser {
+    private static final MethodType PARSE_FROM_TYPE = MethodType.methodType(Message.class, byte[].class);
+    private final MethodHandle parseFrom;
+    private final Descriptors.Descriptor descriptor;
+
+    GeneratedProtoParser(MethodHandle parseFrom, Descriptors.Descriptor descriptor) {
+        this.parseFrom = parseFrom;
+        this.descriptor = descriptor;
+    }
+
+    /**
+     * @param protoClassName fully qualified name of the proto class
+     * @return parser of the generated class, null if the class is not a generated message on the classpath
+     */
+    public static GeneratedProtoParser find(String protoClassName) {
+        try {
+            return of(Class.forName(protoClassName));
+        } catch (ClassNotFoundException | NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Same as {@link #find(String)}, logging when stencil has to be used instead.
+     *
+     * @param protoClassName  fully qualified name of the proto class
+     * @param instrumentation instrumentation of the caller
+     * @return parser of the generated class, null if the class is not a generated message on the classpath
+     */
+    public static GeneratedProtoParser find(String protoClassName, Instrumentation instrumentation) {
+        GeneratedProtoParser generatedProtoParser = find(protoClassName);
+        if (generatedProtoParser == null) {
+            instrumentation.logWarn("Generated proto class {} is not on the classpath, parsing with stencil", protoClassName);
+        }
+        return generatedProtoParser;
+    }
+
+    /**
+     * @param protoClass generated message class
+     * @return parser of the class
+     * @throws NoSuchMethodException  if the class is not a generated message
+     * @throws IllegalAccessException if the class is not public
+     */
+    public static GeneratedProtoParser of(Class<?> protoClass) throws NoSuchMethodException, IllegalAccessException {
+        if (!Message.class.isAssignableFrom(protoClass)) {
+            throw new NoSuchMethodException(protoClass.getName() + " is not a proto message");
+        }
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        MethodHandle parseFrom = lookup.findStatic(protoClass, "parseFrom", MethodType.methodType(protoClass, byte[].class)).asType(PARSE_FROM_TYPE);
+        MethodHandle getDescriptor = lookup.findStatic(protoClass, "getDescriptor", MethodType.methodType(Descriptors.Descriptor.class));
+        try {
+            return new GeneratedProtoParser(parseFrom, (Descriptors.Descriptor) getDescriptor.invokeExact());
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public Message parse(byte[] bytes) throws InvalidProtocolBufferException {
+        try {
+            return (Message) parseFrom.invokeExact(bytes);
+        } catch (InvalidProtocolBufferException | RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public Descriptors.Descriptor getDescriptor() {
+        return descriptor;
+    }
+}
@@ -0,0 +1,94 @@
+package io.odpf.firehose.proto;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.Descriptors;
+import com.google.protobuf.DynamicMessage;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.WireFormat;
+import io.odpf.stencil.Parser;
+import io.odpf.stencil.client.StencilClient;
+
+import java.io.IOException;
+import java.util.function.Supplier;
+
+/**
+ * Parser decoding only the fields of a {@link FieldProjection}.
+ * <p>
+ * The payload is walked tag by tag on the wire format, fields outside of the projection are skipped without being decoded.
+ * The referenced fields are decoded straight into the message, nested messages with their own projection are projected the same way.
+ * The returned message only has the referenced fields set, reading any other field gives its default value.
+ * <p>
+ * The descriptor is resolved on every parse, schema refreshes are not affected.
+ */
+public class ProjectedParser implements Parser {
+    private final Supplier<Descriptors.Descriptor> descriptorSupplier;
+    private final FieldProjection projection;
+
+    public ProjectedParser(Supplier<Descriptors.Descriptor> descriptorSupplier, FieldProjection projection) {
+        this.descriptorSupplier = descriptorSupplier;
+        this.projection = projection;
+    }
+
+    public static ProjectedParser create(StencilClient stencilClient, String protoClassName, FieldProjection projection) {
+        return new ProjectedParser(() -> stencilClient.get(protoClassName), projection);
+    }
+
+    @Override
+    public DynamicMessage parse(byte[] bytes) throws InvalidProtocolBufferException {
+        return project(bytes, 0, bytes.length, descriptorSupplier.get(), projection);
+    }
+
+    /**
+     * Decodes the projected fields of the message in {@code bytes[offset, offset + length)} straight into a builder,
+     * nothing is copied or encoded again.
+     *
+     * @return message with only the projected fields set
+     */
+    static DynamicMessage project(byte[] bytes, int offset, int length, Descriptors.Descriptor descriptor, FieldProjection fieldProjection)
+            throws InvalidProtocolBufferException {
+        DynamicMessage.Builder builder = DynamicMessage.newBuilder(descriptor);
+        try {
+            CodedInputStream input = CodedInputStream.newInstance(bytes, offset, length);
+            int fieldStart = 0;
+            int tag = input.readTag();
+            while (tag != 0) {
+                int fieldNumber = WireFormat.getTagFieldNumber(tag);
+                FieldProjection nested = fieldProjection.getNested(fieldNumber);
+                Descriptors.FieldDescriptor field = nested == null ? null : descriptor.findFieldByNumber(fieldNumber);
+                if (field != null && field.getJavaType() == Descriptors.FieldDescriptor.JavaType.MESSAGE
+                        && WireFormat.getTagWireType(tag) == WireFormat.WIRETYPE_LENGTH_DELIMITED) {
+                    int nestedLength = input.readRawVarint32();
+                    int nestedOffset = offset + input.getTotalBytesRead();
+                    input.skipRawBytes(nestedLength);
+                    setMessageField(builder, field, project(bytes, nestedOffset, nestedLength, field.getMessageType(), nested));
+                } else if (fieldProjection.contains(fieldNumber)) {
+                    input.skipField(tag);
+                    builder.mergeFrom(bytes, offset + fieldStart, input.getTotalBytesRead() - fieldStart);
+                } else {
+                    input.skipField(tag);
+                }
+                fieldStart = input.getTotalBytesRead();
+                tag = input.readTag();
+            }
+            return builder.build();
+        } catch (InvalidProtocolBufferException e) {
+            throw e;
+        } catch (IOException e) {
+            throw new InvalidProtocolBufferException(e);
+        }
+    }
+
+    /**
+     * Sets a message field the way the wire format does, repeated fields get one more element
+     * and a singular field seen again is merged with its previous value.
+     */
+    private static void setMessageField(DynamicMessage.Builder builder, Descriptors.FieldDescriptor field, DynamicMessage value) {
+        if (field.isRepeated()) {
+            builder.addRepeatedField(field, value);
+        } else if (builder.hasField(field)) {
+            builder.setField(field, ((DynamicMessage) builder.getField(field)).toBuilder().mergeFrom(value).build());
+        } else {
+            builder.setField(field, value);
+        }
+    }
+}
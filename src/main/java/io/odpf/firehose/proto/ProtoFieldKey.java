@@ -0,0 +1,50 @@
+package io.odpf.firehose.proto;
+
+import com.google.protobuf.Descriptors;
+import com.google.protobuf.DynamicMessage;
+import io.odpf.firehose.message.Message;
+import io.odpf.firehose.sink.log.KeyOrMessageParser;
+
+import java.io.IOException;
+
+/**
+ * Value of a top level field of the parsed message, used as the key of the message.
+ */
+public class ProtoFieldKey {
+    private final KeyOrMessageParser parser;
+    private final String keyField;
+
+    /**
+     * @param parser   parser of the input messages
+     * @param keyField name of the key field, empty for no key field
+     */
+    public ProtoFieldKey(KeyOrMessageParser parser, String keyField) {
+        this.parser = parser;
+        this.keyField = keyField == null ? "" : keyField;
+    }
+
+    public boolean hasKeyField() {
+        return !keyField.isEmpty();
+    }
+
+    /**
+     * @return value of the key field, null without a key field, if the message can not be parsed,
+     * or the field is missing, unset or repeated
+     */
+    public Object extract(Message message) {
+        if (!hasKeyField()) {
+            return null;
+        }
+        DynamicMessage parsedMessage;
+        try {
+            parsedMessage = parser.parse(message);
+        } catch (IOException e) {
+            return null;
+        }
+        Descriptors.FieldDescriptor field = parsedMessage.getDescriptorForType().findFieldByName(keyField);
+        if (field == null || field.isRepeated() || !parsedMessage.hasField(field)) {
+            return null;
+        }
+        return parsedMessage.getField(field);
+    }
+}
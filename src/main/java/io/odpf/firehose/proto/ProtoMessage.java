@@ -4,45 +4,42 @@ import io.odpf.firehose.message.Message;
 import io.odpf.firehose.exception.DeserializerException;
 import io.odpf.firehose.exception.ConfigurationException;
 import com.google.protobuf.Descriptors;
-import com.google.protobuf.GeneratedMessageV3;
-
-import java.lang.reflect.Method;
+import com.google.protobuf.InvalidProtocolBufferException;
 
 public class ProtoMessage {
     public static final String CLASS_NAME_NOT_FOUND = "proto class provided in the configuration was not found";
     public static final String INVALID_PROTOCOL_CLASS_MESSAGE = "Invalid proto class provided in the configuration";
     public static final String DESERIALIZE_ERROR_MESSAGE = "Esb message could not be parsed";
-    private Method messageParser;
+    private final GeneratedProtoParser messageParser;
 
     public ProtoMessage(String protoClassName) {
-        this.messageParser = parserMethod(protoClassName);
+        this.messageParser = parser(protoClassName);
     }
 
     public Object get(Message message, int protoIndex) throws DeserializerException {
-        GeneratedMessageV3 protoMsg;
-        protoMsg = (GeneratedMessageV3) parseProtobuf(message);
+        com.google.protobuf.Message protoMsg = (com.google.protobuf.Message) parseProtobuf(message);
         Descriptors.FieldDescriptor fieldDescriptor = protoMsg.getDescriptorForType().findFieldByNumber(protoIndex);
         return protoMsg.getField(fieldDescriptor);
     }
 
     public Object parseProtobuf(Message message) throws DeserializerException {
         try {
-            return messageParser.invoke(null, message.getLogMessage());
-        } catch (ReflectiveOperationException e) {
+            return messageParser.parse(message.getLogMessage());
+        } catch (InvalidProtocolBufferException e) {
             throw new DeserializerException(DESERIALIZE_ERROR_MESSAGE, e);
         }
     }
 
-    private Method parserMethod(String protoClassName) {
-        Class<com.google.protobuf.Message> builderClass;
+    private GeneratedProtoParser parser(String protoClassName) {
+        Class<?> protoClass;
         try {
-            builderClass = (Class<com.google.protobuf.Message>) Class.forName(protoClassName);
+            protoClass = Class.forName(protoClassName);
         } catch (ClassNotFoundException e) {
             throw new ConfigurationException(CLASS_NAME_NOT_FOUND, e);
         }
         try {
-            return builderClass.getMethod("parseFrom", byte[].class);
-        } catch (NoSuchMethodException e) {
+            return GeneratedProtoParser.of(protoClass);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
             throw new ConfigurationException(INVALID_PROTOCOL_CLASS_MESSAGE, e);
         }
     }
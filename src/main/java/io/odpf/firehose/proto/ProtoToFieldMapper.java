@@ -2,7 +2,6 @@ package io.odpf.firehose.proto;
 
 
 import io.odpf.firehose.sink.jdbc.JdbcMapper;
-import com.google.protobuf.DynamicMessage;
 import com.google.protobuf.InvalidProtocolBufferException;
 import com.google.protobuf.Message;
 import io.odpf.stencil.Parser;
@@ -20,6 +19,7 @@ public class ProtoToFieldMapper {
 
     private final Parser protoParser;
     private final Properties protoIndexToFieldMapping;
+    private final GeneratedProtoParser generatedProtoParser;
 
     /**
      * Instantiates a new Proto to field mapper.
@@ -28,8 +28,20 @@ public class ProtoToFieldMapper {
      * @param protoIndexToFieldMapping the proto index to field mapping
      */
     public ProtoToFieldMapper(Parser protoParser, Properties protoIndexToFieldMapping) {
+        this(protoParser, protoIndexToFieldMapping, null);
+    }
+
+    /**
+     * Instantiates a new Proto to field mapper which parses with the generated proto class when one is given.
+     *
+     * @param protoParser              the proto parser, used when there is no generated proto class
+     * @param protoIndexToFieldMapping the proto index to field mapping
+     * @param generatedProtoParser     the parser of the generated proto class, may be null
+     */
+    public ProtoToFieldMapper(Parser protoParser, Properties protoIndexToFieldMapping, GeneratedProtoParser generatedProtoParser) {
         this.protoParser = protoParser;
         this.protoIndexToFieldMapping = protoIndexToFieldMapping;
+        this.generatedProtoParser = generatedProtoParser;
     }
 
     /**
@@ -40,14 +52,56 @@ public class ProtoToFieldMapper {
      */
     public Map<String, Object> getFields(byte[] bytes) {
 
-        DynamicMessage dynamicMessage;
+        Message protoMessage;
         try {
-            dynamicMessage = protoParser.parse(bytes);
+            protoMessage = generatedProtoParser != null ? generatedProtoParser.parse(bytes) : protoParser.parse(bytes);
         } catch (InvalidProtocolBufferException e) {
             throw new IllegalArgumentException(e);
         }
+        return getFields(protoMessage);
+    }
+
+    /**
+     * returns a map with column name of the target table in database as key and value of the field as the value field in the map.
+     * The payload is decoded through the message, reusing an already decoded payload for the same parser.
+     *
+     * @param message    message to access the fields from
+     * @param fromLogKey whether to read the fields from the log key instead of the log message
+     * @return a map containing mapping between the column name and the actual value for the column.
+     */
+    public Map<String, Object> getFields(io.odpf.firehose.message.Message message, boolean fromLogKey) {
+        return getFields(parse(message, fromLogKey));
+    }
+
+    /**
+     * Decodes the payload through the message with the generated proto class if there is one, with the proto parser otherwise.
+     * Callers reading other fields of the payload use it to share the decoded payload with the mapping.
+     *
+     * @param message    message to decode
+     * @param fromLogKey whether to decode the log key instead of the log message
+     * @return the decoded payload
+     */
+    public Message parse(io.odpf.firehose.message.Message message, boolean fromLogKey) {
+        try {
+            if (generatedProtoParser != null) {
+                return fromLogKey ? message.getParsedLogKey(generatedProtoParser) : message.getParsedLogMessage(generatedProtoParser);
+            }
+            return fromLogKey ? message.getParsedLogKey(protoParser) : message.getParsedLogMessage(protoParser);
+        } catch (InvalidProtocolBufferException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    /**
+     * @return true if the payload is parsed with the generated proto class
+     */
+    public boolean hasGeneratedProtoParser() {
+        return generatedProtoParser != null;
+    }
+
+    private Map<String, Object> getFields(Message protoMessage) {
         Map<String, Object> columnToValueMap = new HashMap<>();
-        updateMapping(dynamicMessage, protoIndexToFieldMapping, columnToValueMap);
+        updateMapping(protoMessage, protoIndexToFieldMapping, columnToValueMap);
         return columnToValueMap;
     }
 
@@ -1,7 +1,12 @@
 package io.odpf.firehose.proto;
 
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.Descriptors;
 import com.google.protobuf.DynamicMessage;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.WireFormat;
 
+import java.io.IOException;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
@@ -15,6 +20,54 @@ public class ProtoUtils {
         return messageWithUnknownFields.size() > 0;
     }
 
+    /**
+     * Tells if the payload has fields the descriptor does not know, at any depth, in a single pass over the wire format.
+     * A field is unknown when its number is not in the descriptor or when it comes with a wire type the field can not have,
+     * as the parser would keep both as unknown fields. Nothing is decoded but the nested message lengths.
+     *
+     * @param descriptor descriptor of the payload
+     * @param bytes      payload in the proto wire format
+     * @return true if the payload has an unknown field
+     * @throws InvalidProtocolBufferException if the payload is not a valid proto message
+     */
+    public static boolean hasUnknownField(Descriptors.Descriptor descriptor, byte[] bytes) throws InvalidProtocolBufferException {
+        try {
+            return hasUnknownField(descriptor, CodedInputStream.newInstance(bytes));
+        } catch (InvalidProtocolBufferException e) {
+            throw e;
+        } catch (IOException e) {
+            throw new InvalidProtocolBufferException(e);
+        }
+    }
+
+    private static boolean hasUnknownField(Descriptors.Descriptor descriptor, CodedInputStream input) throws IOException {
+        int tag = input.readTag();
+        while (tag != 0) {
+            Descriptors.FieldDescriptor field = descriptor.findFieldByNumber(WireFormat.getTagFieldNumber(tag));
+            int wireType = WireFormat.getTagWireType(tag);
+            if (field == null || !isValidWireType(field, wireType)) {
+                return true;
+            }
+            if (field.getJavaType() == Descriptors.FieldDescriptor.JavaType.MESSAGE && wireType == WireFormat.WIRETYPE_LENGTH_DELIMITED) {
+                int limit = input.pushLimit(input.readRawVarint32());
+                if (hasUnknownField(field.getMessageType(), input)) {
+                    return true;
+                }
+                input.checkLastTagWas(0);
+                input.popLimit(limit);
+            } else {
+                input.skipField(tag);
+            }
+            tag = input.readTag();
+        }
+        return false;
+    }
+
+    private static boolean isValidWireType(Descriptors.FieldDescriptor field, int wireType) {
+        return wireType == field.getLiteType().getWireType()
+                || (field.isPackable() && wireType == WireFormat.WIRETYPE_LENGTH_DELIMITED);
+    }
+
     private static List<DynamicMessage> collectNestedFields(DynamicMessage node) {
         List<DynamicMessage> output = new LinkedList<>();
         Queue<DynamicMessage> stack = Collections.asLifoQueue(new LinkedList<>());
@@ -56,11 +56,11 @@ public class MessageToJson implements MessageSerializer {
             jsonObject.put("topic", message.getTopic());
 
             if (message.getLogKey() != null && message.getLogKey().length != 0) {
-                DynamicMessage key = protoParser.parse(message.getLogKey());
+                DynamicMessage key = message.getParsedLogKey(protoParser);
                 jsonObject.put("logKey", this.gson.toJson(convertDynamicMessageToJson(key)));
             }
 
-            DynamicMessage msg = protoParser.parse(message.getLogMessage());
+            DynamicMessage msg = message.getParsedLogMessage(protoParser);
             jsonObject.put("logMessage", this.gson.toJson(convertDynamicMessageToJson(msg)));
 
             if (wrapInsideArray) {
@@ -78,7 +78,7 @@ public class MessageToTemplatizedJson implements MessageSerializer {
             String jsonMessage;
             String jsonString;
             // only supports messages not keys
-            DynamicMessage msg = protoParser.parse(message.getLogMessage());
+            DynamicMessage msg = message.getParsedLogMessage(protoParser);
             jsonMessage = JsonFormat.printer().includingDefaultValueFields().preservingProtoFieldNames().print(msg);
             String finalMessage = httpSinkJsonBodyTemplate;
             for (String path : pathsToReplace) {
@@ -0,0 +1,42 @@
+package io.odpf.firehose.sink;
+
+import io.odpf.firehose.message.Message;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Collectors;
+
+/**
+ * SinkPool that pins every message key to one worker sink, so a hot partition is pushed by several sinks at once.
+ * <p>
+ * Messages are routed by the hash of their routing key, see {@link RoutingKeyExtractor}.
+ * Tasks of a worker run one after another in submission order, so messages of the same key keep their order,
+ * while the keys of a partition spread over all the workers.
+ * A partition is then committed up to its first message not pushed yet, as tracked by the offset manager.
+ */
+public class KeyAffineSinkPool extends PartitionAffineSinkPool {
+    private final RoutingKeyExtractor routingKeyExtractor;
+
+    public KeyAffineSinkPool(List<Sink> sinks, ExecutorService executorService, long pollTimeOutMillis, int workerQueueSize, RoutingKeyExtractor routingKeyExtractor) {
+        super(sinks, executorService, pollTimeOutMillis, workerQueueSize);
+        this.routingKeyExtractor = routingKeyExtractor;
+    }
+
+    /**
+     * Splits the messages per worker, keeping the order of messages within a worker.
+     */
+    @Override
+    public List<List<Message>> split(List<Message> messages) {
+        return new ArrayList<>(messages.stream().collect(Collectors.groupingBy(
+                this::getWorkerIndex,
+                LinkedHashMap::new,
+                Collectors.toList())).values());
+    }
+
+    @Override
+    protected int getWorkerIndex(Message message) {
+        return Math.floorMod(routingKeyExtractor.hash(message), getWorkerCount());
+    }
+}
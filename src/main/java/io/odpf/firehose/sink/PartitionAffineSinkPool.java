@@ -0,0 +1,158 @@
+package io.odpf.firehose.sink;
+
+import io.odpf.firehose.message.Message;
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * SinkPool that pins every topic partition to one worker sink.
+ * <p>
+ * Tasks of a worker run one after another in submission order, so batches of the same partition never race each other.
+ * Once a task of a worker fails, its later tasks fail with the same error without being pushed,
+ * so no batch reaches the sink ahead of an earlier batch of its partition.
+ * Partitions pinned to different workers are still pushed in parallel.
+ * Each worker accepts up to workerQueueSize pending tasks before submitTask starts waiting for it.
+ * Revoked partitions are released from their worker, so new partitions keep spreading over the least loaded workers.
+ */
+public class PartitionAffineSinkPool extends SinkPool {
+    private final Map<TopicPartition, Integer> partitionWorkers = new HashMap<>();
+    private final List<Worker> workers;
+    private final ExecutorService executorService;
+    private final long pollTimeOutMillis;
+
+    public PartitionAffineSinkPool(List<Sink> sinks, ExecutorService executorService, long pollTimeOutMillis, int workerQueueSize) {
+        super(executorService, pollTimeOutMillis);
+        this.workers = sinks.stream().map(sink -> new Worker(sink, workerQueueSize)).collect(Collectors.toList());
+        this.executorService = executorService;
+        this.pollTimeOutMillis = pollTimeOutMillis;
+    }
+
+    /**
+     * Splits the messages per topic partition, keeping the order of messages within a partition.
+     */
+    @Override
+    public List<List<Message>> split(List<Message> messages) {
+        return new ArrayList<>(messages.stream().collect(Collectors.groupingBy(
+                message -> new TopicPartition(message.getTopic(), message.getPartition()),
+                LinkedHashMap::new,
+                Collectors.toList())).values());
+    }
+
+    /**
+     * @param messages messages of a single worker, see {@link #split(List)}
+     * @return future of the sink task, null if the worker stayed full for the poll timeout.
+     */
+    @Override
+    public Future<List<Message>> submitTask(List<Message> messages) {
+        Worker worker = workers.get(getWorkerIndex(messages.get(0)));
+        try {
+            if (!worker.getSlots().tryAcquire(pollTimeOutMillis, TimeUnit.MILLISECONDS)) {
+                return null;
+            }
+        } catch (InterruptedException e) {
+            return null;
+        }
+        onSinkTaskSubmitted();
+        CompletableFuture<List<Message>> future = worker.submit(messages, executorService);
+        future.whenComplete((result, error) -> onSinkTaskFinished(future));
+        return future;
+    }
+
+    /**
+     * @return index of the worker pushing the message, the same for every message of a topic partition
+     */
+    protected int getWorkerIndex(Message message) {
+        synchronized (partitionWorkers) {
+            return partitionWorkers.computeIfAbsent(new TopicPartition(message.getTopic(), message.getPartition()), this::assignWorker);
+        }
+    }
+
+    /**
+     * Unpins the partitions from their workers, a partition assigned again is pinned to the least loaded worker.
+     */
+    @Override
+    public void releasePartitions(Collection<TopicPartition> partitions) {
+        synchronized (partitionWorkers) {
+            for (TopicPartition topicPartition : partitions) {
+                Integer workerIndex = partitionWorkers.remove(topicPartition);
+                if (workerIndex != null) {
+                    workers.get(workerIndex).releasePartition();
+                }
+            }
+        }
+    }
+
+    protected int getWorkerCount() {
+        return workers.size();
+    }
+
+    private int assignWorker(TopicPartition topicPartition) {
+        Worker worker = workers.stream().min(Comparator.comparingInt(Worker::getPartitionCount)).get();
+        worker.assignPartition();
+        return workers.indexOf(worker);
+    }
+
+    /**
+     * A sink with its own ordered chain of tasks, broken for good by the first failed task.
+     */
+    private static class Worker {
+        private final Sink sink;
+        private final Semaphore slots;
+        private CompletableFuture<List<Message>> lastTask = CompletableFuture.completedFuture(null);
+        private int partitionCount;
+
+        Worker(Sink sink, int queueSize) {
+            this.sink = sink;
+            this.slots = new Semaphore(queueSize);
+        }
+
+        Semaphore getSlots() {
+            return slots;
+        }
+
+        int getPartitionCount() {
+            return partitionCount;
+        }
+
+        void assignPartition() {
+            partitionCount++;
+        }
+
+        void releasePartition() {
+            partitionCount--;
+        }
+
+        CompletableFuture<List<Message>> submit(List<Message> messages, ExecutorService executorService) {
+            SinkTask sinkTask = new SinkTask(sink, messages);
+            lastTask = lastTask.handleAsync((previousResult, previousError) -> {
+                try {
+                    if (previousError != null) {
+                        throw previousError instanceof CompletionException ? (CompletionException) previousError : new CompletionException(previousError);
+                    }
+                    return sinkTask.call();
+                } catch (CompletionException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                } finally {
+                    slots.release();
+                }
+            }, executorService);
+            return lastTask;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package io.odpf.firehose.sink;
+
+import io.odpf.firehose.message.Message;
+import io.odpf.firehose.proto.ProtoFieldKey;
+import io.odpf.firehose.sink.log.KeyOrMessageParser;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Key routing a message to a worker of the {@link KeyAffineSinkPool}.
+ * <p>
+ * Without a key field the routing key is the kafka key of the message.
+ * With a key field it is the value of that top level field of the parsed message.
+ * Messages without a key, which can not be parsed or do not have the field are routed by their topic partition,
+ * so they keep the order of their partition.
+ */
+public class RoutingKeyExtractor {
+    private final ProtoFieldKey fieldKey;
+
+    /**
+     * @param parser   parser of the input messages, only used with a key field
+     * @param keyField name of the key field, empty to use the kafka key
+     */
+    public RoutingKeyExtractor(KeyOrMessageParser parser, String keyField) {
+        this.fieldKey = new ProtoFieldKey(parser, keyField);
+    }
+
+    /**
+     * @return hash of the routing key of the message
+     */
+    public int hash(Message message) {
+        if (fieldKey.hasKeyField()) {
+            Object fieldValue = fieldKey.extract(message);
+            if (fieldValue != null) {
+                return fieldValue.hashCode();
+            }
+        } else if (message.getLogKey() != null && message.getLogKey().length > 0) {
+            return Arrays.hashCode(message.getLogKey());
+        }
+        return Objects.hash(message.getTopic(), message.getPartition());
+    }
+}
@@ -49,4 +49,14 @@ public interface Sink extends Closeable {
      */
     default void calculateCommittableOffsets() {
     }
+
+    /**
+     * Method to finish the work the sink still does in the background, before the final commit on shutdown.
+     * This method should be implemented when the sink completes pushed messages asynchronously.
+     *
+     * @param timeoutMillis maximum time to wait
+     * @throws InterruptedException if interrupted while waiting
+     */
+    default void drain(long timeoutMillis) throws InterruptedException {
+    }
 }
@@ -16,6 +16,7 @@ import io.odpf.firehose.sink.log.LogSinkFactory;
 import io.odpf.firehose.sink.mongodb.MongoSinkFactory;
 import io.odpf.firehose.sink.prometheus.PromSinkFactory;
 import io.odpf.firehose.sink.redis.RedisSinkFactory;
+import io.odpf.firehose.utils.SharedResourceRegistry;
 import io.odpf.stencil.client.StencilClient;
 
 import java.util.Map;
@@ -26,22 +27,26 @@ public class SinkFactory {
     private final Instrumentation instrumentation;
     private final StencilClient stencilClient;
     private final OffsetManager offsetManager;
+    private final SharedResourceRegistry sharedResourceRegistry;
     private BigQuerySinkFactory bigQuerySinkFactory;
     private final Map<String, String> config = System.getenv();
 
     public SinkFactory(KafkaConsumerConfig kafkaConsumerConfig,
                        StatsDReporter statsDReporter,
                        StencilClient stencilClient,
-                       OffsetManager offsetManager) {
+                       OffsetManager offsetManager,
+                       SharedResourceRegistry sharedResourceRegistry) {
         instrumentation = new Instrumentation(statsDReporter, SinkFactory.class);
         this.kafkaConsumerConfig = kafkaConsumerConfig;
         this.statsDReporter = statsDReporter;
         this.stencilClient = stencilClient;
         this.offsetManager = offsetManager;
+        this.sharedResourceRegistry = sharedResourceRegistry;
     }
 
     /**
      * Initialization method for all the sinks.
+     * Resources which can be shared by all the consumer threads are created once through the {@link SharedResourceRegistry}.
      */
     public void init() {
         switch (this.kafkaConsumerConfig.getSinkType()) {
@@ -57,8 +62,11 @@ public class SinkFactory {
             case MONGODB:
                 return;
             case BIGQUERY:
-                bigQuerySinkFactory = new BigQuerySinkFactory(config, statsDReporter);
-                bigQuerySinkFactory.init();
+                bigQuerySinkFactory = sharedResourceRegistry.get("bigquery-sink-factory", () -> {
+                    BigQuerySinkFactory factory = new BigQuerySinkFactory(config, statsDReporter);
+                    factory.init();
+                    return factory;
+                });
                 return;
             default:
                 throw new ConfigurationException("Invalid Firehose SINK_TYPE");
@@ -71,7 +79,8 @@ public class SinkFactory {
             case JDBC:
                 return JdbcSinkFactory.create(config, statsDReporter, stencilClient);
             case HTTP:
-                return HttpSinkFactory.create(config, statsDReporter, stencilClient);
+                return HttpSinkFactory.create(config, statsDReporter, stencilClient,
+                        sharedResourceRegistry.get("http-client", () -> HttpSinkFactory.newHttpClient(config, statsDReporter)));
             case INFLUXDB:
                 return InfluxSinkFactory.create(config, statsDReporter, stencilClient);
             case LOG:
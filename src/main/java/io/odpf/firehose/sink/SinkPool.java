@@ -3,71 +3,171 @@ package io.odpf.firehose.sink;
 import io.odpf.firehose.exception.SinkTaskFailedException;
 import io.odpf.firehose.message.Message;
 import lombok.AllArgsConstructor;
-import lombok.Data;
 import lombok.EqualsAndHashCode;
+import org.apache.kafka.common.TopicPartition;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
 
-@AllArgsConstructor
+/**
+ * Pushes batches of messages to a pool of worker sinks in parallel.
+ * <p>
+ * A sink task reports its own completion: its worker sink goes back to the pool right away,
+ * and the task is queued to be handed out by {@link #fetchFinishedSinkTasks()}.
+ * So fetching finished tasks only costs as much as the number of tasks finished since the last fetch.
+ * <p>
+ * On shutdown {@link #awaitRunningTasks(long)} lets the consumer wait for the tasks still running before its final commit.
+ */
 public class SinkPool implements AutoCloseable {
-    private final Set<SinkFuture> sinkFutures = new HashSet<>();
+    private final Queue<Future<List<Message>>> finishedSinkTasks = new ConcurrentLinkedQueue<>();
     private final BlockingQueue<Sink> workerSinks;
     private final ExecutorService executorService;
     private final long pollTimeOutMillis;
+    private int runningTasks;
 
+    public SinkPool(BlockingQueue<Sink> workerSinks, ExecutorService executorService, long pollTimeOutMillis) {
+        this.workerSinks = workerSinks;
+        this.executorService = executorService;
+        this.pollTimeOutMillis = pollTimeOutMillis;
+    }
+
+    /**
+     * For subclasses handing out their own worker sinks, they override {@link #submitTask(List)}.
+     */
+    protected SinkPool(ExecutorService executorService, long pollTimeOutMillis) {
+        this(null, executorService, pollTimeOutMillis);
+    }
+
+    /**
+     * @return tasks finished since the last call
+     * @throws SinkTaskFailedException if any of the finished tasks failed
+     */
     public Set<Future<List<Message>>> fetchFinishedSinkTasks() {
-        Set<SinkFuture> finished = sinkFutures.stream().filter(x -> {
-            if (x.getFuture().isDone()) {
-                try {
-                    x.getFuture().get();
-                    workerSinks.put(x.getSink());
-                    return true;
-                } catch (InterruptedException e) {
-                    throw new SinkTaskFailedException(e);
-                } catch (ExecutionException e) {
-                    throw new SinkTaskFailedException(e.getCause());
-                }
+        Set<Future<List<Message>>> finished = new HashSet<>();
+        Future<List<Message>> future;
+        while ((future = finishedSinkTasks.poll()) != null) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                throw new SinkTaskFailedException(e);
+            } catch (ExecutionException e) {
+                throw new SinkTaskFailedException(e.getCause());
             }
-            return false;
-        }).collect(Collectors.toSet());
-        sinkFutures.removeAll(finished);
-        return finished.stream().map(SinkFuture::getFuture).collect(Collectors.toSet());
+            finished.add(future);
+        }
+        return finished;
     }
 
+    /**
+     * Splits the messages into the batches to be submitted as separate sink tasks.
+     *
+     * @param messages messages read in one poll
+     * @return batches to submit, all the messages in a single batch by default
+     */
+    public List<List<Message>> split(List<Message> messages) {
+        return Collections.singletonList(messages);
+    }
+
+    /**
+     * @param messages messages to push
+     * @return future of the sink task, null if no worker sink got free within the poll timeout.
+     */
     public Future<List<Message>> submitTask(List<Message> messages) {
         try {
             Sink workerSink = workerSinks.poll(pollTimeOutMillis, TimeUnit.MILLISECONDS);
             if (workerSink == null) {
                 return null;
             }
-            Future<List<Message>> future = executorService.submit(new SinkTask(workerSink, messages));
-            sinkFutures.add(new SinkFuture(future, workerSink));
+            SinkFuture future = new SinkFuture(workerSink, messages);
+            onSinkTaskSubmitted();
+            executorService.execute(future);
             return future;
         } catch (InterruptedException e) {
             return null;
         }
     }
 
+    /**
+     * Forgets the partitions which are not consumed anymore, nothing to forget by default.
+     *
+     * @param partitions revoked or lost partitions
+     */
+    public void releasePartitions(Collection<TopicPartition> partitions) {
+    }
+
+    /**
+     * Waits for all the submitted tasks to complete.
+     * Completed tasks are still to be fetched with {@link #fetchFinishedSinkTasks()}.
+     *
+     * @param timeoutMillis maximum time to wait
+     * @return true if no task is running anymore, false if the timeout elapsed first
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public synchronized boolean awaitRunningTasks(long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (runningTasks > 0) {
+            long remainingMillis = deadline - System.currentTimeMillis();
+            if (remainingMillis <= 0) {
+                return false;
+            }
+            wait(remainingMillis);
+        }
+        return true;
+    }
+
+    /**
+     * To be called by subclasses before a task they submit starts.
+     */
+    protected synchronized void onSinkTaskSubmitted() {
+        runningTasks++;
+    }
+
+    /**
+     * To be called by subclasses once a task they submitted completes, successfully or not.
+     *
+     * @param future completed task
+     */
+    protected void onSinkTaskFinished(Future<List<Message>> future) {
+        finishedSinkTasks.add(future);
+        synchronized (this) {
+            runningTasks--;
+            notifyAll();
+        }
+    }
+
     @Override
     public void close() {
         executorService.shutdown();
     }
 
-    @Data
-    @AllArgsConstructor
-    @EqualsAndHashCode
-    protected static class SinkFuture {
-        private Future<List<Message>> future;
-        private Sink sink;
+    /**
+     * Sink task which gives its worker sink back to the pool as soon as it completes.
+     */
+    private class SinkFuture extends FutureTask<List<Message>> {
+        private final Sink sink;
+
+        SinkFuture(Sink sink, List<Message> messages) {
+            super(new SinkTask(sink, messages));
+            this.sink = sink;
+        }
+
+        @Override
+        protected void done() {
+            workerSinks.offer(sink);
+            onSinkTaskFinished(this);
+        }
     }
 
     /**
@@ -86,4 +186,3 @@ public class SinkPool implements AutoCloseable {
         }
     }
 }
-
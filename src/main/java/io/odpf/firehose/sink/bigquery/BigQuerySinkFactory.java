@@ -21,6 +21,12 @@ import org.aeonbits.owner.ConfigFactory;
 import java.io.IOException;
 import java.util.Map;
 
+/**
+ * Factory of the BigQuery sink.
+ * <p>
+ * Messages are decoded with the parser of the sink's own stencil client, the one whose schema refreshes upsert the table,
+ * so the descriptor rows are parsed with and the table schema are refreshed together.
+ */
 public class BigQuerySinkFactory {
 
     private BigQueryClient bigQueryClient;
@@ -62,8 +62,8 @@ public class MessageRecordConverter {
         }
 
         try {
-            DynamicMessage dynamicMessage = parser.parse(message.getLogMessage());
-            if (!config.getInputSchemaProtoAllowUnknownFieldsEnable() && ProtoUtils.hasUnknownField(dynamicMessage)) {
+            DynamicMessage dynamicMessage = message.getParsedLogMessage(parser);
+            if (!config.getInputSchemaProtoAllowUnknownFieldsEnable() && ProtoUtils.hasUnknownField(dynamicMessage.getDescriptorForType(), message.getLogMessage())) {
                 log.info("unknown fields found at offset: {}, partition: {}, message: {}", message.getOffset(), message.getPartition(), message);
                 throw new UnknownFieldsException(dynamicMessage);
             }
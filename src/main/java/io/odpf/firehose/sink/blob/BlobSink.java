@@ -78,6 +78,13 @@ public class BlobSink extends AbstractSink {
         writerOrchestrator.close();
     }
 
+    @Override
+    public void drain(long timeoutMillis) throws InterruptedException {
+        if (!writerOrchestrator.drain(timeoutMillis)) {
+            getInstrumentation().logWarn("Uploads to blob storage did not finish within {} ms", timeoutMillis);
+        }
+    }
+
     @Override
     public void calculateCommittableOffsets() {
         writerOrchestrator.getFlushedPaths().forEach(offsetManager::setCommittable);
@@ -32,9 +32,9 @@ public class MessageDeSerializer {
             if (message.getLogMessage() == null || message.getLogMessage().length == 0) {
                 throw new EmptyMessageException();
             }
-            DynamicMessage dynamicMessage = protoParser.parse(message.getLogMessage());
+            DynamicMessage dynamicMessage = message.getParsedLogMessage(protoParser);
 
-            if (!sinkConfig.getInputSchemaProtoAllowUnknownFieldsEnable() && ProtoUtils.hasUnknownField(dynamicMessage)) {
+            if (!sinkConfig.getInputSchemaProtoAllowUnknownFieldsEnable() && ProtoUtils.hasUnknownField(dynamicMessage.getDescriptorForType(), message.getLogMessage())) {
                 throw new UnknownFieldsException(dynamicMessage);
             }
 
@@ -41,6 +41,7 @@ import java.util.concurrent.TimeUnit;
 public class WriterOrchestrator implements Closeable {
     private static final int FILE_CHECKER_THREAD_INITIAL_DELAY_SECONDS = 10;
     private static final int FILE_CHECKER_THREAD_FREQUENCY_SECONDS = 5;
+    private static final long DRAIN_CHECK_INTERVAL_MILLIS = 100;
     private final Map<Path, LocalFileWriter> timePartitionWriterMap = new ConcurrentHashMap<>();
     private final ScheduledExecutorService localFileCheckerScheduler = Executors.newScheduledThreadPool(1);
     private final ScheduledExecutorService objectStorageCheckerScheduler = Executors.newScheduledThreadPool(1);
@@ -49,6 +50,8 @@ public class WriterOrchestrator implements Closeable {
     private final LocalStorage localStorage;
     private final WriterOrchestratorStatus writerOrchestratorStatus;
     private final BlobSinkConfig sinkConfig;
+    private final Set<BlobStorageWriterFutureHandler> remoteUploadFutures = new HashSet<>();
+    private final BlobStorageChecker blobStorageChecker;
 
     public WriterOrchestrator(BlobSinkConfig sinkConfig, LocalStorage localStorage, BlobStorage blobStorage, StatsDReporter statsDReporter) {
         this.localStorage = localStorage;
@@ -63,15 +66,15 @@ public class WriterOrchestrator implements Closeable {
                 FILE_CHECKER_THREAD_FREQUENCY_SECONDS,
                 TimeUnit.SECONDS);
 
-        Set<BlobStorageWriterFutureHandler> remoteUploadFutures = new HashSet<>();
+        blobStorageChecker = new BlobStorageChecker(
+                toBeFlushedToRemotePaths,
+                flushedToRemotePaths,
+                remoteUploadFutures,
+                remoteUploadScheduler,
+                blobStorage,
+                new Instrumentation(statsDReporter, BlobStorageChecker.class));
         ScheduledFuture<?> objectStorageWriterFuture = objectStorageCheckerScheduler.scheduleWithFixedDelay(
-                new BlobStorageChecker(
-                        toBeFlushedToRemotePaths,
-                        flushedToRemotePaths,
-                        remoteUploadFutures,
-                        remoteUploadScheduler,
-                        blobStorage,
-                        new Instrumentation(statsDReporter, BlobStorageChecker.class)),
+                blobStorageChecker,
                 FILE_CHECKER_THREAD_INITIAL_DELAY_SECONDS,
                 FILE_CHECKER_THREAD_FREQUENCY_SECONDS,
                 TimeUnit.SECONDS);
@@ -128,6 +131,32 @@ public class WriterOrchestrator implements Closeable {
         return writer.getMetadata().getFullPath();
     }
 
+    /**
+     * Stops rotating local files and waits for the uploads of the files already rotated.
+     * The uploaded paths are then handed out by {@link #getFlushedPaths()}, so their offsets can be committed.
+     * Files still open are not uploaded, their records are consumed again after a restart.
+     *
+     * @param timeoutMillis maximum time to wait for the uploads
+     * @return true if all the uploads finished in time
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean drain(long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        localFileCheckerScheduler.shutdown();
+        objectStorageCheckerScheduler.shutdown();
+        localFileCheckerScheduler.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS);
+        objectStorageCheckerScheduler.awaitTermination(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+        blobStorageChecker.run();
+        while (!remoteUploadFutures.isEmpty()) {
+            if (System.currentTimeMillis() >= deadline) {
+                return false;
+            }
+            Thread.sleep(DRAIN_CHECK_INTERVAL_MILLIS);
+            blobStorageChecker.run();
+        }
+        return true;
+    }
+
     @Override
     public void close() throws IOException {
         localFileCheckerScheduler.shutdown();
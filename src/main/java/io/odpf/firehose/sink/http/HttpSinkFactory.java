@@ -4,6 +4,7 @@ package io.odpf.firehose.sink.http;
 import io.odpf.firehose.config.HttpSinkConfig;
 import io.odpf.firehose.metrics.Instrumentation;
 import io.odpf.firehose.metrics.StatsDReporter;
+import io.odpf.firehose.proto.GeneratedProtoParser;
 import io.odpf.firehose.sink.AbstractSink;
 import io.odpf.firehose.sink.http.auth.OAuth2Credential;
 import io.odpf.firehose.sink.http.request.types.Request;
@@ -36,20 +37,44 @@ public class HttpSinkFactory {
      * @return the http sink
      */
     public static AbstractSink create(Map<String, String> configuration, StatsDReporter statsDReporter, StencilClient stencilClient) {
+        return create(configuration, statsDReporter, stencilClient, newHttpClient(configuration, statsDReporter));
+    }
+
+    /**
+     * Create Http sink pushing through the given http client.
+     *
+     * @param configuration       the configuration
+     * @param statsDReporter      the statsd reporter
+     * @param stencilClient       the stencil client
+     * @param closeableHttpClient the http client, can be shared by several sinks
+     * @return the http sink
+     */
+    public static AbstractSink create(Map<String, String> configuration, StatsDReporter statsDReporter, StencilClient stencilClient, CloseableHttpClient closeableHttpClient) {
         HttpSinkConfig httpSinkConfig = ConfigFactory.create(HttpSinkConfig.class, configuration);
 
         Instrumentation instrumentation = new Instrumentation(statsDReporter, HttpSinkFactory.class);
-
-        CloseableHttpClient closeableHttpClient = newHttpClient(httpSinkConfig, statsDReporter);
         instrumentation.logInfo("HTTP connection established");
 
-        UriParser uriParser = new UriParser(stencilClient.getParser(httpSinkConfig.getInputSchemaProtoClass()), httpSinkConfig.getKafkaRecordParserMode());
+        GeneratedProtoParser generatedProtoParser = httpSinkConfig.isInputSchemaProtoGeneratedClassEnable()
+                ? GeneratedProtoParser.find(httpSinkConfig.getInputSchemaProtoClass(), instrumentation) : null;
+        UriParser uriParser = new UriParser(stencilClient.getParser(httpSinkConfig.getInputSchemaProtoClass()), generatedProtoParser, httpSinkConfig.getKafkaRecordParserMode());
 
         Request request = new RequestFactory(statsDReporter, httpSinkConfig, stencilClient, uriParser).createRequest();
 
         return new HttpSink(new Instrumentation(statsDReporter, HttpSink.class), request, closeableHttpClient, stencilClient, httpSinkConfig.getSinkHttpRetryStatusCodeRanges(), httpSinkConfig.getSinkHttpRequestLogStatusCodeRanges());
     }
 
+    /**
+     * Create the pooled http client used by http sinks.
+     *
+     * @param configuration  the configuration
+     * @param statsDReporter the statsd reporter
+     * @return the http client
+     */
+    public static CloseableHttpClient newHttpClient(Map<String, String> configuration, StatsDReporter statsDReporter) {
+        return newHttpClient(ConfigFactory.create(HttpSinkConfig.class, configuration), statsDReporter);
+    }
+
     private static CloseableHttpClient newHttpClient(HttpSinkConfig httpSinkConfig, StatsDReporter statsDReporter) {
         Integer maxHttpConnections = httpSinkConfig.getSinkHttpMaxConnections();
         RequestConfig requestConfig = RequestConfig.custom().setSocketTimeout(httpSinkConfig.getSinkHttpRequestTimeoutMs())
@@ -6,6 +6,9 @@ import io.odpf.firehose.config.HttpSinkConfig;
 import io.odpf.firehose.config.enums.HttpSinkRequestMethodType;
 import io.odpf.firehose.metrics.Instrumentation;
 import io.odpf.firehose.metrics.StatsDReporter;
+import io.odpf.firehose.proto.FieldProjection;
+import io.odpf.firehose.proto.GeneratedProtoParser;
+import io.odpf.firehose.proto.ProjectedParser;
 import io.odpf.firehose.proto.ProtoToFieldMapper;
 import io.odpf.firehose.serializer.MessageSerializer;
 import io.odpf.firehose.sink.http.factory.SerializerFactory;
@@ -75,8 +78,12 @@ public class RequestFactory {
     }
 
     private ProtoToFieldMapper getProtoToFieldMapper() {
-        Parser protoParser = stencilClient.getParser(httpSinkConfig.getSinkHttpParameterSchemaProtoClass());
-        return new ProtoToFieldMapper(protoParser, httpSinkConfig.getInputSchemaProtoToColumnMapping());
+        Parser protoParser = httpSinkConfig.isInputSchemaProtoProjectionEnable()
+                ? ProjectedParser.create(stencilClient, httpSinkConfig.getSinkHttpParameterSchemaProtoClass(), FieldProjection.fromMapping(httpSinkConfig.getInputSchemaProtoToColumnMapping()))
+                : stencilClient.getParser(httpSinkConfig.getSinkHttpParameterSchemaProtoClass());
+        GeneratedProtoParser generatedProtoParser = httpSinkConfig.isInputSchemaProtoGeneratedClassEnable()
+                ? GeneratedProtoParser.find(httpSinkConfig.getSinkHttpParameterSchemaProtoClass(), instrumentation) : null;
+        return new ProtoToFieldMapper(protoParser, httpSinkConfig.getInputSchemaProtoToColumnMapping(), generatedProtoParser);
     }
 
     private JsonBody createBody() {
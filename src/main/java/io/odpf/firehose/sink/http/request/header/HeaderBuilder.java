@@ -40,8 +40,7 @@ public class HeaderBuilder {
 
         // flow for parameterized headers
         Map<String, Object> paramMap = protoToFieldMapper
-                .getFields((httpSinkParameterSourceType == HttpSinkParameterSourceType.KEY) ? message.getLogKey()
-                        : message.getLogMessage());
+                .getFields(message, httpSinkParameterSourceType == HttpSinkParameterSourceType.KEY);
 
         Map<String, String> parameterizedHeaders = paramMap.entrySet().stream()
                 .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().toString()));
@@ -36,8 +36,7 @@ public class UriBuilder {
 
         // flow for parameterized URI
         Map<String, Object> paramMap = protoToFieldMapper
-                .getFields((httpSinkParameterSourceType == HttpSinkParameterSourceType.KEY) ? message.getLogKey()
-                        : message.getLogMessage());
+                .getFields(message, httpSinkParameterSourceType == HttpSinkParameterSourceType.KEY);
         paramMap.forEach((string, object) -> uriBuilder.addParameter(string, object.toString()));
         return uriBuilder.build();
     }
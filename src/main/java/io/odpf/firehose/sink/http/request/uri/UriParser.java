@@ -2,8 +2,8 @@ package io.odpf.firehose.sink.http.request.uri;
 
 
 import io.odpf.firehose.message.Message;
+import io.odpf.firehose.proto.GeneratedProtoParser;
 import com.google.protobuf.Descriptors;
-import com.google.protobuf.DynamicMessage;
 import com.google.protobuf.InvalidProtocolBufferException;
 import io.odpf.stencil.Parser;
 import org.apache.commons.lang3.StringUtils;
@@ -17,30 +17,47 @@ import java.util.List;
  */
 public class UriParser {
     private Parser protoParser;
+    private GeneratedProtoParser generatedProtoParser;
     private String parserMode;
 
     public UriParser(Parser protoParser, String parserMode) {
+        this(protoParser, null, parserMode);
+    }
+
+    /**
+     * Instantiates a new URI parser which parses with the generated proto class when one is given.
+     *
+     * @param protoParser          the proto parser, used when there is no generated proto class
+     * @param generatedProtoParser the parser of the generated proto class, may be null
+     * @param parserMode           whether the URL is built from the key or the message
+     */
+    public UriParser(Parser protoParser, GeneratedProtoParser generatedProtoParser, String parserMode) {
         this.protoParser = protoParser;
+        this.generatedProtoParser = generatedProtoParser;
         this.parserMode = parserMode;
     }
 
     public String parse(Message message, String serviceUrl) {
-        DynamicMessage parsedMessage = parseEsbMessage(message);
+        com.google.protobuf.Message parsedMessage = parseEsbMessage(message);
         return parseServiceUrl(parsedMessage, serviceUrl);
 
     }
 
-    private DynamicMessage parseEsbMessage(Message message) {
-        DynamicMessage parsedMessage;
+    private com.google.protobuf.Message parseEsbMessage(Message message) {
+        com.google.protobuf.Message parsedMessage;
         try {
-            parsedMessage = protoParser.parse(getPayload(message));
+            if (generatedProtoParser != null) {
+                parsedMessage = parserMode.equals("key") ? message.getParsedLogKey(generatedProtoParser) : message.getParsedLogMessage(generatedProtoParser);
+            } else {
+                parsedMessage = parserMode.equals("key") ? message.getParsedLogKey(protoParser) : message.getParsedLogMessage(protoParser);
+            }
         } catch (InvalidProtocolBufferException e) {
             throw new IllegalArgumentException("Unable to parse Service URL", e);
         }
         return parsedMessage;
     }
 
-    private String parseServiceUrl(DynamicMessage data, String serviceUrl) {
+    private String parseServiceUrl(com.google.protobuf.Message data, String serviceUrl) {
         if (StringUtils.isEmpty(serviceUrl)) {
             throw new IllegalArgumentException("Service URL '" + serviceUrl + "' is invalid");
         }
@@ -61,7 +78,7 @@ public class UriParser {
                 : renderedUrl;
     }
 
-    private String renderStringUrl(DynamicMessage parsedMessage, String pattern, String patternVariables) {
+    private String renderStringUrl(com.google.protobuf.Message parsedMessage, String pattern, String patternVariables) {
         if (StringUtils.isEmpty(patternVariables)) {
             return pattern;
         }
@@ -73,7 +90,7 @@ public class UriParser {
         return String.format(pattern, patternVariableData);
     }
 
-    private Object getDataByFieldNumber(DynamicMessage parsedMessage, String fieldNumber) {
+    private Object getDataByFieldNumber(com.google.protobuf.Message parsedMessage, String fieldNumber) {
         int fieldNumberInt;
         try {
             fieldNumberInt = Integer.parseInt(fieldNumber);
@@ -87,12 +104,4 @@ public class UriParser {
         return parsedMessage.getField(fieldDescriptor);
     }
 
-    private byte[] getPayload(Message message) {
-        if (parserMode.equals("key")) {
-            return message.getLogKey();
-        } else {
-            return message.getLogMessage();
-        }
-    }
-
 }
@@ -54,7 +54,7 @@ public class InfluxSink extends AbstractSink {
     protected void prepare(List<Message> messages) throws IOException {
         batchPoints = BatchPoints.database(config.getSinkInfluxDbName()).retentionPolicy(config.getSinkInfluxRetentionPolicy()).build();
         for (Message message : messages) {
-            DynamicMessage dynamicMessage = protoParser.parse(message.getLogMessage());
+            DynamicMessage dynamicMessage = message.getParsedLogMessage(protoParser);
             Point point = pointBuilder.buildPoint(dynamicMessage);
             getInstrumentation().logDebug("Data point: {}", point.toString());
             batchPoints.point(point);
@@ -5,6 +5,9 @@ import io.odpf.firehose.config.JdbcSinkConfig;
 import io.odpf.firehose.sink.AbstractSink;
 import io.odpf.firehose.metrics.Instrumentation;
 import io.odpf.firehose.metrics.StatsDReporter;
+import io.odpf.firehose.proto.FieldProjection;
+import io.odpf.firehose.proto.GeneratedProtoParser;
+import io.odpf.firehose.proto.ProjectedParser;
 import io.odpf.firehose.proto.ProtoToFieldMapper;
 import io.odpf.stencil.client.StencilClient;
 import io.odpf.stencil.Parser;
@@ -41,14 +44,18 @@ public class JdbcSinkFactory {
                 jdbcSinkConfig.getSinkJdbcPassword(), jdbcSinkConfig.getSinkJdbcConnectionPoolMaxSize(),
                 jdbcSinkConfig.getSinkJdbcConnectionPoolTimeoutMs(), jdbcSinkConfig.getSinkJdbcConnectionPoolIdleTimeoutMs(), jdbcSinkConfig.getSinkJdbcConnectionPoolMinIdle());
         instrumentation.logInfo("JDBC Connection established");
-        QueryTemplate queryTemplate = createQueryTemplate(jdbcSinkConfig, client);
+        QueryTemplate queryTemplate = createQueryTemplate(jdbcSinkConfig, client, instrumentation);
 
         return new JdbcSink(new Instrumentation(statsDReporter, JdbcSink.class), "db", connectionPool, queryTemplate, client);
     }
 
-    private static QueryTemplate createQueryTemplate(JdbcSinkConfig jdbcSinkConfig, StencilClient stencilClient) {
-        Parser protoParser = stencilClient.getParser(jdbcSinkConfig.getInputSchemaProtoClass());
-        ProtoToFieldMapper protoToFieldMapper = new ProtoToFieldMapper(protoParser, jdbcSinkConfig.getInputSchemaProtoToColumnMapping());
+    private static QueryTemplate createQueryTemplate(JdbcSinkConfig jdbcSinkConfig, StencilClient stencilClient, Instrumentation instrumentation) {
+        Parser protoParser = jdbcSinkConfig.isInputSchemaProtoProjectionEnable()
+                ? ProjectedParser.create(stencilClient, jdbcSinkConfig.getInputSchemaProtoClass(), FieldProjection.fromMapping(jdbcSinkConfig.getInputSchemaProtoToColumnMapping()))
+                : stencilClient.getParser(jdbcSinkConfig.getInputSchemaProtoClass());
+        GeneratedProtoParser generatedProtoParser = jdbcSinkConfig.isInputSchemaProtoGeneratedClassEnable()
+                ? GeneratedProtoParser.find(jdbcSinkConfig.getInputSchemaProtoClass(), instrumentation) : null;
+        ProtoToFieldMapper protoToFieldMapper = new ProtoToFieldMapper(protoParser, jdbcSinkConfig.getInputSchemaProtoToColumnMapping(), generatedProtoParser);
         return new QueryTemplate(jdbcSinkConfig, protoToFieldMapper);
     }
 }
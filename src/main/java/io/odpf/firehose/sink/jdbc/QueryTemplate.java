@@ -99,15 +99,7 @@ public class QueryTemplate {
 
     public String toQueryString(Message message) {
 
-        byte[] value;
-
-        if ("message".equals(kafkaRecordParserMode)) {
-            value = message.getLogMessage();
-        } else {
-            value = message.getLogKey();
-        }
-
-        Map<String, Object> columnToValue = protoToFieldMapper.getFields(value);
+        Map<String, Object> columnToValue = protoToFieldMapper.getFields(message, !"message".equals(kafkaRecordParserMode));
 
         String insertValues = stringifyColumnValues(columnToValue, insertColumns);
         String updateValues = stringifyColumnValues(columnToValue, updateColumns);
@@ -1,7 +1,7 @@
 package io.odpf.firehose.sink.jdbc.field;
 
 import com.google.protobuf.Descriptors;
-import com.google.protobuf.DynamicMessage;
+import com.google.protobuf.Message;
 import org.json.simple.JSONObject;
 
 import java.util.HashMap;
@@ -23,9 +23,9 @@ public class JdbcMapField implements JdbcField {
     @Override
     public Object getColumn() throws RuntimeException {
         HashMap<String, Object> columnFields = new HashMap<>();
-        List<DynamicMessage> values = (List<DynamicMessage>) this.columnValue;
-        for (DynamicMessage dynamicMessage : values) {
-            Object[] data = dynamicMessage.getAllFields().values().toArray();
+        List<Message> values = (List<Message>) this.columnValue;
+        for (Message mapEntry : values) {
+            Object[] data = mapEntry.getAllFields().values().toArray();
             Object mapValue = data.length > 1 ? data[1] : "";
             columnFields.put((String) data[0], mapValue);
         }
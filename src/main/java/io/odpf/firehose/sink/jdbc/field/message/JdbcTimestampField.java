@@ -2,7 +2,7 @@ package io.odpf.firehose.sink.jdbc.field.message;
 
 import io.odpf.firehose.sink.jdbc.field.JdbcField;
 import com.google.protobuf.Descriptors;
-import com.google.protobuf.DynamicMessage;
+import com.google.protobuf.Message;
 import com.google.protobuf.Timestamp;
 
 import java.time.Instant;
@@ -18,10 +18,10 @@ public class JdbcTimestampField implements JdbcField {
 
     @Override
     public Object getColumn() {
-        List<Descriptors.FieldDescriptor> fieldDescriptors = ((DynamicMessage) columnValue).getDescriptorForType().getFields();
+        List<Descriptors.FieldDescriptor> fieldDescriptors = ((Message) columnValue).getDescriptorForType().getFields();
         ArrayList<Object> timeFields = new ArrayList<>();
         for (Descriptors.FieldDescriptor fieldDescriptor : fieldDescriptors) {
-            timeFields.add(((DynamicMessage) columnValue).getField(fieldDescriptor));
+            timeFields.add(((Message) columnValue).getField(fieldDescriptor));
         }
         Instant instant = Instant.ofEpochSecond((long) timeFields.get(0), ((Integer) timeFields.get(1)).longValue());
         return instant;
@@ -29,7 +29,7 @@ public class JdbcTimestampField implements JdbcField {
 
     @Override
     public boolean canProcess() {
-        return columnValue instanceof DynamicMessage && ((DynamicMessage) columnValue).getDescriptorForType().getName().equals(Timestamp.class.getSimpleName());
+        return columnValue instanceof Message && ((Message) columnValue).getDescriptorForType().getName().equals(Timestamp.class.getSimpleName());
 
     }
 }
@@ -27,15 +27,11 @@ public class KeyOrMessageParser {
      * @throws IOException when invalid message is encountered
      */
     public DynamicMessage parse(Message message) throws IOException {
-        if (appConfig.getKafkaRecordParserMode().equals("key")) {
-            return protoParse(message.getLogKey());
-        }
-        return protoParse(message.getLogMessage());
-    }
-
-    private DynamicMessage protoParse(byte[] data) throws IOException {
         try {
-            return protoParser.parse(data);
+            if (appConfig.getKafkaRecordParserMode().equals("key")) {
+                return message.getParsedLogKey(protoParser);
+            }
+            return message.getParsedLogMessage(protoParser);
         } catch (InvalidProtocolBufferException e) {
             throw new IOException(e);
         }
@@ -42,7 +42,7 @@ public class WriteRequestBuilder {
         writeRequestBuilder.clear();
         List<Cortex.TimeSeries> sortedTimeSeriesList = new ArrayList<>();
         for (Message message : messages) {
-            DynamicMessage protoMessage = protoParser.parse(message.getLogMessage());
+            DynamicMessage protoMessage = message.getParsedLogMessage(protoParser);
             int partition = message.getPartition();
             sortedTimeSeriesList.addAll(timeSeriesBuilder.buildTimeSeries(protoMessage, partition));
         }
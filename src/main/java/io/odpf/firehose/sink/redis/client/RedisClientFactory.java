@@ -7,6 +7,7 @@ import io.odpf.firehose.config.enums.RedisSinkDeploymentType;
 import io.odpf.firehose.exception.ConfigurationException;
 import io.odpf.firehose.metrics.Instrumentation;
 import io.odpf.firehose.metrics.StatsDReporter;
+import io.odpf.firehose.proto.GeneratedProtoParser;
 import io.odpf.firehose.proto.ProtoToFieldMapper;
 import io.odpf.firehose.sink.redis.parsers.RedisParser;
 import io.odpf.firehose.sink.redis.parsers.RedisParserFactory;
@@ -46,7 +47,9 @@ public class RedisClientFactory {
 
     public RedisClient getClient() {
         Parser protoParser =  stencilClient.getParser(redisSinkConfig.getInputSchemaProtoClass());
-        ProtoToFieldMapper protoToFieldMapper = new ProtoToFieldMapper(protoParser, redisSinkConfig.getInputSchemaProtoToColumnMapping());
+        GeneratedProtoParser generatedProtoParser = redisSinkConfig.isInputSchemaProtoGeneratedClassEnable()
+                ? GeneratedProtoParser.find(redisSinkConfig.getInputSchemaProtoClass(), new Instrumentation(statsDReporter, RedisClientFactory.class)) : null;
+        ProtoToFieldMapper protoToFieldMapper = new ProtoToFieldMapper(protoParser, redisSinkConfig.getInputSchemaProtoToColumnMapping(), generatedProtoParser);
         RedisParser redisParser = RedisParserFactory.getParser(protoToFieldMapper, protoParser, redisSinkConfig, statsDReporter);
         RedisSinkDeploymentType redisSinkDeploymentType = redisSinkConfig.getSinkRedisDeploymentType();
         RedisTtl redisTTL = RedisTTLFactory.getTTl(redisSinkConfig);
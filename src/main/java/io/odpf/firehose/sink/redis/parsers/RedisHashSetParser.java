@@ -8,7 +8,6 @@ import io.odpf.firehose.metrics.StatsDReporter;
 import io.odpf.firehose.proto.ProtoToFieldMapper;
 import io.odpf.firehose.sink.redis.dataentry.RedisDataEntry;
 import io.odpf.firehose.sink.redis.dataentry.RedisHashSetFieldEntry;
-import com.google.protobuf.DynamicMessage;
 import io.odpf.stencil.Parser;
 
 import java.util.ArrayList;
@@ -17,6 +16,7 @@ import java.util.Map;
 
 /**
  * Redis hash set parser.
+ * When the {@link ProtoToFieldMapper} parses with a generated proto class, the key template reads the same parsed payload.
  */
 public class RedisHashSetParser extends RedisParser {
     private ProtoToFieldMapper protoToFieldMapper;
@@ -39,10 +39,12 @@ public class RedisHashSetParser extends RedisParser {
 
     @Override
     public List<RedisDataEntry> parse(Message message) {
-        DynamicMessage parsedMessage = parseEsbMessage(message);
+        com.google.protobuf.Message parsedMessage = protoToFieldMapper.hasGeneratedProtoParser()
+                ? protoToFieldMapper.parse(message, isKeyPayload())
+                : parseEsbMessage(message);
         String redisKey = parseTemplate(parsedMessage, redisSinkConfig.getSinkRedisKeyTemplate());
         List<RedisDataEntry> messageEntries = new ArrayList<>();
-        Map<String, Object> protoToFieldMap = protoToFieldMapper.getFields(getPayload(message));
+        Map<String, Object> protoToFieldMap = protoToFieldMapper.getFields(message, isKeyPayload());
         protoToFieldMap.forEach((key, value) -> messageEntries.add(new RedisHashSetFieldEntry(redisKey, parseTemplate(parsedMessage, key), String.valueOf(value), new Instrumentation(statsDReporter, RedisHashSetFieldEntry.class))));
         return messageEntries;
     }
@@ -45,7 +45,7 @@ public abstract class RedisParser {
     DynamicMessage parseEsbMessage(Message message) {
         DynamicMessage parsedMessage;
         try {
-            parsedMessage = protoParser.parse(getPayload(message));
+            parsedMessage = isKeyPayload() ? message.getParsedLogKey(protoParser) : message.getParsedLogMessage(protoParser);
         } catch (InvalidProtocolBufferException e) {
             throw new IllegalArgumentException("Unable to parse data when reading Key", e);
         }
@@ -59,7 +59,7 @@ public abstract class RedisParser {
      * @param template the template
      * @return parsed template
      */
-    String parseTemplate(DynamicMessage data, String template) {
+    String parseTemplate(com.google.protobuf.Message data, String template) {
         if (StringUtils.isEmpty(template)) {
             throw new IllegalArgumentException("Template '" + template + "' is invalid");
         }
@@ -79,7 +79,7 @@ public abstract class RedisParser {
                 : renderedTemplate;
     }
 
-    private String renderStringTemplate(DynamicMessage parsedMessage, String pattern, String patternVariables) {
+    private String renderStringTemplate(com.google.protobuf.Message parsedMessage, String pattern, String patternVariables) {
         if (StringUtils.isEmpty(patternVariables)) {
             return pattern;
         }
@@ -98,7 +98,7 @@ public abstract class RedisParser {
      * @param fieldNumber   the field number
      * @return Data object
      */
-    Object getDataByFieldNumber(DynamicMessage parsedMessage, String fieldNumber) {
+    Object getDataByFieldNumber(com.google.protobuf.Message parsedMessage, String fieldNumber) {
         int fieldNumberInt;
         try {
             fieldNumberInt = Integer.parseInt(fieldNumber);
@@ -113,16 +113,11 @@ public abstract class RedisParser {
     }
 
     /**
-     * Get payload bytes.
+     * Whether the payload is read from the kafka key.
      *
-     * @param message the message
-     * @return binary payload
+     * @return true when the parser mode is key
      */
-    byte[] getPayload(Message message) {
-        if (redisSinkConfig.getKafkaRecordParserMode().equals("key")) {
-            return message.getLogKey();
-        } else {
-            return message.getLogMessage();
-        }
+    boolean isKeyPayload() {
+        return redisSinkConfig.getKafkaRecordParserMode().equals("key");
     }
 }
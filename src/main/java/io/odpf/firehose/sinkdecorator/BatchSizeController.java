@@ -0,0 +1,42 @@
+package io.odpf.firehose.sinkdecorator;
+
+/**
+ * Adjusts the number of messages pushed to the sink in one call.
+ * <p>
+ * The batch size is halved when the sink response time breaches the target,
+ * and grown by a quarter when the sink keeps up but the pushed messages are older than the lag threshold.
+ * It starts at the maximum size, which is the same as pushing every polled batch in one call.
+ */
+public class BatchSizeController {
+    private static final int GROWTH_DIVISOR = 4;
+    private final int minBatchSize;
+    private final int maxBatchSize;
+    private final long targetResponseTimeMillis;
+    private final long lagThresholdMillis;
+    private int batchSize;
+
+    public BatchSizeController(int minBatchSize, int maxBatchSize, long targetResponseTimeMillis, long lagThresholdMillis) {
+        this.minBatchSize = Math.max(1, minBatchSize);
+        this.maxBatchSize = Math.max(this.minBatchSize, maxBatchSize);
+        this.targetResponseTimeMillis = targetResponseTimeMillis;
+        this.lagThresholdMillis = lagThresholdMillis;
+        this.batchSize = this.maxBatchSize;
+    }
+
+    public synchronized int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * @param pushedBatchSize    number of messages pushed
+     * @param responseTimeMillis time taken by the sink to push them
+     * @param endLatencyMillis   age of the oldest pushed message when the push started
+     */
+    public synchronized void record(int pushedBatchSize, long responseTimeMillis, long endLatencyMillis) {
+        if (responseTimeMillis > targetResponseTimeMillis) {
+            batchSize = Math.max(minBatchSize, Math.min(batchSize, pushedBatchSize) / 2);
+        } else if (endLatencyMillis > lagThresholdMillis && pushedBatchSize >= batchSize) {
+            batchSize = Math.min(maxBatchSize, batchSize + Math.max(1, batchSize / GROWTH_DIVISOR));
+        }
+    }
+}
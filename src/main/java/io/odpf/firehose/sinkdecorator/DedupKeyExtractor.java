@@ -0,0 +1,44 @@
+package io.odpf.firehose.sinkdecorator;
+
+import com.google.protobuf.ByteString;
+import io.odpf.firehose.message.Message;
+import io.odpf.firehose.proto.ProtoFieldKey;
+import io.odpf.firehose.sink.log.KeyOrMessageParser;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Key identifying a message for deduplication.
+ * <p>
+ * Without a key field the key is the topic, partition and offset of the message, so only redeliveries of the same record match.
+ * With a key field the key is the value of that top level field of the parsed message,
+ * messages which can not be parsed or do not have the field fall back to their topic, partition and offset.
+ */
+public class DedupKeyExtractor {
+    private final ProtoFieldKey fieldKey;
+
+    /**
+     * @param parser   parser of the input messages, only used with a key field
+     * @param keyField name of the key field, empty to use the topic, partition and offset
+     */
+    public DedupKeyExtractor(KeyOrMessageParser parser, String keyField) {
+        this.fieldKey = new ProtoFieldKey(parser, keyField);
+    }
+
+    public byte[] extract(Message message) {
+        Object fieldValue = fieldKey.extract(message);
+        if (fieldValue instanceof ByteString) {
+            return ((ByteString) fieldValue).toByteArray();
+        }
+        if (fieldValue != null) {
+            return fieldValue.toString().getBytes(StandardCharsets.UTF_8);
+        }
+        byte[] topic = message.getTopic().getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.allocate(topic.length + Integer.BYTES + Long.BYTES)
+                .put(topic)
+                .putInt(message.getPartition())
+                .putLong(message.getOffset())
+                .array();
+    }
+}
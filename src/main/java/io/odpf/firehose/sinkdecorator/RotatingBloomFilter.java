@@ -0,0 +1,76 @@
+package io.odpf.firehose.sinkdecorator;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnel;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remembers recently added items within a fixed memory budget.
+ * <p>
+ * Items are added to the current bloom filter. Once it holds the number of items it was sized for,
+ * it becomes the previous filter and a new current filter is started, so the previous items are forgotten.
+ * An item is reported as seen if either filter might contain it, which remembers between one and two generations of items.
+ * Like any bloom filter, it reports items never added as seen at the configured false positive rate.
+ * <p>
+ * This class is thread safe.
+ *
+ * @param <T> type of the items
+ */
+public class RotatingBloomFilter<T> {
+    private static final int GENERATIONS = 2;
+    private final Funnel<? super T> funnel;
+    private final long insertionsPerGeneration;
+    private final double falsePositiveRate;
+    private final AtomicLong insertions = new AtomicLong();
+    private volatile BloomFilter<T> current;
+    private volatile BloomFilter<T> previous;
+
+    public RotatingBloomFilter(Funnel<? super T> funnel, long insertionsPerGeneration, double falsePositiveRate) {
+        this.funnel = funnel;
+        this.insertionsPerGeneration = Math.max(1, insertionsPerGeneration);
+        this.falsePositiveRate = falsePositiveRate;
+        this.current = BloomFilter.create(funnel, this.insertionsPerGeneration, falsePositiveRate);
+        this.previous = BloomFilter.create(funnel, 1, falsePositiveRate);
+    }
+
+    /**
+     * Sizes both generations to fit in the memory budget at the false positive rate.
+     *
+     * @param funnel            funnel of the items
+     * @param memoryBytes       memory of both generations together
+     * @param falsePositiveRate probability of reporting an item never added as seen
+     * @param <T>               type of the items
+     * @return filter remembering as many items as the budget allows
+     */
+    public static <T> RotatingBloomFilter<T> withMemoryBudget(Funnel<? super T> funnel, long memoryBytes, double falsePositiveRate) {
+        double bitsPerGeneration = (double) memoryBytes * Byte.SIZE / GENERATIONS;
+        long insertionsPerGeneration = (long) (bitsPerGeneration * Math.log(2) * Math.log(2) / -Math.log(falsePositiveRate));
+        return new RotatingBloomFilter<>(funnel, insertionsPerGeneration, falsePositiveRate);
+    }
+
+    public long getInsertionsPerGeneration() {
+        return insertionsPerGeneration;
+    }
+
+    public boolean mightContain(T item) {
+        return current.mightContain(item) || previous.mightContain(item);
+    }
+
+    public void put(T item) {
+        BloomFilter<T> filter = current;
+        filter.put(item);
+        if (insertions.incrementAndGet() >= insertionsPerGeneration) {
+            rotate(filter);
+        }
+    }
+
+    private synchronized void rotate(BloomFilter<T> fullFilter) {
+        if (current != fullFilter) {
+            return;
+        }
+        previous = fullFilter;
+        current = BloomFilter.create(funnel, insertionsPerGeneration, falsePositiveRate);
+        insertions.set(0);
+    }
+}
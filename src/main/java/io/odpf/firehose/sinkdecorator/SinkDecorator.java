@@ -47,4 +47,9 @@ public class SinkDecorator implements Sink {
     public void addOffsetsAndSetCommittable(List<Message> messageList) {
         sink.addOffsetsAndSetCommittable(messageList);
     }
+
+    @Override
+    public void drain(long timeoutMillis) throws InterruptedException {
+        sink.drain(timeoutMillis);
+    }
 }
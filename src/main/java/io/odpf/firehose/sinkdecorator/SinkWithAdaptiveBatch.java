@@ -0,0 +1,53 @@
+package io.odpf.firehose.sinkdecorator;
+
+import io.odpf.firehose.message.Message;
+import io.odpf.firehose.metrics.Instrumentation;
+import io.odpf.firehose.sink.Sink;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.odpf.firehose.metrics.Metrics.SINK_ADAPTIVE_BATCH_SIZE;
+
+/**
+ * Pushes the messages to the wrapped sink in slices sized by the {@link BatchSizeController}.
+ * Every slice feeds its sink response time and end latency back to the controller.
+ */
+public class SinkWithAdaptiveBatch extends SinkDecorator {
+    private final BatchSizeController batchSizeController;
+    private final Instrumentation instrumentation;
+
+    public SinkWithAdaptiveBatch(Sink sink, BatchSizeController batchSizeController, Instrumentation instrumentation) {
+        super(sink);
+        this.batchSizeController = batchSizeController;
+        this.instrumentation = instrumentation;
+    }
+
+    @Override
+    public List<Message> pushMessage(List<Message> messages) throws IOException {
+        List<Message> failedMessages = new ArrayList<>();
+        int from = 0;
+        while (from < messages.size()) {
+            int to = Math.min(messages.size(), from + batchSizeController.getBatchSize());
+            List<Message> batch = from == 0 && to == messages.size() ? messages : new ArrayList<>(messages.subList(from, to));
+            Instant startTime = Instant.now();
+            long endLatencyMillis = startTime.toEpochMilli() - oldestTimestamp(batch);
+            failedMessages.addAll(super.pushMessage(batch));
+            batchSizeController.record(batch.size(), Duration.between(startTime, Instant.now()).toMillis(), endLatencyMillis);
+            instrumentation.captureValue(SINK_ADAPTIVE_BATCH_SIZE, batchSizeController.getBatchSize());
+            from = to;
+        }
+        return failedMessages;
+    }
+
+    private long oldestTimestamp(List<Message> batch) {
+        long oldestTimestamp = Long.MAX_VALUE;
+        for (Message message : batch) {
+            oldestTimestamp = Math.min(oldestTimestamp, message.getTimestamp());
+        }
+        return oldestTimestamp;
+    }
+}
@@ -0,0 +1,63 @@
+package io.odpf.firehose.sinkdecorator;
+
+import io.odpf.firehose.message.Message;
+import io.odpf.firehose.metrics.Instrumentation;
+import io.odpf.firehose.sink.Sink;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import static io.odpf.firehose.metrics.Metrics.SINK_DEDUP_SKIPPED_TOTAL;
+
+/**
+ * Skips messages already pushed recently, so redelivered messages after a rebalance or a restart do not reach the sink again.
+ * <p>
+ * Messages are remembered only once the wrapped sink pushed them without failure.
+ * Skipped messages are reported as pushed, so their offsets get committed.
+ */
+public class SinkWithDedup extends SinkDecorator {
+    private final RotatingBloomFilter<byte[]> pushedMessages;
+    private final DedupKeyExtractor dedupKeyExtractor;
+    private final Instrumentation instrumentation;
+
+    public SinkWithDedup(Sink sink, RotatingBloomFilter<byte[]> pushedMessages, DedupKeyExtractor dedupKeyExtractor, Instrumentation instrumentation) {
+        super(sink);
+        this.pushedMessages = pushedMessages;
+        this.dedupKeyExtractor = dedupKeyExtractor;
+        this.instrumentation = instrumentation;
+    }
+
+    @Override
+    public List<Message> pushMessage(List<Message> messages) throws IOException {
+        List<Message> newMessages = new ArrayList<>(messages.size());
+        List<byte[]> newKeys = new ArrayList<>(messages.size());
+        for (Message message : messages) {
+            byte[] key = dedupKeyExtractor.extract(message);
+            if (!pushedMessages.mightContain(key)) {
+                newMessages.add(message);
+                newKeys.add(key);
+            }
+        }
+        int skippedCount = messages.size() - newMessages.size();
+        if (skippedCount > 0) {
+            instrumentation.logInfo("Skipping {} messages already pushed", skippedCount);
+            instrumentation.captureCount(SINK_DEDUP_SKIPPED_TOTAL, skippedCount);
+        }
+        if (newMessages.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Message> failedMessages = super.pushMessage(newMessages);
+        Set<Message> failed = Collections.newSetFromMap(new IdentityHashMap<>());
+        failed.addAll(failedMessages);
+        for (int i = 0; i < newMessages.size(); i++) {
+            if (!failed.contains(newMessages.get(i))) {
+                pushedMessages.put(newKeys.get(i));
+            }
+        }
+        return failedMessages;
+    }
+}
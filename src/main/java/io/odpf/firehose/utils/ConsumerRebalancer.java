@@ -1,5 +1,7 @@
 package io.odpf.firehose.utils;
 
+import io.odpf.firehose.consumer.kafka.FirehoseKafkaConsumer;
+import io.odpf.firehose.consumer.kafka.OffsetManager;
 import io.odpf.firehose.metrics.Instrumentation;
 import lombok.AllArgsConstructor;
 import org.apache.kafka.clients.consumer.ConsumerRebalanceListener;
@@ -10,11 +12,19 @@ import java.util.Collection;
 
 /**
  * A callback to log when the partition rebalancing happens.
+ * On revocation it lets the consumer drain the revoked partitions,
+ * then commits the committable offsets of the revoked partitions and drops their offset state.
+ * <p>
+ * With the cooperative sticky assignor only the partitions moving to another consumer are revoked,
+ * the offset state and the work in progress of the retained partitions are left untouched.
+ * Lost partitions are dropped without committing, as another consumer already owns them.
  */
 @AllArgsConstructor
 public class ConsumerRebalancer implements ConsumerRebalanceListener {
 
     private Instrumentation instrumentation;
+    private FirehoseKafkaConsumer firehoseKafkaConsumer;
+    private OffsetManager offsetManager;
 
     /**
      * Function to run On partitions revoked.
@@ -24,6 +34,20 @@ public class ConsumerRebalancer implements ConsumerRebalanceListener {
     @Override
     public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
         instrumentation.logWarn("Partitions Revoked {}", Arrays.toString(partitions.toArray()));
+        firehoseKafkaConsumer.drainPartitions(partitions);
+        firehoseKafkaConsumer.onPartitionsRevoked(partitions, offsetManager.removePartitions(partitions));
+    }
+
+    /**
+     * Function to run On partitions lost.
+     *
+     * @param partitions list of partitions
+     */
+    @Override
+    public void onPartitionsLost(Collection<TopicPartition> partitions) {
+        instrumentation.logWarn("Partitions Lost {}", Arrays.toString(partitions.toArray()));
+        offsetManager.removePartitions(partitions);
+        firehoseKafkaConsumer.onPartitionsLost(partitions);
     }
 
     /**
@@ -2,12 +2,19 @@ package io.odpf.firehose.utils;
 
 import io.odpf.firehose.config.DlqKafkaProducerConfig;
 import io.odpf.firehose.config.KafkaConsumerConfig;
+import io.odpf.firehose.config.enums.KafkaConsumerMode;
+import io.odpf.firehose.consumer.MemoryBudget;
+import io.odpf.firehose.consumer.kafka.BackfillFirehoseKafkaConsumer;
+import io.odpf.firehose.consumer.kafka.BackfillPlan;
 import io.odpf.firehose.consumer.kafka.FirehoseKafkaConsumer;
+import io.odpf.firehose.consumer.kafka.OffsetManager;
+import io.odpf.firehose.consumer.kafka.PrefetchingFirehoseKafkaConsumer;
 import io.odpf.firehose.metrics.Instrumentation;
 import io.odpf.firehose.metrics.StatsDReporter;
 import io.odpf.firehose.parser.KafkaEnvironmentVariables;
 import io.opentracing.Tracer;
 import io.opentracing.contrib.kafka.TracingKafkaConsumer;
+import org.apache.kafka.clients.consumer.CooperativeStickyAssignor;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
 import org.apache.kafka.clients.producer.KafkaProducer;
 import org.apache.kafka.common.serialization.ByteArrayDeserializer;
@@ -30,20 +37,25 @@ public class KafkaUtils {
     private static final String METADATA_MAX_AGE_MS = "metadata.max.age.ms";
     private static final String MAX_POLL_RECORDS = "max.poll.records";
     private static final String SESSION_TIMEOUT_MS = "session.timeout.ms";
+    private static final String PARTITION_ASSIGNMENT_STRATEGY = "partition.assignment.strategy";
 
 
     /**
      * Subscribe to all topics matching specified pattern to get dynamically assigned partitions.
      *
-     * @param config         the config
-     * @param kafkaConsumer  the kafka consumer
-     * @param statsdReporter the statsd reporter
+     * @param config                the config
+     * @param kafkaConsumer         the kafka consumer
+     * @param statsdReporter        the statsd reporter
+     * @param firehoseKafkaConsumer the consumer committing offsets of revoked partitions
+     * @param offsetManager         the offset manager tracking offsets of assigned partitions
      */
-    public static void configureSubscription(KafkaConsumerConfig config, KafkaConsumer<byte[], byte[]> kafkaConsumer, StatsDReporter statsdReporter) {
+    public static void configureSubscription(KafkaConsumerConfig config, KafkaConsumer<byte[], byte[]> kafkaConsumer, StatsDReporter statsdReporter,
+                                             FirehoseKafkaConsumer firehoseKafkaConsumer, OffsetManager offsetManager) {
         Instrumentation instrumentation = new Instrumentation(statsdReporter, KafkaUtils.class);
         Pattern subscriptionTopicPattern = Pattern.compile(config.getSourceKafkaTopic());
         instrumentation.logInfo("consumer subscribed using pattern: {}", subscriptionTopicPattern);
-        kafkaConsumer.subscribe(subscriptionTopicPattern, new ConsumerRebalancer(new Instrumentation(statsdReporter, ConsumerRebalancer.class)));
+        kafkaConsumer.subscribe(subscriptionTopicPattern, new ConsumerRebalancer(
+                new Instrumentation(statsdReporter, ConsumerRebalancer.class), firehoseKafkaConsumer, offsetManager));
     }
 
     public static Map<String, Object> getConfig(KafkaConsumerConfig config, Map<String, String> extraParameters) {
@@ -56,11 +68,27 @@ public class KafkaUtils {
             put(METADATA_MAX_AGE_MS, config.getSourceKafkaConsumerConfigMetadataMaxAgeMs());
             put(MAX_POLL_RECORDS, config.getSourceKafkaConsumerConfigMaxPollRecords());
             put(SESSION_TIMEOUT_MS, config.getSourceKafkaConsumerConfigSessionTimeoutMs());
+            if (config.isSourceKafkaConsumerCooperativeRebalanceEnable()) {
+                put(PARTITION_ASSIGNMENT_STRATEGY, CooperativeStickyAssignor.class.getName());
+            }
         }};
 
         return merge(consumerConfigurationMap, KafkaEnvironmentVariables.parse(extraParameters));
     }
 
+    /**
+     * Consumer group of a backfill, derived from the consumer group id and the time range of the backfill.
+     * Its committed offsets only let a restart of the same backfill resume where it stopped,
+     * the live consumer group and backfills of other time ranges do not affect it.
+     *
+     * @param config {@see KafkaConsumerConfig}
+     * @return consumer group id of the backfill
+     */
+    public static String getBackfillGroupId(KafkaConsumerConfig config) {
+        return String.format("%s-backfill-%d-%d", config.getSourceKafkaConsumerGroupId(),
+                config.getSourceKafkaBackfillStartTimestampMs(), config.getSourceKafkaBackfillEndTimestampMs());
+    }
+
     private static Map<String, Object> merge(HashMap<String, Object> consumerConfigurationMap, Map<String, String> extraParameters) {
         consumerConfigurationMap.putAll(extraParameters);
         return consumerConfigurationMap;
@@ -72,18 +100,72 @@ public class KafkaUtils {
      * @param config               {@see KafkaConsumerConfig}
      * @param extraKafkaParameters a map containing kafka configurations available as a key/value pair.
      * @param statsDReporter       {@see StatsDClient}
+     * @param offsetManager        offset manager purged when partitions are revoked
+     * @param memoryBudget         memory budget holding the prefetched batch
      * @return {@see EsbGenericConsumer}
      */
     public static FirehoseKafkaConsumer createConsumer(KafkaConsumerConfig config, Map<String, String> extraKafkaParameters,
-                                                       StatsDReporter statsDReporter, Tracer tracer) {
+                                                       StatsDReporter statsDReporter, Tracer tracer, OffsetManager offsetManager, MemoryBudget memoryBudget) {
 
         KafkaConsumer<byte[], byte[]> kafkaConsumer = new KafkaConsumer<>(KafkaUtils.getConfig(config, extraKafkaParameters));
-        KafkaUtils.configureSubscription(config, kafkaConsumer, statsDReporter);
         TracingKafkaConsumer<byte[], byte[]> tracingKafkaConsumer = new TracingKafkaConsumer<>(kafkaConsumer, tracer);
-        return new FirehoseKafkaConsumer(
-                tracingKafkaConsumer,
+        FirehoseKafkaConsumer firehoseKafkaConsumer;
+        if (config.getSourceKafkaConsumerMode() == KafkaConsumerMode.SYNC && config.isSourceKafkaConsumerPrefetchEnable()) {
+            firehoseKafkaConsumer = new PrefetchingFirehoseKafkaConsumer(
+                    tracingKafkaConsumer,
+                    config,
+                    new Instrumentation(statsDReporter, PrefetchingFirehoseKafkaConsumer.class),
+                    memoryBudget);
+        } else {
+            firehoseKafkaConsumer = new FirehoseKafkaConsumer(
+                    tracingKafkaConsumer,
+                    config,
+                    new Instrumentation(statsDReporter, FirehoseKafkaConsumer.class));
+        }
+        KafkaUtils.configureSubscription(config, kafkaConsumer, statsDReporter, firehoseKafkaConsumer, offsetManager);
+        return firehoseKafkaConsumer;
+    }
+
+    /**
+     * Resolves the offset range of the backfill, using a kafka consumer closed right after.
+     *
+     * @param config               {@see KafkaConsumerConfig}
+     * @param extraKafkaParameters a map containing kafka configurations available as a key/value pair.
+     * @return plan of the backfill
+     */
+    public static BackfillPlan createBackfillPlan(KafkaConsumerConfig config, Map<String, String> extraKafkaParameters) {
+        try (KafkaConsumer<byte[], byte[]> kafkaConsumer = new KafkaConsumer<>(KafkaUtils.getConfig(config, extraKafkaParameters))) {
+            return BackfillPlan.resolve(
+                    kafkaConsumer,
+                    Pattern.compile(config.getSourceKafkaTopic()),
+                    config.getSourceKafkaBackfillStartTimestampMs(),
+                    config.getSourceKafkaBackfillEndTimestampMs(),
+                    config.getApplicationThreadCount());
+        }
+    }
+
+    /**
+     * method to create the {@link BackfillFirehoseKafkaConsumer} of the partitions claimed from the backfill plan.
+     * The partitions are assigned explicitly, the consumer does not join the consumer group.
+     * Offsets are committed to the consumer group of the backfill, see {@link #getBackfillGroupId(KafkaConsumerConfig)}.
+     *
+     * @param config               {@see KafkaConsumerConfig}
+     * @param extraKafkaParameters a map containing kafka configurations available as a key/value pair.
+     * @param statsDReporter       {@see StatsDClient}
+     * @param backfillPlan         plan shared by all the consumer threads
+     * @return consumer of the partitions claimed by this thread
+     */
+    public static FirehoseKafkaConsumer createBackfillConsumer(KafkaConsumerConfig config, Map<String, String> extraKafkaParameters,
+                                                               StatsDReporter statsDReporter, Tracer tracer, BackfillPlan backfillPlan) {
+        Map<String, Object> consumerConfig = KafkaUtils.getConfig(config, extraKafkaParameters);
+        consumerConfig.put(GROUP_ID, getBackfillGroupId(config));
+        KafkaConsumer<byte[], byte[]> kafkaConsumer = new KafkaConsumer<>(consumerConfig);
+        return new BackfillFirehoseKafkaConsumer(
+                new TracingKafkaConsumer<>(kafkaConsumer, tracer),
+                backfillPlan.claimPartitions(),
+                backfillPlan.getEndOffsets(),
                 config,
-                new Instrumentation(statsDReporter, FirehoseKafkaConsumer.class));
+                new Instrumentation(statsDReporter, BackfillFirehoseKafkaConsumer.class));
     }
 
     /**
@@ -0,0 +1,51 @@
+package io.odpf.firehose.utils;
+
+import com.google.protobuf.Descriptors;
+import io.odpf.stencil.Parser;
+import io.odpf.stencil.client.StencilClient;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stencil client that hands out one {@link Parser} per proto class.
+ * <p>
+ * {@link io.odpf.firehose.message.Message} memoizes its decoded payload per parser,
+ * so components sharing the parser instance also share the decoded message.
+ * Parsers still resolve the descriptor on every parse, schema refreshes are not affected.
+ */
+public class ParserCachingStencilClient implements StencilClient {
+
+    private final StencilClient stencilClient;
+    private final Map<String, Parser> parsers = new ConcurrentHashMap<>();
+
+    public ParserCachingStencilClient(StencilClient stencilClient) {
+        this.stencilClient = stencilClient;
+    }
+
+    @Override
+    public Descriptors.Descriptor get(String className) {
+        return stencilClient.get(className);
+    }
+
+    @Override
+    public Parser getParser(String className) {
+        return parsers.computeIfAbsent(className, stencilClient::getParser);
+    }
+
+    @Override
+    public Map<String, Descriptors.Descriptor> getAll() {
+        return stencilClient.getAll();
+    }
+
+    @Override
+    public void refresh() {
+        stencilClient.refresh();
+    }
+
+    @Override
+    public void close() throws IOException {
+        stencilClient.close();
+    }
+}
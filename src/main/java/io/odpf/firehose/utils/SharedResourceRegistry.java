@@ -0,0 +1,59 @@
+package io.odpf.firehose.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.function.Supplier;
+
+/**
+ * Resources shared by all the consumer threads of the process, like the stencil client and the sink clients.
+ * <p>
+ * A resource is created by the first thread asking for it, other threads asking meanwhile wait for it.
+ * The same instance is then handed out to every thread, so it has to be thread safe.
+ * Closeable resources are closed in reverse creation order when the registry is closed.
+ */
+public class SharedResourceRegistry implements Closeable {
+    private final Map<String, Object> resources = new ConcurrentHashMap<>();
+    private final Deque<Closeable> closeables = new ConcurrentLinkedDeque<>();
+
+    /**
+     * @param key      name of the resource
+     * @param supplier creates the resource if it does not exist yet, it must not use the registry itself
+     * @param <T>      type of the resource
+     * @return the shared resource
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key, Supplier<T> supplier) {
+        return (T) resources.computeIfAbsent(key, k -> {
+            T resource = supplier.get();
+            if (resource instanceof Closeable) {
+                closeables.push((Closeable) resource);
+            }
+            return resource;
+        });
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOException exception = null;
+        Closeable closeable;
+        while ((closeable = closeables.poll()) != null) {
+            try {
+                closeable.close();
+            } catch (IOException e) {
+                if (exception == null) {
+                    exception = e;
+                } else {
+                    exception.addSuppressed(e);
+                }
+            }
+        }
+        resources.clear();
+        if (exception != null) {
+            throw exception;
+        }
+    }
+}
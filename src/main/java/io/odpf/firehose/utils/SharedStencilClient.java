@@ -0,0 +1,46 @@
+package io.odpf.firehose.utils;
+
+import com.google.protobuf.Descriptors;
+import io.odpf.stencil.Parser;
+import io.odpf.stencil.client.StencilClient;
+
+import java.util.Map;
+
+/**
+ * View of a stencil client shared through the {@link SharedResourceRegistry}.
+ * <p>
+ * Sinks close the stencil client they are given, closing this view is a no-op,
+ * the underlying client is closed along with the registry.
+ */
+public class SharedStencilClient implements StencilClient {
+
+    private final StencilClient stencilClient;
+
+    public SharedStencilClient(StencilClient stencilClient) {
+        this.stencilClient = stencilClient;
+    }
+
+    @Override
+    public Descriptors.Descriptor get(String className) {
+        return stencilClient.get(className);
+    }
+
+    @Override
+    public Parser getParser(String className) {
+        return stencilClient.getParser(className);
+    }
+
+    @Override
+    public Map<String, Descriptors.Descriptor> getAll() {
+        return stencilClient.getAll();
+    }
+
+    @Override
+    public void refresh() {
+        stencilClient.refresh();
+    }
+
+    @Override
+    public void close() {
+    }
+}
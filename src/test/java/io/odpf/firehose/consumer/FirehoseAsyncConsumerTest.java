@@ -1,25 +1,40 @@
 package io.odpf.firehose.consumer;
 
+import io.odpf.firehose.config.KafkaConsumerConfig;
 import io.odpf.firehose.consumer.kafka.ConsumerAndOffsetManager;
+import io.odpf.firehose.consumer.kafka.FirehoseKafkaConsumer;
+import io.odpf.firehose.consumer.kafka.OffsetManager;
 import io.odpf.firehose.message.Message;
+import io.odpf.firehose.message.MessageBatch;
+import io.odpf.firehose.sink.Sink;
 import io.odpf.firehose.sink.SinkPool;
 import io.odpf.firehose.exception.SinkTaskFailedException;
 import io.odpf.firehose.filter.FilterException;
-import io.odpf.firehose.filter.FilteredMessages;
 import io.odpf.firehose.filter.NoOpFilter;
 import io.odpf.firehose.metrics.Instrumentation;
 import io.odpf.firehose.metrics.Metrics;
 import io.odpf.firehose.tracer.SinkTracer;
+import org.aeonbits.owner.ConfigFactory;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.concurrent.Future;
@@ -47,6 +62,7 @@ public class FirehoseAsyncConsumerTest {
         MockitoAnnotations.initMocks(this);
         FirehoseFilter firehoseFilter = new FirehoseFilter(new NoOpFilter(instrumentation), instrumentation);
         this.asyncConsumer = new FirehoseAsyncConsumer(sinkPool, tracer, consumerAndOffsetManager, firehoseFilter, instrumentation);
+        Mockito.when(sinkPool.split(Mockito.anyList())).thenAnswer(invocation -> Collections.singletonList(invocation.getArguments()[0]));
     }
 
     @Test
@@ -62,18 +78,18 @@ public class FirehoseAsyncConsumerTest {
             add(new Message(new byte[0], new byte[0], "topic1", 2, 6));
         }};
 
-        Mockito.when(consumerAndOffsetManager.readMessages()).thenReturn(messageList1);
+        Mockito.when(consumerAndOffsetManager.readMessageBatch()).thenReturn(MessageBatch.of(messageList1));
         Mockito.when(sinkPool.submitTask(messageList1)).thenReturn(future1);
         Mockito.when(sinkPool.submitTask(messageList2)).thenReturn(future2);
         Mockito.when(sinkPool.fetchFinishedSinkTasks()).thenReturn(new HashSet<>());
         Mockito.when(future1.isDone()).thenReturn(false);
         Mockito.when(future2.isDone()).thenReturn(false);
         asyncConsumer.process();
-        Mockito.when(consumerAndOffsetManager.readMessages()).thenReturn(messageList2);
+        Mockito.when(consumerAndOffsetManager.readMessageBatch()).thenReturn(MessageBatch.of(messageList2));
         asyncConsumer.process();
-        Mockito.verify(consumerAndOffsetManager, Mockito.times(1)).addOffsets(future1, messageList1);
-        Mockito.verify(consumerAndOffsetManager, Mockito.times(1)).addOffsets(future2, messageList2);
-        Mockito.verify(consumerAndOffsetManager, Mockito.times(0)).setCommittable(Mockito.any());
+        Mockito.verify(consumerAndOffsetManager, Mockito.times(1)).forceAddOffsets(Mockito.any(), Mockito.eq(messageList1));
+        Mockito.verify(consumerAndOffsetManager, Mockito.times(1)).forceAddOffsets(Mockito.any(), Mockito.eq(messageList2));
+        Mockito.verify(consumerAndOffsetManager, Mockito.times(0)).forceSetCommittable(Mockito.any());
     }
 
     @Test
@@ -83,7 +99,7 @@ public class FirehoseAsyncConsumerTest {
             add(new Message(new byte[0], new byte[0], "topic1", 1, 11));
             add(new Message(new byte[0], new byte[0], "topic1", 1, 12));
         }};
-        Mockito.when(consumerAndOffsetManager.readMessages()).thenReturn(messages);
+        Mockito.when(consumerAndOffsetManager.readMessageBatch()).thenReturn(MessageBatch.of(messages));
 
         Mockito.when(sinkPool.submitTask(messages)).thenReturn(future1);
         Mockito.when(sinkPool.fetchFinishedSinkTasks()).thenReturn(new HashSet<Future<List<Message>>>() {{
@@ -91,8 +107,8 @@ public class FirehoseAsyncConsumerTest {
         }});
         asyncConsumer.process();
 
-        Mockito.verify(consumerAndOffsetManager, Mockito.times(1)).addOffsets(future1, messages);
-        Mockito.verify(consumerAndOffsetManager, Mockito.times(1)).setCommittable(future1);
+        Mockito.verify(consumerAndOffsetManager, Mockito.times(1)).forceAddOffsets(Mockito.any(), Mockito.eq(messages));
+        Mockito.verify(consumerAndOffsetManager, Mockito.times(1)).forceSetCommittable(Mockito.any());
         Mockito.verify(consumerAndOffsetManager, Mockito.times(0)).forceAddOffsetsAndSetCommittable(new ArrayList<>());
         Mockito.verify(consumerAndOffsetManager, Mockito.times(1)).commit();
     }
@@ -105,7 +121,7 @@ public class FirehoseAsyncConsumerTest {
             add(new Message(new byte[0], new byte[0], "topic1", 1, 11));
             add(new Message(new byte[0], new byte[0], "topic1", 1, 12));
         }};
-        Mockito.when(consumerAndOffsetManager.readMessages()).thenReturn(messages);
+        Mockito.when(consumerAndOffsetManager.readMessageBatch()).thenReturn(MessageBatch.of(messages));
         Mockito.when(sinkPool.submitTask(messages)).thenReturn(future1);
         Mockito.when(sinkPool.fetchFinishedSinkTasks()).thenThrow(new SinkTaskFailedException(new RuntimeException()));
         asyncConsumer.process();
@@ -122,12 +138,13 @@ public class FirehoseAsyncConsumerTest {
             add(new Message(new byte[0], new byte[0], "topic1", 1, 12));
         }};
 
-        Mockito.when(consumerAndOffsetManager.readMessages()).thenReturn(messages);
-        Mockito.when(firehoseFilter.applyFilter(messages)).thenReturn(new FilteredMessages() {{
-            addToValidMessages(messages.get(0));
-            addToInvalidMessages(messages.get(1));
-            addToInvalidMessages(messages.get(2));
-        }});
+        Mockito.when(consumerAndOffsetManager.readMessageBatch()).thenReturn(MessageBatch.of(messages));
+        Mockito.doAnswer(invocation -> {
+            MessageBatch messageBatch = (MessageBatch) invocation.getArguments()[0];
+            messageBatch.markFiltered(1);
+            messageBatch.markFiltered(2);
+            return null;
+        }).when(firehoseFilter).applyFilter(Mockito.any(MessageBatch.class));
         Mockito.when(sinkPool.submitTask(new ArrayList<Message>() {{
             add(messages.get(0));
         }})).thenReturn(future1);
@@ -136,15 +153,318 @@ public class FirehoseAsyncConsumerTest {
         }});
         asyncConsumer.process();
 
-        Mockito.verify(consumerAndOffsetManager, Mockito.times(1)).addOffsets(future1, new ArrayList<Message>() {{
+        Mockito.verify(consumerAndOffsetManager, Mockito.times(1)).forceAddOffsets(Mockito.any(), Mockito.eq(new ArrayList<Message>() {{
             add(messages.get(0));
-        }});
+        }}));
         Mockito.verify(consumerAndOffsetManager, Mockito.times(1)).forceAddOffsetsAndSetCommittable(new ArrayList<Message>() {{
             add(messages.get(1));
             add(messages.get(2));
         }});
-        Mockito.verify(consumerAndOffsetManager, Mockito.times(1)).setCommittable(future1);
+        Mockito.verify(consumerAndOffsetManager, Mockito.times(1)).forceSetCommittable(Mockito.any());
         Mockito.verify(consumerAndOffsetManager, Mockito.times(1)).commit();
         Mockito.verify(instrumentation, Mockito.times(1)).captureDurationSince(Mockito.eq(Metrics.SOURCE_KAFKA_PARTITIONS_PROCESS_TIME_MILLISECONDS), Mockito.any(Instant.class));
     }
+
+    @Test
+    public void shouldNotMakeFilteredMessagesCommittablePastKeptAsideMessages() throws Exception {
+        OffsetManager offsetManager = new OffsetManager();
+        FirehoseKafkaConsumer firehoseKafkaConsumer = Mockito.mock(FirehoseKafkaConsumer.class);
+        useConsumerReadingKeptAsideAndFilteredMessages(offsetManager, firehoseKafkaConsumer);
+        Mockito.when(sinkPool.submitTask(Mockito.anyList())).thenReturn(null, future1);
+        Mockito.when(sinkPool.fetchFinishedSinkTasks()).thenReturn(new HashSet<>(), Collections.singleton(future1));
+        TopicPartition topicPartition = new TopicPartition("topic1", 1);
+
+        asyncConsumer.process();
+        Assert.assertFalse(offsetManager.getCommittableOffset().containsKey(topicPartition));
+        asyncConsumer.process();
+
+        Assert.assertEquals(26, offsetManager.getCommittableOffset().get(topicPartition).offset());
+    }
+
+    @Test
+    public void shouldNotCommitRevokedPartitionsPastTheirDroppedMessages() throws Exception {
+        OffsetManager offsetManager = new OffsetManager();
+        FirehoseKafkaConsumer firehoseKafkaConsumer = Mockito.mock(FirehoseKafkaConsumer.class);
+        useConsumerReadingKeptAsideAndFilteredMessages(offsetManager, firehoseKafkaConsumer);
+        Mockito.when(sinkPool.submitTask(Mockito.anyList())).thenReturn(null);
+        Mockito.when(sinkPool.fetchFinishedSinkTasks()).thenReturn(new HashSet<>());
+        Mockito.when(sinkPool.awaitRunningTasks(1000)).thenReturn(true);
+        TopicPartition topicPartition = new TopicPartition("topic1", 1);
+
+        asyncConsumer.process();
+        asyncConsumer.drainPartitions(Collections.singletonList(topicPartition), 1000);
+
+        Assert.assertFalse(offsetManager.removePartitions(Collections.singletonList(topicPartition)).containsKey(topicPartition));
+    }
+
+    @Test
+    public void shouldScheduleATaskForEverySplitOfMessages() {
+        List<Message> messages = new ArrayList<Message>() {{
+            add(new Message(new byte[0], new byte[0], "topic1", 1, 10));
+            add(new Message(new byte[0], new byte[0], "topic1", 2, 11));
+        }};
+        List<Message> partition1Messages = Collections.singletonList(messages.get(0));
+        List<Message> partition2Messages = Collections.singletonList(messages.get(1));
+        Mockito.when(consumerAndOffsetManager.readMessageBatch()).thenReturn(MessageBatch.of(messages));
+        Mockito.when(sinkPool.split(messages)).thenReturn(new ArrayList<List<Message>>() {{
+            add(partition1Messages);
+            add(partition2Messages);
+        }});
+        Mockito.when(sinkPool.submitTask(partition1Messages)).thenReturn(future1);
+        Mockito.when(sinkPool.submitTask(partition2Messages)).thenReturn(future2);
+        Mockito.when(sinkPool.fetchFinishedSinkTasks()).thenReturn(new HashSet<>());
+
+        asyncConsumer.process();
+
+        Mockito.verify(consumerAndOffsetManager, Mockito.times(1)).forceAddOffsets(Mockito.any(), Mockito.eq(partition1Messages));
+        Mockito.verify(consumerAndOffsetManager, Mockito.times(1)).forceAddOffsets(Mockito.any(), Mockito.eq(partition2Messages));
+    }
+
+    @Test
+    public void shouldPauseConsumerAndKeepBatchWhenAllSinksAreBusy() {
+        List<Message> messages = Collections.singletonList(new Message(new byte[0], new byte[0], "topic1", 1, 10));
+        Mockito.when(consumerAndOffsetManager.readMessageBatch()).thenReturn(MessageBatch.of(messages));
+        Mockito.when(sinkPool.submitTask(messages)).thenReturn(null);
+        Mockito.when(sinkPool.fetchFinishedSinkTasks()).thenReturn(new HashSet<>());
+
+        asyncConsumer.process();
+
+        Mockito.verify(sinkPool, Mockito.times(1)).submitTask(messages);
+        Mockito.verify(consumerAndOffsetManager, Mockito.times(1)).pause();
+        Mockito.verify(consumerAndOffsetManager, Mockito.times(0)).resume();
+        Mockito.verify(consumerAndOffsetManager, Mockito.times(1)).forceAddOffsets(Mockito.any(), Mockito.eq(messages));
+        Mockito.verify(consumerAndOffsetManager, Mockito.times(0)).commit();
+    }
+
+    @Test
+    public void shouldScheduleKeptBatchAndResumeConsumerOnceASinkIsFree() {
+        List<Message> messages = Collections.singletonList(new Message(new byte[0], new byte[0], "topic1", 1, 10));
+        Mockito.when(consumerAndOffsetManager.readMessageBatch()).thenReturn(MessageBatch.of(messages), MessageBatch.of(new ArrayList<>()));
+        Mockito.when(sinkPool.submitTask(messages)).thenReturn(null, future1);
+        Mockito.when(sinkPool.fetchFinishedSinkTasks()).thenReturn(new HashSet<>());
+
+        asyncConsumer.process();
+        asyncConsumer.process();
+
+        InOrder inOrder = Mockito.inOrder(consumerAndOffsetManager);
+        inOrder.verify(consumerAndOffsetManager).pause();
+        inOrder.verify(consumerAndOffsetManager).readMessageBatch();
+        inOrder.verify(consumerAndOffsetManager).resume();
+        inOrder.verify(consumerAndOffsetManager).commit();
+    }
+
+    @Test
+    public void shouldKeepOrderOfBatchesWhileConsumerIsPaused() {
+        List<Message> messages = new ArrayList<Message>() {{
+            add(new Message(new byte[0], new byte[0], "topic1", 1, 10));
+            add(new Message(new byte[0], new byte[0], "topic1", 2, 11));
+        }};
+        List<Message> partition1Messages = Collections.singletonList(messages.get(0));
+        List<Message> partition2Messages = Collections.singletonList(messages.get(1));
+        Mockito.when(consumerAndOffsetManager.readMessageBatch()).thenReturn(MessageBatch.of(messages), MessageBatch.of(new ArrayList<>()));
+        Mockito.when(sinkPool.split(messages)).thenReturn(new ArrayList<List<Message>>() {{
+            add(partition1Messages);
+            add(partition2Messages);
+        }});
+        Mockito.when(sinkPool.submitTask(partition1Messages)).thenReturn(future1);
+        Mockito.when(sinkPool.submitTask(partition2Messages)).thenReturn(null, future2);
+        Mockito.when(sinkPool.fetchFinishedSinkTasks()).thenReturn(new HashSet<>());
+
+        asyncConsumer.process();
+        Mockito.verify(consumerAndOffsetManager, Mockito.times(1)).forceAddOffsets(Mockito.any(), Mockito.eq(partition1Messages));
+        Mockito.verify(consumerAndOffsetManager, Mockito.times(1)).pause();
+
+        asyncConsumer.process();
+        Mockito.verify(sinkPool, Mockito.times(1)).submitTask(partition1Messages);
+        Mockito.verify(consumerAndOffsetManager, Mockito.times(1)).forceAddOffsets(Mockito.any(), Mockito.eq(partition2Messages));
+        Mockito.verify(consumerAndOffsetManager, Mockito.times(1)).commit();
+    }
+
+    @Test
+    public void shouldScheduleKeptBatchesAndWaitForRunningTasksOnDrain() throws Exception {
+        List<Message> messages = Collections.singletonList(new Message(new byte[0], new byte[0], "topic1", 1, 10));
+        Mockito.when(consumerAndOffsetManager.readMessageBatch()).thenReturn(MessageBatch.of(messages));
+        Mockito.when(sinkPool.submitTask(messages)).thenReturn(null, future1);
+        Mockito.when(sinkPool.fetchFinishedSinkTasks()).thenReturn(new HashSet<>(), Collections.singleton(future1));
+        Mockito.when(sinkPool.awaitRunningTasks(Mockito.anyLong())).thenReturn(true);
+
+        asyncConsumer.process();
+        asyncConsumer.drain(1000);
+
+        InOrder inOrder = Mockito.inOrder(consumerAndOffsetManager, sinkPool);
+        inOrder.verify(consumerAndOffsetManager).forceAddOffsets(Mockito.any(), Mockito.eq(messages));
+        inOrder.verify(sinkPool).awaitRunningTasks(Mockito.anyLong());
+        inOrder.verify(consumerAndOffsetManager).forceSetCommittable(Mockito.any());
+        inOrder.verify(consumerAndOffsetManager).drainSinks(Mockito.anyLong());
+        inOrder.verify(consumerAndOffsetManager).commitSync();
+        inOrder.verify(consumerAndOffsetManager).captureUncommittedMessages();
+        Mockito.verify(instrumentation).captureDurationSince(Mockito.eq(Metrics.SOURCE_KAFKA_DRAIN_TIME_MILLISECONDS), Mockito.any(Instant.class));
+    }
+
+    @Test
+    public void shouldNotCommitConsumerPositionIfTasksAreStillRunningAfterDrainTimeout() throws Exception {
+        Mockito.when(sinkPool.fetchFinishedSinkTasks()).thenReturn(new HashSet<>());
+        Mockito.when(sinkPool.awaitRunningTasks(Mockito.anyLong())).thenReturn(false);
+        Mockito.when(consumerAndOffsetManager.canCommitWithPendingOffsets()).thenReturn(false);
+
+        asyncConsumer.drain(0);
+
+        Mockito.verify(consumerAndOffsetManager, Mockito.times(0)).commitSync();
+        Mockito.verify(consumerAndOffsetManager).captureUncommittedMessages();
+    }
+
+    @Test
+    public void shouldNotCommitPastKeptAsideMessagesAfterDrainTimeout() throws Exception {
+        OffsetManager offsetManager = new OffsetManager();
+        FirehoseKafkaConsumer firehoseKafkaConsumer = Mockito.mock(FirehoseKafkaConsumer.class);
+        useConsumerReadingKeptAsideAndFilteredMessages(offsetManager, firehoseKafkaConsumer);
+        Mockito.when(sinkPool.submitTask(Mockito.anyList())).thenReturn(null);
+        Mockito.when(sinkPool.fetchFinishedSinkTasks()).thenReturn(new HashSet<>());
+
+        asyncConsumer.process();
+        asyncConsumer.drain(0);
+
+        Mockito.verify(firehoseKafkaConsumer).commitSync(new HashMap<>());
+    }
+
+    @Test
+    public void shouldDropKeptMessagesOfRevokedPartitionsAndWaitForRunningTasks() throws Exception {
+        List<Message> runningMessages = Collections.singletonList(new Message(new byte[0], new byte[0], "topic1", 3, 9));
+        Message partition1Message = new Message(new byte[0], new byte[0], "topic1", 1, 10);
+        Message partition2Message = new Message(new byte[0], new byte[0], "topic1", 2, 11);
+        List<Message> messages = new ArrayList<Message>() {{
+            add(partition1Message);
+            add(partition2Message);
+        }};
+        Mockito.when(consumerAndOffsetManager.readMessageBatch()).thenReturn(MessageBatch.of(runningMessages), MessageBatch.of(messages), MessageBatch.of(new ArrayList<>()));
+        Mockito.when(sinkPool.submitTask(Mockito.anyList())).thenReturn(future2, null, future1);
+        Mockito.when(sinkPool.fetchFinishedSinkTasks()).thenReturn(new HashSet<>(), new HashSet<>(), Collections.singleton(future2), new HashSet<>());
+        Mockito.when(sinkPool.awaitRunningTasks(1000)).thenReturn(true);
+
+        asyncConsumer.process();
+        asyncConsumer.process();
+        asyncConsumer.drainPartitions(Collections.singletonList(new TopicPartition("topic1", 1)), 1000);
+        Mockito.verify(consumerAndOffsetManager, Mockito.times(1)).forceSetCommittable(Mockito.any());
+        asyncConsumer.process();
+
+        Mockito.verify(sinkPool).awaitRunningTasks(1000);
+        Mockito.verify(sinkPool).releasePartitions(Collections.singletonList(new TopicPartition("topic1", 1)));
+        Mockito.verify(sinkPool).submitTask(Collections.singletonList(partition2Message));
+        Mockito.verify(consumerAndOffsetManager).forceAddOffsets(Mockito.any(), Mockito.eq(messages));
+    }
+
+    @Test
+    public void shouldHoldBytesOfBatchesUntilTheirSinkTaskFinishes() {
+        List<Message> messages = Collections.singletonList(new Message(new byte[0], new byte[10], "topic1", 1, 10));
+        MemoryBudget memoryBudget = new MemoryBudget(100);
+        asyncConsumer = new FirehoseAsyncConsumer(sinkPool, tracer, consumerAndOffsetManager,
+                new FirehoseFilter(new NoOpFilter(instrumentation), instrumentation), instrumentation, memoryBudget);
+        Mockito.when(consumerAndOffsetManager.readMessageBatch()).thenReturn(MessageBatch.of(messages), MessageBatch.of(new ArrayList<>()));
+        Mockito.when(sinkPool.submitTask(messages)).thenReturn(null, future1);
+        Mockito.when(sinkPool.fetchFinishedSinkTasks()).thenReturn(new HashSet<>(), new HashSet<>(), Collections.singleton(future1));
+
+        asyncConsumer.process();
+        Assert.assertEquals(10, memoryBudget.getUsedBytes(MemoryBudget.Stage.PENDING));
+        asyncConsumer.process();
+        Assert.assertEquals(0, memoryBudget.getUsedBytes(MemoryBudget.Stage.PENDING));
+        Assert.assertEquals(10, memoryBudget.getUsedBytes(MemoryBudget.Stage.SINK));
+        asyncConsumer.process();
+
+        Assert.assertEquals(0, memoryBudget.getUsedBytes());
+    }
+
+    @Test
+    public void shouldPauseConsumerWhileMemoryBudgetIsExhausted() {
+        List<Message> messages = Collections.singletonList(new Message(new byte[0], new byte[10], "topic1", 1, 10));
+        MemoryBudget memoryBudget = new MemoryBudget(10);
+        asyncConsumer = new FirehoseAsyncConsumer(sinkPool, tracer, consumerAndOffsetManager,
+                new FirehoseFilter(new NoOpFilter(instrumentation), instrumentation), instrumentation, memoryBudget);
+        Mockito.when(consumerAndOffsetManager.readMessageBatch()).thenReturn(MessageBatch.of(messages), MessageBatch.of(new ArrayList<>()));
+        Mockito.when(sinkPool.submitTask(messages)).thenReturn(future1);
+        Mockito.when(sinkPool.fetchFinishedSinkTasks()).thenReturn(new HashSet<>(), Collections.singleton(future1));
+
+        asyncConsumer.process();
+        asyncConsumer.process();
+
+        InOrder inOrder = Mockito.inOrder(consumerAndOffsetManager);
+        inOrder.verify(consumerAndOffsetManager).forceAddOffsets(Mockito.any(), Mockito.eq(messages));
+        inOrder.verify(consumerAndOffsetManager).pause();
+        inOrder.verify(consumerAndOffsetManager).readMessageBatch();
+        inOrder.verify(consumerAndOffsetManager).forceSetCommittable(Mockito.any());
+        Assert.assertFalse(memoryBudget.isExhausted());
+    }
+
+    @Test
+    public void shouldReleaseBytesOfDroppedPartitions() {
+        Message partition1Message = new Message(new byte[0], new byte[10], "topic1", 1, 10);
+        Message partition2Message = new Message(new byte[0], new byte[5], "topic1", 2, 10);
+        MemoryBudget memoryBudget = new MemoryBudget(100);
+        asyncConsumer = new FirehoseAsyncConsumer(sinkPool, tracer, consumerAndOffsetManager,
+                new FirehoseFilter(new NoOpFilter(instrumentation), instrumentation), instrumentation, memoryBudget);
+        Mockito.when(consumerAndOffsetManager.readMessageBatch()).thenReturn(MessageBatch.of(Arrays.asList(partition1Message, partition2Message)));
+        Mockito.when(sinkPool.fetchFinishedSinkTasks()).thenReturn(new HashSet<>());
+
+        asyncConsumer.process();
+        asyncConsumer.dropPartitions(Collections.singletonList(new TopicPartition("topic1", 1)));
+
+        Assert.assertEquals(5, memoryBudget.getUsedBytes(MemoryBudget.Stage.PENDING));
+        Mockito.verify(sinkPool).releasePartitions(Collections.singletonList(new TopicPartition("topic1", 1)));
+    }
+
+    @Test
+    public void shouldResumeOnceASinkIsFreeWithTheDefaultPollTimeout() throws Exception {
+        KafkaConsumerConfig kafkaConsumerConfig = ConfigFactory.create(KafkaConsumerConfig.class, new HashMap<>());
+        Consumer<byte[], byte[]> kafkaConsumer = Mockito.mock(Consumer.class);
+        TopicPartition topicPartition = new TopicPartition("topic1", 1);
+        ConsumerRecords<byte[], byte[]> records = new ConsumerRecords<>(Collections.singletonMap(topicPartition,
+                Collections.singletonList(new ConsumerRecord<>("topic1", 1, 10, new byte[0], new byte[0]))));
+        Mockito.when(kafkaConsumer.assignment()).thenReturn(Collections.singleton(topicPartition));
+        Mockito.when(kafkaConsumer.paused()).thenReturn(Collections.singleton(topicPartition));
+        Mockito.when(kafkaConsumer.poll(Mockito.any(Duration.class))).thenReturn(records).thenAnswer(invocation -> {
+            Duration timeout = (Duration) invocation.getArguments()[0];
+            if (timeout.toMillis() > kafkaConsumerConfig.getSourceKafkaPausedPollTimeoutMs()) {
+                throw new AssertionError("Polling paused partitions for " + timeout + " never returns");
+            }
+            return ConsumerRecords.empty();
+        });
+        Sink sink = Mockito.mock(Sink.class);
+        ConsumerAndOffsetManager manager = new ConsumerAndOffsetManager(Collections.singletonList(sink), new OffsetManager(),
+                new FirehoseKafkaConsumer(kafkaConsumer, kafkaConsumerConfig, instrumentation), kafkaConsumerConfig, instrumentation);
+        asyncConsumer = new FirehoseAsyncConsumer(sinkPool, tracer, manager,
+                new FirehoseFilter(new NoOpFilter(instrumentation), instrumentation), instrumentation);
+        Mockito.when(sinkPool.submitTask(Mockito.anyList())).thenReturn(null, future1);
+        Mockito.when(sinkPool.fetchFinishedSinkTasks()).thenReturn(new HashSet<>());
+
+        asyncConsumer.process();
+        asyncConsumer.process();
+
+        InOrder inOrder = Mockito.inOrder(kafkaConsumer);
+        inOrder.verify(kafkaConsumer).poll(Duration.ofMillis(Long.MAX_VALUE));
+        inOrder.verify(kafkaConsumer).pause(Collections.singleton(topicPartition));
+        inOrder.verify(kafkaConsumer).poll(Duration.ofMillis(kafkaConsumerConfig.getSourceKafkaPausedPollTimeoutMs()));
+        inOrder.verify(kafkaConsumer).resume(Collections.singleton(topicPartition));
+    }
+
+    /**
+     * Valid messages of offsets 11 to 20 followed by filtered messages of offsets 21 to 25, all of topic1 partition 1,
+     * read by a consumer tracking offsets with the given offset manager.
+     */
+    private void useConsumerReadingKeptAsideAndFilteredMessages(OffsetManager offsetManager, FirehoseKafkaConsumer firehoseKafkaConsumer) throws FilterException {
+        KafkaConsumerConfig kafkaConsumerConfig = ConfigFactory.create(KafkaConsumerConfig.class, new HashMap<>());
+        FirehoseFilter firehoseFilter = Mockito.mock(FirehoseFilter.class);
+        asyncConsumer = new FirehoseAsyncConsumer(sinkPool, tracer, new ConsumerAndOffsetManager(Collections.singletonList(Mockito.mock(Sink.class)),
+                offsetManager, firehoseKafkaConsumer, kafkaConsumerConfig, instrumentation), firehoseFilter, instrumentation);
+        List<Message> messages = new ArrayList<>();
+        for (long offset = 11; offset <= 25; offset++) {
+            messages.add(new Message(new byte[0], new byte[0], "topic1", 1, offset));
+        }
+        Mockito.when(firehoseKafkaConsumer.readMessageBatch()).thenReturn(MessageBatch.of(messages), MessageBatch.of(new ArrayList<>()));
+        Mockito.doAnswer(invocation -> {
+            MessageBatch messageBatch = (MessageBatch) invocation.getArguments()[0];
+            for (int i = 10; i < messageBatch.size(); i++) {
+                messageBatch.markFiltered(i);
+            }
+            return null;
+        }).when(firehoseFilter).applyFilter(Mockito.any(MessageBatch.class));
+    }
 }
@@ -1,15 +1,19 @@
 package io.odpf.firehose.consumer;
 
 import io.odpf.firehose.message.Message;
+import io.odpf.firehose.message.MessageBatch;
 import io.odpf.firehose.filter.Filter;
 import io.odpf.firehose.filter.FilterException;
 import io.odpf.firehose.filter.FilteredMessages;
 import io.odpf.firehose.metrics.Instrumentation;
+import io.odpf.firehose.metrics.Metrics;
 import org.junit.Assert;
 import org.junit.Test;
 import org.mockito.Mockito;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 public class FirehoseFilterTest {
@@ -91,4 +95,24 @@ public class FirehoseFilterTest {
         Mockito.verify(filter, Mockito.times(1)).filter(messages);
         Mockito.verify(instrumentation, Mockito.times(1)).captureFilteredMessageCount(2);
     }
+
+    @Test
+    public void shouldMarkFilteredMessagesOfBatchAndCaptureTheirCount() throws FilterException {
+        Message message1 = new Message(new byte[0], new byte[0], "Topic1", 0, 100);
+        Message message2 = new Message(new byte[0], new byte[0], "Topic1", 0, 101);
+        MessageBatch messageBatch = MessageBatch.of(Arrays.asList(message1, message2));
+        Filter filter = Mockito.mock(Filter.class);
+        Instrumentation instrumentation = Mockito.mock(Instrumentation.class);
+        FirehoseFilter firehoseFilter = new FirehoseFilter(filter, instrumentation);
+        Mockito.doAnswer(invocation -> {
+            ((MessageBatch) invocation.getArguments()[0]).markFiltered(1);
+            return null;
+        }).when(filter).filter(messageBatch);
+
+        firehoseFilter.applyFilter(messageBatch);
+
+        Assert.assertEquals(Collections.singletonList(message1), messageBatch.getValidMessages());
+        Mockito.verify(instrumentation, Mockito.times(1)).captureFilteredMessageCount(1);
+        Mockito.verify(instrumentation, Mockito.times(1)).captureGlobalMessageMetrics(Metrics.MessageScope.FILTERED, 1);
+    }
 }
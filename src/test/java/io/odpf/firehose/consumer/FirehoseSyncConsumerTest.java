@@ -5,16 +5,19 @@ import io.odpf.firehose.consumer.kafka.ConsumerAndOffsetManager;
 import io.odpf.firehose.consumer.kafka.FirehoseKafkaConsumer;
 import io.odpf.firehose.consumer.kafka.OffsetManager;
 import io.odpf.firehose.message.Message;
-import io.odpf.firehose.filter.FilteredMessages;
+import io.odpf.firehose.message.MessageBatch;
 import io.odpf.firehose.filter.NoOpFilter;
 import io.odpf.firehose.metrics.Instrumentation;
 import io.odpf.firehose.metrics.Metrics;
 import io.odpf.firehose.sink.Sink;
 import io.odpf.firehose.tracer.SinkTracer;
 import org.aeonbits.owner.ConfigFactory;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.runners.MockitoJUnitRunner;
@@ -24,9 +27,12 @@ import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 
+import static org.junit.Assert.assertEquals;
 import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.Mockito.*;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -52,7 +58,7 @@ public class FirehoseSyncConsumerTest {
         ConsumerAndOffsetManager consumerAndOffsetManager = new ConsumerAndOffsetManager(Collections.singletonList(sink), offsetManger, firehoseKafkaConsumer, kafkaConsumerConfig, instrumentation);
         FirehoseFilter firehoseFilter = new FirehoseFilter(new NoOpFilter(instrumentation), instrumentation);
         firehoseSyncConsumer = new FirehoseSyncConsumer(sink, tracer, consumerAndOffsetManager, firehoseFilter, instrumentation);
-        when(firehoseKafkaConsumer.readMessages()).thenReturn(messages);
+        when(firehoseKafkaConsumer.readMessageBatch(anyLong())).thenReturn(MessageBatch.of(messages));
     }
 
     @Test
@@ -63,7 +69,7 @@ public class FirehoseSyncConsumerTest {
 
     @Test
     public void shouldProcessEmptyPartitions() throws IOException {
-        when(firehoseKafkaConsumer.readMessages()).thenReturn(new ArrayList<>());
+        when(firehoseKafkaConsumer.readMessageBatch(anyLong())).thenReturn(MessageBatch.of(new ArrayList<>()));
         firehoseSyncConsumer.process();
         verify(sink, times(0)).pushMessage(anyList());
     }
@@ -101,12 +107,11 @@ public class FirehoseSyncConsumerTest {
         Message msg2 = new Message(new byte[]{}, new byte[]{}, "topic", 0, 100);
         Message msg3 = new Message(new byte[]{}, new byte[]{}, "topic", 0, 100);
         messages = Arrays.asList(msg1, msg2, msg3);
-        Mockito.when(consumerAndOffsetManager.readMessages()).thenReturn(messages);
-        Mockito.when(firehoseFilter.applyFilter(messages)).thenReturn(new FilteredMessages() {{
-            addToValidMessages(msg3);
-            addToValidMessages(msg1);
-            addToInvalidMessages(msg2);
-        }});
+        Mockito.when(consumerAndOffsetManager.readMessageBatch(anyLong())).thenReturn(MessageBatch.of(messages));
+        Mockito.doAnswer(invocation -> {
+            ((MessageBatch) invocation.getArguments()[0]).markFiltered(1);
+            return null;
+        }).when(firehoseFilter).applyFilter(any(MessageBatch.class));
         Mockito.when(tracer.startTrace(messages)).thenReturn(new ArrayList<>());
         firehoseSyncConsumer.process();
 
@@ -114,12 +119,12 @@ public class FirehoseSyncConsumerTest {
             add(msg2);
         }});
         Mockito.verify(sink, times(1)).pushMessage(new ArrayList<Message>() {{
-            add(msg3);
             add(msg1);
+            add(msg3);
         }});
         Mockito.verify(consumerAndOffsetManager, times(1)).addOffsetsAndSetCommittable(new ArrayList<Message>() {{
-            add(msg3);
             add(msg1);
+            add(msg3);
         }});
         Mockito.verify(consumerAndOffsetManager, times(1)).commit();
 
@@ -129,6 +134,156 @@ public class FirehoseSyncConsumerTest {
         verify(instrumentation, times(1)).captureDurationSince(eq(Metrics.SOURCE_KAFKA_PARTITIONS_PROCESS_TIME_MILLISECONDS), any(Instant.class));
     }
 
+    @Test
+    public void shouldAccumulateMessagesAcrossPollsAndCommitThemOnlyAfterPush() throws IOException {
+        KafkaConsumerConfig kafkaConsumerConfig = ConfigFactory.create(KafkaConsumerConfig.class, Collections.singletonMap("SOURCE_KAFKA_COMMIT_ONLY_CURRENT_PARTITIONS_ENABLE", "true"));
+        ConsumerAndOffsetManager consumerAndOffsetManager = new ConsumerAndOffsetManager(Collections.singletonList(sink), new OffsetManager(), firehoseKafkaConsumer, kafkaConsumerConfig, instrumentation);
+        FirehoseFilter firehoseFilter = new FirehoseFilter(new NoOpFilter(instrumentation), instrumentation);
+        firehoseSyncConsumer = new FirehoseSyncConsumer(sink, tracer, consumerAndOffsetManager, firehoseFilter, instrumentation, new MessageAccumulator(4, Long.MAX_VALUE, 60000));
+        List<Message> firstPoll = Arrays.asList(new Message(new byte[]{}, new byte[]{}, "topic", 0, 100), new Message(new byte[]{}, new byte[]{}, "topic", 0, 101));
+        List<Message> secondPoll = Arrays.asList(new Message(new byte[]{}, new byte[]{}, "topic", 0, 102), new Message(new byte[]{}, new byte[]{}, "topic", 0, 103));
+        when(firehoseKafkaConsumer.readMessageBatch(anyLong())).thenReturn(MessageBatch.of(firstPoll), MessageBatch.of(secondPoll));
+
+        firehoseSyncConsumer.process();
+
+        verify(sink, times(0)).pushMessage(anyList());
+        verify(firehoseKafkaConsumer).commit(Collections.emptyMap());
+
+        firehoseSyncConsumer.process();
+
+        verify(sink).pushMessage(Arrays.asList(firstPoll.get(0), firstPoll.get(1), secondPoll.get(0), secondPoll.get(1)));
+        verify(firehoseKafkaConsumer).commit(Collections.singletonMap(new TopicPartition("topic", 0), new OffsetAndMetadata(104)));
+    }
+
+    @Test
+    public void shouldPushAccumulatedMessagesOnceLingerTimePassedWithoutNewRecords() throws IOException {
+        KafkaConsumerConfig kafkaConsumerConfig = ConfigFactory.create(KafkaConsumerConfig.class, new HashMap<>());
+        ConsumerAndOffsetManager consumerAndOffsetManager = new ConsumerAndOffsetManager(Collections.singletonList(sink), new OffsetManager(), firehoseKafkaConsumer, kafkaConsumerConfig, instrumentation);
+        FirehoseFilter firehoseFilter = new FirehoseFilter(new NoOpFilter(instrumentation), instrumentation);
+        firehoseSyncConsumer = new FirehoseSyncConsumer(sink, tracer, consumerAndOffsetManager, firehoseFilter, instrumentation, new MessageAccumulator(1000, Long.MAX_VALUE, 50));
+        when(firehoseKafkaConsumer.readMessageBatch(anyLong())).thenReturn(MessageBatch.of(messages)).thenAnswer(invocation -> {
+            long maxWaitMillis = (Long) invocation.getArguments()[0];
+            if (maxWaitMillis > 50) {
+                throw new AssertionError("polled for " + maxWaitMillis + "ms while messages were lingering");
+            }
+            Thread.sleep(maxWaitMillis);
+            return MessageBatch.of(new ArrayList<>());
+        });
+
+        firehoseSyncConsumer.process();
+        verify(firehoseKafkaConsumer).readMessageBatch(Long.MAX_VALUE);
+        verify(sink, times(0)).pushMessage(anyList());
+
+        firehoseSyncConsumer.process();
+        verify(sink).pushMessage(messages);
+    }
+
+    @Test
+    public void shouldNotCommitConsumerPositionWhileMessagesAreAccumulated() throws IOException {
+        KafkaConsumerConfig kafkaConsumerConfig = ConfigFactory.create(KafkaConsumerConfig.class, Collections.singletonMap("SOURCE_KAFKA_COMMIT_ONLY_CURRENT_PARTITIONS_ENABLE", "false"));
+        ConsumerAndOffsetManager consumerAndOffsetManager = new ConsumerAndOffsetManager(Collections.singletonList(sink), new OffsetManager(), firehoseKafkaConsumer, kafkaConsumerConfig, instrumentation);
+        FirehoseFilter firehoseFilter = new FirehoseFilter(new NoOpFilter(instrumentation), instrumentation);
+        firehoseSyncConsumer = new FirehoseSyncConsumer(sink, tracer, consumerAndOffsetManager, firehoseFilter, instrumentation, new MessageAccumulator(4, Long.MAX_VALUE, 60000));
+
+        firehoseSyncConsumer.process();
+        verify(firehoseKafkaConsumer, times(0)).commit();
+
+        firehoseSyncConsumer.process();
+        verify(sink).pushMessage(anyList());
+        verify(firehoseKafkaConsumer, times(1)).commit();
+    }
+
+    @Test
+    public void shouldCoalesceCommitsUntilEnoughRecordsWereRead() throws IOException {
+        KafkaConsumerConfig kafkaConsumerConfig = ConfigFactory.create(KafkaConsumerConfig.class, Collections.singletonMap("SOURCE_KAFKA_COMMIT_INTERVAL_RECORDS", "4"));
+        ConsumerAndOffsetManager consumerAndOffsetManager = new ConsumerAndOffsetManager(Collections.singletonList(sink), new OffsetManager(), firehoseKafkaConsumer, kafkaConsumerConfig, instrumentation);
+        FirehoseFilter firehoseFilter = new FirehoseFilter(new NoOpFilter(instrumentation), instrumentation);
+        firehoseSyncConsumer = new FirehoseSyncConsumer(sink, tracer, consumerAndOffsetManager, firehoseFilter, instrumentation);
+
+        firehoseSyncConsumer.process();
+        verify(firehoseKafkaConsumer, times(0)).commit(anyMap());
+
+        firehoseSyncConsumer.process();
+        verify(firehoseKafkaConsumer, times(1)).commit(anyMap());
+    }
+
+    @Test
+    public void shouldPushAccumulatedMessagesAndCommitSynchronouslyOnDrain() throws Exception {
+        KafkaConsumerConfig kafkaConsumerConfig = ConfigFactory.create(KafkaConsumerConfig.class, Collections.singletonMap("SOURCE_KAFKA_COMMIT_ONLY_CURRENT_PARTITIONS_ENABLE", "true"));
+        ConsumerAndOffsetManager consumerAndOffsetManager = new ConsumerAndOffsetManager(Collections.singletonList(sink), new OffsetManager(), firehoseKafkaConsumer, kafkaConsumerConfig, instrumentation);
+        FirehoseFilter firehoseFilter = new FirehoseFilter(new NoOpFilter(instrumentation), instrumentation);
+        firehoseSyncConsumer = new FirehoseSyncConsumer(sink, tracer, consumerAndOffsetManager, firehoseFilter, instrumentation, new MessageAccumulator(4, Long.MAX_VALUE, 60000));
+        List<Message> polled = Arrays.asList(new Message(new byte[]{}, new byte[]{}, "topic", 0, 100), new Message(new byte[]{}, new byte[]{}, "topic", 0, 101));
+        when(firehoseKafkaConsumer.readMessageBatch(anyLong())).thenReturn(MessageBatch.of(polled));
+        when(firehoseKafkaConsumer.countUncommittedMessages()).thenReturn(0L);
+
+        firehoseSyncConsumer.process();
+        firehoseSyncConsumer.drain(1000);
+
+        verify(sink).pushMessage(polled);
+        verify(sink).drain(anyLong());
+        verify(firehoseKafkaConsumer).commitSync(Collections.singletonMap(new TopicPartition("topic", 0), new OffsetAndMetadata(102)));
+        verify(instrumentation).captureCount(Metrics.SOURCE_KAFKA_UNCOMMITTED_MESSAGES_TOTAL, 0L);
+        verify(instrumentation).captureDurationSince(eq(Metrics.SOURCE_KAFKA_DRAIN_TIME_MILLISECONDS), any(Instant.class));
+    }
+
+    @Test
+    public void shouldNotPushOnDrainWithoutAccumulatedMessages() throws Exception {
+        firehoseSyncConsumer.drain(1000);
+
+        verify(sink, times(0)).pushMessage(anyList());
+        verify(firehoseKafkaConsumer).commitSync(Collections.emptyMap());
+    }
+
+    @Test
+    public void shouldPauseAndPushAccumulatedMessagesWhileMemoryBudgetIsExhausted() throws IOException {
+        List<Message> polled = Collections.singletonList(new Message(new byte[0], new byte[10], "topic", 0, 101));
+        when(firehoseKafkaConsumer.readMessageBatch(anyLong())).thenReturn(MessageBatch.of(polled));
+        KafkaConsumerConfig kafkaConsumerConfig = ConfigFactory.create(KafkaConsumerConfig.class, System.getenv());
+        ConsumerAndOffsetManager consumerAndOffsetManager = new ConsumerAndOffsetManager(Collections.singletonList(sink), new OffsetManager(), firehoseKafkaConsumer, kafkaConsumerConfig, instrumentation);
+        MemoryBudget memoryBudget = new MemoryBudget(15);
+        firehoseSyncConsumer = new FirehoseSyncConsumer(sink, tracer, consumerAndOffsetManager, new FirehoseFilter(new NoOpFilter(instrumentation), instrumentation),
+                instrumentation, new MessageAccumulator(1000, Long.MAX_VALUE, 60000), memoryBudget);
+        memoryBudget.acquire(MemoryBudget.Stage.SINK, 15);
+
+        firehoseSyncConsumer.process();
+
+        verify(firehoseKafkaConsumer).pause();
+        verify(sink).pushMessage(polled);
+        assertEquals(15, memoryBudget.getUsedBytes());
+        assertEquals(0, memoryBudget.getUsedBytes(MemoryBudget.Stage.ACCUMULATED));
+
+        memoryBudget.release(MemoryBudget.Stage.SINK, 15);
+        firehoseSyncConsumer.process();
+
+        verify(firehoseKafkaConsumer).resume();
+        assertEquals(10, memoryBudget.getUsedBytes(MemoryBudget.Stage.ACCUMULATED));
+    }
+
+    @Test
+    public void shouldPushAccumulatedMessagesBeforePausingWhenAnotherThreadExhaustsTheMemoryBudget() throws IOException {
+        List<Message> accumulated = Collections.singletonList(new Message(new byte[0], new byte[10], "topic", 0, 101));
+        List<Message> polled = Collections.singletonList(new Message(new byte[0], new byte[10], "topic", 0, 102));
+        when(firehoseKafkaConsumer.readMessageBatch(anyLong())).thenReturn(MessageBatch.of(accumulated)).thenReturn(MessageBatch.of(polled));
+        KafkaConsumerConfig kafkaConsumerConfig = ConfigFactory.create(KafkaConsumerConfig.class, System.getenv());
+        ConsumerAndOffsetManager consumerAndOffsetManager = new ConsumerAndOffsetManager(Collections.singletonList(sink), new OffsetManager(), firehoseKafkaConsumer, kafkaConsumerConfig, instrumentation);
+        MemoryBudget memoryBudget = new MemoryBudget(15);
+        firehoseSyncConsumer = new FirehoseSyncConsumer(sink, tracer, consumerAndOffsetManager, new FirehoseFilter(new NoOpFilter(instrumentation), instrumentation),
+                instrumentation, new MessageAccumulator(1000, Long.MAX_VALUE, 60000), memoryBudget);
+        firehoseSyncConsumer.process();
+        verify(sink, times(0)).pushMessage(anyList());
+
+        memoryBudget.acquire(MemoryBudget.Stage.SINK, 15);
+        firehoseSyncConsumer.process();
+
+        InOrder inOrder = inOrder(sink, firehoseKafkaConsumer);
+        inOrder.verify(sink).pushMessage(accumulated);
+        inOrder.verify(firehoseKafkaConsumer).pause();
+        inOrder.verify(firehoseKafkaConsumer).readMessageBatch(anyLong());
+        inOrder.verify(sink).pushMessage(polled);
+        assertEquals(0, memoryBudget.getUsedBytes(MemoryBudget.Stage.ACCUMULATED));
+    }
+
     @Test
     public void shouldNotCloseConsumerIfConsumerIsNull() throws IOException {
         KafkaConsumerConfig kafkaConsumerConfig = ConfigFactory.create(KafkaConsumerConfig.class, System.getenv());
@@ -0,0 +1,70 @@
+package io.odpf.firehose.consumer;
+
+import io.odpf.firehose.message.Message;
+import io.odpf.firehose.metrics.Instrumentation;
+import io.odpf.firehose.metrics.Metrics;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.Arrays;
+
+public class MemoryBudgetTest {
+
+    @Test
+    public void shouldCountKeyAndMessageSizes() {
+        Message message1 = new Message(new byte[3], new byte[10], "topic", 0, 1);
+        Message message2 = new Message(null, new byte[5], "topic", 0, 2);
+
+        Assert.assertEquals(13, MemoryBudget.sizeOf(message1));
+        Assert.assertEquals(18, MemoryBudget.sizeOf(Arrays.asList(message1, message2)));
+    }
+
+    @Test
+    public void shouldBeExhaustedOnceUsageReachesTheLimit() {
+        MemoryBudget memoryBudget = new MemoryBudget(100);
+
+        memoryBudget.acquire(MemoryBudget.Stage.PENDING, 60);
+        Assert.assertFalse(memoryBudget.isExhausted());
+        memoryBudget.acquire(MemoryBudget.Stage.ACCUMULATED, 60);
+        Assert.assertTrue(memoryBudget.isExhausted());
+        Assert.assertEquals(120, memoryBudget.getUsedBytes());
+        memoryBudget.release(MemoryBudget.Stage.PENDING, 60);
+        Assert.assertFalse(memoryBudget.isExhausted());
+    }
+
+    @Test
+    public void shouldNeverBeExhaustedWithoutLimit() {
+        MemoryBudget memoryBudget = new MemoryBudget(0);
+
+        memoryBudget.acquire(MemoryBudget.Stage.SINK, Long.MAX_VALUE / 2);
+
+        Assert.assertFalse(memoryBudget.isExhausted());
+    }
+
+    @Test
+    public void shouldMoveBytesBetweenStagesWithoutChangingUsage() {
+        MemoryBudget memoryBudget = new MemoryBudget(100);
+        memoryBudget.acquire(MemoryBudget.Stage.PENDING, 40);
+
+        memoryBudget.move(MemoryBudget.Stage.PENDING, MemoryBudget.Stage.SINK, 30);
+
+        Assert.assertEquals(10, memoryBudget.getUsedBytes(MemoryBudget.Stage.PENDING));
+        Assert.assertEquals(30, memoryBudget.getUsedBytes(MemoryBudget.Stage.SINK));
+        Assert.assertEquals(40, memoryBudget.getUsedBytes());
+    }
+
+    @Test
+    public void shouldCaptureUsagePerStage() {
+        Instrumentation instrumentation = Mockito.mock(Instrumentation.class);
+        MemoryBudget memoryBudget = new MemoryBudget(100);
+        memoryBudget.acquire(MemoryBudget.Stage.SINK, 30);
+
+        memoryBudget.captureUsage(instrumentation);
+
+        Mockito.verify(instrumentation).captureValue(Metrics.MEMORY_BUDGET_USED_BYTES, 30L, "stage=sink");
+        Mockito.verify(instrumentation).captureValue(Metrics.MEMORY_BUDGET_USED_BYTES, 0L, "stage=pending");
+        Mockito.verify(instrumentation).captureValue(Metrics.MEMORY_BUDGET_USED_BYTES, 0L, "stage=accumulated");
+        Mockito.verify(instrumentation).captureValue(Metrics.MEMORY_BUDGET_USED_BYTES, 30L, "stage=total");
+    }
+}
@@ -0,0 +1,81 @@
+package io.odpf.firehose.consumer;
+
+import io.odpf.firehose.message.Message;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class MessageAccumulatorTest {
+    private final Message message1 = new Message(new byte[]{1}, new byte[]{1, 2, 3}, "topic", 0, 100);
+    private final Message message2 = new Message(new byte[]{2}, new byte[]{1, 2, 3}, "topic", 0, 101);
+    private final Message message3 = new Message(null, new byte[]{1, 2, 3}, "topic", 0, 102);
+
+    @Test
+    public void shouldNotBeReadyWhenEmpty() {
+        MessageAccumulator messageAccumulator = new MessageAccumulator(10, 100, 0);
+
+        Assert.assertTrue(messageAccumulator.isEmpty());
+        Assert.assertFalse(messageAccumulator.isReady());
+    }
+
+    @Test
+    public void shouldBeReadyOnEveryPollWithoutLinger() {
+        MessageAccumulator messageAccumulator = new MessageAccumulator(10, 100, 0);
+
+        messageAccumulator.add(Collections.singletonList(message1));
+
+        Assert.assertTrue(messageAccumulator.isReady());
+    }
+
+    @Test
+    public void shouldBeReadyWhenMaxRecordsAreAccumulated() {
+        MessageAccumulator messageAccumulator = new MessageAccumulator(3, 100, 60000);
+
+        messageAccumulator.add(Arrays.asList(message1, message2));
+        Assert.assertFalse(messageAccumulator.isReady());
+        messageAccumulator.add(Collections.singletonList(message3));
+
+        Assert.assertTrue(messageAccumulator.isReady());
+    }
+
+    @Test
+    public void shouldBeReadyWhenMaxBytesAreAccumulated() {
+        MessageAccumulator messageAccumulator = new MessageAccumulator(10, 8, 60000);
+
+        messageAccumulator.add(Collections.singletonList(message1));
+        Assert.assertFalse(messageAccumulator.isReady());
+        messageAccumulator.add(Collections.singletonList(message2));
+
+        Assert.assertTrue(messageAccumulator.isReady());
+    }
+
+    @Test
+    public void shouldBeReadyWhenLingerTimeHasPassed() throws InterruptedException {
+        MessageAccumulator messageAccumulator = new MessageAccumulator(10, 100, 20);
+
+        messageAccumulator.add(Collections.singletonList(message1));
+        Assert.assertFalse(messageAccumulator.isReady());
+        Thread.sleep(30);
+
+        Assert.assertTrue(messageAccumulator.isReady());
+    }
+
+    @Test
+    public void shouldDrainAccumulatedMessagesAndStartNewBatch() {
+        MessageAccumulator messageAccumulator = new MessageAccumulator(3, 100, 60000);
+        messageAccumulator.add(Arrays.asList(message1, message2));
+        messageAccumulator.add(Collections.singletonList(message3));
+        Object batchKey = messageAccumulator.getBatchKey();
+
+        List<Message> batch = messageAccumulator.drain();
+
+        Assert.assertEquals(Arrays.asList(message1, message2, message3), batch);
+        Assert.assertTrue(messageAccumulator.isEmpty());
+        Assert.assertNotSame(batchKey, messageAccumulator.getBatchKey());
+        messageAccumulator.add(Arrays.asList(message1, message2));
+        Assert.assertFalse(messageAccumulator.isReady());
+    }
+}
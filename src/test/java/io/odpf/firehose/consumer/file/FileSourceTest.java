@@ -0,0 +1,100 @@
+package io.odpf.firehose.consumer.file;
+
+import io.odpf.firehose.config.FileSourceConfig;
+import org.aeonbits.owner.ConfigFactory;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class FileSourceTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private FileSourceConfig config(String paths, String format, int splitsPerFile, int threadCount) throws IOException {
+        Map<String, String> config = new HashMap<>();
+        config.put("SOURCE_FILE_PATHS", paths);
+        config.put("SOURCE_FILE_FORMAT", format);
+        config.put("SOURCE_FILE_SPLITS_PER_FILE", String.valueOf(splitsPerFile));
+        config.put("SOURCE_FILE_CHECKPOINT_PATH", temporaryFolder.getRoot().toPath().resolve("offsets.properties").toString());
+        config.put("APPLICATION_THREAD_COUNT", String.valueOf(threadCount));
+        return ConfigFactory.create(FileSourceConfig.class, config);
+    }
+
+    @Test
+    public void shouldSplitLinesAtLineBoundaries() throws IOException {
+        Path path = temporaryFolder.newFile("records.json").toPath();
+        Files.write(path, "aaaa\nbbbb\ncccc\ndddd\n".getBytes(StandardCharsets.UTF_8));
+
+        List<FileSplit> splits = new FileSource(config(path.toString(), "ndjson", 3, 1)).getSplits();
+
+        Assert.assertEquals(3, splits.size());
+        Assert.assertEquals(0, splits.get(0).getStart());
+        Assert.assertEquals(10, splits.get(0).getEnd());
+        Assert.assertEquals(10, splits.get(1).getStart());
+        Assert.assertEquals(15, splits.get(1).getEnd());
+        Assert.assertEquals(15, splits.get(2).getStart());
+        Assert.assertEquals(20, splits.get(2).getEnd());
+    }
+
+    @Test
+    public void shouldSplitDelimitedProtoAtRecordBoundaries() throws IOException {
+        Path path = temporaryFolder.newFile("records.bin").toPath();
+        byte[] records = new byte[40];
+        for (int i = 0; i < records.length; i += 10) {
+            records[i] = 9;
+        }
+        Files.write(path, records);
+
+        List<FileSplit> splits = new FileSource(config(path.toString(), "proto_delimited", 3, 1)).getSplits();
+
+        Assert.assertEquals(20, splits.get(0).getEnd());
+        Assert.assertEquals(30, splits.get(1).getEnd());
+        Assert.assertEquals(40, splits.get(2).getEnd());
+    }
+
+    @Test
+    public void shouldGiveEverySplitItsOwnPartitionAcrossFiles() throws IOException {
+        Path path1 = temporaryFolder.newFile("records1.json").toPath();
+        Path path2 = temporaryFolder.newFile("records2.json").toPath();
+        Files.write(path1, "a\nb\n".getBytes(StandardCharsets.UTF_8));
+        Files.write(path2, "c\nd\n".getBytes(StandardCharsets.UTF_8));
+
+        List<FileSplit> splits = new FileSource(config(path1 + "," + path2, "ndjson", 2, 1)).getSplits();
+
+        Assert.assertEquals(4, splits.size());
+        for (int i = 0; i < splits.size(); i++) {
+            Assert.assertEquals(i, splits.get(i).getPartition());
+        }
+        Assert.assertEquals(path2, splits.get(2).getPath());
+    }
+
+    @Test
+    public void shouldSpreadSplitsOverConsumerThreads() throws IOException {
+        Path path = temporaryFolder.newFile("records.json").toPath();
+        Files.write(path, "a\nb\nc\nd\n".getBytes(StandardCharsets.UTF_8));
+        FileSource fileSource = new FileSource(config(path.toString(), "ndjson", 3, 2));
+
+        List<FileSplit> claimed1 = fileSource.claimSplits();
+        List<FileSplit> claimed2 = fileSource.claimSplits();
+
+        Assert.assertEquals(2, claimed1.size());
+        Assert.assertEquals(0, claimed1.get(0).getPartition());
+        Assert.assertEquals(2, claimed1.get(1).getPartition());
+        Assert.assertEquals(1, claimed2.size());
+        Assert.assertEquals(1, claimed2.get(0).getPartition());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldFailWithoutFiles() throws IOException {
+        new FileSource(config("", "ndjson", 1, 1));
+    }
+}
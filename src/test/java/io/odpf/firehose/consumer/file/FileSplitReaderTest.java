@@ -0,0 +1,115 @@
+package io.odpf.firehose.consumer.file;
+
+import io.odpf.firehose.config.enums.FileSourceFormat;
+import io.odpf.firehose.consumer.TestMessage;
+import io.odpf.firehose.message.Message;
+import io.odpf.firehose.message.MessageBatch;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+
+public class FileSplitReaderTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void shouldReadLengthDelimitedProtoRecords() throws IOException {
+        Path path = temporaryFolder.newFile("records.bin").toPath();
+        TestMessage message1 = TestMessage.newBuilder().setOrderNumber("1").build();
+        TestMessage message2 = TestMessage.newBuilder().setOrderNumber("2").setOrderDetails(new String(new char[300])).build();
+        try (OutputStream outputStream = Files.newOutputStream(path)) {
+            message1.writeDelimitedTo(outputStream);
+            message2.writeDelimitedTo(outputStream);
+        }
+        MessageBatch messageBatch = new MessageBatch(0);
+
+        try (FileSplitReader reader = new FileSplitReader(path, FileSourceFormat.PROTO_DELIMITED)) {
+            Assert.assertTrue(reader.read(messageBatch, "file", 3));
+            Assert.assertTrue(reader.read(messageBatch, "file", 3));
+            Assert.assertFalse(reader.read(messageBatch, "file", 3));
+            Assert.assertEquals(2, reader.getRecordOffset());
+        }
+
+        Assert.assertEquals(2, messageBatch.size());
+        Message first = messageBatch.getMessages().get(0);
+        Assert.assertArrayEquals(message1.toByteArray(), first.getLogMessage());
+        Assert.assertEquals("file", first.getTopic());
+        Assert.assertEquals(3, first.getPartition());
+        Assert.assertEquals(0, first.getOffset());
+        Assert.assertArrayEquals(message2.toByteArray(), messageBatch.getMessages().get(1).getLogMessage());
+        Assert.assertEquals(1, messageBatch.getMessages().get(1).getOffset());
+    }
+
+    @Test
+    public void shouldReadNonEmptyLinesOfNdjson() throws IOException {
+        Path path = temporaryFolder.newFile("records.json").toPath();
+        Files.write(path, "{\"a\":1}\n\n{\"a\":2}".getBytes(StandardCharsets.UTF_8));
+        MessageBatch messageBatch = new MessageBatch(0);
+
+        try (FileSplitReader reader = new FileSplitReader(path, FileSourceFormat.NDJSON)) {
+            while (reader.read(messageBatch, "file", 0)) {
+                Assert.assertTrue(reader.getPosition() <= reader.getFileSize());
+            }
+        }
+
+        Assert.assertEquals(2, messageBatch.size());
+        Assert.assertEquals("{\"a\":1}", new String(messageBatch.getMessages().get(0).getLogMessage(), StandardCharsets.UTF_8));
+        Assert.assertEquals("{\"a\":2}", new String(messageBatch.getMessages().get(1).getLogMessage(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void shouldDecodeKeyValueAndTimestampOfBlobDlqRecords() throws IOException {
+        Path path = temporaryFolder.newFile("dlq").toPath();
+        String line = String.format("{\"key\":\"%s\",\"value\":\"%s\",\"topic\":\"orders\",\"partition\":1,\"offset\":7,\"timestamp\":1000,\"error\":\"\"}",
+                Base64.getEncoder().encodeToString("key".getBytes(StandardCharsets.UTF_8)),
+                Base64.getEncoder().encodeToString("value".getBytes(StandardCharsets.UTF_8)));
+        Files.write(path, (line + "\n").getBytes(StandardCharsets.UTF_8));
+        MessageBatch messageBatch = new MessageBatch(0);
+
+        try (FileSplitReader reader = new FileSplitReader(path, FileSourceFormat.BLOB_DLQ)) {
+            Assert.assertTrue(reader.read(messageBatch, "file", 0));
+            Assert.assertFalse(reader.hasNext());
+        }
+
+        Message message = messageBatch.getMessages().get(0);
+        Assert.assertEquals("key", new String(message.getLogKey(), StandardCharsets.UTF_8));
+        Assert.assertEquals("value", new String(message.getLogMessage(), StandardCharsets.UTF_8));
+        Assert.assertEquals(1000, message.getTimestamp());
+    }
+
+    @Test
+    public void shouldOnlyReadRecordsStartingInTheRange() throws IOException {
+        Path path = temporaryFolder.newFile("records.json").toPath();
+        Files.write(path, "one\ntwo\nthree\n".getBytes(StandardCharsets.UTF_8));
+        MessageBatch messageBatch = new MessageBatch(0);
+
+        try (FileSplitReader reader = new FileSplitReader(path, FileSourceFormat.NDJSON)) {
+            reader.setRange(4, 8);
+            while (reader.read(messageBatch, "file", 0)) {
+                Assert.assertTrue(reader.getRecordOffset() > 0);
+            }
+        }
+
+        Assert.assertEquals(1, messageBatch.size());
+        Assert.assertEquals("two", new String(messageBatch.getMessages().get(0).getLogMessage(), StandardCharsets.UTF_8));
+        Assert.assertEquals(0, messageBatch.getMessages().get(0).getOffset());
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldFailOnTruncatedProtoRecord() throws IOException {
+        Path path = temporaryFolder.newFile("records.bin").toPath();
+        Files.write(path, new byte[]{10, 1, 2});
+
+        try (FileSplitReader reader = new FileSplitReader(path, FileSourceFormat.PROTO_DELIMITED)) {
+            reader.read(new MessageBatch(0), "file", 0);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package io.odpf.firehose.consumer.file;
+
+import io.odpf.firehose.config.FileSourceConfig;
+import io.odpf.firehose.config.KafkaConsumerConfig;
+import io.odpf.firehose.message.Message;
+import io.odpf.firehose.message.MessageBatch;
+import io.odpf.firehose.metrics.Instrumentation;
+import org.aeonbits.owner.ConfigFactory;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class FirehoseFileConsumerTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+    private FileSourceConfig fileSourceConfig;
+    private KafkaConsumerConfig kafkaConsumerConfig;
+    private Instrumentation instrumentation;
+
+    @Before
+    public void setUp() throws IOException {
+        Path path = temporaryFolder.newFile("records.json").toPath();
+        Files.write(path, "a\nb\nc\nd\ne\n".getBytes(StandardCharsets.UTF_8));
+        Map<String, String> config = new HashMap<>();
+        config.put("SOURCE_FILE_PATHS", path.toString());
+        config.put("SOURCE_FILE_FORMAT", "NDJSON");
+        config.put("SOURCE_FILE_MAX_RECORDS", "3");
+        config.put("SOURCE_FILE_CHECKPOINT_PATH", temporaryFolder.getRoot().toPath().resolve("offsets.properties").toString());
+        config.put("SOURCE_KAFKA_POLL_TIMEOUT_MS", "1");
+        fileSourceConfig = ConfigFactory.create(FileSourceConfig.class, config);
+        kafkaConsumerConfig = ConfigFactory.create(KafkaConsumerConfig.class, config);
+        instrumentation = Mockito.mock(Instrumentation.class);
+    }
+
+    private FirehoseFileConsumer createConsumer() throws IOException {
+        return new FirehoseFileConsumer(new FileSource(fileSourceConfig), fileSourceConfig, kafkaConsumerConfig, instrumentation);
+    }
+
+    private String payload(Message message) {
+        return new String(message.getLogMessage(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void shouldReadRecordsInBatchesOfMaxRecords() throws IOException {
+        FirehoseFileConsumer consumer = createConsumer();
+
+        List<Message> first = consumer.readMessages();
+        List<Message> second = consumer.readMessages();
+        List<Message> third = consumer.readMessages();
+        consumer.close();
+
+        Assert.assertEquals(3, first.size());
+        Assert.assertEquals("a", payload(first.get(0)));
+        Assert.assertEquals(2, second.size());
+        Assert.assertEquals("e", payload(second.get(1)));
+        Assert.assertEquals(4, second.get(1).getOffset());
+        Assert.assertTrue(third.isEmpty());
+    }
+
+    @Test
+    public void shouldResumeFromCommittedOffsets() throws IOException {
+        FirehoseFileConsumer consumer = createConsumer();
+        consumer.readMessages();
+        consumer.commit(Collections.singletonMap(new TopicPartition("file", 0), new OffsetAndMetadata(2)));
+        Assert.assertEquals(1, consumer.countUncommittedMessages());
+        consumer.close();
+
+        FirehoseFileConsumer restartedConsumer = createConsumer();
+        List<Message> messages = restartedConsumer.readMessages();
+        restartedConsumer.close();
+
+        Assert.assertEquals("c", payload(messages.get(0)));
+        Assert.assertEquals(2, messages.get(0).getOffset());
+    }
+
+    @Test
+    public void shouldCommitRecordsReadSoFar() throws IOException {
+        FirehoseFileConsumer consumer = createConsumer();
+        consumer.readMessages();
+        consumer.commitSync();
+        consumer.close();
+
+        Assert.assertEquals(0, consumer.countUncommittedMessages());
+        Assert.assertEquals(3, new FileCheckpointStore(temporaryFolder.getRoot().toPath().resolve("offsets.properties"))
+                .getOffset(new FileSource(fileSourceConfig).getSplits().get(0)));
+    }
+
+    @Test
+    public void shouldNotReadWhilePaused() throws IOException {
+        FirehoseFileConsumer consumer = createConsumer();
+
+        consumer.pause();
+        MessageBatch pausedBatch = consumer.readMessageBatch();
+        consumer.resume();
+        MessageBatch resumedBatch = consumer.readMessageBatch();
+        consumer.close();
+
+        Assert.assertTrue(pausedBatch.isEmpty());
+        Assert.assertEquals(3, resumedBatch.size());
+    }
+
+    @Test
+    public void shouldBeFinishedOnceAllSplitsAreRead() throws IOException {
+        FirehoseFileConsumer consumer = createConsumer();
+
+        consumer.readMessages();
+        Assert.assertFalse(consumer.isFinished());
+        consumer.readMessages();
+        Assert.assertTrue(consumer.isFinished());
+        consumer.close();
+    }
+
+    @Test(timeout = 5000)
+    public void shouldWaitAtMostThePausedPollTimeoutWithTheDefaultPollTimeout() throws IOException {
+        Map<String, String> config = new HashMap<>();
+        config.put("SOURCE_KAFKA_PAUSED_POLL_TIMEOUT_MS", "10");
+        kafkaConsumerConfig = ConfigFactory.create(KafkaConsumerConfig.class, config);
+        FirehoseFileConsumer consumer = createConsumer();
+
+        consumer.pause();
+        MessageBatch pausedBatch = consumer.readMessageBatch();
+        consumer.resume();
+        consumer.readMessages();
+        consumer.readMessages();
+        MessageBatch finishedBatch = consumer.readMessageBatch();
+        consumer.close();
+
+        Assert.assertTrue(pausedBatch.isEmpty());
+        Assert.assertTrue(finishedBatch.isEmpty());
+    }
+
+    @Test
+    public void shouldIgnoreRebalanceCallbacks() throws IOException {
+        FirehoseFileConsumer consumer = createConsumer();
+        List<TopicPartition> partitions = Collections.singletonList(new TopicPartition("file", 0));
+
+        consumer.drainPartitions(partitions);
+        consumer.onPartitionsLost(partitions);
+        consumer.onPartitionsRevoked(partitions, Collections.singletonMap(partitions.get(0), new OffsetAndMetadata(2)));
+        consumer.close();
+
+        Assert.assertEquals(0, consumer.countUncommittedMessages());
+    }
+}
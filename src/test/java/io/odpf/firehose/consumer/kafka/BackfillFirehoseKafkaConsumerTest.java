@@ -0,0 +1,115 @@
+package io.odpf.firehose.consumer.kafka;
+
+import io.odpf.firehose.config.KafkaConsumerConfig;
+import io.odpf.firehose.message.MessageBatch;
+import io.odpf.firehose.metrics.Instrumentation;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class BackfillFirehoseKafkaConsumerTest {
+    private final TopicPartition partition0 = new TopicPartition("topic1", 0);
+    private final TopicPartition partition1 = new TopicPartition("topic1", 1);
+    @Mock
+    private KafkaConsumerConfig consumerConfig;
+    @Mock
+    private Instrumentation instrumentation;
+    private MockConsumer<byte[], byte[]> kafkaConsumer;
+    private Map<TopicPartition, Long> startOffsets;
+    private Map<TopicPartition, Long> endOffsets;
+
+    @Before
+    public void setUp() {
+        when(consumerConfig.getSourceKafkaPollTimeoutMs()).thenReturn(1L);
+        kafkaConsumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        startOffsets = new HashMap<>();
+        startOffsets.put(partition0, 0L);
+        startOffsets.put(partition1, 5L);
+        endOffsets = new HashMap<>();
+        endOffsets.put(partition0, 3L);
+        endOffsets.put(partition1, 7L);
+    }
+
+    private void addRecords(TopicPartition partition, long fromOffset, long toOffset) {
+        for (long offset = fromOffset; offset < toOffset; offset++) {
+            kafkaConsumer.addRecord(new ConsumerRecord<>(partition.topic(), partition.partition(), offset, new byte[0], new byte[0]));
+        }
+    }
+
+    @Test
+    public void shouldStartFromTheCommittedOffsetWhenItIsAfterTheStartOffset() {
+        kafkaConsumer = new MockConsumer<byte[], byte[]>(OffsetResetStrategy.EARLIEST) {
+            @Override
+            public synchronized Map<TopicPartition, OffsetAndMetadata> committed(Set<TopicPartition> partitions) {
+                return Collections.singletonMap(partition1, new OffsetAndMetadata(6));
+            }
+        };
+
+        new BackfillFirehoseKafkaConsumer(kafkaConsumer, startOffsets, endOffsets, consumerConfig, instrumentation);
+
+        Assert.assertEquals(0, kafkaConsumer.position(partition0));
+        Assert.assertEquals(6, kafkaConsumer.position(partition1));
+    }
+
+    @Test
+    public void shouldDropRecordsAtOrAfterTheEndOffsetAndPauseTheFinishedPartition() {
+        BackfillFirehoseKafkaConsumer consumer = new BackfillFirehoseKafkaConsumer(kafkaConsumer, startOffsets, endOffsets, consumerConfig, instrumentation);
+        addRecords(partition0, 0, 5);
+        addRecords(partition1, 5, 6);
+
+        MessageBatch messageBatch = consumer.readMessageBatch();
+
+        Assert.assertEquals(4, messageBatch.size());
+        for (int i = 0; i < messageBatch.size(); i++) {
+            Assert.assertTrue(messageBatch.getOffset(i) < endOffsets.get(new TopicPartition(messageBatch.getTopic(i), messageBatch.getPartition(i))));
+        }
+        Assert.assertEquals(Collections.singleton(partition0), kafkaConsumer.paused());
+        Assert.assertFalse(consumer.isFinished());
+    }
+
+    @Test
+    public void shouldKeepFinishedPartitionsPausedOnResume() {
+        BackfillFirehoseKafkaConsumer consumer = new BackfillFirehoseKafkaConsumer(kafkaConsumer, startOffsets, endOffsets, consumerConfig, instrumentation);
+        addRecords(partition0, 0, 3);
+        consumer.readMessageBatch();
+        consumer.pause();
+
+        consumer.resume();
+
+        Assert.assertEquals(Collections.singleton(partition0), kafkaConsumer.paused());
+    }
+
+    @Test
+    public void shouldBeFinishedOnceEveryPartitionReachedItsEndOffset() {
+        BackfillFirehoseKafkaConsumer consumer = new BackfillFirehoseKafkaConsumer(kafkaConsumer, startOffsets, endOffsets, consumerConfig, instrumentation);
+        addRecords(partition0, 0, 3);
+        addRecords(partition1, 5, 7);
+
+        consumer.readMessageBatch();
+
+        Assert.assertTrue(consumer.isFinished());
+    }
+
+    @Test
+    public void shouldBeFinishedWithoutAssignedPartitions() {
+        BackfillFirehoseKafkaConsumer consumer = new BackfillFirehoseKafkaConsumer(kafkaConsumer, new HashMap<>(), new HashMap<>(), consumerConfig, instrumentation);
+
+        Assert.assertTrue(consumer.isFinished());
+    }
+}
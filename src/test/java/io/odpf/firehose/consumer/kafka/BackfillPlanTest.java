@@ -0,0 +1,93 @@
+package io.odpf.firehose.consumer.kafka;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.OffsetAndTimestamp;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+public class BackfillPlanTest {
+    private final TopicPartition partition0 = new TopicPartition("topic1", 0);
+    private final TopicPartition partition1 = new TopicPartition("topic1", 1);
+    private final TopicPartition partition2 = new TopicPartition("topic1", 2);
+    private Consumer<byte[], byte[]> kafkaConsumer;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        kafkaConsumer = Mockito.mock(Consumer.class);
+        Map<String, List<PartitionInfo>> topics = new HashMap<>();
+        topics.put("topic1", Arrays.asList(
+                new PartitionInfo("topic1", 0, null, null, null),
+                new PartitionInfo("topic1", 1, null, null, null),
+                new PartitionInfo("topic1", 2, null, null, null)));
+        topics.put("other", Collections.singletonList(new PartitionInfo("other", 0, null, null, null)));
+        Mockito.when(kafkaConsumer.listTopics()).thenReturn(topics);
+        Map<TopicPartition, Long> endOffsets = new HashMap<>();
+        endOffsets.put(partition0, 100L);
+        endOffsets.put(partition1, 200L);
+        endOffsets.put(partition2, 300L);
+        Mockito.when(kafkaConsumer.endOffsets(Mockito.anyCollection())).thenReturn(endOffsets);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldLookUpOffsetsOfTheTimestampsForPartitionsOfMatchingTopics() {
+        Map<TopicPartition, OffsetAndTimestamp> startOffsets = new HashMap<>();
+        startOffsets.put(partition0, new OffsetAndTimestamp(10L, 1000L));
+        startOffsets.put(partition1, new OffsetAndTimestamp(20L, 1000L));
+        Map<TopicPartition, OffsetAndTimestamp> endOffsets = new HashMap<>();
+        endOffsets.put(partition0, new OffsetAndTimestamp(50L, 2000L));
+        Mockito.when(kafkaConsumer.offsetsForTimes(Mockito.anyMap())).thenAnswer(invocation -> {
+            Map<TopicPartition, Long> timestamps = (Map<TopicPartition, Long>) invocation.getArguments()[0];
+            return timestamps.get(partition0) == 1000L ? startOffsets : endOffsets;
+        });
+
+        BackfillPlan backfillPlan = BackfillPlan.resolve(kafkaConsumer, Pattern.compile("topic.*"), 1000L, 2000L, 1);
+
+        Assert.assertEquals(3, backfillPlan.getStartOffsets().size());
+        Assert.assertEquals(Long.valueOf(10L), backfillPlan.getStartOffsets().get(partition0));
+        Assert.assertEquals(Long.valueOf(300L), backfillPlan.getStartOffsets().get(partition2));
+        Assert.assertEquals(Long.valueOf(50L), backfillPlan.getEndOffsets().get(partition0));
+        Assert.assertEquals(Long.valueOf(200L), backfillPlan.getEndOffsets().get(partition1));
+        Assert.assertFalse(backfillPlan.getEndOffsets().containsKey(new TopicPartition("other", 0)));
+    }
+
+    @Test
+    public void shouldReadUpToTheEndOffsetsWithoutEndTimestamp() {
+        Mockito.when(kafkaConsumer.offsetsForTimes(Mockito.anyMap())).thenReturn(new HashMap<>());
+
+        BackfillPlan backfillPlan = BackfillPlan.resolve(kafkaConsumer, Pattern.compile("topic1"), 1000L, 0L, 1);
+
+        Assert.assertEquals(Long.valueOf(100L), backfillPlan.getEndOffsets().get(partition0));
+        Mockito.verify(kafkaConsumer, Mockito.times(1)).offsetsForTimes(Mockito.anyMap());
+    }
+
+    @Test
+    public void shouldSpreadPartitionsOverTheClaimers() {
+        Map<TopicPartition, Long> startOffsets = new HashMap<>();
+        startOffsets.put(partition0, 1L);
+        startOffsets.put(partition1, 2L);
+        startOffsets.put(partition2, 3L);
+        BackfillPlan backfillPlan = new BackfillPlan(startOffsets, new HashMap<>(), 2);
+
+        Map<TopicPartition, Long> first = backfillPlan.claimPartitions();
+        Map<TopicPartition, Long> second = backfillPlan.claimPartitions();
+
+        Assert.assertEquals(2, first.size());
+        Assert.assertEquals(Long.valueOf(1L), first.get(partition0));
+        Assert.assertEquals(Long.valueOf(3L), first.get(partition2));
+        Assert.assertEquals(1, second.size());
+        Assert.assertEquals(Long.valueOf(2L), second.get(partition1));
+    }
+}
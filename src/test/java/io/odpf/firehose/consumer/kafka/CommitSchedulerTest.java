@@ -0,0 +1,54 @@
+package io.odpf.firehose.consumer.kafka;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.time.Clock;
+
+public class CommitSchedulerTest {
+
+    @Test
+    public void shouldAlwaysBeDueWithoutIntervals() {
+        CommitScheduler commitScheduler = new CommitScheduler(0, 0);
+
+        Assert.assertTrue(commitScheduler.isCommitDue());
+        commitScheduler.onCommit();
+        Assert.assertTrue(commitScheduler.isCommitDue());
+    }
+
+    @Test
+    public void shouldBeDueOnceIntervalPassedSinceLastCommit() {
+        Clock clock = Mockito.mock(Clock.class);
+        Mockito.when(clock.millis()).thenReturn(1000L, 1500L, 2000L, 2000L, 2500L);
+        CommitScheduler commitScheduler = new CommitScheduler(1000, 0, clock);
+
+        Assert.assertFalse(commitScheduler.isCommitDue());
+        Assert.assertTrue(commitScheduler.isCommitDue());
+        commitScheduler.onCommit();
+        Assert.assertFalse(commitScheduler.isCommitDue());
+    }
+
+    @Test
+    public void shouldBeDueOnceEnoughRecordsWereRead() {
+        CommitScheduler commitScheduler = new CommitScheduler(0, 100);
+
+        commitScheduler.addRecords(60);
+        Assert.assertFalse(commitScheduler.isCommitDue());
+        commitScheduler.addRecords(40);
+        Assert.assertTrue(commitScheduler.isCommitDue());
+        commitScheduler.onCommit();
+        Assert.assertFalse(commitScheduler.isCommitDue());
+    }
+
+    @Test
+    public void shouldBeDueOnWhicheverIntervalComesFirst() {
+        Clock clock = Mockito.mock(Clock.class);
+        Mockito.when(clock.millis()).thenReturn(0L);
+        CommitScheduler commitScheduler = new CommitScheduler(1000, 100, clock);
+
+        commitScheduler.addRecords(100);
+
+        Assert.assertTrue(commitScheduler.isCommitDue());
+    }
+}
@@ -5,11 +5,13 @@ import io.odpf.firehose.consumer.TestKey;
 import io.odpf.firehose.consumer.TestMessage;
 import io.odpf.firehose.message.Message;
 import io.odpf.firehose.metrics.Instrumentation;
+import org.apache.kafka.clients.consumer.CommitFailedException;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.clients.consumer.OffsetAndMetadata;
 import org.apache.kafka.clients.consumer.OffsetCommitCallback;
 import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
 import org.apache.kafka.common.header.Headers;
 import org.apache.kafka.common.header.internals.RecordHeaders;
 import org.apache.kafka.common.record.TimestampType;
@@ -22,9 +24,17 @@ import org.mockito.MockitoAnnotations;
 import org.mockito.runners.MockitoJUnitRunner;
 
 import java.time.Duration;
+import java.time.Instant;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
+import static io.odpf.firehose.metrics.Metrics.FAILURE_TAG;
+import static io.odpf.firehose.metrics.Metrics.SOURCE_KAFKA_COMMIT_TIME_MILLISECONDS;
+import static io.odpf.firehose.metrics.Metrics.SOURCE_KAFKA_MESSAGES_COMMIT_TOTAL;
+import static io.odpf.firehose.metrics.Metrics.SOURCE_KAFKA_PAUSED_TIME_MILLISECONDS;
+import static io.odpf.firehose.metrics.Metrics.SOURCE_KAFKA_PAUSE_TOTAL;
+import static io.odpf.firehose.metrics.Metrics.SUCCESS_TAG;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
@@ -36,8 +46,10 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.Set;
 
 import static org.mockito.ArgumentMatchers.eq;
 
@@ -251,4 +263,167 @@ public class FirehoseKafkaConsumerTest {
             put(new TopicPartition("topic1", 4), new OffsetAndMetadata(5));
         }}), Mockito.any(OffsetCommitCallback.class));
     }
+
+    @Test
+    public void shouldSyncCommitOffsetsOfRevokedPartitionsAndForgetThem() {
+        when(consumerConfig.isSourceKafkaAsyncCommitEnable()).thenReturn(true);
+        TopicPartition revokedPartition = new TopicPartition("topic1", 1);
+        Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<TopicPartition, OffsetAndMetadata>() {{
+            put(revokedPartition, new OffsetAndMetadata(5));
+        }};
+        firehoseKafkaConsumer.commit(offsets);
+
+        firehoseKafkaConsumer.onPartitionsRevoked(Collections.singletonList(revokedPartition), new HashMap<TopicPartition, OffsetAndMetadata>() {{
+            put(revokedPartition, new OffsetAndMetadata(8));
+        }});
+        verify(kafkaConsumer, times(1)).commitSync(new HashMap<TopicPartition, OffsetAndMetadata>() {{
+            put(revokedPartition, new OffsetAndMetadata(8));
+        }});
+
+        firehoseKafkaConsumer.commit(offsets);
+        verify(kafkaConsumer, times(2)).commitAsync(eq(offsets), Mockito.any(OffsetCommitCallback.class));
+    }
+
+    @Test
+    public void shouldNotCommitRevokedPartitionsWithoutNewOffsets() {
+        TopicPartition revokedPartition = new TopicPartition("topic1", 1);
+        Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<TopicPartition, OffsetAndMetadata>() {{
+            put(revokedPartition, new OffsetAndMetadata(5));
+        }};
+        firehoseKafkaConsumer.commit(offsets);
+
+        firehoseKafkaConsumer.onPartitionsRevoked(Collections.singletonList(revokedPartition), offsets);
+
+        verify(kafkaConsumer, times(1)).commitSync(offsets);
+    }
+
+    @Test
+    public void shouldCaptureFailureOfCommitOnRevocation() {
+        TopicPartition revokedPartition = new TopicPartition("topic1", 1);
+        Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<TopicPartition, OffsetAndMetadata>() {{
+            put(revokedPartition, new OffsetAndMetadata(5));
+        }};
+        CommitFailedException exception = new CommitFailedException();
+        doThrow(exception).when(kafkaConsumer).commitSync(offsets);
+
+        firehoseKafkaConsumer.onPartitionsRevoked(Collections.singletonList(revokedPartition), offsets);
+
+        verify(instrumentation, times(1)).incrementCounter(SOURCE_KAFKA_MESSAGES_COMMIT_TOTAL, FAILURE_TAG);
+        verify(instrumentation, times(1)).captureNonFatalError(exception, "Exception while committing offsets of revoked partitions");
+    }
+
+    @Test
+    public void shouldPauseAllAssignedPartitions() {
+        Set<TopicPartition> assignment = new HashSet<>(Arrays.asList(new TopicPartition("topic1", 1), new TopicPartition("topic1", 2)));
+        when(kafkaConsumer.assignment()).thenReturn(assignment);
+
+        firehoseKafkaConsumer.pause();
+        firehoseKafkaConsumer.pause();
+
+        verify(kafkaConsumer, times(2)).pause(assignment);
+        verify(instrumentation, times(1)).incrementCounter(SOURCE_KAFKA_PAUSE_TOTAL);
+    }
+
+    @Test
+    public void shouldResumePausedPartitionsAndCapturePausedTime() {
+        Set<TopicPartition> paused = Collections.singleton(new TopicPartition("topic1", 1));
+        when(kafkaConsumer.assignment()).thenReturn(paused);
+        when(kafkaConsumer.paused()).thenReturn(paused);
+
+        firehoseKafkaConsumer.pause();
+        firehoseKafkaConsumer.resume();
+
+        verify(kafkaConsumer, times(1)).resume(paused);
+        verify(instrumentation, times(1)).captureDurationSince(eq(SOURCE_KAFKA_PAUSED_TIME_MILLISECONDS), any(Instant.class));
+    }
+
+    @Test
+    public void shouldNotResumeIfNotPaused() {
+        firehoseKafkaConsumer.resume();
+
+        verify(kafkaConsumer, times(0)).resume(any());
+        verify(instrumentation, times(0)).captureDurationSince(eq(SOURCE_KAFKA_PAUSED_TIME_MILLISECONDS), any(Instant.class));
+    }
+
+    @Test
+    public void shouldCommitTheGivenOffsetsSynchronously() {
+        Map<TopicPartition, OffsetAndMetadata> offsets = Collections.singletonMap(new TopicPartition("topic1", 1), new OffsetAndMetadata(11));
+
+        firehoseKafkaConsumer.commitSync(offsets);
+
+        verify(kafkaConsumer, times(1)).commitSync(offsets);
+        verify(kafkaConsumer, times(0)).commitAsync(any(Map.class), any());
+    }
+
+    @Test
+    public void shouldCountRecordsAfterCommittedOffsets() {
+        TopicPartition partition1 = new TopicPartition("topic1", 1);
+        TopicPartition partition2 = new TopicPartition("topic1", 2);
+        TopicPartition partition3 = new TopicPartition("topic1", 3);
+        Set<TopicPartition> assignment = new HashSet<>(Arrays.asList(partition1, partition2, partition3));
+        Map<TopicPartition, OffsetAndMetadata> committed = new HashMap<>();
+        committed.put(partition1, new OffsetAndMetadata(10));
+        committed.put(partition2, new OffsetAndMetadata(20));
+        when(kafkaConsumer.assignment()).thenReturn(assignment);
+        when(kafkaConsumer.committed(assignment)).thenReturn(committed);
+        when(kafkaConsumer.position(partition1)).thenReturn(15L);
+        when(kafkaConsumer.position(partition2)).thenReturn(20L);
+
+        assertEquals(5, firehoseKafkaConsumer.countUncommittedMessages());
+    }
+
+    @Test
+    public void shouldCaptureCommitLatencyOfSyncCommit() {
+        Map<TopicPartition, OffsetAndMetadata> offsets = Collections.singletonMap(new TopicPartition("topic1", 1), new OffsetAndMetadata(11));
+
+        firehoseKafkaConsumer.commitSync(offsets);
+
+        verify(instrumentation, times(1)).incrementCounter(SOURCE_KAFKA_MESSAGES_COMMIT_TOTAL, SUCCESS_TAG);
+        verify(instrumentation, times(1)).captureDurationSince(eq(SOURCE_KAFKA_COMMIT_TIME_MILLISECONDS), any(Instant.class));
+    }
+
+    @Test
+    public void shouldLetPartitionDrainerDrainRevokedPartitions() {
+        PartitionDrainer partitionDrainer = Mockito.mock(PartitionDrainer.class);
+        List<TopicPartition> partitions = Collections.singletonList(new TopicPartition("topic1", 1));
+        when(consumerConfig.getApplicationThreadDrainTimeoutMs()).thenReturn(1000);
+        firehoseKafkaConsumer.setPartitionDrainer(partitionDrainer);
+
+        firehoseKafkaConsumer.drainPartitions(partitions);
+
+        verify(partitionDrainer, times(1)).drainPartitions(partitions, 1000);
+    }
+
+    @Test
+    public void shouldForgetCommittedOffsetsOfLostPartitions() {
+        PartitionDrainer partitionDrainer = Mockito.mock(PartitionDrainer.class);
+        TopicPartition lostPartition = new TopicPartition("topic1", 1);
+        Map<TopicPartition, OffsetAndMetadata> offsets = Collections.singletonMap(lostPartition, new OffsetAndMetadata(11));
+        firehoseKafkaConsumer.setPartitionDrainer(partitionDrainer);
+        firehoseKafkaConsumer.commitSync(offsets);
+
+        firehoseKafkaConsumer.onPartitionsLost(Collections.singletonList(lostPartition));
+        firehoseKafkaConsumer.commitSync(offsets);
+
+        verify(partitionDrainer, times(1)).dropPartitions(Collections.singletonList(lostPartition));
+        verify(kafkaConsumer, times(2)).commitSync(offsets);
+    }
+
+    @Test
+    public void shouldWakeUpTheKafkaConsumer() {
+        firehoseKafkaConsumer.wakeup();
+
+        verify(kafkaConsumer, times(1)).wakeup();
+    }
+
+    @Test
+    public void shouldCommitAgainIfTheCommitCatchesAWakeupMeantForThePoll() {
+        Map<TopicPartition, OffsetAndMetadata> offsets = Collections.singletonMap(new TopicPartition("topic1", 1), new OffsetAndMetadata(11));
+        doThrow(new WakeupException()).doNothing().when(kafkaConsumer).commitSync(offsets);
+
+        firehoseKafkaConsumer.commitSync(offsets);
+
+        verify(kafkaConsumer, times(2)).commitSync(offsets);
+        verify(instrumentation, times(1)).incrementCounter(SOURCE_KAFKA_MESSAGES_COMMIT_TOTAL, SUCCESS_TAG);
+    }
 }
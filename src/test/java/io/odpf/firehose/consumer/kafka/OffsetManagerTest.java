@@ -10,28 +10,21 @@ import org.junit.Assert;
 import org.junit.Test;
 
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
-import java.util.Set;
-import java.util.TreeSet;
-import java.util.stream.Collectors;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 public class OffsetManagerTest {
 
-    private OffsetNode createOffsetNode(Message m) {
-        return new OffsetNode(getTopicPartition(m), getOffsetAndMetadata(m));
-    }
-
     private TopicPartition getTopicPartition(Message m) {
         return new TopicPartition(m.getTopic(), m.getPartition());
     }
 
-    private OffsetAndMetadata getOffsetAndMetadata(Message m) {
-        return new OffsetAndMetadata(m.getOffset() + 1);
-    }
-
     private Message createMessage(String topic, int partition, int offset) {
         return new Message("".getBytes(), "".getBytes(), topic, partition, offset);
     }
@@ -49,15 +42,14 @@ public class OffsetManagerTest {
         }};
         OffsetBatchKey key = new OffsetBatchKey("test", 10);
         messages.forEach(message -> manger.addOffsetToBatch(key, message));
-        Assert.assertEquals(3, manger.getOffsetsForBatch(key).size());
-        Assert.assertTrue(manger.getOffsetsForBatch(key).
-                containsAll(messages.stream().map(this::createOffsetNode).collect(Collectors.toList())));
-        TreeSet<OffsetNode> offsetsForTopicPartition = manger.getOffsetsForTopicPartition(getTopicPartition(message1));
-        Assert.assertEquals(3, offsetsForTopicPartition.size());
-        Iterator<OffsetNode> it = offsetsForTopicPartition.iterator();
-        Assert.assertEquals(createOffsetNode(message1), it.next());
-        Assert.assertEquals(createOffsetNode(message2), it.next());
-        Assert.assertEquals(createOffsetNode(message5), it.next());
+        Assert.assertTrue(manger.hasBatch(key));
+        Assert.assertEquals(1, manger.getOffsetRangeCount(getTopicPartition(message1)));
+        Assert.assertTrue(manger.getCommittableOffset().isEmpty());
+
+        manger.setCommittable(key);
+
+        Assert.assertFalse(manger.hasBatch(key));
+        Assert.assertEquals(new OffsetAndMetadata(6), manger.getCommittableOffset().get(getTopicPartition(message1)));
     }
 
     @Test
@@ -87,15 +79,15 @@ public class OffsetManagerTest {
         OffsetBatchKey key2 = new OffsetBatchKey("test2", 10);
         messages2.forEach(message -> manger.addOffsetToBatch(key2, message));
 
-        Assert.assertEquals(3, manger.getOffsetsForBatch(key1).size());
-        Assert.assertTrue(manger.getOffsetsForBatch(key1).
-                containsAll(messages1.stream().map(this::createOffsetNode).collect(Collectors.toList())));
-
+        Assert.assertTrue(manger.hasBatch(key1));
+        Assert.assertTrue(manger.hasBatch(key2));
+        Assert.assertEquals(2, manger.getOffsetRangeCount(getTopicPartition(message1)));
 
-        Assert.assertEquals(3, manger.getOffsetsForBatch(key2).size());
-        Assert.assertTrue(manger.getOffsetsForBatch(key2).
-                containsAll(messages2.stream().map(this::createOffsetNode).collect(Collectors.toList())));
+        manger.setCommittable(key2);
+        Assert.assertTrue(manger.getCommittableOffset().isEmpty());
 
+        manger.setCommittable(key1);
+        Assert.assertEquals(new OffsetAndMetadata(11), manger.getCommittableOffset().get(getTopicPartition(message1)));
     }
 
     @Test
@@ -118,131 +110,57 @@ public class OffsetManagerTest {
             add(message6);
         }};
         OffsetBatchKey key1 = new OffsetBatchKey("test", 10);
-        messages1.forEach(message -> manger.addOffsetToBatch(key1, message));
-        Assert.assertEquals(6, manger.getOffsetsForBatch(key1).size());
-        Assert.assertTrue(manger.getOffsetsForBatch(key1).
-                containsAll(messages1.stream().map(this::createOffsetNode).collect(Collectors.toList())));
-
-        TreeSet<OffsetNode> offsetsForTopicPartition = manger.getOffsetsForTopicPartition(getTopicPartition(message1));
-        Assert.assertEquals(3, offsetsForTopicPartition.size());
-        Iterator<OffsetNode> it = offsetsForTopicPartition.iterator();
-        Assert.assertEquals(createOffsetNode(message1), it.next());
-        Assert.assertEquals(createOffsetNode(message2), it.next());
-        Assert.assertEquals(createOffsetNode(message3), it.next());
-
-        offsetsForTopicPartition = manger.getOffsetsForTopicPartition(getTopicPartition(message4));
-        Assert.assertEquals(3, offsetsForTopicPartition.size());
-        it = offsetsForTopicPartition.iterator();
-        Assert.assertEquals(createOffsetNode(message4), it.next());
-        Assert.assertEquals(createOffsetNode(message5), it.next());
-        Assert.assertEquals(createOffsetNode(message6), it.next());
+        manger.addOffsetToBatch(key1, messages1);
+
+        Assert.assertEquals(1, manger.getOffsetRangeCount(getTopicPartition(message1)));
+        Assert.assertEquals(1, manger.getOffsetRangeCount(getTopicPartition(message4)));
+
+        manger.setCommittable(key1);
+        Map<TopicPartition, OffsetAndMetadata> committableOffset = manger.getCommittableOffset();
+        Assert.assertEquals(2, committableOffset.size());
+        Assert.assertEquals(new OffsetAndMetadata(6), committableOffset.get(getTopicPartition(message1)));
+        Assert.assertEquals(new OffsetAndMetadata(6), committableOffset.get(getTopicPartition(message4)));
     }
 
     @Test
     public void shouldCompactAndFetch() {
         OffsetManager manger = new OffsetManager();
-        Message message1 = createMessage("testing", 1, 1);
-        Message message2 = createMessage("testing", 1, 2);
-        Message message3 = createMessage("testing", 1, 3);
-        Message message4 = createMessage("testing", 1, 4);
-        Message message5 = createMessage("testing", 1, 5);
-        Message message6 = createMessage("testing", 1, 6);
-        Message message7 = createMessage("testing1", 2, 7);
-        Message message8 = createMessage("testing1", 2, 8);
-        Message message9 = createMessage("testing1", 2, 9);
-        Message message10 = createMessage("testing1", 2, 10);
-
-        List<Message> messages = new ArrayList<Message>() {{
-            add(message3);
-            add(message5);
-            add(message4);
-            add(message1);
-            add(message2);
-            add(message6);
-            add(message10);
-            add(message8);
-            add(message7);
-            add(message9);
-        }};
-        OffsetBatchKey key1 = new OffsetBatchKey("test", 10);
-        messages.forEach(message -> manger.addOffsetToBatch(key1, message));
-        TreeSet<OffsetNode> offsetsForTopicPartition = manger.getOffsetsForTopicPartition(getTopicPartition(message1));
-        Assert.assertEquals(6, offsetsForTopicPartition.size());
+        TopicPartition topicPartition = new TopicPartition("testing", 1);
+        for (int offset = 1; offset <= 6; offset++) {
+            manger.addOffsetToBatch(offset, createMessage("testing", 1, offset));
+        }
+        Assert.assertEquals(6, manger.getOffsetRangeCount(topicPartition));
 
         // Test case 1
         // If the top is not committable then return empty
-        Optional<OffsetNode> offsetNode = manger.compactAndFetchFirstCommittableNode(offsetsForTopicPartition);
-        Assert.assertFalse(offsetNode.isPresent());
+        manger.setCommittable(2);
+        Assert.assertFalse(manger.getCommittableOffset().containsKey(topicPartition));
+        Assert.assertEquals(6, manger.getOffsetRangeCount(topicPartition));
 
         // Test case 2
-        // If only the first element is committable then return that
-        // Does not remove anything from the treeSet
-        Iterator<OffsetNode> it = offsetsForTopicPartition.iterator();
-        it.next().setCommittable(true);
-        offsetNode = manger.compactAndFetchFirstCommittableNode(offsetsForTopicPartition);
-        Assert.assertTrue(offsetNode.isPresent());
-        OffsetNode expected = createOffsetNode(message1);
-        expected.setCommittable(true);
-        Assert.assertEquals(expected, offsetNode.get());
-        Assert.assertEquals(6, offsetsForTopicPartition.size());
-        it = offsetsForTopicPartition.iterator();
-        Assert.assertTrue(it.next().isCommittable());
-        Assert.assertFalse(it.next().isCommittable());
+        // Contiguous committable ranges from the top are compacted
+        manger.setCommittable(1);
+        Assert.assertEquals(new OffsetAndMetadata(3), manger.getCommittableOffset().get(topicPartition));
+        Assert.assertEquals(4, manger.getOffsetRangeCount(topicPartition));
 
         // Test Case 3
-        it = offsetsForTopicPartition.iterator();
-        it.next().setCommittable(true);
-        it.next();
-        it.next().setCommittable(true);
-        it.next().setCommittable(true);
-
-        offsetNode = manger.compactAndFetchFirstCommittableNode(offsetsForTopicPartition);
-        Assert.assertTrue(offsetNode.isPresent());
-        expected = createOffsetNode(message1);
-        expected.setCommittable(true);
-        Assert.assertEquals(expected, offsetNode.get());
-        Assert.assertEquals(6, offsetsForTopicPartition.size());
-        it = offsetsForTopicPartition.iterator();
-        Assert.assertTrue(it.next().isCommittable());
-        Assert.assertFalse(it.next().isCommittable());
+        // A gap stops the committable offset
+        manger.setCommittable(4);
+        manger.setCommittable(5);
+        Assert.assertEquals(new OffsetAndMetadata(3), manger.getCommittableOffset().get(topicPartition));
+        Assert.assertEquals(4, manger.getOffsetRangeCount(topicPartition));
 
         // Test case 4
-        // Removes the redundant offsets from the treeSet.
-        it = offsetsForTopicPartition.iterator();
-        it.next().setCommittable(true);
-        it.next().setCommittable(true);
-        it.next().setCommittable(true);
-        it.next().setCommittable(true);
-
-        expected = createOffsetNode(message4);
-        expected.setCommittable(true);
-        offsetNode = manger.compactAndFetchFirstCommittableNode(offsetsForTopicPartition);
-        Assert.assertTrue(offsetNode.isPresent());
-        Assert.assertEquals(expected, offsetNode.get());
-        Assert.assertEquals(3, offsetsForTopicPartition.size());
-        it = offsetsForTopicPartition.iterator();
-        Assert.assertTrue(it.next().isCommittable());
-        Assert.assertFalse(it.next().isCommittable());
-
+        // Calling again returns the same value if nothing is committable in between calls
+        Assert.assertEquals(new OffsetAndMetadata(3), manger.getCommittableOffset().get(topicPartition));
 
         //Test Case 5
-        //if everything is committable then it should keep only one element
-        offsetsForTopicPartition = manger.getOffsetsForTopicPartition(getTopicPartition(message7));
-        Assert.assertEquals(4, offsetsForTopicPartition.size());
-        it = offsetsForTopicPartition.iterator();
-        it.next().setCommittable(true);
-        it.next().setCommittable(true);
-        it.next().setCommittable(true);
-        it.next().setCommittable(true);
-
-        expected = createOffsetNode(message10);
-        expected.setCommittable(true);
-        offsetNode = manger.compactAndFetchFirstCommittableNode(offsetsForTopicPartition);
-        Assert.assertTrue(offsetNode.isPresent());
-        Assert.assertEquals(expected, offsetNode.get());
-        Assert.assertEquals(1, offsetsForTopicPartition.size());
-        it = offsetsForTopicPartition.iterator();
-        Assert.assertTrue(it.next().isCommittable());
+        //if everything is committable then it should keep no range and still return the last offset
+        manger.setCommittable(3);
+        manger.setCommittable(6);
+        Assert.assertEquals(new OffsetAndMetadata(7), manger.getCommittableOffset().get(topicPartition));
+        Assert.assertEquals(0, manger.getOffsetRangeCount(topicPartition));
+        Assert.assertEquals(new OffsetAndMetadata(7), manger.getCommittableOffset().get(topicPartition));
     }
 
     @Test
@@ -283,22 +201,18 @@ public class OffsetManagerTest {
         OffsetBatchKey key2 = new OffsetBatchKey("test2", 100);
         messageList2.forEach(message -> manger.addOffsetToBatch(key2, message));
 
-        Set<OffsetNode> offsetsForBatch1 = manger.getOffsetsForBatch(key1);
-        Set<OffsetNode> offsetsForBatch2 = manger.getOffsetsForBatch(key2);
-
-        Assert.assertEquals(6, offsetsForBatch1.size());
-        Assert.assertEquals(4, offsetsForBatch2.size());
-        offsetsForBatch1.forEach(node -> Assert.assertFalse(node.isCommittable()));
-        offsetsForBatch2.forEach(node -> Assert.assertFalse(node.isCommittable()));
+        Assert.assertTrue(manger.getCommittableOffset().isEmpty());
 
         manger.setCommittable(key1);
-        offsetsForBatch1.forEach(node -> Assert.assertTrue(node.isCommittable()));
+        Map<TopicPartition, OffsetAndMetadata> committableOffset = manger.getCommittableOffset();
+        Assert.assertEquals(4, committableOffset.size());
+        Assert.assertEquals(new OffsetAndMetadata(6), committableOffset.get(new TopicPartition("testing", 1)));
+        Assert.assertFalse(committableOffset.containsKey(new TopicPartition("testing", 2)));
 
         Message newMessage = createMessage("topic1", 10, 20);
         manger.addOffsetToBatch(key1, newMessage);
-        offsetsForBatch1 = manger.getOffsetsForBatch(key1);
-        Assert.assertEquals(1, offsetsForBatch1.size());
-        Assert.assertTrue(offsetsForBatch1.contains(createOffsetNode(newMessage)));
+        Assert.assertTrue(manger.hasBatch(key1));
+        Assert.assertFalse(manger.getCommittableOffset().containsKey(getTopicPartition(newMessage)));
     }
 
     @Test
@@ -391,6 +305,126 @@ public class OffsetManagerTest {
 
     }
 
+    @Test
+    public void shouldNotCommitPastPendingOffsetsOfInterleavedBatches() {
+        OffsetManager manger = new OffsetManager();
+        TopicPartition topicPartition = new TopicPartition("topic1", 1);
+        Map<Object, List<Message>> fileToMessages = new HashMap<>();
+        fileToMessages.put("file1", new ArrayList<Message>() {{
+            add(createMessage("topic1", 1, 1));
+            add(createMessage("topic1", 1, 3));
+            add(createMessage("topic1", 1, 5));
+        }});
+        fileToMessages.put("file2", new ArrayList<Message>() {{
+            add(createMessage("topic1", 1, 2));
+            add(createMessage("topic1", 1, 4));
+        }});
+        manger.addOffsetToBatch(fileToMessages);
+
+        manger.setCommittable("file1");
+        Assert.assertEquals(new OffsetAndMetadata(2), manger.getCommittableOffset().get(topicPartition));
+
+        manger.setCommittable("file2");
+        Assert.assertEquals(new OffsetAndMetadata(6), manger.getCommittableOffset().get(topicPartition));
+        Assert.assertEquals(0, manger.getOffsetRangeCount(topicPartition));
+    }
+
+    @Test
+    public void shouldAddOffsetsAndSetCommittable() {
+        OffsetManager manger = new OffsetManager();
+        TopicPartition topicPartition = new TopicPartition("topic1", 1);
+        manger.addOffsetToBatch("pending", createMessage("topic1", 1, 5));
+        manger.addOffsetsAndSetCommittable(new ArrayList<Message>() {{
+            add(createMessage("topic1", 1, 3));
+            add(createMessage("topic1", 1, 4));
+            add(createMessage("topic1", 1, 6));
+        }});
+
+        Assert.assertEquals(new OffsetAndMetadata(5), manger.getCommittableOffset().get(topicPartition));
+
+        manger.setCommittable("pending");
+        Assert.assertEquals(new OffsetAndMetadata(7), manger.getCommittableOffset().get(topicPartition));
+    }
+
+    @Test
+    public void shouldKeepRangesWhenMoreBatchesArePendingThanTheInitialCapacity() {
+        OffsetManager manger = new OffsetManager();
+        TopicPartition topicPartition = new TopicPartition("topic1", 1);
+        for (int batch = 0; batch < 20; batch++) {
+            manger.addOffsetToBatch(batch, createMessage("topic1", 1, batch));
+        }
+        for (int batch = 1; batch < 20; batch++) {
+            manger.setCommittable(batch);
+        }
+        Assert.assertFalse(manger.getCommittableOffset().containsKey(topicPartition));
+        Assert.assertEquals(20, manger.getOffsetRangeCount(topicPartition));
+
+        manger.setCommittable(0);
+        Assert.assertEquals(new OffsetAndMetadata(20), manger.getCommittableOffset().get(topicPartition));
+        Assert.assertEquals(0, manger.getOffsetRangeCount(topicPartition));
+    }
+
+    @Test
+    public void shouldTrackOffsetsFromConcurrentSinks() throws InterruptedException {
+        OffsetManager manger = new OffsetManager();
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        CountDownLatch done = new CountDownLatch(4);
+        for (int partition = 0; partition < 4; partition++) {
+            int currentPartition = partition;
+            executorService.submit(() -> {
+                for (int offset = 0; offset < 1000; offset++) {
+                    Object batch = currentPartition + "-" + offset;
+                    manger.addOffsetToBatch(batch, createMessage("topic1", currentPartition, offset));
+                    manger.setCommittable(batch);
+                }
+                done.countDown();
+            });
+        }
+        Assert.assertTrue(done.await(10, TimeUnit.SECONDS));
+        executorService.shutdown();
+
+        Map<TopicPartition, OffsetAndMetadata> committableOffset = manger.getCommittableOffset();
+        for (int partition = 0; partition < 4; partition++) {
+            Assert.assertEquals(new OffsetAndMetadata(1000), committableOffset.get(new TopicPartition("topic1", partition)));
+        }
+    }
+
+    @Test
+    public void shouldRemovePartitionsAndReturnTheirCommittableOffsets() {
+        OffsetManager manger = new OffsetManager();
+        TopicPartition revokedPartition = new TopicPartition("topic1", 1);
+        TopicPartition assignedPartition = new TopicPartition("topic1", 2);
+        manger.addOffsetsAndSetCommittable(new ArrayList<Message>() {{
+            add(createMessage("topic1", 1, 3));
+            add(createMessage("topic1", 2, 7));
+        }});
+        manger.addOffsetToBatch("pending", createMessage("topic1", 1, 4));
+
+        Map<TopicPartition, OffsetAndMetadata> removedOffsets = manger.removePartitions(Collections.singletonList(revokedPartition));
+
+        Assert.assertEquals(1, removedOffsets.size());
+        Assert.assertEquals(new OffsetAndMetadata(4), removedOffsets.get(revokedPartition));
+        Assert.assertEquals(0, manger.getOffsetRangeCount(revokedPartition));
+        manger.setCommittable("pending");
+        Map<TopicPartition, OffsetAndMetadata> committableOffset = manger.getCommittableOffset();
+        Assert.assertEquals(1, committableOffset.size());
+        Assert.assertEquals(new OffsetAndMetadata(8), committableOffset.get(assignedPartition));
+    }
+
+    @Test
+    public void shouldRemoveBatchKeepingItsOffsetsPending() {
+        OffsetManager manger = new OffsetManager();
+        TopicPartition topicPartition = new TopicPartition("topic1", 1);
+        manger.addOffsetToBatch("dropped", createMessage("topic1", 1, 4));
+        manger.addOffsetsAndSetCommittable(Collections.singletonList(createMessage("topic1", 1, 5)));
+
+        manger.removeBatch("dropped");
+
+        Assert.assertFalse(manger.hasBatch("dropped"));
+        Assert.assertTrue(manger.getCommittableOffset().isEmpty());
+        Assert.assertTrue(manger.removePartitions(Collections.singletonList(topicPartition)).isEmpty());
+    }
+
     @EqualsAndHashCode
     @Data
     @AllArgsConstructor
@@ -398,4 +432,22 @@ public class OffsetManagerTest {
         private String data;
         private int integerData;
     }
+
+    @Test
+    public void shouldCommitOnlyTheContiguousPushedPrefixOfInterleavedBatches() {
+        OffsetManager manager = new OffsetManager();
+        TopicPartition topicPartition = new TopicPartition("testing", 1);
+        List<Message> keyA = new ArrayList<>();
+        List<Message> keyB = new ArrayList<>();
+        for (int offset = 1; offset <= 6; offset++) {
+            (offset % 2 == 1 ? keyA : keyB).add(createMessage("testing", 1, offset));
+        }
+        manager.addOffsetToBatch("keyA", keyA);
+        manager.addOffsetToBatch("keyB", keyB);
+
+        manager.setCommittable("keyA");
+        Assert.assertEquals(Collections.singletonMap(topicPartition, new OffsetAndMetadata(2)), manager.getCommittableOffset());
+        manager.setCommittable("keyB");
+        Assert.assertEquals(Collections.singletonMap(topicPartition, new OffsetAndMetadata(7)), manager.getCommittableOffset());
+    }
 }
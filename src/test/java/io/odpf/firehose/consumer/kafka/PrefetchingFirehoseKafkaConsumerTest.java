@@ -0,0 +1,260 @@
+package io.odpf.firehose.consumer.kafka;
+
+import io.odpf.firehose.config.KafkaConsumerConfig;
+import io.odpf.firehose.consumer.MemoryBudget;
+import io.odpf.firehose.message.Message;
+import io.odpf.firehose.metrics.Instrumentation;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class PrefetchingFirehoseKafkaConsumerTest {
+    private static final String POLLER_THREAD = "test-kafka-poller";
+    private static final int RECORD_SIZE = 10;
+
+    @Mock
+    private KafkaConsumer<byte[], byte[]> kafkaConsumer;
+    @Mock
+    private Instrumentation instrumentation;
+    @Mock
+    private KafkaConsumerConfig consumerConfig;
+    private MemoryBudget memoryBudget;
+    private ExecutorService poller;
+    private PrefetchingFirehoseKafkaConsumer prefetchingConsumer;
+
+    @Before
+    public void setUp() {
+        poller = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, POLLER_THREAD));
+        memoryBudget = new MemoryBudget(0);
+        prefetchingConsumer = new PrefetchingFirehoseKafkaConsumer(kafkaConsumer, consumerConfig, instrumentation, memoryBudget, poller);
+        when(consumerConfig.getSourceKafkaPollTimeoutMs()).thenReturn(500L);
+    }
+
+    @After
+    public void tearDown() {
+        poller.shutdownNow();
+    }
+
+    @Test
+    public void shouldReturnFirstBatchAndPrefetchTheNextOne() {
+        when(kafkaConsumer.poll(Duration.ofMillis(500L))).thenReturn(records("topic", 0, 0, 1), records("topic", 0, 2, 3));
+
+        List<Message> firstBatch = prefetchingConsumer.readMessages();
+
+        assertEquals(2, firstBatch.size());
+        assertEquals(0, firstBatch.get(0).getOffset());
+        verify(kafkaConsumer, timeout(1000).times(2)).poll(Duration.ofMillis(500L));
+
+        List<Message> secondBatch = prefetchingConsumer.readMessages();
+
+        assertEquals(2, secondBatch.size());
+        assertEquals(2, secondBatch.get(0).getOffset());
+    }
+
+    @Test
+    public void shouldCommitOffsetsOfReturnedBatchesOnly() {
+        when(kafkaConsumer.poll(Duration.ofMillis(500L))).thenReturn(records("topic", 0, 0, 1), records("topic", 0, 2, 3));
+
+        prefetchingConsumer.readMessages();
+        verify(kafkaConsumer, timeout(1000).times(2)).poll(Duration.ofMillis(500L));
+        prefetchingConsumer.commit();
+
+        Map<TopicPartition, OffsetAndMetadata> expectedOffsets = new HashMap<>();
+        expectedOffsets.put(new TopicPartition("topic", 0), new OffsetAndMetadata(2));
+        verify(kafkaConsumer).commitSync(expectedOffsets);
+    }
+
+    @Test
+    public void shouldNotCommitBeforeAnyBatchIsReturned() {
+        prefetchingConsumer.commit();
+
+        verify(kafkaConsumer, times(0)).commitSync(any(Map.class));
+        verify(kafkaConsumer, times(0)).commitSync();
+    }
+
+    @Test
+    public void shouldCallKafkaConsumerOnlyFromPollerThread() {
+        List<String> callingThreads = Collections.synchronizedList(new ArrayList<>());
+        when(kafkaConsumer.poll(Duration.ofMillis(500L))).thenAnswer(invocation -> {
+            callingThreads.add(Thread.currentThread().getName());
+            return records("topic", 0, 0);
+        });
+        doAnswer(invocation -> callingThreads.add(Thread.currentThread().getName())).when(kafkaConsumer).commitSync(any(Map.class));
+        doAnswer(invocation -> callingThreads.add(Thread.currentThread().getName())).when(kafkaConsumer).pause(any());
+        doAnswer(invocation -> callingThreads.add(Thread.currentThread().getName())).when(kafkaConsumer).resume(any());
+        doAnswer(invocation -> callingThreads.add(Thread.currentThread().getName())).when(kafkaConsumer).close();
+
+        prefetchingConsumer.readMessages();
+        prefetchingConsumer.pause();
+        prefetchingConsumer.resume();
+        prefetchingConsumer.commit();
+        prefetchingConsumer.close();
+
+        assertTrue(callingThreads.size() >= 5);
+        callingThreads.forEach(threadName -> assertEquals(POLLER_THREAD, threadName));
+    }
+
+    @Test
+    public void shouldPauseWhileAPollIsBlockedOnThePollerThread() {
+        CountDownLatch pollStarted = new CountDownLatch(1);
+        CountDownLatch wokenUp = new CountDownLatch(1);
+        when(kafkaConsumer.poll(Duration.ofMillis(500L))).thenReturn(records("topic", 0, 0)).thenAnswer(invocation -> {
+            pollStarted.countDown();
+            wokenUp.await();
+            throw new WakeupException();
+        }).thenReturn(records("topic", 0, 1));
+        doAnswer(invocation -> {
+            wokenUp.countDown();
+            return null;
+        }).when(kafkaConsumer).wakeup();
+        List<String> pausingThreads = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> pausingThreads.add(Thread.currentThread().getName())).when(kafkaConsumer).pause(any());
+
+        prefetchingConsumer.readMessages();
+        awaitLatch(pollStarted);
+        prefetchingConsumer.pause();
+
+        assertEquals(Collections.singletonList(POLLER_THREAD), pausingThreads);
+        verify(kafkaConsumer).wakeup();
+    }
+
+    @Test
+    public void shouldHoldBytesOfThePrefetchedBatchInTheMemoryBudget() {
+        when(kafkaConsumer.poll(Duration.ofMillis(500L))).thenReturn(records("topic", 0, 0, 1), records("topic", 0, 2), records("topic", 0));
+
+        prefetchingConsumer.readMessages();
+        verify(kafkaConsumer, timeout(1000).times(2)).poll(Duration.ofMillis(500L));
+        awaitPrefetchedBytes(RECORD_SIZE);
+        prefetchingConsumer.readMessages();
+        awaitPrefetchedBytes(0);
+    }
+
+    @Test
+    public void shouldPollAgainWhenPollIsWokenUp() {
+        when(kafkaConsumer.poll(Duration.ofMillis(500L)))
+                .thenThrow(new WakeupException())
+                .thenReturn(records("topic", 1, 5));
+
+        List<Message> messages = prefetchingConsumer.readMessages();
+
+        assertEquals(1, messages.size());
+        assertEquals(5, messages.get(0).getOffset());
+    }
+
+    @Test
+    public void shouldRetryCommitWhenWokenUpByLateWakeup() {
+        when(kafkaConsumer.poll(Duration.ofMillis(500L))).thenReturn(records("topic", 0, 0));
+        Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+        offsets.put(new TopicPartition("topic", 0), new OffsetAndMetadata(1));
+        doAnswer(invocation -> {
+            throw new WakeupException();
+        }).doAnswer(invocation -> null).when(kafkaConsumer).commitSync(offsets);
+
+        prefetchingConsumer.commit(offsets);
+
+        verify(kafkaConsumer, times(2)).commitSync(offsets);
+    }
+
+    @Test
+    public void shouldWakeUpPendingPollOnClose() {
+        prefetchingConsumer.close();
+
+        verify(kafkaConsumer).wakeup();
+        verify(kafkaConsumer).close();
+        assertTrue(poller.isShutdown());
+    }
+
+    @Test
+    public void shouldReturnEmptyBatchAndKeepFetchingWhenThePollOutlastsTheMaxWait() {
+        CountDownLatch pollReleased = new CountDownLatch(1);
+        when(kafkaConsumer.poll(Duration.ofMillis(500L))).thenAnswer(invocation -> {
+            pollReleased.await();
+            return records("topic", 0, 0, 1);
+        }).thenReturn(records("topic", 0, 2));
+
+        assertEquals(0, prefetchingConsumer.readMessageBatch(10).size());
+
+        pollReleased.countDown();
+        assertEquals(2, prefetchingConsumer.readMessageBatch(1000).size());
+        verify(kafkaConsumer, timeout(1000).times(2)).poll(Duration.ofMillis(500L));
+    }
+
+    @Test(expected = WakeupException.class)
+    public void shouldThrowWakeupExceptionToTheCallerWhenWokenUp() {
+        CountDownLatch pollStarted = new CountDownLatch(1);
+        CountDownLatch wokenUp = new CountDownLatch(1);
+        when(kafkaConsumer.poll(Duration.ofMillis(500L))).thenAnswer(invocation -> {
+            pollStarted.countDown();
+            wokenUp.await();
+            throw new WakeupException();
+        });
+        doAnswer(invocation -> {
+            wokenUp.countDown();
+            return null;
+        }).when(kafkaConsumer).wakeup();
+        new Thread(() -> {
+            try {
+                pollStarted.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            prefetchingConsumer.wakeup();
+        }).start();
+
+        prefetchingConsumer.readMessageBatch();
+    }
+
+    private void awaitLatch(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(1, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void awaitPrefetchedBytes(long bytes) {
+        long deadline = System.currentTimeMillis() + 1000;
+        while (memoryBudget.getUsedBytes(MemoryBudget.Stage.PREFETCHED) != bytes && System.currentTimeMillis() < deadline) {
+            Thread.yield();
+        }
+        assertEquals(bytes, memoryBudget.getUsedBytes(MemoryBudget.Stage.PREFETCHED));
+    }
+
+    private ConsumerRecords<byte[], byte[]> records(String topic, int partition, long... offsets) {
+        List<ConsumerRecord<byte[], byte[]>> records = new ArrayList<>();
+        for (long offset : offsets) {
+            records.add(new ConsumerRecord<>(topic, partition, offset, new byte[0], new byte[RECORD_SIZE]));
+        }
+        return new ConsumerRecords<>(Collections.singletonMap(new TopicPartition(topic, partition), records));
+    }
+}
@@ -1,6 +1,7 @@
 package io.odpf.firehose.filter;
 
 import io.odpf.firehose.message.Message;
+import io.odpf.firehose.message.MessageBatch;
 import io.odpf.firehose.consumer.TestKey;
 import io.odpf.firehose.consumer.TestMessage;
 import io.odpf.firehose.metrics.Instrumentation;
@@ -62,4 +63,16 @@ public class NoOpFilterTest {
         FilteredMessages filteredMessages = noOpFilter.filter(Arrays.asList(message1, message2));
         assertEquals(expectedMessages, filteredMessages);
     }
+
+    @Test
+    public void shouldNotMarkAnyMessageOfBatch() {
+        Message message1 = new Message(new byte[0], new byte[0], "topic1", 0, 100);
+        Message message2 = new Message(new byte[0], new byte[0], "topic1", 0, 101);
+        MessageBatch messageBatch = MessageBatch.of(Arrays.asList(message1, message2));
+
+        new NoOpFilter(instrumentation).filter(messageBatch);
+
+        assertEquals(0, messageBatch.filteredCount());
+        assertEquals(Arrays.asList(message1, message2), messageBatch.getValidMessages());
+    }
 }
@@ -0,0 +1,102 @@
+package io.odpf.firehose.filter;
+
+import io.odpf.firehose.message.Message;
+import io.odpf.firehose.message.MessageBatch;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+public class ParallelFilterTest {
+    private ForkJoinPool pool;
+    private Set<String> filterThreads;
+    private Filter oddOffsetFilter;
+
+    @Before
+    public void setUp() {
+        pool = new ForkJoinPool(2);
+        filterThreads = ConcurrentHashMap.newKeySet();
+        oddOffsetFilter = messages -> {
+            filterThreads.add(Thread.currentThread().getName());
+            FilteredMessages filteredMessages = new FilteredMessages();
+            for (Message message : messages) {
+                if (message.getOffset() % 2 == 0) {
+                    filteredMessages.addToValidMessages(message);
+                } else {
+                    filteredMessages.addToInvalidMessages(message);
+                }
+            }
+            return filteredMessages;
+        };
+    }
+
+    @After
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    private List<Message> createMessages(int count) {
+        List<Message> messages = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            messages.add(new Message(new byte[0], new byte[0], "topic1", 0, i));
+        }
+        return messages;
+    }
+
+    @Test
+    public void shouldFilterSmallBatchesOnTheCallingThread() throws FilterException {
+        ParallelFilter parallelFilter = new ParallelFilter(oddOffsetFilter, pool, 100, 10);
+
+        FilteredMessages filteredMessages = parallelFilter.filter(createMessages(50));
+
+        Assert.assertEquals(25, filteredMessages.sizeOfValidMessages());
+        Assert.assertEquals(Collections.singleton(Thread.currentThread().getName()), filterThreads);
+    }
+
+    @Test
+    public void shouldMergeChunksInTheOrderOfTheMessages() throws FilterException {
+        ParallelFilter parallelFilter = new ParallelFilter(oddOffsetFilter, pool, 10, 7);
+
+        FilteredMessages filteredMessages = parallelFilter.filter(createMessages(50));
+
+        Assert.assertEquals(25, filteredMessages.sizeOfValidMessages());
+        Assert.assertEquals(25, filteredMessages.sizeOfInvalidMessages());
+        for (int i = 0; i < 25; i++) {
+            Assert.assertEquals(2 * i, filteredMessages.getValidMessages().get(i).getOffset());
+            Assert.assertEquals(2 * i + 1, filteredMessages.getInvalidMessages().get(i).getOffset());
+        }
+    }
+
+    @Test
+    public void shouldMarkFilteredRowsOfTheBatch() throws FilterException {
+        ParallelFilter parallelFilter = new ParallelFilter(oddOffsetFilter, pool, 10, 7);
+        MessageBatch messageBatch = MessageBatch.of(createMessages(50));
+
+        parallelFilter.filter(messageBatch);
+
+        Assert.assertEquals(25, messageBatch.filteredCount());
+        for (int i = 0; i < 50; i++) {
+            Assert.assertEquals(i % 2 == 1, messageBatch.isFiltered(i));
+        }
+    }
+
+    @Test(expected = FilterException.class)
+    public void shouldFailTheBatchWhenAChunkFails() throws FilterException {
+        Filter failingFilter = messages -> {
+            if (messages.get(0).getOffset() >= 20) {
+                throw new FilterException("invalid expression");
+            }
+            return new FilteredMessages();
+        };
+        ParallelFilter parallelFilter = new ParallelFilter(failingFilter, pool, 10, 10);
+
+        parallelFilter.filter(createMessages(50));
+    }
+}
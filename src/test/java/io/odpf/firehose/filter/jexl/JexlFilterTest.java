@@ -3,6 +3,7 @@ package io.odpf.firehose.filter.jexl;
 import io.odpf.firehose.config.FilterConfig;
 import io.odpf.firehose.config.enums.FilterDataSourceType;
 import io.odpf.firehose.message.Message;
+import io.odpf.firehose.message.MessageBatch;
 import io.odpf.firehose.consumer.TestBookingLogKey;
 import io.odpf.firehose.consumer.TestBookingLogMessage;
 import io.odpf.firehose.consumer.TestKey;
@@ -10,6 +11,8 @@ import io.odpf.firehose.consumer.TestMessage;
 import io.odpf.firehose.filter.Filter;
 import io.odpf.firehose.filter.FilterException;
 import io.odpf.firehose.filter.FilteredMessages;
+import io.odpf.firehose.filter.ParallelFilter;
+import io.odpf.firehose.exception.ConfigurationException;
 import io.odpf.firehose.metrics.Instrumentation;
 import org.aeonbits.owner.ConfigFactory;
 import org.junit.Before;
@@ -18,9 +21,13 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.junit.Assert.assertEquals;
 
@@ -73,6 +80,52 @@ public class JexlFilterTest {
         assertEquals(expectedMessages, filteredMessages);
     }
 
+    @Test
+    public void shouldMarkMessagesOfBatchNotMatchingTheExpression() throws FilterException {
+        TestMessage otherMessage = TestMessage.newBuilder().setOrderNumber("456").setOrderUrl("abc").setOrderDetails("details").build();
+        Message message1 = new Message(key.toByteArray(), testMessage.toByteArray(), "topic1", 0, 100);
+        Message message2 = new Message(key.toByteArray(), otherMessage.toByteArray(), "topic1", 0, 101);
+        MessageBatch messageBatch = MessageBatch.of(Arrays.asList(message1, message2));
+        filter = new JexlFilter(kafkaConsumerConfig, instrumentation);
+
+        filter.filter(messageBatch);
+
+        assertEquals(Collections.singletonList(message1), messageBatch.getValidMessages());
+        assertEquals(Collections.singletonList(message2), messageBatch.getFilteredMessages());
+    }
+
+    @Test
+    public void shouldFilterBatchChunksInParallel() throws FilterException {
+        TestMessage otherMessage = TestMessage.newBuilder().setOrderNumber("456").build();
+        List<Message> messages = new ArrayList<>();
+        List<Message> expectedValidMessages = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            Message message = new Message(key.toByteArray(), (i % 3 == 0 ? testMessage : otherMessage).toByteArray(), "topic1", 0, i);
+            messages.add(message);
+            if (i % 3 == 0) {
+                expectedValidMessages.add(message);
+            }
+        }
+        MessageBatch messageBatch = MessageBatch.of(messages);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        filter = new ParallelFilter(new JexlFilter(kafkaConsumerConfig, instrumentation), pool, 10, 5);
+
+        filter.filter(messageBatch);
+        pool.shutdown();
+
+        assertEquals(expectedValidMessages, messageBatch.getValidMessages());
+    }
+
+    @Test(expected = ConfigurationException.class)
+    public void shouldThrowExceptionOnInvalidSchemaProtoClass() {
+        Map<String, String> filterConfigs = new HashMap<>();
+        filterConfigs.put("FILTER_DATA_SOURCE", "message");
+        filterConfigs.put("FILTER_JEXL_EXPRESSION", "testMessage.getOrderNumber() == 123");
+        filterConfigs.put("FILTER_SCHEMA_PROTO_CLASS", "io.odpf.firehose.consumer.MissingMessage");
+
+        new JexlFilter(ConfigFactory.create(FilterConfig.class, filterConfigs), instrumentation);
+    }
+
     @Test(expected = FilterException.class)
     public void shouldThrowExceptionOnInvalidFilterExpression() throws FilterException {
         Map<String, String> filterConfigs = new HashMap<>();
@@ -265,6 +265,49 @@ public class JsonFilterTest {
         verify(instrumentation, times(1)).logDebug("Message filtered out due to: {}", "$.order_number: must be a constant value 123");
     }
 
+    @Test
+    public void shouldFilterProtobufMessagesWithCompiledSchema() throws FilterException {
+        Message message1 = new Message(testKeyProto1.toByteArray(), testMessageProto1.toByteArray(), "topic1", 0, 100);
+        Message message2 = new Message(testKeyProto2.toByteArray(), testMessageProto2.toByteArray(), "topic1", 0, 101);
+        Map<String, String> filterConfigs = new HashMap<>();
+        filterConfigs.put("FILTER_DATA_SOURCE", "message");
+        filterConfigs.put("FILTER_ESB_MESSAGE_FORMAT", "PROTOBUF");
+        filterConfigs.put("FILTER_JSON_SCHEMA", "{\"properties\":{\"order_number\":{\"const\":\"123\"}}}");
+        filterConfigs.put("FILTER_JSON_SCHEMA_COMPILE_ENABLE", "true");
+        filterConfigs.put("FILTER_SCHEMA_PROTO_CLASS", TestMessage.class.getName());
+        filterConfig = ConfigFactory.create(FilterConfig.class, filterConfigs);
+        when(stencilClient.get(TestMessage.class.getName())).thenReturn(TestMessage.getDescriptor());
+        jsonFilter = new JsonFilter(stencilClient, filterConfig, instrumentation);
+        FilteredMessages filteredMessages = jsonFilter.filter(Arrays.asList(message1, message2));
+        FilteredMessages expectedMessages = new FilteredMessages();
+        expectedMessages.addToValidMessages(message1);
+        expectedMessages.addToInvalidMessages(message2);
+        assertEquals(expectedMessages, filteredMessages);
+        verify(instrumentation, times(1)).logInfo("\n\tFilter JSON Schema compiled: {}", true);
+        verify(instrumentation, times(1)).logDebug("Message filtered out due to: {}", "$.order_number: must be a constant value 123");
+    }
+
+    @Test
+    public void shouldFallBackToJsonValidationWhenSchemaIsNotCompiled() throws FilterException {
+        Message message1 = new Message(testKeyProto1.toByteArray(), testMessageProto1.toByteArray(), "topic1", 0, 100);
+        Message message2 = new Message(testKeyProto2.toByteArray(), testMessageProto2.toByteArray(), "topic1", 0, 101);
+        Map<String, String> filterConfigs = new HashMap<>();
+        filterConfigs.put("FILTER_DATA_SOURCE", "message");
+        filterConfigs.put("FILTER_ESB_MESSAGE_FORMAT", "PROTOBUF");
+        filterConfigs.put("FILTER_JSON_SCHEMA", "{\"properties\":{\"order_number\":{\"minLength\":3}}}");
+        filterConfigs.put("FILTER_JSON_SCHEMA_COMPILE_ENABLE", "true");
+        filterConfigs.put("FILTER_SCHEMA_PROTO_CLASS", TestMessage.class.getName());
+        filterConfig = ConfigFactory.create(FilterConfig.class, filterConfigs);
+        when(stencilClient.get(TestMessage.class.getName())).thenReturn(TestMessage.getDescriptor());
+        jsonFilter = new JsonFilter(stencilClient, filterConfig, instrumentation);
+        FilteredMessages filteredMessages = jsonFilter.filter(Arrays.asList(message1, message2));
+        FilteredMessages expectedMessages = new FilteredMessages();
+        expectedMessages.addToValidMessages(message1);
+        expectedMessages.addToInvalidMessages(message2);
+        assertEquals(expectedMessages, filteredMessages);
+        verify(instrumentation, times(1)).logInfo("\n\tFilter JSON Schema compiled: {}", false);
+    }
+
     @Test
     public void shouldLogCauseToFilterOutMessageForJsonMessageFormat() throws FilterException {
         Message message1 = new Message(testKeyJson1.getBytes(), testMessageJson1.getBytes(), "topic1", 0, 100);
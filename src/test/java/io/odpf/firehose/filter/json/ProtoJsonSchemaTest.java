@@ -0,0 +1,95 @@
+package io.odpf.firehose.filter.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.Timestamp;
+import com.google.protobuf.util.JsonFormat;
+import com.networknt.schema.JsonSchema;
+import com.networknt.schema.JsonSchemaFactory;
+import com.networknt.schema.SpecVersion;
+import io.odpf.firehose.consumer.TestBookingLogMessage;
+import io.odpf.firehose.consumer.TestLocation;
+import io.odpf.firehose.consumer.TestMessage;
+import io.odpf.firehose.consumer.TestNestedRepeatedMessage;
+import io.odpf.firehose.consumer.TestServiceType;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+public class ProtoJsonSchemaTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final List<TestBookingLogMessage> bookings = Arrays.asList(
+            TestBookingLogMessage.newBuilder().build(),
+            TestBookingLogMessage.newBuilder().setOrderNumber("123").setServiceType(TestServiceType.Enum.GO_RIDE).setCancelReasonId(4).build(),
+            TestBookingLogMessage.newBuilder().setOrderNumber("ab-123").setServiceType(TestServiceType.Enum.GO_SEND).setCancelReasonId(-2)
+                    .setAmountPaidByCash(12.5f).setDriverPickupLocation(TestLocation.newBuilder().setLatitude(22.4).setName("home")).build(),
+            TestBookingLogMessage.newBuilder().setCustomerId("customer").setAmountPaidByCash(Float.NaN)
+                    .setDriverPickupLocation(TestLocation.newBuilder().setLatitude(2222222.4)).build());
+
+    @Test
+    public void shouldValidateLikeTheJsonSchemaOfThePrintedMessage() throws IOException {
+        List<String> schemas = Arrays.asList(
+                "{\"properties\":{\"order_number\":{\"const\":\"123\"}}}",
+                "{\"properties\":{\"order_number\":{\"pattern\":\"^ab-\"}}}",
+                "{\"properties\":{\"service_type\":{\"enum\":[\"GO_RIDE\",\"GO_SHOP\"]}}}",
+                "{\"properties\":{\"cancel_reason_id\":{\"minimum\":0,\"maximum\":10}}}",
+                "{\"properties\":{\"cancel_reason_id\":{\"type\":\"integer\"},\"amount_paid_by_cash\":{\"type\":\"number\"}}}",
+                "{\"properties\":{\"amount_paid_by_cash\":{\"maximum\":12.5}}}",
+                "{\"properties\":{\"driver_pickup_location\":{\"properties\":{\"latitude\":{\"minimum\":88}}}}}",
+                "{\"type\":\"object\",\"required\":[\"order_number\",\"driver_pickup_location\"]}",
+                "{\"required\":[\"missing_field\"]}",
+                "{\"properties\":{\"missing_field\":{\"const\":\"abc\"}}}");
+
+        for (String schemaString : schemas) {
+            JsonSchema jsonSchema = JsonSchemaFactory.getInstance(SpecVersion.VersionFlag.V7).getSchema(schemaString);
+            ProtoJsonSchema protoJsonSchema = ProtoJsonSchema.compile(objectMapper.readTree(schemaString), TestBookingLogMessage.getDescriptor());
+            Assert.assertNotNull(schemaString, protoJsonSchema);
+            for (TestBookingLogMessage booking : bookings) {
+                boolean expected = jsonSchema.validate(objectMapper.readTree(print(booking))).isEmpty();
+                Assert.assertEquals(schemaString + " " + print(booking), expected, protoJsonSchema.validate(booking) == null);
+            }
+        }
+    }
+
+    @Test
+    public void shouldReturnTheValidationError() throws IOException {
+        ProtoJsonSchema protoJsonSchema = ProtoJsonSchema.compile(objectMapper.readTree("{\"properties\":{\"order_number\":{\"const\":\"123\"}}}"), TestMessage.getDescriptor());
+
+        Assert.assertNull(protoJsonSchema.validate(TestMessage.newBuilder().setOrderNumber("123").build()));
+        Assert.assertEquals("$.order_number: must be a constant value 123", protoJsonSchema.validate(TestMessage.newBuilder().setOrderNumber("92").build()));
+    }
+
+    @Test
+    public void shouldNotCompileUnsupportedKeywords() throws IOException {
+        Assert.assertNull(ProtoJsonSchema.compile(objectMapper.readTree("{\"properties\":{\"order_number\":{\"minLength\":3}}}"), TestMessage.getDescriptor()));
+        Assert.assertNull(ProtoJsonSchema.compile(objectMapper.readTree("{\"additionalProperties\":false}"), TestMessage.getDescriptor()));
+        Assert.assertNull(ProtoJsonSchema.compile(objectMapper.readTree("{\"properties\":{\"order_number\":true}}"), TestMessage.getDescriptor()));
+    }
+
+    @Test
+    public void shouldNotCompileKeywordsOnRepeatedOrWellKnownTypeFields() throws IOException {
+        Assert.assertNull(ProtoJsonSchema.compile(objectMapper.readTree("{\"properties\":{\"repeated_number_field\":{\"type\":\"array\"}}}"), TestNestedRepeatedMessage.getDescriptor()));
+        Assert.assertNull(ProtoJsonSchema.compile(objectMapper.readTree("{\"properties\":{\"event_timestamp\":{\"const\":\"1970-01-01T00:00:00Z\"}}}"), TestBookingLogMessage.getDescriptor()));
+    }
+
+    @Test
+    public void shouldCompileRequiredOnRepeatedAndWellKnownTypeFields() throws IOException {
+        ProtoJsonSchema protoJsonSchema = ProtoJsonSchema.compile(objectMapper.readTree("{\"required\":[\"event_timestamp\"]}"), TestBookingLogMessage.getDescriptor());
+
+        Assert.assertNull(protoJsonSchema.validate(TestBookingLogMessage.newBuilder().setEventTimestamp(Timestamp.newBuilder().setSeconds(1)).build()));
+        Assert.assertNotNull(protoJsonSchema.validate(TestBookingLogMessage.newBuilder().build()));
+    }
+
+    @Test
+    public void shouldNotCompileWithoutDescriptor() throws IOException {
+        Assert.assertNull(ProtoJsonSchema.compile(objectMapper.readTree("{\"properties\":{\"order_number\":{\"const\":\"123\"}}}"), null));
+    }
+
+    private String print(com.google.protobuf.Message message) throws InvalidProtocolBufferException {
+        return JsonFormat.printer().preservingProtoFieldNames().print(message);
+    }
+}
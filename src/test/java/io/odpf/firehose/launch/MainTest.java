@@ -0,0 +1,95 @@
+package io.odpf.firehose.launch;
+
+import io.odpf.firehose.consumer.FirehoseConsumer;
+import io.odpf.firehose.metrics.Instrumentation;
+import org.apache.kafka.common.errors.WakeupException;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertFalse;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.Silent.class)
+public class MainTest {
+    private static final int DRAIN_TIMEOUT_IN_MS = 1000;
+    private static final int THREAD_CLEANUP_DELAY_IN_MS = 100;
+
+    @Mock
+    private FirehoseConsumer firehoseConsumer;
+    @Mock
+    private Instrumentation instrumentation;
+
+    @Test
+    public void shouldDrainTheConsumerWokenUpByTheStop() throws IOException {
+        AtomicBoolean stopRequested = new AtomicBoolean(false);
+        doAnswer(invocation -> {
+            stopRequested.set(true);
+            throw new WakeupException();
+        }).when(firehoseConsumer).process();
+
+        Main.consume(firehoseConsumer, stopRequested, DRAIN_TIMEOUT_IN_MS, instrumentation);
+
+        verify(firehoseConsumer, times(1)).process();
+        verify(firehoseConsumer, times(1)).drain(DRAIN_TIMEOUT_IN_MS);
+    }
+
+    @Test
+    public void shouldDrainTheConsumerOnceFinished() throws IOException {
+        when(firehoseConsumer.isFinished()).thenReturn(false, true);
+
+        Main.consume(firehoseConsumer, new AtomicBoolean(false), DRAIN_TIMEOUT_IN_MS, instrumentation);
+
+        verify(firehoseConsumer, times(1)).process();
+        verify(firehoseConsumer, times(1)).drain(DRAIN_TIMEOUT_IN_MS);
+    }
+
+    @Test
+    public void shouldStopTheTaskWithoutInterruptingAConsumerBlockedInPoll() throws Exception {
+        AtomicBoolean stopRequested = new AtomicBoolean(false);
+        AtomicBoolean interrupted = new AtomicBoolean(false);
+        CountDownLatch polling = new CountDownLatch(1);
+        CountDownLatch wokenUp = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            polling.countDown();
+            wokenUp.await();
+            throw new WakeupException();
+        }).when(firehoseConsumer).process();
+        doAnswer(invocation -> {
+            wokenUp.countDown();
+            return null;
+        }).when(firehoseConsumer).wakeup();
+        doAnswer(invocation -> {
+            interrupted.set(Thread.currentThread().isInterrupted());
+            return null;
+        }).when(firehoseConsumer).drain(anyLong());
+        Task task = new Task(1, THREAD_CLEANUP_DELAY_IN_MS, DRAIN_TIMEOUT_IN_MS, instrumentation, taskFinished -> {
+            try {
+                Main.consume(firehoseConsumer, stopRequested, DRAIN_TIMEOUT_IN_MS, instrumentation);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            } finally {
+                taskFinished.run();
+            }
+        });
+
+        task.run();
+        polling.await();
+        stopRequested.set(true);
+        firehoseConsumer.wakeup();
+        task.stop();
+        task.waitForCompletion();
+
+        verify(firehoseConsumer, times(1)).drain(DRAIN_TIMEOUT_IN_MS);
+        assertFalse(interrupted.get());
+    }
+}
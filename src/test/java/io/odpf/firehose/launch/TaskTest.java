@@ -10,14 +10,18 @@ import org.mockito.runners.MockitoJUnitRunner;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 @RunWith(MockitoJUnitRunner.class)
 public class TaskTest {
 
     private static final int PARALLELISM = 1;
     private static final int THREAD_CLEANUP_DELAY_IN_MS = 100;
+    private static final int DRAIN_TIMEOUT_IN_MS = 100;
     private static final long SLEEP_SECONDS = 10L;
 
     @Mock
@@ -35,6 +39,46 @@ public class TaskTest {
         assertEquals(threadList.size(), PARALLELISM);
     }
 
+    @Test
+    public void shouldLetTaskFinishOnItsOwnWithinDrainTimeout() throws InterruptedException {
+        AtomicBoolean stopRequested = new AtomicBoolean(false);
+        AtomicBoolean interrupted = new AtomicBoolean(false);
+        Task task = new Task(PARALLELISM, THREAD_CLEANUP_DELAY_IN_MS, DRAIN_TIMEOUT_IN_MS, instrumentation, callback -> {
+            while (!stopRequested.get()) {
+                Thread.yield();
+            }
+            interrupted.set(Thread.currentThread().isInterrupted());
+            callback.run();
+        });
+
+        task.run();
+        stopRequested.set(true);
+        task.stop();
+
+        task.waitForCompletion();
+        assertFalse(interrupted.get());
+    }
+
+    @Test
+    public void shouldInterruptTaskNotFinishedWithinDrainTimeout() throws InterruptedException {
+        AtomicBoolean interrupted = new AtomicBoolean(false);
+        Task task = new Task(PARALLELISM, THREAD_CLEANUP_DELAY_IN_MS, DRAIN_TIMEOUT_IN_MS, instrumentation, callback -> {
+            try {
+                Thread.sleep(Long.MAX_VALUE);
+            } catch (InterruptedException e) {
+                interrupted.set(true);
+            } finally {
+                callback.run();
+            }
+        });
+
+        task.run();
+        task.stop();
+
+        task.waitForCompletion();
+        assertTrue(interrupted.get());
+    }
+
     @Test @Ignore
     public void shouldExecuteTaskUntilStopped() throws InterruptedException {
         final ConcurrentHashMap<Long, String> threadResults = new ConcurrentHashMap<Long, String>();
@@ -0,0 +1,125 @@
+package io.odpf.firehose.message;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class MessageBatchTest {
+
+    @Test
+    public void shouldCreateMessagesFromColumnsOnlyOnce() {
+        MessageBatch messageBatch = new MessageBatch(1);
+        byte[] key = new byte[]{1};
+        byte[] value = new byte[]{2};
+        messageBatch.add(key, value, "topic1", 2, 10, null, 1000L, 2000L);
+
+        Message message = messageBatch.getMessage(0);
+
+        Assert.assertEquals(new Message(key, value, "topic1", 2, 10, null, 1000L, 2000L), message);
+        Assert.assertSame(message, messageBatch.getMessage(0));
+        Assert.assertSame(key, message.getLogKey());
+    }
+
+    @Test
+    public void shouldInternTopicsWithinTheBatch() {
+        MessageBatch messageBatch = new MessageBatch(2);
+        messageBatch.add(null, null, new String("topic1"), 0, 10, null, 0, 0);
+        messageBatch.add(null, null, new String("topic1"), 1, 11, null, 0, 0);
+
+        Assert.assertSame(messageBatch.getTopic(0), messageBatch.getTopic(1));
+        Assert.assertEquals(1, messageBatch.getPartition(1));
+        Assert.assertEquals(11, messageBatch.getOffset(1));
+    }
+
+    @Test
+    public void shouldGrowBeyondInitialCapacity() {
+        MessageBatch messageBatch = new MessageBatch(0);
+        for (int i = 0; i < 20; i++) {
+            messageBatch.add(null, null, "topic1", 0, i, null, 0, 0);
+        }
+
+        Assert.assertEquals(20, messageBatch.size());
+        Assert.assertEquals(19, messageBatch.getMessage(19).getOffset());
+    }
+
+    @Test
+    public void shouldHandOutWrappedMessages() {
+        Message message1 = new Message(new byte[0], new byte[0], "topic1", 0, 10);
+        Message message2 = new Message(new byte[0], new byte[0], "topic1", 0, 11);
+
+        MessageBatch messageBatch = MessageBatch.of(Arrays.asList(message1, message2));
+
+        Assert.assertSame(message1, messageBatch.getMessage(0));
+        Assert.assertSame(message2, messageBatch.getMessages().get(1));
+    }
+
+    @Test
+    public void shouldSplitValidAndFilteredMessagesByMarks() {
+        Message message1 = new Message(new byte[0], new byte[0], "topic1", 0, 10);
+        Message message2 = new Message(new byte[0], new byte[0], "topic1", 0, 11);
+        Message message3 = new Message(new byte[0], new byte[0], "topic1", 0, 12);
+        MessageBatch messageBatch = MessageBatch.of(Arrays.asList(message1, message2, message3));
+
+        messageBatch.markFiltered(1);
+
+        Assert.assertTrue(messageBatch.isFiltered(1));
+        Assert.assertEquals(1, messageBatch.filteredCount());
+        Assert.assertEquals(Arrays.asList(message1, message3), messageBatch.getValidMessages());
+        Assert.assertEquals(Collections.singletonList(message2), messageBatch.getFilteredMessages());
+        Assert.assertEquals(3, messageBatch.getMessages().size());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void shouldNotAllowModifyingTheViews() {
+        MessageBatch messageBatch = MessageBatch.of(Collections.singletonList(new Message(new byte[0], new byte[0], "topic1", 0, 10)));
+        List<Message> validMessages = messageBatch.getValidMessages();
+
+        validMessages.remove(0);
+    }
+
+    @Test
+    public void shouldBeEmptyWithoutRows() {
+        MessageBatch messageBatch = new MessageBatch(0);
+
+        Assert.assertTrue(messageBatch.isEmpty());
+        Assert.assertTrue(messageBatch.getValidMessages().isEmpty());
+        Assert.assertTrue(messageBatch.getFilteredMessages().isEmpty());
+    }
+
+    @Test
+    public void shouldSelectRowsIntoANewBatch() {
+        MessageBatch messageBatch = new MessageBatch(3);
+        messageBatch.add(null, null, "topic1", 0, 10, null, 0, 0);
+        messageBatch.add(null, null, "topic1", 0, 11, null, 0, 0);
+        messageBatch.add(null, null, "topic1", 0, 12, null, 0, 0);
+
+        MessageBatch selected = messageBatch.select(i -> messageBatch.getOffset(i) != 11);
+
+        Assert.assertEquals(2, selected.size());
+        Assert.assertEquals(10, selected.getOffset(0));
+        Assert.assertEquals(12, selected.getOffset(1));
+        Assert.assertEquals(3, messageBatch.size());
+    }
+
+    @Test
+    public void shouldMergeFilterMarksAndCreatedMessagesOfASlice() {
+        MessageBatch messageBatch = new MessageBatch(3);
+        messageBatch.add(null, null, "topic1", 0, 10, null, 0, 0);
+        messageBatch.add(null, null, "topic1", 0, 11, null, 0, 0);
+        messageBatch.add(null, null, "topic1", 0, 12, null, 0, 0);
+
+        MessageBatch slice = messageBatch.slice(1, 3);
+        slice.markFiltered(1);
+        Message message = slice.getMessage(0);
+        messageBatch.mergeSlice(1, slice);
+
+        Assert.assertEquals(2, slice.size());
+        Assert.assertEquals(11, slice.getOffset(0));
+        Assert.assertEquals(1, messageBatch.filteredCount());
+        Assert.assertTrue(messageBatch.isFiltered(2));
+        Assert.assertSame(message, messageBatch.getMessage(1));
+    }
+}
@@ -1,12 +1,17 @@
 package io.odpf.firehose.message;
 
+import com.google.protobuf.DynamicMessage;
+import com.google.protobuf.InvalidProtocolBufferException;
 import io.odpf.firehose.consumer.TestKey;
 import io.odpf.firehose.consumer.TestMessage;
 import io.odpf.firehose.error.ErrorType;
 import io.odpf.firehose.exception.DefaultException;
+import io.odpf.firehose.proto.GeneratedProtoParser;
+import io.odpf.stencil.Parser;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.Mockito;
 
 import static org.junit.Assert.*;
 
@@ -66,4 +71,80 @@ public class MessageTest {
         Assert.assertEquals(new DefaultException("DEFAULT"), message.getErrorInfo().getException());
         Assert.assertEquals(ErrorType.DEFAULT_ERROR, message.getErrorInfo().getErrorType());
     }
+
+    @Test
+    public void shouldParseLogMessageOnlyOncePerParser() throws InvalidProtocolBufferException {
+        Parser parser = Mockito.spy(new TestMessageParser());
+
+        DynamicMessage first = message.getParsedLogMessage(parser);
+        DynamicMessage second = message.getParsedLogMessage(parser);
+
+        Assert.assertSame(first, second);
+        Assert.assertEquals("123", first.getField(TestMessage.getDescriptor().findFieldByName("order_number")));
+        Mockito.verify(parser, Mockito.times(1)).parse(testMessage.toByteArray());
+    }
+
+    @Test
+    public void shouldParseAgainForDifferentParser() throws InvalidProtocolBufferException {
+        Parser parser = Mockito.spy(new TestMessageParser());
+        Parser otherParser = Mockito.spy(new TestMessageParser());
+
+        message.getParsedLogMessage(parser);
+        message.getParsedLogMessage(otherParser);
+
+        Mockito.verify(parser, Mockito.times(1)).parse(testMessage.toByteArray());
+        Mockito.verify(otherParser, Mockito.times(1)).parse(testMessage.toByteArray());
+    }
+
+    @Test
+    public void shouldKeepTheDecodedMessageOfEveryParserThroughFilterSinkAndRetry() throws InvalidProtocolBufferException {
+        Parser filterParser = Mockito.spy(new TestMessageParser());
+        Parser bigQueryParser = Mockito.spy(new TestMessageParser());
+
+        DynamicMessage filtered = message.getParsedLogMessage(filterParser);
+        DynamicMessage pushed = message.getParsedLogMessage(bigQueryParser);
+        Assert.assertSame(pushed, message.getParsedLogMessage(bigQueryParser));
+        Assert.assertSame(filtered, message.getParsedLogMessage(filterParser));
+
+        Mockito.verify(filterParser, Mockito.times(1)).parse(testMessage.toByteArray());
+        Mockito.verify(bigQueryParser, Mockito.times(1)).parse(testMessage.toByteArray());
+    }
+
+    @Test
+    public void shouldMemoizeLogKeyAndLogMessageSeparately() throws InvalidProtocolBufferException {
+        Parser keyParser = bytes -> DynamicMessage.parseFrom(TestKey.getDescriptor(), bytes);
+        Parser parser = new TestMessageParser();
+
+        DynamicMessage parsedKey = message.getParsedLogKey(keyParser);
+        DynamicMessage parsedMessage = message.getParsedLogMessage(parser);
+
+        Assert.assertEquals(TestKey.getDescriptor(), parsedKey.getDescriptorForType());
+        Assert.assertEquals(TestMessage.getDescriptor(), parsedMessage.getDescriptorForType());
+        Assert.assertSame(parsedKey, message.getParsedLogKey(keyParser));
+    }
+
+    @Test
+    public void shouldNotConsiderParsedPayloadForEquality() throws InvalidProtocolBufferException {
+        Message other = new Message(key.toByteArray(), testMessage.toByteArray(), "Topic", 0, 100);
+
+        message.getParsedLogMessage(new TestMessageParser());
+
+        Assert.assertEquals(other, message);
+    }
+
+    @Test
+    public void shouldShareTheMessageParsedWithTheSameGeneratedClass() throws InvalidProtocolBufferException {
+        com.google.protobuf.Message parsedMessage = message.getParsedLogMessage(GeneratedProtoParser.find(TestMessage.class.getName()));
+
+        Assert.assertEquals(testMessage, parsedMessage);
+        Assert.assertSame(parsedMessage, message.getParsedLogMessage(GeneratedProtoParser.find(TestMessage.class.getName())));
+        Assert.assertEquals(key, message.getParsedLogKey(GeneratedProtoParser.find(TestKey.class.getName())));
+    }
+
+    private static class TestMessageParser implements Parser {
+        @Override
+        public DynamicMessage parse(byte[] bytes) throws InvalidProtocolBufferException {
+            return DynamicMessage.parseFrom(TestMessage.getDescriptor(), bytes);
+        }
+    }
 }
@@ -0,0 +1,45 @@
+package io.odpf.firehose.proto;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import io.odpf.firehose.consumer.TestMessage;
+import io.odpf.firehose.metrics.Instrumentation;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class GeneratedProtoParserTest {
+
+    @Test
+    public void shouldParseWithTheGeneratedClass() throws InvalidProtocolBufferException {
+        TestMessage testMessage = TestMessage.newBuilder().setOrderNumber("123").setOrderUrl("url").build();
+        GeneratedProtoParser parser = GeneratedProtoParser.find(TestMessage.class.getName());
+
+        Assert.assertEquals(testMessage, parser.parse(testMessage.toByteArray()));
+        Assert.assertEquals(TestMessage.getDescriptor(), parser.getDescriptor());
+    }
+
+    @Test
+    public void shouldNotFindMissingClass() {
+        Assert.assertNull(GeneratedProtoParser.find("io.odpf.firehose.consumer.MissingMessage"));
+    }
+
+    @Test
+    public void shouldWarnWhenFallingBackToStencil() {
+        Instrumentation instrumentation = Mockito.mock(Instrumentation.class);
+
+        Assert.assertNull(GeneratedProtoParser.find("io.odpf.firehose.consumer.MissingMessage", instrumentation));
+        Assert.assertNotNull(GeneratedProtoParser.find(TestMessage.class.getName(), instrumentation));
+
+        Mockito.verify(instrumentation, Mockito.times(1)).logWarn("Generated proto class {} is not on the classpath, parsing with stencil", "io.odpf.firehose.consumer.MissingMessage");
+    }
+
+    @Test
+    public void shouldNotFindClassWhichIsNotAProtoMessage() {
+        Assert.assertNull(GeneratedProtoParser.find(String.class.getName()));
+    }
+
+    @Test(expected = InvalidProtocolBufferException.class)
+    public void shouldThrowOnInvalidBytes() throws InvalidProtocolBufferException {
+        GeneratedProtoParser.find(TestMessage.class.getName()).parse(new byte[]{1, 2, 3});
+    }
+}
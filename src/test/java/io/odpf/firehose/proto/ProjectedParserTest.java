@@ -0,0 +1,97 @@
+package io.odpf.firehose.proto;
+
+import com.google.protobuf.DynamicMessage;
+import com.google.protobuf.InvalidProtocolBufferException;
+import io.odpf.firehose.consumer.TestMessage;
+import io.odpf.firehose.consumer.TestNestedMessage;
+import io.odpf.firehose.consumer.TestNestedRepeatedMessage;
+import com.sun.management.ThreadMXBean;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Properties;
+
+public class ProjectedParserTest {
+    private final TestMessage testMessage = TestMessage.newBuilder().setOrderNumber("123").setOrderUrl("url").setOrderDetails("details").build();
+
+    @Test
+    public void shouldDecodeOnlyTheProjectedFields() throws InvalidProtocolBufferException {
+        ProjectedParser parser = new ProjectedParser(TestMessage::getDescriptor, new FieldProjection().addField(1).addField(3));
+
+        DynamicMessage message = parser.parse(testMessage.toByteArray());
+
+        Assert.assertEquals(TestMessage.newBuilder().setOrderNumber("123").setOrderDetails("details").build(), TestMessage.parseFrom(message.toByteArray()));
+        Assert.assertTrue(message.getUnknownFields().asMap().isEmpty());
+    }
+
+    @Test
+    public void shouldProjectNestedMessages() throws InvalidProtocolBufferException {
+        TestNestedRepeatedMessage nestedMessage = TestNestedRepeatedMessage.newBuilder()
+                .setSingleMessage(testMessage)
+                .addRepeatedMessage(testMessage)
+                .addRepeatedMessage(TestMessage.newBuilder().setOrderNumber("456").setOrderUrl("other"))
+                .setNumberField(7)
+                .addRepeatedNumberField(1)
+                .addRepeatedNumberField(2)
+                .build();
+        ProjectedParser parser = new ProjectedParser(TestNestedRepeatedMessage::getDescriptor, new FieldProjection()
+                .addField(2, new FieldProjection().addField(2))
+                .addField(4));
+
+        TestNestedRepeatedMessage projected = TestNestedRepeatedMessage.parseFrom(parser.parse(nestedMessage.toByteArray()).toByteArray());
+
+        Assert.assertFalse(projected.hasSingleMessage());
+        Assert.assertEquals(0, projected.getNumberField());
+        Assert.assertEquals(2, projected.getRepeatedMessageCount());
+        Assert.assertEquals(TestMessage.newBuilder().setOrderUrl("url").build(), projected.getRepeatedMessage(0));
+        Assert.assertEquals(TestMessage.newBuilder().setOrderUrl("other").build(), projected.getRepeatedMessage(1));
+        Assert.assertEquals(nestedMessage.getRepeatedNumberFieldList(), projected.getRepeatedNumberFieldList());
+    }
+
+    @Test
+    public void shouldCompileTheProjectionFromAColumnMapping() throws InvalidProtocolBufferException {
+        Properties nestedMapping = new Properties();
+        nestedMapping.put("1", "order_number");
+        Properties mapping = new Properties();
+        mapping.put("1", "nested_id");
+        mapping.put("2", nestedMapping);
+        TestNestedMessage nestedMessage = TestNestedMessage.newBuilder().setNestedId("id").setSingleMessage(testMessage).build();
+        ProjectedParser parser = new ProjectedParser(TestNestedMessage::getDescriptor, FieldProjection.fromMapping(mapping));
+
+        TestNestedMessage projected = TestNestedMessage.parseFrom(parser.parse(nestedMessage.toByteArray()).toByteArray());
+
+        Assert.assertEquals(TestNestedMessage.newBuilder().setNestedId("id").setSingleMessage(TestMessage.newBuilder().setOrderNumber("123")).build(), projected);
+    }
+
+    @Test
+    public void shouldNotAllocateForTheSkippedFields() throws InvalidProtocolBufferException {
+        ThreadMXBean threadMXBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threadMXBean.isThreadAllocatedMemorySupported() && threadMXBean.isThreadAllocatedMemoryEnabled());
+        char[] details = new char[1024 * 1024];
+        Arrays.fill(details, 'x');
+        byte[] bytes = TestMessage.newBuilder().setOrderNumber("123").setOrderDetails(new String(details)).build().toByteArray();
+        ProjectedParser parser = new ProjectedParser(TestMessage::getDescriptor, new FieldProjection().addField(1));
+        for (int i = 0; i < 10; i++) {
+            parser.parse(bytes);
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+        DynamicMessage message = parser.parse(bytes);
+        long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        Assert.assertEquals("123", message.getField(TestMessage.getDescriptor().findFieldByNumber(1)));
+        Assert.assertTrue("allocated " + allocated + " bytes", allocated < bytes.length / 16);
+    }
+
+    @Test(expected = InvalidProtocolBufferException.class)
+    public void shouldFailOnTruncatedPayload() throws InvalidProtocolBufferException {
+        ProjectedParser parser = new ProjectedParser(TestMessage::getDescriptor, new FieldProjection().addField(1));
+        byte[] bytes = testMessage.toByteArray();
+
+        parser.parse(Arrays.copyOf(bytes, bytes.length - 2));
+    }
+}
@@ -0,0 +1,63 @@
+package io.odpf.firehose.proto;
+
+import com.google.protobuf.DynamicMessage;
+import io.odpf.firehose.consumer.TestMessage;
+import io.odpf.firehose.consumer.TestNestedRepeatedMessage;
+import io.odpf.firehose.message.Message;
+import io.odpf.firehose.sink.log.KeyOrMessageParser;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+import java.io.IOException;
+
+public class ProtoFieldKeyTest {
+    @Mock
+    private KeyOrMessageParser parser;
+    private Message message;
+
+    @Before
+    public void setUp() throws IOException {
+        MockitoAnnotations.initMocks(this);
+        message = new Message(new byte[]{1}, new byte[0], "topic", 0, 1);
+        Mockito.when(parser.parse(message)).thenReturn(DynamicMessage.newBuilder(
+                TestMessage.newBuilder().setOrderNumber("123").build()).build());
+    }
+
+    @Test
+    public void shouldReturnTheValueOfTheKeyField() {
+        ProtoFieldKey fieldKey = new ProtoFieldKey(parser, "order_number");
+
+        Assert.assertTrue(fieldKey.hasKeyField());
+        Assert.assertEquals("123", fieldKey.extract(message));
+    }
+
+    @Test
+    public void shouldNotParseWithoutKeyField() {
+        ProtoFieldKey fieldKey = new ProtoFieldKey(parser, null);
+
+        Assert.assertFalse(fieldKey.hasKeyField());
+        Assert.assertNull(fieldKey.extract(message));
+        Mockito.verifyZeroInteractions(parser);
+    }
+
+    @Test
+    public void shouldReturnNullForMissingUnsetOrRepeatedField() throws IOException {
+        Assert.assertNull(new ProtoFieldKey(parser, "missing_field").extract(message));
+        Assert.assertNull(new ProtoFieldKey(parser, "order_url").extract(message));
+
+        Mockito.when(parser.parse(message)).thenReturn(DynamicMessage.newBuilder(
+                TestNestedRepeatedMessage.newBuilder().addRepeatedNumberField(1).build()).build());
+        Assert.assertNull(new ProtoFieldKey(parser, "repeated_number_field").extract(message));
+    }
+
+    @Test
+    public void shouldReturnNullWhenTheMessageCanNotBeParsed() throws IOException {
+        Mockito.when(parser.parse(message)).thenThrow(new IOException("invalid"));
+
+        Assert.assertNull(new ProtoFieldKey(parser, "order_number").extract(message));
+    }
+}
@@ -3,8 +3,14 @@ package io.odpf.firehose.proto;
 import com.google.protobuf.Descriptors;
 import com.google.protobuf.DynamicMessage;
 import com.google.protobuf.UnknownFieldSet;
+import com.google.protobuf.InvalidProtocolBufferException;
 import io.odpf.firehose.consumer.TestBookingLogMessage;
+import io.odpf.firehose.consumer.TestKey;
 import io.odpf.firehose.consumer.TestLocation;
+import io.odpf.firehose.consumer.TestMapMessage;
+import io.odpf.firehose.consumer.TestMessage;
+import io.odpf.firehose.consumer.TestNestedMessage;
+import io.odpf.firehose.consumer.TestNestedRepeatedMessage;
 import org.junit.Test;
 
 import static org.junit.Assert.assertFalse;
@@ -68,5 +74,53 @@ public class ProtoUtilTest {
         boolean unknownFieldExist = ProtoUtils.hasUnknownField(null);
         assertFalse(unknownFieldExist);
     }
-}
 
+    @Test
+    public void shouldFindUnknownFieldsOnRootLevelOfThePayload() throws InvalidProtocolBufferException {
+        byte[] payload = TestMessage.newBuilder().setOrderNumber("123").setOrderUrl("url").setOrderDetails("details").build().toByteArray();
+
+        assertTrue(ProtoUtils.hasUnknownField(TestKey.getDescriptor(), payload));
+        assertFalse(ProtoUtils.hasUnknownField(TestMessage.getDescriptor(), payload));
+    }
+
+    @Test
+    public void shouldFindUnknownFieldsInNestedAndRepeatedMessagesOfThePayload() throws InvalidProtocolBufferException {
+        DynamicMessage unknownMessage = DynamicMessage.newBuilder(TestMessage.getDescriptor())
+                .setUnknownFields(UnknownFieldSet.newBuilder()
+                        .addField(9, UnknownFieldSet.Field.newBuilder().addVarint(1).build())
+                        .build())
+                .build();
+        byte[] nestedPayload = DynamicMessage.newBuilder(TestNestedMessage.getDescriptor())
+                .setField(TestNestedMessage.getDescriptor().findFieldByName("single_message"), unknownMessage)
+                .build().toByteArray();
+        byte[] repeatedPayload = DynamicMessage.newBuilder(TestNestedRepeatedMessage.getDescriptor())
+                .addRepeatedField(TestNestedRepeatedMessage.getDescriptor().findFieldByName("repeated_message"), TestMessage.getDefaultInstance())
+                .addRepeatedField(TestNestedRepeatedMessage.getDescriptor().findFieldByName("repeated_message"), unknownMessage)
+                .build().toByteArray();
+
+        assertTrue(ProtoUtils.hasUnknownField(TestNestedMessage.getDescriptor(), nestedPayload));
+        assertTrue(ProtoUtils.hasUnknownField(TestNestedRepeatedMessage.getDescriptor(), repeatedPayload));
+    }
+
+    @Test
+    public void shouldAcceptPackedRepeatedFieldsAndMapsOfThePayload() throws InvalidProtocolBufferException {
+        byte[] repeatedPayload = TestNestedRepeatedMessage.newBuilder()
+                .setSingleMessage(TestMessage.newBuilder().setOrderNumber("123"))
+                .addRepeatedNumberField(1)
+                .addRepeatedNumberField(2)
+                .setNumberField(3)
+                .build().toByteArray();
+        byte[] mapPayload = TestMapMessage.newBuilder().putCurrentState("key", "value").build().toByteArray();
+
+        assertFalse(ProtoUtils.hasUnknownField(TestNestedRepeatedMessage.getDescriptor(), repeatedPayload));
+        assertFalse(ProtoUtils.hasUnknownField(TestMapMessage.getDescriptor(), mapPayload));
+    }
+
+    @Test
+    public void shouldTreatFieldsWithAnotherWireTypeAsUnknown() throws InvalidProtocolBufferException {
+        byte[] payload = TestMessage.newBuilder().setOrderDetails("details").build().toByteArray();
+
+        assertTrue(ProtoUtils.hasUnknownField(TestNestedRepeatedMessage.getDescriptor(), payload));
+        assertTrue(ProtoUtils.hasUnknownField(DynamicMessage.parseFrom(TestNestedRepeatedMessage.getDescriptor(), payload)));
+    }
+}
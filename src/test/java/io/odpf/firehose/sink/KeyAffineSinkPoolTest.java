@@ -0,0 +1,98 @@
+package io.odpf.firehose.sink;
+
+import io.odpf.firehose.message.Message;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class KeyAffineSinkPoolTest {
+
+    @Mock
+    private Sink sink1;
+    @Mock
+    private Sink sink2;
+    private ExecutorService executorService;
+    private KeyAffineSinkPool sinkPool;
+
+    @Before
+    public void setup() {
+        MockitoAnnotations.initMocks(this);
+        executorService = Executors.newCachedThreadPool();
+        RoutingKeyExtractor routingKeyExtractor = Mockito.mock(RoutingKeyExtractor.class);
+        Mockito.when(routingKeyExtractor.hash(Mockito.any(Message.class))).thenAnswer(invocation -> (int) ((Message) invocation.getArguments()[0]).getLogKey()[0]);
+        sinkPool = new KeyAffineSinkPool(Arrays.asList(sink1, sink2), executorService, 5, 2, routingKeyExtractor);
+    }
+
+    @After
+    public void tearDown() {
+        sinkPool.close();
+    }
+
+    private Message createMessage(int key, long offset) {
+        return new Message(new byte[]{(byte) key}, new byte[0], "topic1", 1, offset);
+    }
+
+    @Test
+    public void shouldSplitMessagesOfAPartitionPerWorkerKeepingTheirOrder() {
+        Message message1 = createMessage(0, 10);
+        Message message2 = createMessage(1, 11);
+        Message message3 = createMessage(2, 12);
+        Message message4 = createMessage(3, 13);
+
+        List<List<Message>> batches = sinkPool.split(Arrays.asList(message1, message2, message3, message4));
+
+        Assert.assertEquals(2, batches.size());
+        Assert.assertEquals(Arrays.asList(message1, message3), batches.get(0));
+        Assert.assertEquals(Arrays.asList(message2, message4), batches.get(1));
+    }
+
+    @Test
+    public void shouldPushKeysOfTheSamePartitionInParallel() throws Exception {
+        List<Message> batch1 = Collections.singletonList(createMessage(0, 10));
+        List<Message> batch2 = Collections.singletonList(createMessage(1, 11));
+        CountDownLatch releaseFirstPush = new CountDownLatch(1);
+        Mockito.when(sink1.pushMessage(batch1)).thenAnswer(invocation -> {
+            releaseFirstPush.await();
+            return new ArrayList<>();
+        });
+
+        Future<List<Message>> future1 = sinkPool.submitTask(batch1);
+        Future<List<Message>> future2 = sinkPool.submitTask(batch2);
+        future2.get();
+
+        Assert.assertFalse(future1.isDone());
+        releaseFirstPush.countDown();
+        future1.get();
+        Mockito.verify(sink2).pushMessage(batch2);
+    }
+
+    @Test
+    public void shouldPushBatchesOfAKeyOneAfterAnother() throws Exception {
+        List<Message> batch1 = Collections.singletonList(createMessage(2, 10));
+        List<Message> batch2 = Collections.singletonList(createMessage(2, 11));
+
+        Future<List<Message>> future1 = sinkPool.submitTask(batch1);
+        Future<List<Message>> future2 = sinkPool.submitTask(batch2);
+        future1.get();
+        future2.get();
+
+        InOrder inOrder = Mockito.inOrder(sink1);
+        inOrder.verify(sink1).pushMessage(batch1);
+        inOrder.verify(sink1).pushMessage(batch2);
+        Mockito.verifyZeroInteractions(sink2);
+    }
+}
@@ -0,0 +1,202 @@
+package io.odpf.firehose.sink;
+
+import io.odpf.firehose.exception.SinkTaskFailedException;
+import io.odpf.firehose.message.Message;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class PartitionAffineSinkPoolTest {
+
+    @Mock
+    private Sink sink1;
+    @Mock
+    private Sink sink2;
+    private ExecutorService executorService;
+    private PartitionAffineSinkPool sinkPool;
+
+    @Before
+    public void setup() {
+        MockitoAnnotations.initMocks(this);
+        executorService = Executors.newCachedThreadPool();
+        sinkPool = new PartitionAffineSinkPool(Arrays.asList(sink1, sink2), executorService, 5, 2);
+    }
+
+    @After
+    public void tearDown() {
+        sinkPool.close();
+    }
+
+    @Test
+    public void shouldSplitMessagesPerTopicPartitionKeepingTheirOrder() {
+        Message message1 = new Message(new byte[0], new byte[0], "topic1", 1, 10);
+        Message message2 = new Message(new byte[0], new byte[0], "topic1", 2, 11);
+        Message message3 = new Message(new byte[0], new byte[0], "topic1", 1, 12);
+        Message message4 = new Message(new byte[0], new byte[0], "topic2", 1, 13);
+
+        List<List<Message>> batches = sinkPool.split(Arrays.asList(message1, message2, message3, message4));
+
+        Assert.assertEquals(3, batches.size());
+        Assert.assertEquals(Arrays.asList(message1, message3), batches.get(0));
+        Assert.assertEquals(Collections.singletonList(message2), batches.get(1));
+        Assert.assertEquals(Collections.singletonList(message4), batches.get(2));
+    }
+
+    @Test
+    public void shouldPushBatchesOfAPartitionOneAfterAnother() throws Exception {
+        List<Message> batch1 = Collections.singletonList(new Message(new byte[0], new byte[0], "topic1", 1, 10));
+        List<Message> batch2 = Collections.singletonList(new Message(new byte[0], new byte[0], "topic1", 1, 11));
+        CountDownLatch firstPushStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstPush = new CountDownLatch(1);
+        Mockito.when(sink1.pushMessage(batch1)).thenAnswer(invocation -> {
+            firstPushStarted.countDown();
+            releaseFirstPush.await();
+            return new ArrayList<>();
+        });
+
+        Future<List<Message>> future1 = sinkPool.submitTask(batch1);
+        Future<List<Message>> future2 = sinkPool.submitTask(batch2);
+        firstPushStarted.await();
+
+        Assert.assertFalse(future2.isDone());
+        Mockito.verify(sink1, Mockito.never()).pushMessage(batch2);
+        releaseFirstPush.countDown();
+        future1.get();
+        future2.get();
+        InOrder inOrder = Mockito.inOrder(sink1);
+        inOrder.verify(sink1).pushMessage(batch1);
+        inOrder.verify(sink1).pushMessage(batch2);
+        Mockito.verifyZeroInteractions(sink2);
+    }
+
+    @Test
+    public void shouldPushDifferentPartitionsToDifferentSinks() throws Exception {
+        List<Message> partition1Batch = Collections.singletonList(new Message(new byte[0], new byte[0], "topic1", 1, 10));
+        List<Message> partition2Batch = Collections.singletonList(new Message(new byte[0], new byte[0], "topic1", 2, 10));
+
+        sinkPool.submitTask(partition1Batch).get();
+        sinkPool.submitTask(partition2Batch).get();
+        sinkPool.submitTask(partition1Batch).get();
+
+        Mockito.verify(sink1, Mockito.times(2)).pushMessage(partition1Batch);
+        Mockito.verify(sink2, Mockito.times(1)).pushMessage(partition2Batch);
+    }
+
+    @Test
+    public void shouldPinNewPartitionsToTheWorkerOfReleasedPartitions() throws Exception {
+        List<Message> partition1Batch = Collections.singletonList(new Message(new byte[0], new byte[0], "topic1", 1, 10));
+        List<Message> partition2Batch = Collections.singletonList(new Message(new byte[0], new byte[0], "topic1", 2, 10));
+        List<Message> partition3Batch = Collections.singletonList(new Message(new byte[0], new byte[0], "topic1", 3, 10));
+
+        sinkPool.submitTask(partition1Batch).get();
+        sinkPool.submitTask(partition2Batch).get();
+        sinkPool.releasePartitions(Collections.singletonList(new TopicPartition("topic1", 2)));
+        sinkPool.submitTask(partition3Batch).get();
+
+        Mockito.verify(sink1, Mockito.times(1)).pushMessage(partition1Batch);
+        Mockito.verify(sink2, Mockito.times(1)).pushMessage(partition3Batch);
+    }
+
+    @Test
+    public void shouldNotSubmitTaskWhenWorkerQueueIsFull() throws Exception {
+        List<Message> messages = Collections.singletonList(new Message(new byte[0], new byte[0], "topic1", 1, 10));
+        CountDownLatch releasePush = new CountDownLatch(1);
+        Mockito.when(sink1.pushMessage(messages)).thenAnswer(invocation -> {
+            releasePush.await();
+            return new ArrayList<>();
+        });
+
+        Assert.assertNotNull(sinkPool.submitTask(messages));
+        Assert.assertNotNull(sinkPool.submitTask(messages));
+        Assert.assertNull(sinkPool.submitTask(messages));
+        releasePush.countDown();
+    }
+
+    @Test
+    public void shouldNotPushLaterBatchesOfAWorkerOnceABatchFailed() throws Exception {
+        List<Message> firstBatch = Collections.singletonList(new Message(new byte[0], new byte[0], "topic1", 1, 10));
+        List<Message> secondBatch = Collections.singletonList(new Message(new byte[0], new byte[0], "topic1", 1, 11));
+        CountDownLatch releasePush = new CountDownLatch(1);
+        IOException pushError = new IOException("push failed");
+        Mockito.when(sink1.pushMessage(firstBatch)).thenAnswer(invocation -> {
+            releasePush.await();
+            throw pushError;
+        });
+
+        Future<List<Message>> firstFuture = sinkPool.submitTask(firstBatch);
+        Future<List<Message>> secondFuture = sinkPool.submitTask(secondBatch);
+        releasePush.countDown();
+
+        assertFailedWith(pushError, firstFuture);
+        assertFailedWith(pushError, secondFuture);
+        Mockito.verify(sink1, Mockito.times(0)).pushMessage(secondBatch);
+        Assert.assertNotNull(sinkPool.submitTask(secondBatch));
+        Assert.assertNotNull(sinkPool.submitTask(secondBatch));
+    }
+
+    @Test
+    public void shouldFetchFinishedFutures() throws Exception {
+        List<Message> messages = Collections.singletonList(new Message(new byte[0], new byte[0], "topic1", 1, 10));
+        Future<List<Message>> future = sinkPool.submitTask(messages);
+
+        Set<Future<List<Message>>> finishedTasks = awaitFinishedSinkTasks();
+
+        Assert.assertEquals(1, finishedTasks.size());
+        Assert.assertTrue(finishedTasks.contains(future));
+        Assert.assertEquals(0, sinkPool.fetchFinishedSinkTasks().size());
+    }
+
+    @Test(expected = SinkTaskFailedException.class)
+    public void shouldThrowExceptionIfSinkTaskFails() throws Exception {
+        List<Message> messages = Collections.singletonList(new Message(new byte[0], new byte[0], "topic1", 1, 10));
+        Mockito.when(sink1.pushMessage(messages)).thenThrow(new IOException());
+        sinkPool.submitTask(messages);
+
+        awaitFinishedSinkTasks();
+    }
+
+    @Test
+    public void shouldWaitForRunningTasks() throws Exception {
+        List<Message> messages = Collections.singletonList(new Message(new byte[0], new byte[0], "topic1", 1, 10));
+        Future<List<Message>> future = sinkPool.submitTask(messages);
+
+        Assert.assertTrue(sinkPool.awaitRunningTasks(1000));
+        Assert.assertEquals(Collections.singleton(future), sinkPool.fetchFinishedSinkTasks());
+    }
+
+    private Set<Future<List<Message>>> awaitFinishedSinkTasks() throws InterruptedException {
+        Set<Future<List<Message>>> finishedTasks = sinkPool.fetchFinishedSinkTasks();
+        while (finishedTasks.isEmpty()) {
+            Thread.sleep(1);
+            finishedTasks = sinkPool.fetchFinishedSinkTasks();
+        }
+        return finishedTasks;
+    }
+
+    private void assertFailedWith(Exception expected, Future<List<Message>> future) throws InterruptedException {
+        try {
+            future.get();
+            Assert.fail("expected the task to fail");
+        } catch (ExecutionException e) {
+            Assert.assertSame(expected, e.getCause());
+        }
+    }
+}
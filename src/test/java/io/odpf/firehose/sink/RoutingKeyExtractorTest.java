@@ -0,0 +1,64 @@
+package io.odpf.firehose.sink;
+
+import com.google.protobuf.DynamicMessage;
+import io.odpf.firehose.consumer.TestMessage;
+import io.odpf.firehose.message.Message;
+import io.odpf.firehose.sink.log.KeyOrMessageParser;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+import java.io.IOException;
+
+public class RoutingKeyExtractorTest {
+    @Mock
+    private KeyOrMessageParser parser;
+    private Message message1;
+    private Message message2;
+
+    @Before
+    public void setUp() throws IOException {
+        MockitoAnnotations.initMocks(this);
+        message1 = new Message(new byte[]{1}, new byte[0], "topic", 0, 1);
+        message2 = new Message(new byte[]{2}, new byte[0], "topic", 0, 2);
+        Mockito.when(parser.parse(message1)).thenReturn(DynamicMessage.newBuilder(
+                TestMessage.newBuilder().setOrderNumber("123").setOrderUrl("abc").build()).build());
+        Mockito.when(parser.parse(message2)).thenReturn(DynamicMessage.newBuilder(
+                TestMessage.newBuilder().setOrderNumber("123").setOrderUrl("def").build()).build());
+    }
+
+    @Test
+    public void shouldUseKafkaKeyWithoutKeyField() {
+        RoutingKeyExtractor routingKeyExtractor = new RoutingKeyExtractor(parser, "");
+
+        Assert.assertNotEquals(routingKeyExtractor.hash(message1), routingKeyExtractor.hash(message2));
+        Assert.assertEquals(routingKeyExtractor.hash(message1), routingKeyExtractor.hash(new Message(new byte[]{1}, new byte[0], "topic", 3, 9)));
+        Mockito.verifyZeroInteractions(parser);
+    }
+
+    @Test
+    public void shouldUseValueOfKeyField() {
+        RoutingKeyExtractor routingKeyExtractor = new RoutingKeyExtractor(parser, "order_number");
+
+        Assert.assertEquals(routingKeyExtractor.hash(message1), routingKeyExtractor.hash(message2));
+    }
+
+    @Test
+    public void shouldFallBackToTopicPartitionWithoutKafkaKey() {
+        RoutingKeyExtractor routingKeyExtractor = new RoutingKeyExtractor(parser, "");
+
+        Assert.assertEquals(routingKeyExtractor.hash(new Message(null, new byte[0], "topic", 0, 1)),
+                routingKeyExtractor.hash(new Message(new byte[0], new byte[0], "topic", 0, 2)));
+    }
+
+    @Test
+    public void shouldFallBackToTopicPartitionWhenMessageCanNotBeParsed() throws IOException {
+        Mockito.when(parser.parse(message1)).thenThrow(new IOException("invalid"));
+        RoutingKeyExtractor routingKeyExtractor = new RoutingKeyExtractor(parser, "order_number");
+
+        Assert.assertEquals(new RoutingKeyExtractor(parser, "").hash(new Message(null, new byte[0], "topic", 0, 5)), routingKeyExtractor.hash(message1));
+    }
+}
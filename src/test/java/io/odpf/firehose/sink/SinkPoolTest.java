@@ -1,6 +1,8 @@
 package io.odpf.firehose.sink;
 
+import io.odpf.firehose.exception.SinkTaskFailedException;
 import io.odpf.firehose.message.Message;
+import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -8,19 +10,21 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.LinkedBlockingQueue;
 
 public class SinkPoolTest {
 
-    @Mock
     private BlockingQueue<Sink> workerSinks;
-    @Mock
     private ExecutorService executorService;
 
     private SinkPool sinkPool;
@@ -29,70 +33,122 @@ public class SinkPoolTest {
     private Sink sink1;
     @Mock
     private Sink sink2;
-    @Mock
-    private Future<List<Message>> future1;
-    @Mock
-    private Future<List<Message>> future2;
+
+    private List<Message> messageList1;
+    private List<Message> messageList2;
 
     @Before
     public void setup() {
         MockitoAnnotations.initMocks(this);
+        workerSinks = new LinkedBlockingQueue<>();
+        executorService = Executors.newFixedThreadPool(2);
         sinkPool = new SinkPool(workerSinks, executorService, 5);
-    }
-
-    @Test
-    public void shouldSubmitTask() throws InterruptedException {
-        List<Message> messages = new ArrayList<Message>() {{
+        messageList1 = new ArrayList<Message>() {{
             add(new Message(new byte[0], new byte[0], "topic1", 1, 10));
             add(new Message(new byte[0], new byte[0], "topic1", 2, 11));
             add(new Message(new byte[0], new byte[0], "topic1", 3, 12));
         }};
-        Mockito.when(workerSinks.poll(5, TimeUnit.MILLISECONDS)).thenReturn(sink1);
-        Mockito.when(executorService.submit(new SinkPool.SinkTask(sink1, messages))).thenReturn(future1);
-        Assert.assertEquals(future1, sinkPool.submitTask(messages));
+        messageList2 = new ArrayList<Message>() {{
+            add(new Message(new byte[0], new byte[0], "topic1", 2, 5));
+            add(new Message(new byte[0], new byte[0], "topic1", 2, 6));
+        }};
+    }
 
+    @After
+    public void tearDown() {
+        sinkPool.close();
     }
 
     @Test
-    public void shouldNotSubmitTask() throws InterruptedException {
-        List<Message> messages = new ArrayList<Message>() {{
-            add(new Message(new byte[0], new byte[0], "topic1", 1, 10));
-            add(new Message(new byte[0], new byte[0], "topic1", 2, 11));
-            add(new Message(new byte[0], new byte[0], "topic1", 3, 12));
-        }};
-        Mockito.when(workerSinks.poll(5, TimeUnit.MILLISECONDS)).thenReturn(null);
-        Assert.assertNull(sinkPool.submitTask(messages));
+    public void shouldSubmitTask() throws Exception {
+        List<Message> failedMessages = Collections.singletonList(messageList1.get(0));
+        workerSinks.add(sink1);
+        Mockito.when(sink1.pushMessage(messageList1)).thenReturn(failedMessages);
+
+        Future<List<Message>> future = sinkPool.submitTask(messageList1);
+
+        Assert.assertEquals(failedMessages, future.get());
+        Mockito.verify(sink1).pushMessage(messageList1);
     }
 
     @Test
-    public void shouldFetchFinishedFutures() throws InterruptedException {
-        List<Message> messageList1 = new ArrayList<Message>() {{
-            add(new Message(new byte[0], new byte[0], "topic1", 1, 10));
-            add(new Message(new byte[0], new byte[0], "topic1", 2, 11));
-            add(new Message(new byte[0], new byte[0], "topic1", 3, 12));
-        }};
-        Mockito.when(workerSinks.poll(5, TimeUnit.MILLISECONDS)).thenReturn(sink1);
-        Mockito.when(executorService.submit(new SinkPool.SinkTask(sink1, messageList1))).thenReturn(future1);
+    public void shouldNotSubmitTask() {
+        Assert.assertNull(sinkPool.submitTask(messageList1));
+    }
+
+    @Test
+    public void shouldFetchFinishedFutures() throws Exception {
+        CountDownLatch releasePush = new CountDownLatch(1);
+        workerSinks.add(sink1);
+        workerSinks.add(sink2);
+        Mockito.when(sink1.pushMessage(messageList1)).thenReturn(new ArrayList<>());
+        Mockito.when(sink2.pushMessage(messageList2)).thenAnswer(invocation -> {
+            releasePush.await();
+            return new ArrayList<>();
+        });
+
+        Future<List<Message>> future1 = sinkPool.submitTask(messageList1);
+        Future<List<Message>> future2 = sinkPool.submitTask(messageList2);
+
+        Set<Future<List<Message>>> finishedTasks = awaitFinishedSinkTasks();
+        Assert.assertEquals(Collections.singleton(future1), finishedTasks);
+        Assert.assertEquals(0, sinkPool.fetchFinishedSinkTasks().size());
+
+        releasePush.countDown();
+        Assert.assertEquals(Collections.singleton(future2), awaitFinishedSinkTasks());
+    }
+
+    @Test
+    public void shouldReturnWorkerSinkToThePoolAsSoonAsTaskFinishes() throws Exception {
+        sinkPool = new SinkPool(workerSinks, executorService, 10000);
+        workerSinks.add(sink1);
+        Mockito.when(sink1.pushMessage(messageList1)).thenReturn(new ArrayList<>());
 
         sinkPool.submitTask(messageList1);
+        Future<List<Message>> future = sinkPool.submitTask(messageList2);
 
-        List<Message> messageList2 = new ArrayList<Message>() {{
-            add(new Message(new byte[0], new byte[0], "topic1", 2, 5));
-            add(new Message(new byte[0], new byte[0], "topic1", 2, 6));
-        }};
+        Assert.assertNotNull(future);
+        future.get();
+        Mockito.verify(sink1).pushMessage(messageList2);
+    }
 
-        Mockito.when(workerSinks.poll(5, TimeUnit.MILLISECONDS)).thenReturn(sink2);
-        Mockito.when(executorService.submit(new SinkPool.SinkTask(sink2, messageList2))).thenReturn(future2);
-        sinkPool.submitTask(messageList2);
+    @Test(expected = SinkTaskFailedException.class)
+    public void shouldThrowExceptionIfSinkTaskFails() throws Exception {
+        workerSinks.add(sink1);
+        Mockito.when(sink1.pushMessage(messageList1)).thenThrow(new IOException());
+        sinkPool.submitTask(messageList1);
 
-        Mockito.when(future1.isDone()).thenReturn(false);
-        Mockito.when(future2.isDone()).thenReturn(false);
-        Set<Future<List<Message>>> finishedTasks = sinkPool.fetchFinishedSinkTasks();
-        Assert.assertEquals(0, finishedTasks.size());
+        awaitFinishedSinkTasks();
+    }
+
+    @Test
+    public void shouldWaitForRunningTasks() throws Exception {
+        workerSinks.add(sink1);
+        CountDownLatch releasePush = new CountDownLatch(1);
+        Mockito.when(sink1.pushMessage(messageList1)).thenAnswer(invocation -> {
+            releasePush.await();
+            return new ArrayList<>();
+        });
+        Future<List<Message>> future = sinkPool.submitTask(messageList1);
+
+        Assert.assertFalse(sinkPool.awaitRunningTasks(10));
+        releasePush.countDown();
+
+        Assert.assertTrue(sinkPool.awaitRunningTasks(1000));
+        Assert.assertEquals(Collections.singleton(future), sinkPool.fetchFinishedSinkTasks());
+    }
 
-        Mockito.when(future1.isDone()).thenReturn(true);
-        finishedTasks = sinkPool.fetchFinishedSinkTasks();
-        Assert.assertEquals(1, finishedTasks.size());
-        Mockito.verify(workerSinks, Mockito.times(1)).put(sink1);
+    @Test
+    public void shouldNotWaitWithoutRunningTasks() throws Exception {
+        Assert.assertTrue(sinkPool.awaitRunningTasks(0));
+    }
+
+    private Set<Future<List<Message>>> awaitFinishedSinkTasks() throws InterruptedException {
+        Set<Future<List<Message>>> finishedTasks = sinkPool.fetchFinishedSinkTasks();
+        while (finishedTasks.isEmpty()) {
+            Thread.sleep(1);
+            finishedTasks = sinkPool.fetchFinishedSinkTasks();
+        }
+        return finishedTasks;
     }
 }
@@ -236,14 +236,16 @@ public class MessageRecordConverterTest {
         Parser mockParser = mock(Parser.class);
 
         OffsetInfo record1Offset = new OffsetInfo("topic1", 1, 101, Instant.now().toEpochMilli());
-        Message consumerRecord = util.withOffsetInfo(record1Offset).createConsumerRecord("order-1",
+        Message validRecord = util.withOffsetInfo(record1Offset).createConsumerRecord("order-1",
                 "order-url-1", "order-details-1");
 
         DynamicMessage dynamicMessage = DynamicMessage.newBuilder(TestMessageBQ.getDescriptor())
                 .setUnknownFields(UnknownFieldSet.newBuilder()
-                        .addField(1, UnknownFieldSet.Field.getDefaultInstance())
+                        .addField(100, UnknownFieldSet.Field.newBuilder().addVarint(1).build())
                         .build())
                 .build();
+        Message consumerRecord = new Message(validRecord.getLogKey(), dynamicMessage.toByteArray(), validRecord.getTopic(),
+                validRecord.getPartition(), validRecord.getOffset(), null, validRecord.getTimestamp(), validRecord.getConsumeTimestamp());
         when(mockParser.parse(consumerRecord.getLogMessage())).thenReturn(dynamicMessage);
 
         recordConverter = new MessageRecordConverter(rowMapper, mockParser,
@@ -32,7 +32,7 @@ public class MessageDeSerializerTest {
     private MessageDeSerializer deSerializer;
 
     private final byte[] logKey = "key".getBytes();
-    private final byte[] logMessage = "msg".getBytes();
+    private final byte[] logMessage = StringValue.of("abc").toByteArray();
     private Message message;
 
     @Mock
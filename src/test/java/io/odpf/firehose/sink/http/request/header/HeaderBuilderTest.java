@@ -92,7 +92,7 @@ public class HeaderBuilderTest {
     public void shouldHaveExtraParameterizedHeaderIfParameterizedHeaderEnabled() {
         String headerConfig = "content-type:json";
         Map<String, Object> mockParamMap = Collections.singletonMap("orderNumber", "RB_1234");
-        when(protoToFieldMapper.getFields(message.getLogMessage())).thenReturn(mockParamMap);
+        when(protoToFieldMapper.getFields(message, false)).thenReturn(mockParamMap);
 
         HeaderBuilder headerBuilder = new HeaderBuilder(headerConfig)
                 .withParameterizedHeader(protoToFieldMapper, HttpSinkParameterSourceType.MESSAGE);
@@ -106,7 +106,7 @@ public class HeaderBuilderTest {
     public void shouldKeepBaseHeadersAndAddExtraHeaderAsItIsProvideInTheConfig() {
         String headerConfig = "content-type:json";
         Map<String, Object> mockParamMap = Collections.singletonMap("X-OrderNumber", "RB_1234");
-        when(protoToFieldMapper.getFields(message.getLogMessage())).thenReturn(mockParamMap);
+        when(protoToFieldMapper.getFields(message, false)).thenReturn(mockParamMap);
 
         HeaderBuilder headerBuilder = new HeaderBuilder(headerConfig)
                 .withParameterizedHeader(protoToFieldMapper, HttpSinkParameterSourceType.MESSAGE);
@@ -124,7 +124,7 @@ public class HeaderBuilderTest {
                 .withParameterizedHeader(protoToFieldMapper, HttpSinkParameterSourceType.KEY);
 
         headerBuilder.build(message);
-        verify(protoToFieldMapper, times(1)).getFields(message.getLogKey());
+        verify(protoToFieldMapper, times(1)).getFields(message, true);
     }
 
     @Test
@@ -134,6 +134,6 @@ public class HeaderBuilderTest {
                 .withParameterizedHeader(protoToFieldMapper, HttpSinkParameterSourceType.MESSAGE);
 
         headerBuilder.build(message);
-        verify(protoToFieldMapper, times(1)).getFields(message.getLogMessage());
+        verify(protoToFieldMapper, times(1)).getFields(message, false);
     }
 }
@@ -8,6 +8,7 @@ import io.odpf.firehose.consumer.TestBookingLogMessage;
 import io.odpf.firehose.consumer.TestKey;
 import io.odpf.firehose.consumer.TestMessage;
 import com.google.protobuf.InvalidProtocolBufferException;
+import io.odpf.firehose.proto.GeneratedProtoParser;
 import io.odpf.stencil.client.ClassLoadStencilClient;
 import io.odpf.stencil.client.StencilClient;
 import io.odpf.stencil.Parser;
@@ -17,7 +18,10 @@ import org.junit.Test;
 import org.mockito.Mock;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.initMocks;
 
@@ -160,4 +164,14 @@ public class UriParserTest {
 
     }
 
+    @Test
+    public void shouldParseTheServiceUrlWithTheGeneratedClassParsedOncePerMessage() throws InvalidProtocolBufferException {
+        GeneratedProtoParser generatedProtoParser = GeneratedProtoParser.find(TestMessage.class.getName());
+        UriParser uriParser = new UriParser(protoParser, generatedProtoParser, "message");
+
+        assertEquals("http://dummyurl.com/test-order", uriParser.parse(message, "http://dummyurl.com/%s,1"));
+
+        assertSame(message.getParsedLogMessage(generatedProtoParser), message.getParsedLogMessage(GeneratedProtoParser.find(TestMessage.class.getName())));
+        verify(protoParser, never()).parse(any());
+    }
 }
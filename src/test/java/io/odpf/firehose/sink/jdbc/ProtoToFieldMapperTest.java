@@ -9,6 +9,7 @@ import io.odpf.firehose.consumer.TestFeedbackLogMessage;
 import io.odpf.firehose.consumer.TestBookingLogMessage;
 import io.odpf.firehose.consumer.TestNestedMessage;
 import io.odpf.firehose.consumer.TestNestedRepeatedMessage;
+import io.odpf.firehose.proto.GeneratedProtoParser;
 import io.odpf.firehose.proto.ProtoToFieldMapper;
 import com.google.protobuf.Timestamp;
 import io.odpf.stencil.StencilClientFactory;
@@ -121,6 +122,22 @@ public class ProtoToFieldMapperTest {
         Assert.assertEquals(fields.get("feedback_comment"), "comment");
     }
 
+    @Test
+    public void shouldGetFieldsWithGeneratedProtoClass() throws Exception {
+        ProtoToFieldMapper protoToFieldMapper = new ProtoToFieldMapper(protoParser, protoToDbMapping, GeneratedProtoParser.find(TestFeedbackLogMessage.class.getName()));
+        Map<String, Object> fields = protoToFieldMapper.getFields(message.toByteArray());
+        Assert.assertEquals(fields, new ProtoToFieldMapper(protoParser, protoToDbMapping).getFields(message.toByteArray()));
+        Assert.assertEquals(fields.get("event_timestamp"), now);
+    }
+
+    @Test
+    public void nestedRepeatedMessageWithGeneratedProtoClassShouldBeJson() throws Exception {
+        ProtoToFieldMapper protoToFieldMapper = new ProtoToFieldMapper(nestedProtoParser, nestedProtoToDbMapping, GeneratedProtoParser.find(TestNestedRepeatedMessage.class.getName()));
+        Map<String, Object> fields = protoToFieldMapper.getFields(nestedMessage.toByteArray());
+
+        Assert.assertEquals(fields, new ProtoToFieldMapper(nestedProtoParser, nestedProtoToDbMapping).getFields(nestedMessage.toByteArray()));
+    }
+
     @Test
     public void shouldContainNanoSecondsInTimestamp() throws IOException {
 
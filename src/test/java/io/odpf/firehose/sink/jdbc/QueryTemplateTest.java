@@ -19,6 +19,7 @@ import java.util.Properties;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyBoolean;
 import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -48,7 +49,7 @@ public class QueryTemplateTest {
         columnToValues.put("order_number", "order_1");
         columnToValues.put("event_timestamp", "ts1");
         columnToValues.put("feedback_rating", 5);
-        when(protoToFieldMapper.getFields(any(byte[].class))).thenReturn(columnToValues);
+        when(protoToFieldMapper.getFields(any(Message.class), anyBoolean())).thenReturn(columnToValues);
         when(jdbcSinkConfig.getSinkJdbcUniqueKeys()).thenReturn(String.join(",", ""));
     }
 
@@ -125,7 +126,7 @@ public class QueryTemplateTest {
         columnToValues.put("feedback_rating", 5);
         columnToValues.put("latitude", 3.05);
         columnToValues.put("longitude", 70.02);
-        when(protoToFieldMapper.getFields(any(byte[].class))).thenReturn(columnToValues);
+        when(protoToFieldMapper.getFields(any(Message.class), anyBoolean())).thenReturn(columnToValues);
 
         addUniqueKeys("order_number, event_timestamp");
         QueryTemplate queryTemplate = new QueryTemplate(jdbcSinkConfig, protoToFieldMapper);
@@ -143,18 +144,16 @@ public class QueryTemplateTest {
     @Test
     public void shouldUseKafkaRecordKey() throws Exception {
         when(jdbcSinkConfig.getKafkaRecordParserMode()).thenReturn("key");
-        when(mockMessage.getLogKey()).thenReturn("key".getBytes());
         QueryTemplate queryTemplate = new QueryTemplate(jdbcSinkConfig, protoToFieldMapper);
         queryTemplate.toQueryString(mockMessage);
-        verify(mockMessage, times(1)).getLogKey();
+        verify(protoToFieldMapper, times(1)).getFields(mockMessage, true);
     }
 
     @Test
     public void shouldUseKafkaRecordMessage() throws Exception {
         when(jdbcSinkConfig.getKafkaRecordParserMode()).thenReturn("message");
-        when(mockMessage.getLogMessage()).thenReturn("message".getBytes());
         QueryTemplate queryTemplate = new QueryTemplate(jdbcSinkConfig, protoToFieldMapper);
         queryTemplate.toQueryString(mockMessage);
-        verify(mockMessage, times(1)).getLogMessage();
+        verify(protoToFieldMapper, times(1)).getFields(mockMessage, false);
     }
 }
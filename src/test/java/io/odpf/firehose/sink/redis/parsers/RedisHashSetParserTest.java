@@ -10,6 +10,7 @@ import io.odpf.firehose.consumer.TestMessage;
 import io.odpf.firehose.consumer.TestBookingLogMessage;
 import io.odpf.firehose.consumer.TestNestedRepeatedMessage;
 import io.odpf.firehose.metrics.StatsDReporter;
+import io.odpf.firehose.proto.GeneratedProtoParser;
 import io.odpf.firehose.proto.ProtoToFieldMapper;
 import io.odpf.firehose.sink.redis.dataentry.RedisHashSetFieldEntry;
 import io.odpf.stencil.client.ClassLoadStencilClient;
@@ -20,6 +21,7 @@ import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
+import org.mockito.Mockito;
 import org.mockito.runners.MockitoJUnitRunner;
 
 import java.util.IllegalFormatConversionException;
@@ -82,6 +84,20 @@ public class RedisHashSetParserTest {
         assertEquals("Test-test-order", redisHashSetFieldEntry.getKey());
     }
 
+    @Test
+    public void shouldParseTheKeyTemplateAndTheFieldsWithTheGeneratedClass() throws Exception {
+        setRedisSinkConfig("message", "Test-%s,1", RedisSinkDataType.HASHSET);
+        Parser stencilParser = Mockito.mock(Parser.class);
+        ProtoToFieldMapper protoToFieldMapper = new ProtoToFieldMapper(stencilParser, getProperties("3", "details"), GeneratedProtoParser.find(TestMessage.class.getName()));
+        RedisParser redisMessageParser = new RedisHashSetParser(protoToFieldMapper, stencilParser, redisSinkConfig, statsDReporter);
+
+        RedisHashSetFieldEntry redisHashSetFieldEntry = (RedisHashSetFieldEntry) redisMessageParser.parse(message).get(0);
+
+        assertEquals("ORDER-DETAILS", redisHashSetFieldEntry.getValue());
+        assertEquals("Test-test-order", redisHashSetFieldEntry.getKey());
+        Mockito.verify(stencilParser, Mockito.never()).parse(Mockito.any());
+    }
+
     @Test
     public void shouldParseStringMessageWithSpacesForCollectionKeyTemplate() {
         setRedisSinkConfig("message", "Test-%s, 1", RedisSinkDataType.HASHSET);
@@ -0,0 +1,61 @@
+package io.odpf.firehose.sinkdecorator;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BatchSizeControllerTest {
+
+    @Test
+    public void shouldStartWithMaxBatchSize() {
+        BatchSizeController controller = new BatchSizeController(10, 500, 1000, 5000);
+
+        Assert.assertEquals(500, controller.getBatchSize());
+    }
+
+    @Test
+    public void shouldHalveBatchSizeWhenResponseTimeBreachesTarget() {
+        BatchSizeController controller = new BatchSizeController(10, 500, 1000, 5000);
+
+        controller.record(500, 1500, 0);
+        Assert.assertEquals(250, controller.getBatchSize());
+
+        controller.record(100, 1500, 0);
+        Assert.assertEquals(50, controller.getBatchSize());
+    }
+
+    @Test
+    public void shouldNotShrinkBelowMinBatchSize() {
+        BatchSizeController controller = new BatchSizeController(10, 40, 1000, 5000);
+
+        controller.record(40, 1500, 0);
+        controller.record(20, 1500, 0);
+        controller.record(10, 1500, 0);
+
+        Assert.assertEquals(10, controller.getBatchSize());
+    }
+
+    @Test
+    public void shouldGrowBatchSizeWhenSinkIsFastAndLagging() {
+        BatchSizeController controller = new BatchSizeController(10, 500, 1000, 5000);
+        controller.record(500, 1500, 0);
+
+        controller.record(250, 100, 6000);
+        Assert.assertEquals(312, controller.getBatchSize());
+
+        controller.record(312, 100, 6000);
+        controller.record(390, 100, 6000);
+        controller.record(487, 100, 6000);
+        Assert.assertEquals(500, controller.getBatchSize());
+    }
+
+    @Test
+    public void shouldKeepBatchSizeWhenNotLaggingOrBatchWasNotFull() {
+        BatchSizeController controller = new BatchSizeController(10, 500, 1000, 5000);
+        controller.record(500, 1500, 0);
+
+        controller.record(250, 100, 100);
+        controller.record(20, 100, 6000);
+
+        Assert.assertEquals(250, controller.getBatchSize());
+    }
+}
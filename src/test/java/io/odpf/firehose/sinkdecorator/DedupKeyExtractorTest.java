@@ -0,0 +1,65 @@
+package io.odpf.firehose.sinkdecorator;
+
+import com.google.protobuf.DynamicMessage;
+import io.odpf.firehose.consumer.TestMessage;
+import io.odpf.firehose.message.Message;
+import io.odpf.firehose.sink.log.KeyOrMessageParser;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+public class DedupKeyExtractorTest {
+    @Mock
+    private KeyOrMessageParser parser;
+    private Message message1;
+    private Message message2;
+
+    @Before
+    public void setUp() throws IOException {
+        MockitoAnnotations.initMocks(this);
+        message1 = new Message(new byte[0], new byte[0], "topic", 0, 1);
+        message2 = new Message(new byte[0], new byte[0], "topic", 0, 2);
+        Mockito.when(parser.parse(message1)).thenReturn(DynamicMessage.newBuilder(
+                TestMessage.newBuilder().setOrderNumber("123").setOrderUrl("abc").build()).build());
+        Mockito.when(parser.parse(message2)).thenReturn(DynamicMessage.newBuilder(
+                TestMessage.newBuilder().setOrderNumber("123").setOrderUrl("def").build()).build());
+    }
+
+    @Test
+    public void shouldUseTopicPartitionAndOffsetWithoutKeyField() {
+        DedupKeyExtractor dedupKeyExtractor = new DedupKeyExtractor(parser, "");
+
+        Assert.assertFalse(Arrays.equals(dedupKeyExtractor.extract(message1), dedupKeyExtractor.extract(message2)));
+        Assert.assertArrayEquals(dedupKeyExtractor.extract(message1),
+                dedupKeyExtractor.extract(new Message(new byte[0], new byte[0], "topic", 0, 1)));
+        Mockito.verifyZeroInteractions(parser);
+    }
+
+    @Test
+    public void shouldUseValueOfKeyField() {
+        DedupKeyExtractor dedupKeyExtractor = new DedupKeyExtractor(parser, "order_number");
+
+        Assert.assertArrayEquals(dedupKeyExtractor.extract(message1), dedupKeyExtractor.extract(message2));
+    }
+
+    @Test
+    public void shouldFallBackToOffsetWhenKeyFieldIsMissing() {
+        DedupKeyExtractor dedupKeyExtractor = new DedupKeyExtractor(parser, "order_id");
+
+        Assert.assertArrayEquals(new DedupKeyExtractor(parser, "").extract(message1), dedupKeyExtractor.extract(message1));
+    }
+
+    @Test
+    public void shouldFallBackToOffsetWhenMessageCanNotBeParsed() throws IOException {
+        Mockito.when(parser.parse(message1)).thenThrow(new IOException("invalid"));
+        DedupKeyExtractor dedupKeyExtractor = new DedupKeyExtractor(parser, "order_number");
+
+        Assert.assertArrayEquals(new DedupKeyExtractor(parser, "").extract(message1), dedupKeyExtractor.extract(message1));
+    }
+}
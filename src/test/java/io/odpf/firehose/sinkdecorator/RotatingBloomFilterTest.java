@@ -0,0 +1,56 @@
+package io.odpf.firehose.sinkdecorator;
+
+import com.google.common.hash.Funnels;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RotatingBloomFilterTest {
+
+    @Test
+    public void shouldRememberAddedItems() {
+        RotatingBloomFilter<Long> filter = new RotatingBloomFilter<>(Funnels.longFunnel(), 100, 0.0001);
+
+        filter.put(1L);
+        filter.put(2L);
+
+        Assert.assertTrue(filter.mightContain(1L));
+        Assert.assertTrue(filter.mightContain(2L));
+        Assert.assertFalse(filter.mightContain(3L));
+    }
+
+    @Test
+    public void shouldRememberItemsOfThePreviousGeneration() {
+        RotatingBloomFilter<Long> filter = new RotatingBloomFilter<>(Funnels.longFunnel(), 10, 0.0001);
+
+        for (long i = 0; i < 15; i++) {
+            filter.put(i);
+        }
+
+        for (long i = 0; i < 15; i++) {
+            Assert.assertTrue(filter.mightContain(i));
+        }
+    }
+
+    @Test
+    public void shouldForgetItemsOlderThanThePreviousGeneration() {
+        RotatingBloomFilter<Long> filter = new RotatingBloomFilter<>(Funnels.longFunnel(), 10, 0.0001);
+
+        for (long i = 0; i < 20; i++) {
+            filter.put(i);
+        }
+
+        for (long i = 0; i < 10; i++) {
+            Assert.assertFalse(filter.mightContain(i));
+        }
+        for (long i = 10; i < 20; i++) {
+            Assert.assertTrue(filter.mightContain(i));
+        }
+    }
+
+    @Test
+    public void shouldSizeGenerationsByMemoryBudget() {
+        RotatingBloomFilter<Long> filter = RotatingBloomFilter.withMemoryBudget(Funnels.longFunnel(), 1024 * 1024, 0.01);
+
+        Assert.assertEquals(437635, filter.getInsertionsPerGeneration(), 1000);
+    }
+}
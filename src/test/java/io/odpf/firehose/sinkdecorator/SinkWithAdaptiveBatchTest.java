@@ -0,0 +1,79 @@
+package io.odpf.firehose.sinkdecorator;
+
+import io.odpf.firehose.message.Message;
+import io.odpf.firehose.metrics.Instrumentation;
+import io.odpf.firehose.metrics.Metrics;
+import io.odpf.firehose.sink.Sink;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class SinkWithAdaptiveBatchTest {
+    @Mock
+    private Sink sink;
+    @Mock
+    private Instrumentation instrumentation;
+    @Mock
+    private BatchSizeController batchSizeController;
+    private List<Message> messages;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        messages = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            messages.add(new Message("".getBytes(), "".getBytes(), "topic", 0, i, null, 1000L, 1000L));
+        }
+    }
+
+    @Test
+    public void shouldPushAllMessagesInOneCallWhenBatchSizeIsLarger() throws IOException {
+        Mockito.when(batchSizeController.getBatchSize()).thenReturn(10);
+        Mockito.when(sink.pushMessage(messages)).thenReturn(new ArrayList<>());
+        SinkWithAdaptiveBatch sinkWithAdaptiveBatch = new SinkWithAdaptiveBatch(sink, batchSizeController, instrumentation);
+
+        List<Message> failedMessages = sinkWithAdaptiveBatch.pushMessage(messages);
+
+        Assert.assertTrue(failedMessages.isEmpty());
+        Mockito.verify(sink, Mockito.times(1)).pushMessage(messages);
+        Mockito.verify(batchSizeController, Mockito.times(1)).record(Mockito.eq(5), Mockito.anyLong(), Mockito.anyLong());
+        Mockito.verify(instrumentation, Mockito.times(1)).captureValue(Metrics.SINK_ADAPTIVE_BATCH_SIZE, 10);
+    }
+
+    @Test
+    public void shouldSliceMessagesByBatchSizeAndCollectFailedMessages() throws IOException {
+        Mockito.when(batchSizeController.getBatchSize()).thenReturn(2);
+        Mockito.when(sink.pushMessage(messages.subList(0, 2))).thenReturn(Collections.singletonList(messages.get(1)));
+        Mockito.when(sink.pushMessage(messages.subList(2, 4))).thenReturn(new ArrayList<>());
+        Mockito.when(sink.pushMessage(messages.subList(4, 5))).thenReturn(Collections.singletonList(messages.get(4)));
+        SinkWithAdaptiveBatch sinkWithAdaptiveBatch = new SinkWithAdaptiveBatch(sink, batchSizeController, instrumentation);
+
+        List<Message> failedMessages = sinkWithAdaptiveBatch.pushMessage(messages);
+
+        Assert.assertEquals(2, failedMessages.size());
+        Assert.assertEquals(messages.get(1), failedMessages.get(0));
+        Assert.assertEquals(messages.get(4), failedMessages.get(1));
+        Mockito.verify(batchSizeController, Mockito.times(2)).record(Mockito.eq(2), Mockito.anyLong(), Mockito.anyLong());
+        Mockito.verify(batchSizeController, Mockito.times(1)).record(Mockito.eq(1), Mockito.anyLong(), Mockito.anyLong());
+    }
+
+    @Test
+    public void shouldRecordEndLatencyOfOldestMessage() throws IOException {
+        Mockito.when(batchSizeController.getBatchSize()).thenReturn(10);
+        Mockito.when(sink.pushMessage(messages)).thenReturn(new ArrayList<>());
+        SinkWithAdaptiveBatch sinkWithAdaptiveBatch = new SinkWithAdaptiveBatch(sink, batchSizeController, instrumentation);
+        long before = System.currentTimeMillis();
+
+        sinkWithAdaptiveBatch.pushMessage(messages);
+
+        Mockito.verify(batchSizeController).record(Mockito.eq(5), Mockito.anyLong(), Mockito.longThat(latency -> latency >= before - 1000L));
+    }
+}
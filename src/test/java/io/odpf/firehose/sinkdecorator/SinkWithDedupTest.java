@@ -0,0 +1,90 @@
+package io.odpf.firehose.sinkdecorator;
+
+import com.google.common.hash.Funnels;
+import io.odpf.firehose.message.Message;
+import io.odpf.firehose.metrics.Instrumentation;
+import io.odpf.firehose.metrics.Metrics;
+import io.odpf.firehose.sink.Sink;
+import io.odpf.firehose.sink.log.KeyOrMessageParser;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class SinkWithDedupTest {
+    @Mock
+    private Sink sink;
+    @Mock
+    private Instrumentation instrumentation;
+    @Mock
+    private KeyOrMessageParser parser;
+    private SinkWithDedup sinkWithDedup;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        RotatingBloomFilter<byte[]> pushedMessages = new RotatingBloomFilter<>(Funnels.byteArrayFunnel(), 1000, 0.0001);
+        sinkWithDedup = new SinkWithDedup(sink, pushedMessages, new DedupKeyExtractor(parser, ""), instrumentation);
+    }
+
+    @Test
+    public void shouldSkipMessagesAlreadyPushed() throws IOException {
+        Message message1 = new Message(new byte[0], new byte[0], "topic", 0, 1);
+        Message message2 = new Message(new byte[0], new byte[0], "topic", 0, 2);
+        Message redeliveredMessage1 = new Message(new byte[0], new byte[0], "topic", 0, 1);
+        Mockito.when(sink.pushMessage(Mockito.anyList())).thenReturn(new ArrayList<>());
+
+        sinkWithDedup.pushMessage(Collections.singletonList(message1));
+        List<Message> failedMessages = sinkWithDedup.pushMessage(Arrays.asList(redeliveredMessage1, message2));
+
+        Assert.assertTrue(failedMessages.isEmpty());
+        Mockito.verify(sink).pushMessage(Collections.singletonList(message1));
+        Mockito.verify(sink).pushMessage(Collections.singletonList(message2));
+        Mockito.verify(instrumentation).captureCount(Metrics.SINK_DEDUP_SKIPPED_TOTAL, 1);
+    }
+
+    @Test
+    public void shouldNotRememberFailedMessages() throws IOException {
+        Message message1 = new Message(new byte[0], new byte[0], "topic", 0, 1);
+        Message message2 = new Message(new byte[0], new byte[0], "topic", 0, 2);
+        List<Message> messages = Arrays.asList(message1, message2);
+        Mockito.when(sink.pushMessage(messages)).thenReturn(Collections.singletonList(message2));
+
+        sinkWithDedup.pushMessage(messages);
+        sinkWithDedup.pushMessage(messages);
+
+        Mockito.verify(sink).pushMessage(Collections.singletonList(message2));
+    }
+
+    @Test
+    public void shouldNotCallSinkWhenAllMessagesWereAlreadyPushed() throws IOException {
+        List<Message> messages = Collections.singletonList(new Message(new byte[0], new byte[0], "topic", 0, 1));
+        Mockito.when(sink.pushMessage(messages)).thenReturn(new ArrayList<>());
+
+        sinkWithDedup.pushMessage(messages);
+        List<Message> failedMessages = sinkWithDedup.pushMessage(messages);
+
+        Assert.assertTrue(failedMessages.isEmpty());
+        Mockito.verify(sink, Mockito.times(1)).pushMessage(Mockito.anyList());
+    }
+
+    @Test
+    public void shouldTellMessagesOfDifferentPartitionsApart() throws IOException {
+        Message message1 = new Message(new byte[0], new byte[0], "topic", 0, 1);
+        Message message2 = new Message(new byte[0], new byte[0], "topic", 1, 1);
+        Mockito.when(sink.pushMessage(Mockito.anyList())).thenReturn(new ArrayList<>());
+
+        sinkWithDedup.pushMessage(Collections.singletonList(message1));
+        sinkWithDedup.pushMessage(Collections.singletonList(message2));
+
+        Mockito.verify(sink).pushMessage(Collections.singletonList(message2));
+    }
+}
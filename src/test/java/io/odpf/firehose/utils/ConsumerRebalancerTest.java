@@ -0,0 +1,92 @@
+package io.odpf.firehose.utils;
+
+import io.odpf.firehose.consumer.kafka.FirehoseKafkaConsumer;
+import io.odpf.firehose.consumer.kafka.OffsetManager;
+import io.odpf.firehose.message.Message;
+import io.odpf.firehose.metrics.Instrumentation;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.Mockito.verify;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ConsumerRebalancerTest {
+    @Mock
+    private Instrumentation instrumentation;
+    @Mock
+    private FirehoseKafkaConsumer firehoseKafkaConsumer;
+    private OffsetManager offsetManager;
+    private ConsumerRebalancer consumerRebalancer;
+
+    @Before
+    public void setUp() {
+        offsetManager = new OffsetManager();
+        consumerRebalancer = new ConsumerRebalancer(instrumentation, firehoseKafkaConsumer, offsetManager);
+    }
+
+    @Test
+    public void shouldCommitOffsetsOfRevokedPartitionsAndRemoveThemFromOffsetManager() {
+        TopicPartition revokedPartition = new TopicPartition("topic1", 1);
+        TopicPartition assignedPartition = new TopicPartition("topic1", 2);
+        offsetManager.addOffsetsAndSetCommittable(Arrays.asList(
+                new Message(new byte[0], new byte[0], "topic1", 1, 10),
+                new Message(new byte[0], new byte[0], "topic1", 2, 20)));
+        List<TopicPartition> revokedPartitions = Collections.singletonList(revokedPartition);
+
+        consumerRebalancer.onPartitionsRevoked(revokedPartitions);
+
+        verify(firehoseKafkaConsumer).onPartitionsRevoked(revokedPartitions,
+                Collections.singletonMap(revokedPartition, new OffsetAndMetadata(11)));
+        Map<TopicPartition, OffsetAndMetadata> committableOffset = offsetManager.getCommittableOffset();
+        Assert.assertEquals(Collections.singletonMap(assignedPartition, new OffsetAndMetadata(21)), committableOffset);
+    }
+
+    @Test
+    public void shouldNotPassOffsetsForRevokedPartitionsWithoutCommittableOffsets() {
+        List<TopicPartition> revokedPartitions = Collections.singletonList(new TopicPartition("topic1", 1));
+
+        consumerRebalancer.onPartitionsRevoked(revokedPartitions);
+
+        verify(firehoseKafkaConsumer).onPartitionsRevoked(revokedPartitions, Collections.emptyMap());
+    }
+
+    @Test
+    public void shouldDrainRevokedPartitionsBeforeComputingTheirCommittableOffsets() {
+        List<TopicPartition> revokedPartitions = Collections.singletonList(new TopicPartition("topic1", 1));
+
+        consumerRebalancer.onPartitionsRevoked(revokedPartitions);
+
+        InOrder inOrder = Mockito.inOrder(firehoseKafkaConsumer);
+        inOrder.verify(firehoseKafkaConsumer).drainPartitions(revokedPartitions);
+        inOrder.verify(firehoseKafkaConsumer).onPartitionsRevoked(revokedPartitions, Collections.emptyMap());
+    }
+
+    @Test
+    public void shouldDropLostPartitionsWithoutCommittingThem() {
+        TopicPartition lostPartition = new TopicPartition("topic1", 1);
+        TopicPartition assignedPartition = new TopicPartition("topic1", 2);
+        offsetManager.addOffsetsAndSetCommittable(Arrays.asList(
+                new Message(new byte[0], new byte[0], "topic1", 1, 10),
+                new Message(new byte[0], new byte[0], "topic1", 2, 20)));
+        List<TopicPartition> lostPartitions = Collections.singletonList(lostPartition);
+
+        consumerRebalancer.onPartitionsLost(lostPartitions);
+
+        verify(firehoseKafkaConsumer).onPartitionsLost(lostPartitions);
+        verify(firehoseKafkaConsumer, Mockito.never()).onPartitionsRevoked(Mockito.any(), Mockito.any());
+        Assert.assertEquals(Collections.singletonMap(assignedPartition, new OffsetAndMetadata(21)), offsetManager.getCommittableOffset());
+    }
+}
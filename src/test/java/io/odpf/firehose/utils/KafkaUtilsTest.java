@@ -0,0 +1,26 @@
+package io.odpf.firehose.utils;
+
+import io.odpf.firehose.config.KafkaConsumerConfig;
+import org.aeonbits.owner.ConfigFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class KafkaUtilsTest {
+
+    @Test
+    public void shouldDeriveTheBackfillGroupIdFromTheGroupIdAndTheTimeRange() {
+        Map<String, String> config = new HashMap<>();
+        config.put("SOURCE_KAFKA_CONSUMER_GROUP_ID", "firehose-group");
+        config.put("SOURCE_KAFKA_BACKFILL_START_TIMESTAMP_MS", "1640995200000");
+        config.put("SOURCE_KAFKA_BACKFILL_END_TIMESTAMP_MS", "1641081600000");
+
+        String backfillGroupId = KafkaUtils.getBackfillGroupId(ConfigFactory.create(KafkaConsumerConfig.class, config));
+
+        Assert.assertEquals("firehose-group-backfill-1640995200000-1641081600000", backfillGroupId);
+        config.put("SOURCE_KAFKA_BACKFILL_END_TIMESTAMP_MS", "1641168000000");
+        Assert.assertNotEquals(backfillGroupId, KafkaUtils.getBackfillGroupId(ConfigFactory.create(KafkaConsumerConfig.class, config)));
+    }
+}
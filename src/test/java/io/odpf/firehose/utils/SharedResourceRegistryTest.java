@@ -0,0 +1,99 @@
+package io.odpf.firehose.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SharedResourceRegistryTest {
+
+    @Test
+    public void shouldCreateResourceOnlyOnce() {
+        SharedResourceRegistry sharedResourceRegistry = new SharedResourceRegistry();
+        AtomicInteger created = new AtomicInteger();
+
+        Object first = sharedResourceRegistry.get("resource", () -> "resource-" + created.incrementAndGet());
+        Object second = sharedResourceRegistry.get("resource", () -> "resource-" + created.incrementAndGet());
+
+        Assert.assertSame(first, second);
+        Assert.assertEquals(1, created.get());
+    }
+
+    @Test
+    public void shouldCreateResourceOnlyOnceAcrossThreads() throws Exception {
+        SharedResourceRegistry sharedResourceRegistry = new SharedResourceRegistry();
+        AtomicInteger created = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        List<Future<Object>> futures = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            futures.add(executorService.submit(() -> {
+                start.await();
+                return sharedResourceRegistry.get("resource", () -> new Object[]{created.incrementAndGet()});
+            }));
+        }
+        start.countDown();
+
+        Object resource = futures.get(0).get();
+        for (Future<Object> future : futures) {
+            Assert.assertSame(resource, future.get());
+        }
+        Assert.assertEquals(1, created.get());
+        executorService.shutdown();
+    }
+
+    @Test
+    public void shouldKeepResourcesOfDifferentKeysApart() {
+        SharedResourceRegistry sharedResourceRegistry = new SharedResourceRegistry();
+
+        String first = sharedResourceRegistry.get("first", () -> "first");
+        String second = sharedResourceRegistry.get("second", () -> "second");
+
+        Assert.assertEquals("first", first);
+        Assert.assertEquals("second", second);
+    }
+
+    @Test
+    public void shouldCloseResourcesInReverseCreationOrder() throws IOException {
+        SharedResourceRegistry sharedResourceRegistry = new SharedResourceRegistry();
+        Closeable first = Mockito.mock(Closeable.class);
+        Closeable second = Mockito.mock(Closeable.class);
+        sharedResourceRegistry.get("first", () -> first);
+        sharedResourceRegistry.get("second", () -> second);
+
+        sharedResourceRegistry.close();
+
+        InOrder inOrder = Mockito.inOrder(first, second);
+        inOrder.verify(second).close();
+        inOrder.verify(first).close();
+    }
+
+    @Test
+    public void shouldCloseAllResourcesEvenIfOneFails() throws IOException {
+        SharedResourceRegistry sharedResourceRegistry = new SharedResourceRegistry();
+        Closeable first = Mockito.mock(Closeable.class);
+        Closeable second = Mockito.mock(Closeable.class);
+        IOException exception = new IOException("failed");
+        Mockito.doThrow(exception).when(second).close();
+        sharedResourceRegistry.get("first", () -> first);
+        sharedResourceRegistry.get("second", () -> second);
+
+        try {
+            sharedResourceRegistry.close();
+            Assert.fail("close should rethrow the exception");
+        } catch (IOException e) {
+            Assert.assertSame(exception, e);
+        }
+        Mockito.verify(first).close();
+    }
+}
@@ -0,0 +1,35 @@
+package io.odpf.firehose.utils;
+
+import io.odpf.stencil.Parser;
+import io.odpf.stencil.client.StencilClient;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+
+public class SharedStencilClientTest {
+
+    @Test
+    public void shouldDelegateToSharedStencilClient() {
+        StencilClient stencilClient = Mockito.mock(StencilClient.class);
+        Parser parser = Mockito.mock(Parser.class);
+        Mockito.when(stencilClient.getParser("TestMessage")).thenReturn(parser);
+        SharedStencilClient sharedStencilClient = new SharedStencilClient(stencilClient);
+
+        Assert.assertSame(parser, sharedStencilClient.getParser("TestMessage"));
+        sharedStencilClient.refresh();
+
+        Mockito.verify(stencilClient).refresh();
+    }
+
+    @Test
+    public void shouldNotCloseSharedStencilClient() throws IOException {
+        StencilClient stencilClient = Mockito.mock(StencilClient.class);
+        SharedStencilClient sharedStencilClient = new SharedStencilClient(stencilClient);
+
+        sharedStencilClient.close();
+
+        Mockito.verify(stencilClient, Mockito.never()).close();
+    }
+}